@@ -0,0 +1,122 @@
+package com.maimas.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Runs the benchmarks with the GC profiler (for {@code gc.alloc.rate.norm}) and stores the JMH results as JSON.
+ * With {@code --baseline <file>} the results are compared to a previous run and the exit code is 1 when a benchmark
+ * allocates more than {@code --threshold} percent (default 10) more per operation. Throughput is not compared: it
+ * depends on the machine and its load, while {@code gc.alloc.rate.norm} does not.
+ * Any other argument is passed to JMH, e.g. {@code -p schema=100} or a benchmark name pattern; without a pattern
+ * all benchmarks run.
+ */
+public class BenchmarkRunner {
+    static final String ALLOC_RATE_NORM = "gc.alloc.rate.norm";
+
+    public static void main(String[] args) throws Exception {
+        Path result = Paths.get("target", "benchmark-results.json");
+        Path baseline = null;
+        double threshold = 10;
+        List<String> jmhArgs = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--result":
+                    result = Paths.get(value(args, ++i));
+                    break;
+                case "--baseline":
+                    baseline = Paths.get(value(args, ++i));
+                    break;
+                case "--threshold":
+                    threshold = Double.parseDouble(value(args, ++i));
+                    break;
+                default:
+                    jmhArgs.add(args[i]);
+            }
+        }
+
+        Files.createDirectories(result.toAbsolutePath().getParent());
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(jmhArgs.toArray(new String[0])))
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(result.toString())
+                .build();
+        new Runner(options).run();
+        System.out.println("Results written to " + result);
+
+        if (baseline != null) {
+            List<String> regressions = compare(baseline, result, threshold);
+            regressions.forEach(r -> System.out.println("REGRESSION " + r));
+            if (!regressions.isEmpty()) {
+                System.exit(1);
+            }
+            System.out.println("No regression against " + baseline + " (threshold " + threshold + "%)");
+        }
+    }
+
+    /**
+     * Compares the {@code gc.alloc.rate.norm} of two JMH JSON result files. Benchmarks missing from either file are
+     * ignored.
+     *
+     * @param baseline the reference results
+     * @param current the new results
+     * @param threshold tolerated change, in percent
+     * @return one line per regressed metric
+     */
+    public static List<String> compare(Path baseline, Path current, double threshold) throws IOException {
+        Map<String, JsonNode> reference = load(baseline);
+        List<String> regressions = new ArrayList<>();
+        load(current).forEach((key, run) -> {
+            JsonNode ref = reference.get(key);
+            if (ref == null) {
+                return;
+            }
+            JsonNode refAlloc = ref.path("secondaryMetrics").path(ALLOC_RATE_NORM).path("score");
+            JsonNode alloc = run.path("secondaryMetrics").path(ALLOC_RATE_NORM).path("score");
+            if (refAlloc.isNumber() && alloc.isNumber() && refAlloc.asDouble() > 0
+                    && alloc.asDouble() > refAlloc.asDouble() * (1 + threshold / 100)) {
+                regressions.add(String.format(Locale.ROOT, "%s: %s %.0f -> %.0f B/op (%+.1f%%)", key, ALLOC_RATE_NORM,
+                        refAlloc.asDouble(), alloc.asDouble(), change(refAlloc.asDouble(), alloc.asDouble())));
+            }
+        });
+        return regressions;
+    }
+
+    private static Map<String, JsonNode> load(Path file) throws IOException {
+        Map<String, JsonNode> runs = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(file.toFile())) {
+            StringBuilder key = new StringBuilder(run.path("benchmark").asText());
+            run.path("params").fields().forEachRemaining(p -> key.append(' ').append(p.getKey()).append('=').append(p.getValue().asText()));
+            runs.put(key.toString(), run);
+        }
+        return runs;
+    }
+
+    private static double change(double from, double to) {
+        return (to - from) / from * 100;
+    }
+
+    private static String value(String[] args, int i) {
+        if (i >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + args[i - 1]);
+        }
+        return args[i];
+    }
+}
@@ -0,0 +1,103 @@
+package com.maimas.benchmarks;
+
+import com.maimas.graphql.generator.UserConfig;
+import com.maimas.graphql.schema.model.SchemaModel;
+import com.maimas.graphql.schema.processor.CodeValidator;
+import com.maimas.graphql.schema.processor.SchemaFetcher;
+import com.maimas.graphql.schema.processor.TemplateProcessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * The generator pipeline, phase by phase: parsing the introspection JSON into a {@link SchemaModel}, rendering
+ * {@code java/Java_GQL_schema_template.ftl} and validating the generated code.
+ * {@code remote} is the schema used by the integration tests, the numbers are synthetic schemas of that many types.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GeneratorBenchmark {
+    static final String REMOTE = "remote";
+
+    @Param({REMOTE, "100", "1000", "10000"})
+    public String schema;
+
+    private Path schemaFile;
+    private SchemaModel model;
+    private TemplateProcessor processor;
+    private String code;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        // The pipeline logs per run at INFO, keep it out of the measurements
+        Logger.getLogger("com.maimas").setLevel(java.util.logging.Level.WARNING);
+
+        schemaFile = Files.createTempFile("benchmark-schema-", ".json");
+        if (REMOTE.equals(schema)) {
+            try (InputStream in = GeneratorBenchmark.class.getResourceAsStream("/RemoteServiceGraphlqSchema.json")) {
+                if (in == null) {
+                    throw new IllegalStateException("RemoteServiceGraphlqSchema.json not found on the classpath");
+                }
+                Files.copy(in, schemaFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } else {
+            new SyntheticSchemaGenerator(Integer.parseInt(schema)).write(schemaFile);
+        }
+        model = SchemaFetcher.read(schemaFile).getModel();
+
+        UserConfig cfg = new UserConfig();
+        cfg.setResultClassName("BenchmarkGraphqlAPI");
+        cfg.setResultClassPackage("com.maimas.benchmarks.generated");
+        processor = new TemplateProcessor(cfg);
+        StringWriter out = new StringWriter();
+        processor.render(model, out);
+        code = out.toString();
+        if (!CodeValidator.validate(code)) {
+            throw new IllegalStateException("Generated code for schema '" + schema + "' does not pass validation");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(schemaFile);
+    }
+
+    @Benchmark
+    public SchemaModel parse() throws Exception {
+        return SchemaFetcher.read(schemaFile).getModel();
+    }
+
+    @Benchmark
+    public void render() throws Exception {
+        Writer out = Writer.nullWriter();
+        processor.render(model, out);
+    }
+
+    @Benchmark
+    public boolean validate() {
+        return CodeValidator.validate(code);
+    }
+}
@@ -0,0 +1,197 @@
+package com.maimas.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maimas.graphql.schema.model.Arg;
+import com.maimas.graphql.schema.model.Data;
+import com.maimas.graphql.schema.model.EnumValue;
+import com.maimas.graphql.schema.model.Field;
+import com.maimas.graphql.schema.model.FieldType;
+import com.maimas.graphql.schema.model.MutationType;
+import com.maimas.graphql.schema.model.QueryType;
+import com.maimas.graphql.schema.model.Schema;
+import com.maimas.graphql.schema.model.SchemaModel;
+import com.maimas.graphql.schema.model.Type;
+import com.maimas.graphql.schema.model.enums.KindType;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Builds introspection schemas of a given size. The output only depends on the type count, so that benchmark runs
+ * on different machines or revisions measure the same schema.
+ * Roughly 10% of the types are enums, 20% input objects and the rest objects referencing each other, with a Query
+ * field per object and a Mutation field per input.
+ */
+public class SyntheticSchemaGenerator {
+    private static final String[] SCALARS = {"String", "Int", "Float", "Boolean", "ID"};
+    private static final int FIELDS_PER_TYPE = 8;
+    private static final long SEED = 0x6a09e667L;
+
+    private final int typeCount;
+    private final Random random = new Random(SEED);
+
+    public SyntheticSchemaGenerator(int typeCount) {
+        if (typeCount < 10) {
+            throw new IllegalArgumentException("At least 10 types are required, got " + typeCount);
+        }
+        this.typeCount = typeCount;
+    }
+
+    /**
+     * @return the schema, as returned by the introspection query
+     */
+    public SchemaModel generate() {
+        int enums = typeCount / 10;
+        int inputs = typeCount / 5;
+        int objects = typeCount - enums - inputs;
+
+        List<Type> types = new ArrayList<>();
+        for (String scalar : SCALARS) {
+            types.add(type(KindType.SCALAR, scalar));
+        }
+        for (int i = 0; i < enums; i++) {
+            Type type = type(KindType.ENUM, "Enum" + i);
+            List<EnumValue> values = new ArrayList<>();
+            for (int v = 0; v < 4; v++) {
+                EnumValue value = new EnumValue();
+                value.setName("VALUE_" + v);
+                values.add(value);
+            }
+            type.setEnumValues(values);
+            types.add(type);
+        }
+        for (int i = 0; i < inputs; i++) {
+            Type type = type(KindType.INPUT_OBJECT, "Input" + i);
+            List<Field> fields = new ArrayList<>();
+            for (int f = 0; f < FIELDS_PER_TYPE; f++) {
+                fields.add(field("field" + f, f == 0 ? nonNull(named("SCALAR", "ID")) : inputFieldType(i, enums)));
+            }
+            type.setInputFields(fields);
+            types.add(type);
+        }
+        for (int i = 0; i < objects; i++) {
+            Type type = type(KindType.OBJECT, "Object" + i);
+            List<Field> fields = new ArrayList<>();
+            fields.add(field("id", nonNull(named("SCALAR", "ID"))));
+            for (int f = 1; f < FIELDS_PER_TYPE; f++) {
+                fields.add(field("field" + f, objectFieldType(objects, enums)));
+            }
+            type.setFields(fields);
+            types.add(type);
+        }
+
+        Type query = type(KindType.OBJECT, "Query");
+        List<Field> queries = new ArrayList<>();
+        for (int i = 0; i < objects; i++) {
+            Field field = field("object" + i, named("OBJECT", "Object" + i));
+            field.setArgs(List.of(arg("id", nonNull(named("SCALAR", "ID")))));
+            queries.add(field);
+        }
+        query.setFields(queries);
+        types.add(query);
+
+        Type mutation = type(KindType.OBJECT, "Mutation");
+        List<Field> mutations = new ArrayList<>();
+        for (int i = 0; i < inputs; i++) {
+            Field field = field("save" + i, named("OBJECT", "Object" + (i % objects)));
+            field.setArgs(List.of(arg("input", nonNull(named("INPUT_OBJECT", "Input" + i)))));
+            mutations.add(field);
+        }
+        mutation.setFields(mutations);
+        types.add(mutation);
+
+        Schema schema = new Schema();
+        QueryType queryType = new QueryType();
+        queryType.setName("Query");
+        schema.setQueryType(queryType);
+        MutationType mutationType = new MutationType();
+        mutationType.setName("Mutation");
+        schema.setMutationType(mutationType);
+        schema.setTypes(types);
+        Data data = new Data();
+        data.setSchema(schema);
+        SchemaModel model = new SchemaModel();
+        model.setData(data);
+        return model;
+    }
+
+    /**
+     * Writes the schema as introspection JSON.
+     *
+     * @param file target file
+     */
+    public void write(Path file) throws IOException {
+        new ObjectMapper().writeValue(file.toFile(), generate());
+    }
+
+    private FieldType objectFieldType(int objects, int enums) {
+        int pick = random.nextInt(10);
+        if (pick < 5) {
+            return named("SCALAR", SCALARS[random.nextInt(SCALARS.length)]);
+        }
+        if (pick < 7 && enums > 0) {
+            return named("ENUM", "Enum" + random.nextInt(enums));
+        }
+        FieldType object = named("OBJECT", "Object" + random.nextInt(objects));
+        return pick < 9 ? object : list(nonNull(object));
+    }
+
+    private FieldType inputFieldType(int input, int enums) {
+        int pick = random.nextInt(10);
+        if (pick < 6) {
+            return named("SCALAR", SCALARS[random.nextInt(SCALARS.length)]);
+        }
+        if (pick < 8 && enums > 0) {
+            return named("ENUM", "Enum" + random.nextInt(enums));
+        }
+        // Only reference earlier inputs, input objects must not form cycles
+        return input > 0 ? list(named("INPUT_OBJECT", "Input" + random.nextInt(input))) : named("SCALAR", "String");
+    }
+
+    private static Type type(KindType kind, String name) {
+        Type type = new Type();
+        type.setKind(kind);
+        type.setName(name);
+        type.setInterfaces(kind == KindType.OBJECT ? new ArrayList<>() : null);
+        return type;
+    }
+
+    private static Field field(String name, FieldType type) {
+        Field field = new Field();
+        field.setName(name);
+        field.setType(type);
+        field.setArgs(new ArrayList<>());
+        return field;
+    }
+
+    private static Arg arg(String name, FieldType type) {
+        Arg arg = new Arg();
+        arg.setName(name);
+        arg.setType(type);
+        return arg;
+    }
+
+    private static FieldType named(String kind, String name) {
+        FieldType type = new FieldType();
+        type.setKind(kind);
+        type.setName(name);
+        return type;
+    }
+
+    private static FieldType nonNull(FieldType ofType) {
+        FieldType type = new FieldType();
+        type.setKind("NON_NULL");
+        type.setOfType(ofType);
+        return type;
+    }
+
+    private static FieldType list(FieldType ofType) {
+        FieldType type = new FieldType();
+        type.setKind("LIST");
+        type.setOfType(ofType);
+        return type;
+    }
+}
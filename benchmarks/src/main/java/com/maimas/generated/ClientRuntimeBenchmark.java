@@ -0,0 +1,196 @@
+package com.maimas.generated;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.maimas.generated.GeneratedGraphqlAPI.Argument;
+import com.maimas.generated.GeneratedGraphqlAPI.Arguments;
+import com.maimas.generated.GeneratedGraphqlAPI.FragmentField;
+import com.maimas.generated.GeneratedGraphqlAPI.GQLFunction;
+import com.maimas.generated.GeneratedGraphqlAPI.GQLFunctionType;
+import com.maimas.generated.GeneratedGraphqlAPI.GQLQuery;
+import com.maimas.generated.GeneratedGraphqlAPI.ResultFragment;
+import com.maimas.generated.GeneratedGraphqlAPI.Types;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The client runtime generated from {@code Java_GraphQL_Builders.txt}, measured on the {@link GeneratedGraphqlAPI}
+ * test fixture: building a query, serializing it with {@link GQLQuery#toString()}, {@link GQLQuery#toBytes()} and
+ * {@link Arguments#toVariables()}, and decoding a response with the generated codecs and with Jackson data binding.
+ * Lives in the fixture's package, as generated fragment code does, to build fragments of any depth.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClientRuntimeBenchmark {
+
+    /**
+     * A query of a given fragment depth and argument count, prebuilt for the serialization benchmarks.
+     */
+    @State(Scope.Benchmark)
+    public static class Shape {
+        @Param({"1", "3", "6"})
+        public int depth;
+
+        @Param({"1", "4", "16"})
+        public int argumentCount;
+
+        GQLQuery query;
+        Arguments arguments;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            query = build(depth, argumentCount);
+            arguments = arguments(argumentCount);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Prepared {
+        GeneratedGraphqlAPI.PreparedQuery<GeneratedGraphqlAPI.Query.FindByIdArgs, GeneratedGraphqlAPI.Types.User> findById =
+                new GeneratedGraphqlAPI.Query().prepareFindById(
+                        args -> args.id("0"), user -> user.id().email().firstName().lastName().status());
+    }
+
+    /**
+     * A response listing the given number of users.
+     */
+    @State(Scope.Benchmark)
+    public static class Response {
+        private static final TypeReference<List<Types.User>> USERS = new TypeReference<List<Types.User>>() {};
+
+        @Param({"1", "100"})
+        public int users;
+
+        byte[] body;
+        ObjectReader databind;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            StringBuilder json = new StringBuilder("{\"data\":{\"findUsers\":[");
+            for (int i = 0; i < users; i++) {
+                json.append(i == 0 ? "" : ",").append("{\"id\":\"").append(i).append("\",\"email\":\"user").append(i)
+                        .append("@example.com\",\"enabled\":true,\"firstName\":\"First\",\"lastName\":\"Last\",")
+                        .append("\"gender\":\"Female\",\"status\":\"Active\",\"createdDate\":1700000000000}");
+            }
+            body = json.append("]}}").toString().getBytes(StandardCharsets.UTF_8);
+            databind = new ObjectMapper().readerFor(USERS).at("/data/findUsers");
+        }
+    }
+
+    /**
+     * The fixture's generated API, the way client code builds a query.
+     */
+    @Benchmark
+    public String findById() {
+        return new GeneratedGraphqlAPI.Query()
+                .findById(args -> args.id("42"), user -> user.id().email().firstName().lastName().status())
+                .toString();
+    }
+
+    /**
+     * {@link #findById()} through a {@link GeneratedGraphqlAPI.PreparedQuery}, sent with {@link GQLQuery#toBytes()}.
+     */
+    @Benchmark
+    public byte[] preparedFindById(Prepared prepared) {
+        return prepared.findById.bind(args -> args.id("42")).toBytes();
+    }
+
+    @Benchmark
+    public List<Types.User> decodeWithCodecs(Response response) throws IOException {
+        return GeneratedGraphqlAPI.Codecs.REGISTRY.readData(response.body, "findUsers", Response.USERS);
+    }
+
+    @Benchmark
+    public List<Types.User> decodeWithDatabind(Response response) throws IOException {
+        return response.databind.readValue(response.body);
+    }
+
+    @Benchmark
+    public GQLQuery build(Shape shape) {
+        return build(shape.depth, shape.argumentCount);
+    }
+
+    @Benchmark
+    public String queryToString(Shape shape) {
+        return shape.query.toString();
+    }
+
+    @Benchmark
+    public byte[] toBytes(Shape shape) {
+        return shape.query.toBytes();
+    }
+
+    @Benchmark
+    public HashMap<String, Object> toVariables(Shape shape) {
+        return shape.arguments.toVariables();
+    }
+
+    static GQLQuery build(int depth, int argumentCount) {
+        ResultFragment fragment = new ResultFragment();
+        fragment.add(FragmentField.of("id"));
+        fragment.add(FragmentField.of("email"));
+        fragment.add(FragmentField.of("status"));
+        if (depth > 1) {
+            fragment.add(nested("manager", depth - 1));
+        }
+        GQLFunction function = new GQLFunction(GQLFunctionType.Query, "findUsers")
+                .arguments(arguments(argumentCount))
+                .resultFragment(fragment);
+        return GQLQuery.from(function);
+    }
+
+    /**
+     * A nested selection, {@code name { id firstName lastName manager { ... } }}, of the given depth.
+     */
+    private static FragmentField nested(String name, int depth) {
+        if (depth == 1) {
+            return FragmentField.of(name, FragmentField.of("id"), FragmentField.of("firstName"), FragmentField.of("lastName"));
+        }
+        return FragmentField.of(name, FragmentField.of("id"), FragmentField.of("firstName"), FragmentField.of("lastName"),
+                nested("manager", depth - 1));
+    }
+
+    /**
+     * Arguments of mixed kinds: required strings, integers, optional and absent values.
+     */
+    static Arguments arguments(int count) {
+        Arguments arguments = new Arguments();
+        for (int i = 0; i < count; i++) {
+            switch (i % 4) {
+                case 0:
+                    arguments.add(Argument.of("name" + i, "value" + i));
+                    break;
+                case 1:
+                    arguments.add(Argument.of("limit" + i, i));
+                    break;
+                case 2:
+                    arguments.add(Argument.of("enabled" + i, Optional.of(Boolean.TRUE)));
+                    break;
+                default:
+                    arguments.add(Argument.of("after" + i, Optional.empty()));
+            }
+        }
+        return arguments;
+    }
+}
@@ -0,0 +1,112 @@
+package com.maimas.generated;
+
+import com.maimas.generated.GeneratedGraphqlAPI.Argument;
+import com.maimas.generated.GeneratedGraphqlAPI.Arguments;
+import com.maimas.generated.GeneratedGraphqlAPI.FragmentField;
+import com.maimas.generated.GeneratedGraphqlAPI.GQLFunction;
+import com.maimas.generated.GeneratedGraphqlAPI.GQLFunctionType;
+import com.maimas.generated.GeneratedGraphqlAPI.GQLQuery;
+import com.maimas.generated.GeneratedGraphqlAPI.ResultFragment;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Allocation budgets of the generated client runtime's hot paths, in bytes per operation, checked when the benchmarks
+ * module is built. The budgets leave about 2x headroom over the figures of {@link ClientRuntimeBenchmark}; raise them
+ * only together with a reason. They are not part of the plugin's test run: allocations depend on the JVM and its flags.
+ */
+public class RuntimeAllocationBudgetTest {
+    private static final int WARMUP = 20_000;
+    private static final int MEASURED = 5_000;
+
+    @Test
+    void find_by_id_query_stays_within_budget() {
+        assertBudget("findById + toString", 7_000, () -> new GeneratedGraphqlAPI.Query()
+                .findById(args -> args.id("42"), user -> user.id().email().firstName().lastName().status())
+                .toString());
+    }
+
+    @Test
+    void binding_a_prepared_query_stays_within_budget() {
+        GeneratedGraphqlAPI.PreparedQuery<GeneratedGraphqlAPI.Query.FindByIdArgs, GeneratedGraphqlAPI.Types.User> prepared =
+                new GeneratedGraphqlAPI.Query().prepareFindById(
+                        args -> args.id("0"), user -> user.id().email().firstName().lastName().status());
+        assertBudget("prepared findById + toBytes", 3_200, () -> prepared.bind(args -> args.id("42")).toBytes());
+    }
+
+    @Test
+    void building_a_nested_query_stays_within_budget() {
+        assertBudget("build depth 3, 4 arguments", 5_000, () -> query(3, 4));
+    }
+
+    @Test
+    void query_to_string_stays_within_budget() {
+        GQLQuery query = query(3, 4);
+        assertBudget("toString depth 3, 4 arguments", 6_000, query::toString);
+    }
+
+    @Test
+    void query_to_bytes_stays_within_budget() {
+        GQLQuery query = query(3, 4);
+        assertBudget("toBytes depth 3, 4 arguments", 5_000, query::toBytes);
+    }
+
+    @Test
+    void to_variables_stays_within_budget() {
+        Arguments arguments = arguments(16);
+        assertBudget("toVariables 16 arguments", 1_600, arguments::toVariables);
+    }
+
+    private static void assertBudget(String operation, long budgetBytes, Supplier<Object> op) {
+        com.sun.management.ThreadMXBean threads = threads();
+        Object sink = null;
+        for (int i = 0; i < WARMUP; i++) {
+            sink = op.get();
+        }
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < MEASURED; i++) {
+            sink = op.get();
+        }
+        long perOp = (threads.getCurrentThreadAllocatedBytes() - before) / MEASURED;
+        Assertions.assertNotNull(sink);
+        Assertions.assertTrue(perOp <= budgetBytes, operation + " allocates " + perOp + " bytes/op, budget is " + budgetBytes);
+    }
+
+    private static com.sun.management.ThreadMXBean threads() {
+        Assumptions.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean,
+                "Per-thread allocation counter not available");
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assumptions.assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled(),
+                "Per-thread allocation counter not available");
+        return threads;
+    }
+
+    private static GQLQuery query(int depth, int argumentCount) {
+        ResultFragment fragment = new ResultFragment();
+        fragment.add(FragmentField.of("id"));
+        fragment.add(FragmentField.of("email"));
+        FragmentField nested = FragmentField.of("manager", FragmentField.of("id"), FragmentField.of("firstName"));
+        for (int level = 2; level < depth; level++) {
+            nested = FragmentField.of("manager", FragmentField.of("id"), FragmentField.of("firstName"), nested);
+        }
+        if (depth > 1) {
+            fragment.add(nested);
+        }
+        return GQLQuery.from(new GQLFunction(GQLFunctionType.Query, "findUsers")
+                .arguments(arguments(argumentCount))
+                .resultFragment(fragment));
+    }
+
+    private static Arguments arguments(int count) {
+        Arguments arguments = new Arguments();
+        for (int i = 0; i < count; i++) {
+            arguments.add(Argument.of("arg" + i, i % 2 == 0 ? "value" + i : Optional.of(i)));
+        }
+        return arguments;
+    }
+}
@@ -1,20 +1,45 @@
 package com.maimas.graphql.generator;
 
+import com.maimas.graphql.schema.processor.GenerationReport;
 import com.maimas.graphql.schema.processor.TemplateProcessor;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.logging.Formatter;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+import java.util.logging.SimpleFormatter;
 
 /**
  * Generates complete GraphQL API schema with all the supported queries and mutations.
  */
-@Mojo(name = "generate", defaultPhase = LifecyclePhase.NONE)
+@Mojo(name = "generate", defaultPhase = LifecyclePhase.NONE, threadSafe = true)
 public class GQLCodeGeneratorMojo extends AbstractMojo {
 
     /**
@@ -23,34 +48,384 @@ public class GQLCodeGeneratorMojo extends AbstractMojo {
     @Parameter(property = "servers")
     List<UserConfig> servers = new ArrayList<>();
 
+    /**
+     * Maximum number of servers generated concurrently. 1 (default) keeps the sequential behaviour.
+     */
+    @Parameter(property = "parallelism", defaultValue = "1")
+    int parallelism = 1;
+
+    /**
+     * Run the generation tasks on virtual threads when the running JVM supports them (Java 21+).
+     * Falls back to platform threads otherwise.
+     */
+    @Parameter(property = "useVirtualThreads", defaultValue = "false")
+    boolean useVirtualThreads;
+
+    /**
+     * When true (default) the first failing server aborts the remaining ones.
+     * When false all servers are attempted and the failures are reported together.
+     */
+    @Parameter(property = "failFast", defaultValue = "true")
+    boolean failFast = true;
+
+    /**
+     * Cache directory of the servers that do not set {@code cacheDir}: under the build directory of the module,
+     * so that each module of a reactor build keeps its own fingerprints, schema cache, reports and manifests.
+     */
+    @Parameter(defaultValue = "${project.build.directory}/graphql-codegen", readonly = true)
+    File defaultCacheDir;
+
+    /**
+     * Reports of the servers generated by the current execution, in completion order.
+     */
+    private final List<GenerationReport> reports = Collections.synchronizedList(new ArrayList<>());
+
 
     public void execute() throws MojoExecutionException, MojoFailureException {
         if (servers == null || servers.isEmpty()) {
             throw new MojoFailureException("No servers configured. Please provide at least one <servers> entry in the plugin configuration.");
         }
-        getLog().info("Starting to generate GraphQL API(s) for '" + servers.size() + "' servers...");
+        int threads = Math.max(1, Math.min(parallelism, servers.size()));
+        getLog().info("Starting to generate GraphQL API(s) for '" + servers.size() + "' servers"
+                + (threads > 1 ? " using " + threads + " parallel workers" : "") + "...");
+
+        if (defaultCacheDir != null) {
+            for (UserConfig server : servers) {
+                if (!server.hasCacheDir()) {
+                    server.setCacheDir(defaultCacheDir.getPath());
+                }
+            }
+        }
+        reports.clear();
+        List<Exception> failures = threads > 1 ? generateInParallel(threads) : generateSequentially();
+        reportSummary();
+        if (!failures.isEmpty()) {
+            throwAggregated(failures);
+        }
+        getLog().info("GraphQL API(s) generation completed.");
+    }
+
+    /**
+     * Logs the generation report summed over all servers and writes it next to the per server reports.
+     */
+    private void reportSummary() {
+        if (reports.size() < 2) {
+            return;
+        }
+        GenerationReport total;
+        synchronized (reports) {
+            total = GenerationReport.aggregate(reports.size() + " servers", new ArrayList<>(reports));
+        }
+        getLog().info(total.summary());
+        Path file = Paths.get(servers.get(0).getCacheDir(), "reports", "summary.json");
+        try {
+            total.write(file);
+        } catch (IOException e) {
+            getLog().warn("Failed to write generation summary " + file + ": " + e.getMessage());
+        }
+    }
+
+    private List<Exception> generateSequentially() {
+        List<Exception> failures = new ArrayList<>();
         for (int i = 0; i < servers.size(); i++) {
-            UserConfig server = servers.get(i);
+            ServerTask task = new ServerTask(i, servers.get(i), null, getLog(), reports).call();
+            if (task.failure != null) {
+                failures.add(task.failure);
+                if (failFast) {
+                    break;
+                }
+            }
+        }
+        return failures;
+    }
+
+    private List<Exception> generateInParallel(int threads) throws MojoExecutionException {
+        List<Exception> failures = new ArrayList<>();
+        ExecutorService executor = newExecutor(threads);
+        TaskLogRouter router = TaskLogRouter.INSTANCE;
+        router.install();
+        try {
+            CompletionService<ServerTask> completion = new ExecutorCompletionService<>(executor);
+            List<Future<ServerTask>> futures = new ArrayList<>();
+            for (int i = 0; i < servers.size(); i++) {
+                futures.add(completion.submit(new ServerTask(i, servers.get(i), router, getLog(), reports)));
+            }
+            for (int done = 0; done < futures.size(); done++) {
+                ServerTask task;
+                try {
+                    task = completion.take().get();
+                } catch (CancellationException e) {
+                    continue;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    futures.forEach(f -> f.cancel(true));
+                    throw new MojoExecutionException("Interrupted while generating GraphQL API(s)", e);
+                } catch (ExecutionException e) {
+                    // ServerTask captures its own failures, this only happens on unexpected errors (e.g. OOM).
+                    throw new MojoExecutionException("Unexpected failure while generating GraphQL API(s): " + e.getCause(), e.getCause());
+                }
+                task.flush();
+                if (task.failure != null) {
+                    failures.add(task.failure);
+                    if (failFast) {
+                        futures.forEach(f -> f.cancel(true));
+                        flushCompleted(futures);
+                        break;
+                    }
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+            router.uninstall();
+        }
+        return failures;
+    }
+
+    /**
+     * Flushes the logs of the tasks that completed but were not taken from the completion queue yet.
+     * The logs of the tasks already flushed are empty.
+     */
+    private static void flushCompleted(List<Future<ServerTask>> futures) {
+        for (Future<ServerTask> future : futures) {
+            if (future.isDone() && !future.isCancelled()) {
+                try {
+                    future.get().flush();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (ExecutionException e) {
+                    // Reported by the caller when it matters, there are no logs to flush
+                }
+            }
+        }
+    }
+
+    /**
+     * Reports the failures to Maven. A single failure is rethrown as is, several failures are merged into one
+     * report; it is a {@link MojoFailureException} only when every server failed because of its configuration.
+     */
+    private void throwAggregated(List<Exception> failures) throws MojoExecutionException, MojoFailureException {
+        if (failures.size() == 1) {
+            rethrow(failures.get(0));
+        }
+        StringBuilder report = new StringBuilder("GraphQL API generation failed for ")
+                .append(failures.size()).append(" of ").append(servers.size()).append(" server(s):");
+        boolean configurationOnly = true;
+        for (Exception failure : failures) {
+            report.append("\n - ").append(failure.getMessage());
+            configurationOnly &= failure instanceof MojoFailureException;
+        }
+        Exception aggregated = configurationOnly
+                ? new MojoFailureException(report.toString(), failures.get(0))
+                : new MojoExecutionException(report.toString(), failures.get(0));
+        failures.stream().skip(1).forEach(aggregated::addSuppressed);
+        rethrow(aggregated);
+    }
+
+    private static void rethrow(Exception e) throws MojoExecutionException, MojoFailureException {
+        if (e instanceof MojoFailureException) {
+            throw (MojoFailureException) e;
+        }
+        throw (MojoExecutionException) e;
+    }
+
+    private ExecutorService newExecutor(int threads) {
+        if (useVirtualThreads) {
+            ThreadFactory virtual = virtualThreadFactory();
+            if (virtual != null) {
+                return Executors.newFixedThreadPool(threads, virtual);
+            }
+            getLog().warn("Virtual threads requested but not supported by the running JVM (Java 21+ required); using platform threads.");
+        }
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "graphql-codegen-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Resolves {@code Thread.ofVirtual().name(...).factory()} reflectively, the plugin is compiled for Java 17.
+     */
+    private static ThreadFactory virtualThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> ofVirtual = Class.forName("java.lang.Thread$Builder$OfVirtual");
+            builder = ofVirtual.getMethod("name", String.class, long.class).invoke(builder, "graphql-codegen-", 1L);
+            return (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Routes the JUL records of the generator classes (TemplateProcessor, SchemaFetcher, SchemaCache, ...) logged on
+     * the thread of a {@link ServerTask} into the buffer of that task, so that they are flushed with the task's own
+     * lines. Records logged on other threads go to the parent handlers, as without the router.
+     * The logger is shared by the whole JVM, so the executions of parallel builds ({@code mvn -T}) share one router:
+     * it is added to the logger by the first install and removed, with the parent handlers restored, by the last
+     * uninstall.
+     */
+    private static final class TaskLogRouter extends Handler {
+        static final TaskLogRouter INSTANCE = new TaskLogRouter();
+        private final Logger logger = Logger.getLogger("com.maimas.graphql");
+        private final ThreadLocal<ServerTask> tasks = new ThreadLocal<>();
+        private int installs;
+        private volatile boolean useParentHandlers;
+
+        private TaskLogRouter() {
+        }
+
+        synchronized void install() {
+            if (installs++ == 0) {
+                useParentHandlers = logger.getUseParentHandlers();
+                logger.addHandler(this);
+                logger.setUseParentHandlers(false);
+            }
+        }
+
+        synchronized void uninstall() {
+            if (--installs == 0) {
+                logger.removeHandler(this);
+                logger.setUseParentHandlers(useParentHandlers);
+            }
+        }
+
+        void bind(ServerTask task) {
+            tasks.set(task);
+        }
+
+        void unbind() {
+            tasks.remove();
+        }
+
+        @Override
+        public void publish(LogRecord record) {
+            ServerTask task = tasks.get();
+            if (task != null) {
+                task.log(record);
+                return;
+            }
+            if (!useParentHandlers) {
+                return;
+            }
+            for (Logger parent = logger.getParent(); parent != null; parent = parent.getUseParentHandlers() ? parent.getParent() : null) {
+                for (Handler handler : parent.getHandlers()) {
+                    handler.publish(record);
+                }
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /**
+     * Generates a single server. Failures are captured rather than thrown so that they can be aggregated,
+     * and in parallel mode the log lines, including the JUL records routed by the {@link TaskLogRouter}, are
+     * buffered and flushed together to keep each server's output in one block.
+     */
+    private static class ServerTask implements Callable<ServerTask> {
+        private static final Formatter FORMATTER = new SimpleFormatter();
+        private final int index;
+        private final UserConfig server;
+        private final TaskLogRouter router;
+        private final Log log;
+        private final List<Runnable> pending = new ArrayList<>();
+        private final List<GenerationReport> reports;
+        private Exception failure;
+
+        /**
+         * @param router routes the JUL records of the task and buffers its lines; null to log them directly
+         */
+        ServerTask(int index, UserConfig server, TaskLogRouter router, Log log, List<GenerationReport> reports) {
+            this.index = index;
+            this.reports = reports;
+            this.server = server;
+            this.router = router;
+            this.log = log;
+        }
+
+        @Override
+        public ServerTask call() {
+            if (router != null) {
+                router.bind(this);
+            }
             try {
-                getLog().info("Server[" + i + "]: " + server.toString());
+                info("Server[" + index + "]: " + server.toString());
                 // Validate configuration early
                 try {
                     server.validate();
                 } catch (IllegalArgumentException ex) {
-                    throw new MojoFailureException("Invalid configuration for server index " + i + ": " + ex.getMessage(), ex);
+                    throw new MojoFailureException("Invalid configuration for server index " + index + ": " + ex.getMessage(), ex);
                 }
-                new TemplateProcessor(server).generate();
-                getLog().info("GraphQL API class generated at " + server.getDir() + "\n");
+                TemplateProcessor processor = new TemplateProcessor(server);
+                processor.generateToFile();
+                reports.add(processor.getReport());
+                info(processor.getReport().summary());
+                info("GraphQL API class generated at " + server.getDir() + "\n");
             } catch (Exception e) {
-                String msg = "Failed to generate for server index " + i + ": " + e.getMessage();
-                getLog().error(msg, e);
-                if (e instanceof MojoFailureException) {
-                    throw (MojoFailureException) e;
+                String msg = "Failed to generate for server index " + index + ": " + e.getMessage();
+                error(msg, e);
+                failure = e instanceof MojoFailureException ? e : new MojoExecutionException(msg, e);
+            } finally {
+                if (router != null) {
+                    router.unbind();
                 }
-                throw new MojoExecutionException(msg, e);
             }
+            return this;
+        }
+
+        /**
+         * Buffers a JUL record as a line of the Maven log, at the closest level.
+         */
+        void log(LogRecord record) {
+            String message = FORMATTER.formatMessage(record);
+            Throwable thrown = record.getThrown();
+            int level = record.getLevel().intValue();
+            BiConsumer<CharSequence, Throwable> withError;
+            Consumer<CharSequence> plain;
+            if (level >= Level.SEVERE.intValue()) {
+                withError = log::error;
+                plain = log::error;
+            } else if (level >= Level.WARNING.intValue()) {
+                withError = log::warn;
+                plain = log::warn;
+            } else if (level >= Level.INFO.intValue()) {
+                withError = log::info;
+                plain = log::info;
+            } else {
+                withError = log::debug;
+                plain = log::debug;
+            }
+            emit(thrown != null ? () -> withError.accept(message, thrown) : () -> plain.accept(message));
+        }
+
+        private void info(String message) {
+            emit(() -> log.info(message));
         }
-        getLog().info("GraphQL API(s) generation completed.");
-    }
 
-}
\ No newline at end of file
+        private void error(String message, Exception e) {
+            emit(() -> log.error(message, e));
+        }
+
+        private void emit(Runnable line) {
+            if (router != null) {
+                pending.add(line);
+            } else {
+                line.run();
+            }
+        }
+
+        void flush() {
+            pending.forEach(Runnable::run);
+            pending.clear();
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.maimas.graphql.generator;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -11,11 +12,22 @@ import java.util.Objects;
  * User configuration wrapper.
  */
 public class UserConfig {
+    /**
+     * Cache directory used when none is set and there is no Maven project to resolve it against.
+     */
+    public static final String DEFAULT_CACHE_DIR = "./target/graphql-codegen";
+
     /**
      * Remote service graphql endpoint.
      */
     private String url;
 
+    /**
+     * Local schema file used instead of {@link #url}: an introspection JSON response
+     * or a schema definition language file (.graphqls, .graphql, .gql, .sdl).
+     */
+    private String schemaFile;
+
     /**
      * An array of http headers.
      * Ex:
@@ -44,6 +56,47 @@ public class UserConfig {
      */
     private String dir = "./generated";
 
+    /**
+     * Layout of the generated code: a single class with nested classes (default),
+     * or one source file per type, fragment and operation class plus a shared runtime class.
+     */
+    private OutputMode outputMode = OutputMode.SINGLE_FILE;
+
+    // --- Schema pruning ---
+    /**
+     * Query/Mutation fields to generate, by field name or as {@code <RootType>.<field>}.
+     * When set, only these operations and the types they reach are generated.
+     */
+    private String[] includeOperations;
+
+    /**
+     * Query/Mutation fields not to generate, by field name or as {@code <RootType>.<field>}.
+     */
+    private String[] excludeOperations;
+
+    /**
+     * Types not to generate; fields, arguments and input fields referencing them are dropped too.
+     */
+    private String[] excludeTypes;
+
+    /**
+     * When true, deprecated fields and enum values are not generated.
+     */
+    private boolean excludeDeprecated = false;
+
+    /**
+     * Directory of GraphQL operation documents ({@code .graphql}, {@code .gql}), searched recursively.
+     * Each operation is validated against the schema and generated as a class with its document,
+     * variables and response types.
+     */
+    private String operationsDir;
+
+    /**
+     * When true, a {@code Codecs} class is generated with streaming JSON codecs of the enum, object and input types,
+     * reading and writing them without reflection.
+     */
+    private boolean generateCodecs = false;
+
     // Validation behavior: by default, fail build if generated code is invalid
     private boolean failOnValidationError = true;
 
@@ -69,6 +122,30 @@ public class UserConfig {
     /** Backoff base in milliseconds between retries (default 500). */
     private Integer retryBackoffMs = 500;
 
+    // --- Incremental generation ---
+    /**
+     * When true, rendering and writing are skipped if the schema, the configuration,
+     * the template set and the plugin version did not change since the last generation.
+     */
+    private boolean incremental = false;
+
+    /**
+     * Directory where the plugin keeps its state between builds (e.g. generation fingerprints).
+     * When not set, the Mojo uses {@code ${project.build.directory}/graphql-codegen} of the module, and
+     * programmatic usage {@link #DEFAULT_CACHE_DIR}.
+     */
+    private String cacheDir;
+
+    // --- Introspection cache ---
+    /**
+     * When true, introspection responses are cached under cacheDir and re-fetched conditionally
+     * (If-None-Match / If-Modified-Since) when the server provided validators.
+     */
+    private boolean schemaCache = false;
+
+    /** Time in seconds during which a cached schema is used without any request (default 0: always revalidate). */
+    private Integer schemaCacheTtlSeconds = 0;
+
     public UserConfig() {
     }
 
@@ -81,6 +158,35 @@ public class UserConfig {
     }
 
 
+    public String getSchemaFile() {
+        return schemaFile;
+    }
+
+    public void setSchemaFile(String schemaFile) {
+        this.schemaFile = schemaFile;
+    }
+
+    /**
+     * Whether the schema is read from a local SDL file rather than an introspection JSON document.
+     */
+    @JsonIgnore
+    public boolean isSdlSchemaFile() {
+        if (schemaFile == null) return false;
+        String f = schemaFile.trim().toLowerCase();
+        return f.endsWith(".graphqls") || f.endsWith(".graphql") || f.endsWith(".gql") || f.endsWith(".sdl");
+    }
+
+    /**
+     * Describes where the schema comes from, for logs and error messages.
+     */
+    public String schemaSource() {
+        return hasSchemaFile() ? schemaFile : url;
+    }
+
+    private boolean hasSchemaFile() {
+        return schemaFile != null && !schemaFile.trim().isEmpty();
+    }
+
     public Selector getLanguage() {
         return language;
     }
@@ -113,6 +219,69 @@ public class UserConfig {
         this.dir = dir;
     }
 
+    public OutputMode getOutputMode() {
+        return outputMode;
+    }
+
+    public void setOutputMode(OutputMode outputMode) {
+        this.outputMode = outputMode;
+    }
+
+    public String[] getIncludeOperations() {
+        return includeOperations == null ? null : includeOperations.clone();
+    }
+
+    public void setIncludeOperations(String[] includeOperations) {
+        this.includeOperations = includeOperations == null ? null : includeOperations.clone();
+    }
+
+    public String[] getExcludeOperations() {
+        return excludeOperations == null ? null : excludeOperations.clone();
+    }
+
+    public void setExcludeOperations(String[] excludeOperations) {
+        this.excludeOperations = excludeOperations == null ? null : excludeOperations.clone();
+    }
+
+    public String[] getExcludeTypes() {
+        return excludeTypes == null ? null : excludeTypes.clone();
+    }
+
+    public void setExcludeTypes(String[] excludeTypes) {
+        this.excludeTypes = excludeTypes == null ? null : excludeTypes.clone();
+    }
+
+    public boolean isExcludeDeprecated() {
+        return excludeDeprecated;
+    }
+
+    public void setExcludeDeprecated(boolean excludeDeprecated) {
+        this.excludeDeprecated = excludeDeprecated;
+    }
+
+    public String getOperationsDir() {
+        return operationsDir;
+    }
+
+    public void setOperationsDir(String operationsDir) {
+        this.operationsDir = operationsDir;
+    }
+
+    /**
+     * Whether operation documents are to be compiled.
+     */
+    public boolean hasOperationsDir() {
+        return operationsDir != null && !operationsDir.trim().isEmpty();
+    }
+
+    public boolean isGenerateCodecs() {
+        return generateCodecs;
+    }
+
+    public void setGenerateCodecs(boolean generateCodecs) {
+        this.generateCodecs = generateCodecs;
+    }
+
     public boolean isFailOnValidationError() {
         return failOnValidationError;
     }
@@ -169,6 +338,45 @@ public class UserConfig {
         this.retryBackoffMs = retryBackoffMs;
     }
 
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    public void setIncremental(boolean incremental) {
+        this.incremental = incremental;
+    }
+
+    public String getCacheDir() {
+        return hasCacheDir() ? cacheDir : DEFAULT_CACHE_DIR;
+    }
+
+    /**
+     * Whether a cache directory is set, rather than the default one.
+     */
+    public boolean hasCacheDir() {
+        return cacheDir != null && !cacheDir.trim().isEmpty();
+    }
+
+    public void setCacheDir(String cacheDir) {
+        this.cacheDir = cacheDir;
+    }
+
+    public boolean isSchemaCache() {
+        return schemaCache;
+    }
+
+    public void setSchemaCache(boolean schemaCache) {
+        this.schemaCache = schemaCache;
+    }
+
+    public Integer getSchemaCacheTtlSeconds() {
+        return schemaCacheTtlSeconds;
+    }
+
+    public void setSchemaCacheTtlSeconds(Integer schemaCacheTtlSeconds) {
+        this.schemaCacheTtlSeconds = schemaCacheTtlSeconds;
+    }
+
     public String toString() {
         try {
             return new ObjectMapper().writeValueAsString(this);
@@ -190,13 +398,19 @@ public class UserConfig {
      * Throws IllegalArgumentException with a clear message if invalid.
      */
     public void validate() {
-        if (url == null || url.trim().isEmpty()) {
-            throw new IllegalArgumentException("Configuration error: 'url' must be provided and non-empty.");
-        }
-        // Basic URL scheme check (not a full validator to remain minimal)
-        String u = url.trim().toLowerCase();
-        if (!(u.startsWith("http://") || u.startsWith("https://"))) {
-            throw new IllegalArgumentException("Configuration error: 'url' should start with http:// or https://");
+        if (hasSchemaFile()) {
+            if (!new File(schemaFile.trim()).isFile()) {
+                throw new IllegalArgumentException("Configuration error: 'schemaFile' does not exist or is not a file: " + schemaFile);
+            }
+        } else {
+            if (url == null || url.trim().isEmpty()) {
+                throw new IllegalArgumentException("Configuration error: 'url' or 'schemaFile' must be provided and non-empty.");
+            }
+            // Basic URL scheme check (not a full validator to remain minimal)
+            String u = url.trim().toLowerCase();
+            if (!(u.startsWith("http://") || u.startsWith("https://"))) {
+                throw new IllegalArgumentException("Configuration error: 'url' should start with http:// or https://");
+            }
         }
 
         if (resultClassName == null || !isValidJavaIdentifier(resultClassName)) {
@@ -205,10 +419,20 @@ public class UserConfig {
         if (resultClassPackage == null || !isValidPackageName(resultClassPackage)) {
             throw new IllegalArgumentException("Configuration error: 'resultClassPackage' must be a valid Java package (e.g., com.example.api).");
         }
+        if (hasOperationsDir() && !new File(operationsDir.trim()).isDirectory()) {
+            throw new IllegalArgumentException("Configuration error: 'operationsDir' does not exist or is not a directory: " + operationsDir);
+        }
         if (dir == null || dir.trim().isEmpty()) {
             dir = "./generated";
         }
         dir = normalizeDir(dir);
+        if (outputMode == null) {
+            outputMode = OutputMode.SINGLE_FILE;
+        }
+        if (!hasCacheDir()) {
+            cacheDir = DEFAULT_CACHE_DIR;
+        }
+        cacheDir = normalizeDir(cacheDir);
 
         // Sanity checks for timeouts/retries
         if (connectTimeoutMs != null && connectTimeoutMs < 0) {
@@ -223,6 +447,9 @@ public class UserConfig {
         if (retryBackoffMs != null && retryBackoffMs < 0) {
             throw new IllegalArgumentException("Configuration error: 'retryBackoffMs' must be >= 0");
         }
+        if (schemaCacheTtlSeconds != null && schemaCacheTtlSeconds < 0) {
+            throw new IllegalArgumentException("Configuration error: 'schemaCacheTtlSeconds' must be >= 0");
+        }
 
         // Validate validationErrorOutputFile if provided
         if (validationErrorOutputFile != null && !validationErrorOutputFile.trim().isEmpty()) {
@@ -319,4 +546,11 @@ public class UserConfig {
             return name;
         }
     }
+
+    public enum OutputMode {
+        /** One class holding all types, fragments, operations and the runtime as nested classes. */
+        SINGLE_FILE,
+        /** One source file per type, fragment and operation class, plus the shared runtime class. */
+        MULTI_FILE
+    }
 }
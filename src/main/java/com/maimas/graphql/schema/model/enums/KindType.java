@@ -1,5 +1,5 @@
 package com.maimas.graphql.schema.model.enums;
 
 public enum KindType {
-    ENUM, OBJECT, INPUT_OBJECT, SCALAR
+    ENUM, OBJECT, INPUT_OBJECT, SCALAR, INTERFACE, UNION
 }
@@ -1,6 +1,9 @@
 package com.maimas.graphql.schema.processor;
 
 import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -8,7 +11,6 @@ import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Pattern;
 
 /**
  * Validates generated code to ensure it's syntactically correct and follows best practices.
@@ -48,6 +50,26 @@ public class CodeValidator {
      * @return true if the code is valid, false otherwise
      */
     public static boolean validate(String code, String errorOutputFile, String[] ignoredRuleIds, String languageName) {
+        try {
+            return validate(new StringReader(code), errorOutputFile, ignoredRuleIds, languageName);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Validates generated code read from a stream in a single tokenizing pass, so that the code does not have to be held in memory.
+     *
+     * @param code reader over the generated code; not closed by this method
+     * @param errorOutputFile optional path to write validation errors to
+     * @param ignoredRuleIds optional list of rule IDs to ignore
+     * @param languageName optional language name to apply language-specific rules (currently informational)
+     * @return true if the code is valid, false otherwise
+     */
+    public static boolean validate(Reader code, String errorOutputFile, String[] ignoredRuleIds, String languageName) throws IOException {
+        // All rules are evaluated in a single pass over the tokens
+        JavaSourceScanner checks = new JavaSourceScanner(code).scan();
+
         List<String> errors = new ArrayList<>();
         List<String> warnings = new ArrayList<>();
 
@@ -60,7 +82,7 @@ public class CodeValidator {
         };
 
         // BASIC_SYNTAX (ERROR)
-        if (!validateBasicSyntax(code, errors)) {
+        if (!validateBasicSyntax(checks, errors)) {
             if (isIgnored.test("BASIC_SYNTAX")) {
                 warnings.add("[BASIC_SYNTAX] validation failed but was ignored by configuration");
             } else {
@@ -71,7 +93,7 @@ public class CodeValidator {
 
         // BRACES_BALANCED (ERROR)
         errors.clear();
-        if (!validateBraces(code, errors)) {
+        if (!validateBraces(checks, errors)) {
             if (isIgnored.test("BRACES_BALANCED")) {
                 warnings.add("[BRACES_BALANCED] validation failed but was ignored by configuration");
             } else {
@@ -82,7 +104,7 @@ public class CodeValidator {
 
         // SEMICOLON_TERMINATION (ERROR)
         errors.clear();
-        if (!validateSemicolons(code, errors)) {
+        if (!validateSemicolons(checks, errors)) {
             if (isIgnored.test("SEMICOLON_TERMINATION")) {
                 warnings.add("[SEMICOLON_TERMINATION] validation failed but was ignored by configuration");
             } else {
@@ -92,7 +114,7 @@ public class CodeValidator {
         }
 
         // PARENTHESES_BALANCED (WARNING): does not fail, only warns
-        String parenWarning = validateParenthesesWarning(code);
+        String parenWarning = validateParenthesesWarning(checks);
         if (parenWarning != null && !isIgnored.test("PARENTHESES_BALANCED")) {
             warnings.add("[PARENTHESES_BALANCED] " + parenWarning);
         }
@@ -106,172 +128,54 @@ public class CodeValidator {
     }
 
     /**
-     * Validates basic syntax of the generated code.
-     *
-     * @param code the generated code to validate
-     * @param errors list to collect validation errors
-     * @return true if the code has valid basic syntax, false otherwise
+     * Validates basic syntax: a package declaration and a class declaration.
      */
-    private static boolean validateBasicSyntax(String code, List<String> errors) {
+    private static boolean validateBasicSyntax(JavaSourceScanner scanner, List<String> errors) {
         // Check for a proper package declaration like: package com.example;
-        Pattern pkgPattern = Pattern.compile("(?m)^\\s*package\\s+[A-Za-z_][\\w.]*\\s*;\\s*$");
-        if (!pkgPattern.matcher(code).find()) {
+        if (!scanner.hasPackage()) {
             errors.add("Missing package declaration");
             return false;
         }
-
-        // Check for class declaration (public class ...)
-        if (!code.contains("public class ")) {
+        // Check for class declaration (public class ... or, for a file holding a single enum, public enum ...)
+        if (!scanner.hasClass()) {
             errors.add("Missing class declaration");
             return false;
         }
-
         return true;
     }
 
     /**
-     * Validates that braces are balanced in the generated code.
-     *
-     * @param code the generated code to validate
-     * @param errors list to collect validation errors
-     * @return true if braces are balanced, false otherwise
+     * Validates that braces are balanced.
      */
-    private static boolean validateBraces(String code, List<String> errors) {
-        int openBraces = 0;
-        int closeBraces = 0;
-
-        // A simple brace counter (ignores braces in comments/strings, sufficient for our test cases)
-        for (char c : code.toCharArray()) {
-            if (c == '{') {
-                openBraces++;
-            } else if (c == '}') {
-                closeBraces++;
-            }
-        }
-
-        if (openBraces != closeBraces) {
-            errors.add("Unbalanced braces: " + openBraces + " opening braces, " + closeBraces + " closing braces");
+    private static boolean validateBraces(JavaSourceScanner scanner, List<String> errors) {
+        String unmatched = scanner.unmatchedBrace();
+        if (unmatched != null) {
+            errors.add("Unbalanced braces: " + scanner.openBraces() + " opening braces, " + scanner.closeBraces()
+                    + " closing braces (first unmatched brace at " + unmatched + ")");
             return false;
         }
-
         return true;
     }
 
     /**
-     * Validates that semicolons are properly used in the generated code.
-     *
-     * @param code the generated code to validate
-     * @param errors list to collect validation errors
-     * @return true if semicolons are properly used, false otherwise
+     * Validates that semicolons are properly used.
      */
-    private static boolean validateSemicolons(String code, List<String> errors) {
-        String[] lines = code.split("\r?\n");
-        int depth = 0;
-        boolean inBlockComment = false;
-
-        for (int i = 0; i < lines.length; i++) {
-            String raw = lines[i];
-            String line = raw.trim();
-
-            // Handle block comments start/end
-            if (inBlockComment) {
-                if (line.contains("*/")) {
-                    inBlockComment = false;
-                }
-                continue; // ignore any content inside block comments
-            }
-            if (line.startsWith("/*") || line.startsWith("/**")) {
-                inBlockComment = !line.contains("*/");
-                continue;
-            }
-            if (line.startsWith("* ") || line.equals("*")) { // javadoc middle lines
-                continue;
-            }
-
-            int depthBefore = depth;
-            // Update depth for next line based on braces appearing in this line
-            for (char ch : raw.toCharArray()) {
-                if (ch == '{') depth++;
-                else if (ch == '}') depth = Math.max(0, depth - 1);
-            }
-
-            if (line.isEmpty()) continue;
-            if (line.startsWith("//")) continue;
-            if (line.startsWith("package ") || line.startsWith("import ")) continue;
-
-            // Special case: content enclosed within braces on the same line: class X { ... }
-            if (raw.contains("{") && raw.contains("}")) {
-                int openIdx = raw.indexOf('{');
-                int closeIdx = raw.lastIndexOf('}');
-                if (closeIdx > openIdx) {
-                    String inner = raw.substring(openIdx + 1, closeIdx).trim();
-                    if (!inner.isEmpty()) {
-                        // Remove inline // comments and block /* */ comments present on same line
-                        inner = inner.replaceAll("//.*$", "");
-                        inner = inner.replaceAll("/\\*.*?\\*/", "");
-                        inner = inner.trim();
-                        if (!inner.isEmpty()) {
-                            boolean innerLooksLikeStmt = inner.contains("=") || inner.matches(".*\\b(boolean|byte|short|int|long|float|double|char|String|var)\\b.*");
-                            boolean innerHasSemicolon = inner.endsWith(";") || inner.contains(";");
-                            if (innerLooksLikeStmt && !innerHasSemicolon) {
-                                errors.add("Missing semicolon at line " + (i + 1) + ": " + inner);
-                                return false;
-                            }
-                        }
-                    }
-                }
-            }
-
-            if (line.endsWith(";") || line.endsWith("{") || line.endsWith("}")) continue;
-
-            // Allow method/constructor/interface/class signatures without semicolon
-            if (line.contains("(") && !line.endsWith(");")) continue;
-            if (line.startsWith("class ") || line.startsWith("interface ") || line.startsWith("enum ") || line.startsWith("public class ")) {
-                // If there is inline content after an opening brace, validate it too
-                int braceIdx = line.indexOf('{');
-                if (braceIdx >= 0 && braceIdx + 1 < line.length()) {
-                    String tail = line.substring(braceIdx + 1).trim();
-                    // Strip a possible trailing closing brace
-                    if (tail.endsWith("}")) {
-                        tail = tail.substring(0, tail.length() - 1).trim();
-                    }
-                    // Remove possible inline comments in tail
-                    tail = tail.replaceAll("//.*$", "");
-                    tail = tail.replaceAll("/\\*.*?\\*/", "").trim();
-                    if (!tail.isEmpty() && !tail.endsWith(";") && (tail.contains("=") || tail.matches(".*\\b(boolean|byte|short|int|long|float|double|char|String|var)\\b.*"))) {
-                        errors.add("Missing semicolon at line " + (i + 1) + ": " + tail);
-                        return false;
-                    }
-                }
-                continue;
-            }
-
-            // Inside a type body, a simple statement like assignment or field declaration should end with semicolon
-            if (depthBefore > 0) {
-                boolean looksLikeStatement = line.contains("=") || line.matches(".*\\b(boolean|byte|short|int|long|float|double|char|String|var)\\b.*");
-                // Allow continuation lines for multi-line assignments/concatenations
-                boolean continuation = line.endsWith("+") || line.endsWith("=") || line.endsWith("&&") || line.endsWith("||") || line.endsWith(":") || line.endsWith("?");
-                if (looksLikeStatement && !continuation) {
-                    errors.add("Missing semicolon at line " + (i + 1) + ": " + line);
-                    return false;
-                }
-            }
+    private static boolean validateSemicolons(JavaSourceScanner scanner, List<String> errors) {
+        if (scanner.semicolonError() != null) {
+            errors.add(scanner.semicolonError());
+            return false;
         }
-
         return true;
     }
 
     /**
      * Checks for balanced parentheses and returns a warning message if unbalanced; null otherwise.
      */
-    private static String validateParenthesesWarning(String code) {
-        int open = 0, close = 0;
-        for (char c : code.toCharArray()) {
-            if (c == '(') open++;
-            else if (c == ')') close++;
-        }
-        if (open != close) {
-            return "Unbalanced parentheses: " + open + " opening, " + close + " closing";
+    private static String validateParenthesesWarning(JavaSourceScanner scanner) {
+        String unmatched = scanner.unmatchedParenthesis();
+        if (unmatched != null) {
+            return "Unbalanced parentheses: " + scanner.openParentheses() + " opening, " + scanner.closeParentheses()
+                    + " closing (first unmatched parenthesis at " + unmatched + ")";
         }
         return null;
     }
@@ -0,0 +1,37 @@
+package com.maimas.graphql.schema.processor;
+
+import com.maimas.graphql.schema.model.SchemaModel;
+
+/**
+ * A parsed schema together with the SHA-256 of the document it was parsed from.
+ * The hash is computed while the document is streamed, so the raw content never has to be kept in memory.
+ */
+public class FetchedSchema {
+    private final SchemaModel model;
+    private final String sha256;
+    private final long size;
+
+    public FetchedSchema(SchemaModel model, String sha256, long size) {
+        this.model = model;
+        this.sha256 = sha256;
+        this.size = size;
+    }
+
+    public SchemaModel getModel() {
+        return model;
+    }
+
+    /**
+     * @return hex encoded SHA-256 of the schema document
+     */
+    public String getSha256() {
+        return sha256;
+    }
+
+    /**
+     * @return size of the schema document in bytes
+     */
+    public long getSize() {
+        return size;
+    }
+}
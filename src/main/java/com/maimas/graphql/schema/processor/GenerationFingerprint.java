@@ -0,0 +1,174 @@
+package com.maimas.graphql.schema.processor;
+
+import com.maimas.graphql.generator.UserConfig;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Fingerprint of everything that determines the generated output: schema content, the operation documents,
+ * the relevant {@link UserConfig} fields, the template set with the content of its templates, and the plugin version.
+ * Used by incremental generation to skip rendering and writing when nothing changed.
+ */
+public class GenerationFingerprint {
+    private static final java.util.logging.Logger LOGGER = java.util.logging.Logger.getLogger(GenerationFingerprint.class.getName());
+
+    private static final String POM_PROPERTIES = "META-INF/maven/com.github.maimas/graphql-java-codegen-maven-plugin/pom.properties";
+    private static final String PLUGIN_VERSION = resolvePluginVersion();
+
+    private GenerationFingerprint() {
+    }
+
+    /**
+     * Computes the fingerprint for a generation from an already computed schema hash.
+     *
+     * @param schemaHash hex encoded SHA-256 of the schema document
+     * @param cfg the user configuration
+     * @param templateConfig the template set used for rendering
+     * @return hex encoded SHA-256 fingerprint
+     */
+    public static String computeFromSchemaHash(String schemaHash, UserConfig cfg, TemplateConfig templateConfig) {
+        // Sorted so that the fingerprint does not depend on insertion order
+        Map<String, String> inputs = new TreeMap<>();
+        inputs.put("schema", schemaHash);
+        inputs.put("plugin.version", PLUGIN_VERSION);
+        inputs.put("template.language", templateConfig.getLanguage());
+        inputs.put("template.version", templateConfig.getVersion());
+        inputs.put("template.path", String.valueOf(templateConfig.getProperty("templatePath")));
+        try {
+            inputs.put("template.content", TemplateEngineCache.get(templateConfig).getContentHash(templateConfig));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read the templates of " + templateConfig.getLanguage(), e);
+        }
+        inputs.put("template.scalarMappings", String.valueOf(new TreeMap<>(asMap(templateConfig.getProperty("scalarMappings")))));
+        inputs.put("config.language", cfg.getLanguage().getName());
+        inputs.put("config.resultClassName", cfg.getResultClassName());
+        inputs.put("config.resultClassPackage", cfg.getResultClassPackage());
+        inputs.put("config.dir", cfg.getDir());
+        inputs.put("config.outputMode", String.valueOf(cfg.getOutputMode()));
+        inputs.put("config.includeOperations", Arrays.toString(cfg.getIncludeOperations()));
+        inputs.put("config.excludeOperations", Arrays.toString(cfg.getExcludeOperations()));
+        inputs.put("config.excludeTypes", Arrays.toString(cfg.getExcludeTypes()));
+        inputs.put("config.excludeDeprecated", String.valueOf(cfg.isExcludeDeprecated()));
+        inputs.put("config.generateCodecs", String.valueOf(cfg.isGenerateCodecs()));
+        inputs.put("config.failOnValidationError", String.valueOf(cfg.isFailOnValidationError()));
+        inputs.put("config.ignoredValidationRules", Arrays.toString(cfg.getIgnoredValidationRules()));
+        if (cfg.hasOperationsDir()) {
+            try {
+                inputs.put("operations", OperationDocuments.fingerprint(Paths.get(cfg.getOperationsDir().trim())));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to read the operation documents of " + cfg.getOperationsDir(), e);
+            }
+        }
+
+        StringBuilder canonical = new StringBuilder();
+        inputs.forEach((k, v) -> canonical.append(k).append('=').append(v).append('\n'));
+        return sha256(canonical.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Checks whether the stored fingerprint matches and every generated file still exists, unchanged.
+     *
+     * @param cfg the user configuration
+     * @param fingerprint the fingerprint of the current generation
+     * @return true if generation can be skipped
+     */
+    public static boolean isUpToDate(UserConfig cfg, String fingerprint) {
+        Path stored = location(cfg);
+        if (!Files.exists(stored)) {
+            return false;
+        }
+        try {
+            List<String> lines = Files.readAllLines(stored, StandardCharsets.UTF_8);
+            // Fingerprints stored without their files (older plugin versions) are never up to date
+            if (lines.size() < 2 || !fingerprint.equals(lines.get(0).trim())) {
+                return false;
+            }
+            for (String line : lines.subList(1, lines.size())) {
+                int separator = line.indexOf(' ');
+                if (separator < 0) {
+                    return false;
+                }
+                Path file = Paths.get(line.substring(separator + 1));
+                if (!Files.isRegularFile(file) || !line.substring(0, separator).equals(sha256(Files.readAllBytes(file)))) {
+                    LOGGER.fine("Generated file " + file + " deleted or modified since the last generation");
+                    return false;
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            LOGGER.warning("Unable to read generation fingerprint " + stored + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Stores the fingerprint of a successful generation with the hashes of the generated files, so that a deleted
+     * or edited file is generated again.
+     *
+     * @param cfg the user configuration
+     * @param fingerprint the fingerprint to store
+     * @param files every generated file, e.g. the unit files of MULTI_FILE output
+     */
+    public static void store(UserConfig cfg, String fingerprint, List<Path> files) {
+        Path stored = location(cfg);
+        try {
+            StringBuilder content = new StringBuilder(fingerprint).append('\n');
+            for (Path file : files) {
+                content.append(sha256(Files.readAllBytes(file))).append(' ').append(file).append('\n');
+            }
+            Files.createDirectories(stored.getParent());
+            Files.writeString(stored, content, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            // Not fatal: the next build simply regenerates
+            LOGGER.warning("Unable to store generation fingerprint " + stored + ": " + e.getMessage());
+        }
+    }
+
+    static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static Path location(UserConfig cfg) {
+        return Paths.get(cfg.getCacheDir()).resolve(cfg.getResultClassPackage() + "." + cfg.getResultClassName() + ".fingerprint");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> asMap(Object value) {
+        return value instanceof Map ? (Map<String, Object>) value : Map.of();
+    }
+
+    private static String resolvePluginVersion() {
+        try (InputStream in = GenerationFingerprint.class.getClassLoader().getResourceAsStream(POM_PROPERTIES)) {
+            if (in != null) {
+                Properties props = new Properties();
+                props.load(in);
+                String version = props.getProperty("version");
+                if (version != null) {
+                    return version;
+                }
+            }
+        } catch (IOException ignored) {
+            // fall through
+        }
+        String version = GenerationFingerprint.class.getPackage().getImplementationVersion();
+        return version != null ? version : "dev";
+    }
+}
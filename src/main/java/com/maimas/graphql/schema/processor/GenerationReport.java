@@ -0,0 +1,321 @@
+package com.maimas.graphql.schema.processor;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Timings and sizes of one generation, per phase. Written as JSON under {@code cacheDir/reports} and summarized in
+ * the build log, so that a slow build can be traced to the network, parsing, rendering, validation or disk writes.
+ * Allocation figures come from the JVM's per-thread allocation counter and are -1 where it is not available.
+ */
+public class GenerationReport {
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    /**
+     * Generation phases. The introspection JSON is parsed while it streams in, so for it PARSE is part of FETCH.
+     */
+    public enum Phase {
+        FETCH, PARSE, CONTEXT, RENDER, VALIDATE, WRITE
+    }
+
+    private final String name;
+    private final Map<Phase, PhaseStats> phases = new EnumMap<>(Phase.class);
+    private final Map<String, TemplateStats> templates = new TreeMap<>();
+    private final long startNanos = System.nanoTime();
+    private long totalNanos;
+    private boolean skipped;
+    private boolean streamingParse;
+    private long schemaBytes;
+    private int types;
+    private int fields;
+    private int operations;
+    private int files;
+    private int filesWritten;
+    private long generatedBytes;
+    private long generatedLines;
+
+    public GenerationReport(String name) {
+        this.name = name;
+        for (Phase phase : Phase.values()) {
+            phases.put(phase, new PhaseStats());
+        }
+    }
+
+    /**
+     * Starts measuring a phase on the current thread.
+     *
+     * @param phase the phase
+     * @return the running measurement; stop it to add it to the phase
+     */
+    public Measurement start(Phase phase) {
+        return new Measurement(phases.get(phase));
+    }
+
+    /**
+     * Adds the render time of one template (or template unit kind).
+     */
+    public void addTemplateRender(String template, long nanos) {
+        TemplateStats stats = templates.computeIfAbsent(template, t -> new TemplateStats());
+        stats.count++;
+        stats.nanos += nanos;
+    }
+
+    /**
+     * Adds one generated file.
+     */
+    public void addFile(long bytes, long lines, boolean written) {
+        files++;
+        generatedBytes += bytes;
+        generatedLines += lines;
+        if (written) {
+            filesWritten++;
+        }
+    }
+
+    public void setSchema(long schemaBytes, boolean streamingParse) {
+        this.schemaBytes = schemaBytes;
+        this.streamingParse = streamingParse;
+    }
+
+    public void setSchemaCounts(int types, int fields, int operations) {
+        this.types = types;
+        this.fields = fields;
+        this.operations = operations;
+    }
+
+    public void setSkipped(boolean skipped) {
+        this.skipped = skipped;
+    }
+
+    /**
+     * Marks the end of the generation.
+     *
+     * @return this report
+     */
+    public GenerationReport finish() {
+        totalNanos = System.nanoTime() - startNanos;
+        return this;
+    }
+
+    /**
+     * Sums several reports, e.g. one per server.
+     *
+     * @param name name of the aggregate
+     * @param reports the reports
+     * @return the aggregate report
+     */
+    public static GenerationReport aggregate(String name, List<GenerationReport> reports) {
+        GenerationReport total = new GenerationReport(name);
+        for (GenerationReport report : reports) {
+            total.totalNanos += report.totalNanos;
+            report.phases.forEach((phase, stats) -> {
+                PhaseStats sum = total.phases.get(phase);
+                sum.nanos += stats.nanos;
+                sum.allocatedBytes = stats.allocatedBytes < 0 || sum.allocatedBytes < 0 ? -1 : sum.allocatedBytes + stats.allocatedBytes;
+            });
+            report.templates.forEach((template, stats) -> {
+                TemplateStats sum = total.templates.computeIfAbsent(template, t -> new TemplateStats());
+                sum.count += stats.count;
+                sum.nanos += stats.nanos;
+            });
+            total.schemaBytes += report.schemaBytes;
+            total.types += report.types;
+            total.fields += report.fields;
+            total.operations += report.operations;
+            total.files += report.files;
+            total.filesWritten += report.filesWritten;
+            total.generatedBytes += report.generatedBytes;
+            total.generatedLines += report.generatedLines;
+        }
+        return total;
+    }
+
+    /**
+     * Writes the report as JSON.
+     *
+     * @param file target file; parent directories are created
+     */
+    public void write(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        MAPPER.writeValue(file.toFile(), toMap());
+    }
+
+    /**
+     * @return the report as nested maps, in the layout of the JSON file
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("name", name);
+        json.put("skipped", skipped);
+        json.put("totalMillis", millis(totalNanos));
+        Map<String, Object> phaseJson = new LinkedHashMap<>();
+        phases.forEach((phase, stats) -> {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("millis", millis(stats.nanos));
+            entry.put("allocatedBytes", stats.allocatedBytes);
+            phaseJson.put(phase.name().toLowerCase(Locale.ROOT), entry);
+        });
+        json.put("phases", phaseJson);
+        Map<String, Object> schema = new LinkedHashMap<>();
+        schema.put("bytes", schemaBytes);
+        schema.put("streamingParse", streamingParse);
+        schema.put("types", types);
+        schema.put("fields", fields);
+        schema.put("operations", operations);
+        json.put("schema", schema);
+        Map<String, Object> output = new LinkedHashMap<>();
+        output.put("files", files);
+        output.put("filesWritten", filesWritten);
+        output.put("bytes", generatedBytes);
+        output.put("lines", generatedLines);
+        json.put("output", output);
+        Map<String, Object> templateJson = new LinkedHashMap<>();
+        templates.forEach((template, stats) -> {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("renders", stats.count);
+            entry.put("millis", millis(stats.nanos));
+            templateJson.put(template, entry);
+        });
+        json.put("templates", templateJson);
+        return json;
+    }
+
+    /**
+     * @return a one line summary for the build log
+     */
+    public String summary() {
+        StringBuilder sb = new StringBuilder("Generation report for ").append(name).append(": ");
+        if (skipped) {
+            sb.append("up to date, ");
+        }
+        sb.append(String.format(Locale.ROOT, "%.1f ms (", millis(totalNanos)));
+        String separator = "";
+        for (Map.Entry<Phase, PhaseStats> entry : phases.entrySet()) {
+            sb.append(separator).append(entry.getKey().name().toLowerCase(Locale.ROOT))
+                    .append(String.format(Locale.ROOT, " %.1f ms", millis(entry.getValue().nanos)));
+            separator = ", ";
+        }
+        sb.append("); schema ").append(schemaBytes).append(" bytes, ").append(types).append(" types, ")
+                .append(fields).append(" fields, ").append(operations).append(" operations; ")
+                .append(files).append(" file(s), ").append(filesWritten).append(" written, ")
+                .append(generatedLines).append(" lines, ").append(generatedBytes).append(" bytes");
+        return sb.toString();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isSkipped() {
+        return skipped;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public long getPhaseNanos(Phase phase) {
+        return phases.get(phase).nanos;
+    }
+
+    public long getPhaseAllocatedBytes(Phase phase) {
+        return phases.get(phase).allocatedBytes;
+    }
+
+    public long getSchemaBytes() {
+        return schemaBytes;
+    }
+
+    public int getTypes() {
+        return types;
+    }
+
+    public int getFields() {
+        return fields;
+    }
+
+    public int getOperations() {
+        return operations;
+    }
+
+    public int getFiles() {
+        return files;
+    }
+
+    public int getFilesWritten() {
+        return filesWritten;
+    }
+
+    public long getGeneratedBytes() {
+        return generatedBytes;
+    }
+
+    public long getGeneratedLines() {
+        return generatedLines;
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 10_000.0) / 100.0;
+    }
+
+    private static long allocatedBytes() {
+        if (THREADS instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) THREADS;
+            if (threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+                return threads.getCurrentThreadAllocatedBytes();
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * A running measurement of a phase, started and stopped on the same thread.
+     */
+    public static class Measurement {
+        private final PhaseStats stats;
+        private final long startNanos = System.nanoTime();
+        private final long startAllocated = allocatedBytes();
+
+        private Measurement(PhaseStats stats) {
+            this.stats = stats;
+        }
+
+        /**
+         * @return the elapsed time in nanoseconds
+         */
+        public long stop() {
+            long elapsed = System.nanoTime() - startNanos;
+            stats.nanos += elapsed;
+            long allocated = allocatedBytes();
+            if (startAllocated < 0 || allocated < 0 || stats.allocatedBytes < 0) {
+                stats.allocatedBytes = -1;
+            } else {
+                stats.allocatedBytes += allocated - startAllocated;
+            }
+            return elapsed;
+        }
+    }
+
+    private static class PhaseStats {
+        private long nanos;
+        private long allocatedBytes;
+    }
+
+    private static class TemplateStats {
+        private int count;
+        private long nanos;
+    }
+}
@@ -0,0 +1,306 @@
+package com.maimas.graphql.schema.processor;
+
+/**
+ * Single pass tokenizer for GraphQL documents (SDL and executable documents).
+ * Skips whitespace, commas, comments and the BOM, and tracks line/column positions for error messages.
+ */
+class GraphQLLexer {
+
+    enum Kind {
+        NAME, INT, FLOAT, STRING, BLOCK_STRING, PUNCTUATOR, EOF
+    }
+
+    private final char[] src;
+    private int pos;
+    private int line = 1;
+    private int lineStart;
+
+    private Kind kind;
+    private String text;
+    private int tokenStart;
+    private int tokenEnd;
+    private int tokenLine;
+    private int tokenColumn;
+    private int previousEnd;
+
+    GraphQLLexer(String source) {
+        this.src = source.toCharArray();
+        advance();
+    }
+
+    Kind kind() {
+        return kind;
+    }
+
+    /**
+     * Text of the current token: the name, the punctuator, the number or the (unescaped) string value.
+     */
+    String text() {
+        return text;
+    }
+
+    int line() {
+        return tokenLine;
+    }
+
+    int column() {
+        return tokenColumn;
+    }
+
+    /**
+     * Raw source of the current token, e.g. a string literal including its quotes.
+     */
+    String raw() {
+        return new String(src, tokenStart, tokenEnd - tokenStart);
+    }
+
+    /**
+     * Raw source between two offsets, used to keep default values in their GraphQL literal form.
+     */
+    String source(int start, int end) {
+        return new String(src, start, end - start);
+    }
+
+    int tokenStart() {
+        return tokenStart;
+    }
+
+    /**
+     * End offset of the previously consumed token.
+     */
+    int previousEnd() {
+        return previousEnd;
+    }
+
+    boolean is(String punctuatorOrName) {
+        return (kind == Kind.PUNCTUATOR || kind == Kind.NAME) && punctuatorOrName.equals(text);
+    }
+
+    boolean isName() {
+        return kind == Kind.NAME;
+    }
+
+    boolean isString() {
+        return kind == Kind.STRING || kind == Kind.BLOCK_STRING;
+    }
+
+    /**
+     * Consumes the current token and returns its text.
+     */
+    String next() {
+        String current = text;
+        previousEnd = tokenEnd;
+        advance();
+        return current;
+    }
+
+    boolean skip(String punctuatorOrName) {
+        if (is(punctuatorOrName)) {
+            next();
+            return true;
+        }
+        return false;
+    }
+
+    void expect(String punctuatorOrName) {
+        if (!is(punctuatorOrName)) {
+            throw error("expected '" + punctuatorOrName + "'");
+        }
+        next();
+    }
+
+    String expectName() {
+        if (kind != Kind.NAME) {
+            throw error("expected a name");
+        }
+        return next();
+    }
+
+    IllegalArgumentException error(String message) {
+        String found = kind == Kind.EOF ? "end of document" : "'" + raw() + "'";
+        return new IllegalArgumentException("GraphQL syntax error at line " + tokenLine + ", column " + tokenColumn
+                + ": " + message + " but found " + found);
+    }
+
+    private void advance() {
+        skipIgnored();
+        tokenStart = pos;
+        tokenLine = line;
+        tokenColumn = pos - lineStart + 1;
+        if (pos >= src.length) {
+            kind = Kind.EOF;
+            text = "<EOF>";
+            tokenEnd = pos;
+            return;
+        }
+        char c = src[pos];
+        if (c == '_' || Character.isLetter(c)) {
+            int start = pos;
+            while (pos < src.length && (src[pos] == '_' || Character.isLetterOrDigit(src[pos]))) pos++;
+            kind = Kind.NAME;
+            text = new String(src, start, pos - start);
+        } else if (c == '-' || Character.isDigit(c)) {
+            readNumber();
+        } else if (c == '"') {
+            if (pos + 2 < src.length && src[pos + 1] == '"' && src[pos + 2] == '"') {
+                readBlockString();
+            } else {
+                readString();
+            }
+        } else if (c == '.' && pos + 2 < src.length && src[pos + 1] == '.' && src[pos + 2] == '.') {
+            pos += 3;
+            kind = Kind.PUNCTUATOR;
+            text = "...";
+        } else if ("!$&()|:=@[]{}".indexOf(c) >= 0) {
+            pos++;
+            kind = Kind.PUNCTUATOR;
+            text = String.valueOf(c);
+        } else {
+            tokenEnd = pos + 1;
+            kind = Kind.PUNCTUATOR;
+            text = String.valueOf(c);
+            throw new IllegalArgumentException("GraphQL syntax error at line " + tokenLine + ", column " + tokenColumn
+                    + ": unexpected character '" + c + "'");
+        }
+        tokenEnd = pos;
+    }
+
+    private void skipIgnored() {
+        while (pos < src.length) {
+            char c = src[pos];
+            if (c == '\n') {
+                pos++;
+                newLine();
+            } else if (c == '\r') {
+                pos++;
+                if (pos < src.length && src[pos] == '\n') pos++;
+                newLine();
+            } else if (c == ' ' || c == '\t' || c == ',' || c == '\uFEFF') {
+                pos++;
+            } else if (c == '#') {
+                while (pos < src.length && src[pos] != '\n' && src[pos] != '\r') pos++;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void newLine() {
+        line++;
+        lineStart = pos;
+    }
+
+    private void readNumber() {
+        int start = pos;
+        boolean isFloat = false;
+        if (src[pos] == '-') pos++;
+        while (pos < src.length && Character.isDigit(src[pos])) pos++;
+        if (pos < src.length && src[pos] == '.') {
+            isFloat = true;
+            pos++;
+            while (pos < src.length && Character.isDigit(src[pos])) pos++;
+        }
+        if (pos < src.length && (src[pos] == 'e' || src[pos] == 'E')) {
+            isFloat = true;
+            pos++;
+            if (pos < src.length && (src[pos] == '+' || src[pos] == '-')) pos++;
+            while (pos < src.length && Character.isDigit(src[pos])) pos++;
+        }
+        kind = isFloat ? Kind.FLOAT : Kind.INT;
+        text = new String(src, start, pos - start);
+    }
+
+    private void readString() {
+        StringBuilder sb = new StringBuilder();
+        pos++; // opening quote
+        while (true) {
+            if (pos >= src.length || src[pos] == '\n' || src[pos] == '\r') {
+                throw new IllegalArgumentException("GraphQL syntax error at line " + tokenLine + ", column " + tokenColumn + ": unterminated string");
+            }
+            char c = src[pos++];
+            if (c == '"') break;
+            if (c == '\\' && pos < src.length) {
+                char e = src[pos++];
+                switch (e) {
+                    case 'n': sb.append('\n'); break;
+                    case 't': sb.append('\t'); break;
+                    case 'r': sb.append('\r'); break;
+                    case 'b': sb.append('\b'); break;
+                    case 'f': sb.append('\f'); break;
+                    case 'u':
+                        if (pos + 4 <= src.length) {
+                            sb.append((char) Integer.parseInt(new String(src, pos, 4), 16));
+                            pos += 4;
+                        }
+                        break;
+                    default: sb.append(e);
+                }
+            } else {
+                sb.append(c);
+            }
+        }
+        kind = Kind.STRING;
+        text = sb.toString();
+    }
+
+    private void readBlockString() {
+        pos += 3;
+        int start = pos;
+        StringBuilder raw = new StringBuilder();
+        while (true) {
+            if (pos >= src.length) {
+                throw new IllegalArgumentException("GraphQL syntax error at line " + tokenLine + ", column " + tokenColumn + ": unterminated block string");
+            }
+            char c = src[pos];
+            if (c == '"' && pos + 2 < src.length && src[pos + 1] == '"' && src[pos + 2] == '"') {
+                pos += 3;
+                break;
+            }
+            if (c == '\\' && pos + 3 < src.length && src[pos + 1] == '"' && src[pos + 2] == '"' && src[pos + 3] == '"') {
+                raw.append("\"\"\"");
+                pos += 4;
+                continue;
+            }
+            if (c == '\n' || c == '\r') {
+                if (c == '\r' && pos + 1 < src.length && src[pos + 1] == '\n') pos++;
+                raw.append('\n');
+                pos++;
+                newLine();
+                continue;
+            }
+            raw.append(c);
+            pos++;
+        }
+        kind = Kind.BLOCK_STRING;
+        text = blockStringValue(raw.toString());
+    }
+
+    /**
+     * Removes the common indentation and leading/trailing blank lines (GraphQL spec BlockStringValue).
+     */
+    private static String blockStringValue(String raw) {
+        String[] lines = raw.split("\n", -1);
+        int common = Integer.MAX_VALUE;
+        for (int i = 1; i < lines.length; i++) {
+            String l = lines[i];
+            int indent = 0;
+            while (indent < l.length() && (l.charAt(indent) == ' ' || l.charAt(indent) == '\t')) indent++;
+            if (indent < l.length() && indent < common) common = indent;
+        }
+        if (common != Integer.MAX_VALUE) {
+            for (int i = 1; i < lines.length; i++) {
+                lines[i] = lines[i].length() >= common ? lines[i].substring(common) : "";
+            }
+        }
+        int first = 0;
+        int last = lines.length - 1;
+        while (first <= last && lines[first].isBlank()) first++;
+        while (last >= first && lines[last].isBlank()) last--;
+        StringBuilder sb = new StringBuilder();
+        for (int i = first; i <= last; i++) {
+            if (i > first) sb.append('\n');
+            sb.append(lines[i]);
+        }
+        return sb.toString();
+    }
+}
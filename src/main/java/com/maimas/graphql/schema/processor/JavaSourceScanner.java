@@ -0,0 +1,546 @@
+package com.maimas.graphql.schema.processor;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Single pass tokenizer over generated Java source, used by {@link CodeValidator}.
+ * Comments, string and char literals and text blocks are skipped, so braces, parentheses and semicolons inside
+ * them are not counted. All validation rules are evaluated while the tokens stream by, with line and column
+ * positions for error messages.
+ */
+class JavaSourceScanner {
+
+    private static final int WORD = 1;
+    private static final int LITERAL = 2;
+    private static final int OPERATOR = 3;
+
+    private static final int MAX_SNIPPET = 120;
+
+    private final Reader reader;
+    private final char[] buffer = new char[8192];
+    private int bufferPos;
+    private int bufferLen;
+    private int peeked = -2;
+
+    private int line = 1;
+    private int column;
+    private boolean afterCarriageReturn;
+    private StringBuilder lineText = new StringBuilder();
+    private StringBuilder endedLineText = new StringBuilder();
+
+    // BASIC_SYNTAX
+    private int packageState;
+    private boolean hasPackage;
+    private boolean pendingPublic;
+    private boolean hasClass;
+
+    // BRACES_BALANCED / PARENTHESES_BALANCED
+    private final Counter braces = new Counter();
+    private final Counter parentheses = new Counter();
+    private int bracketDepth;
+
+    // SEMICOLON_TERMINATION: the tokens since the last ';', '{' or '}'
+    private int segmentTokens;
+    private int segmentParenBase;
+    private int segmentBracketBase;
+    private boolean segmentHasAssignment;
+    private boolean segmentIsStatement;
+    private boolean previousWasDeclarationType;
+    private boolean lastEndsExpression;
+    private int lastTokenLine;
+    private int lastTokenEndColumn;
+    private boolean pendingLineEnd;
+    private String pendingLineSnippet;
+    private String semicolonError;
+
+    private int tokenLine;
+    private int tokenColumn;
+
+    JavaSourceScanner(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Scans the whole source.
+     *
+     * @return this scanner, with all rule results available
+     */
+    JavaSourceScanner scan() throws IOException {
+        int c;
+        while ((c = read()) != -1) {
+            if (c == '\n') {
+                onLineEnd();
+            } else if (c == ' ' || c == '\t' || c == '\f') {
+                // whitespace
+            } else if (c == '/' && peek() == '/') {
+                while ((c = peek()) != -1 && c != '\n' && c != '\r') read();
+            } else if (c == '/' && peek() == '*') {
+                read();
+                skipBlockComment();
+            } else if (c == '"') {
+                startToken();
+                readStringOrTextBlock();
+                onToken(LITERAL, null);
+            } else if (c == '\'') {
+                startToken();
+                readCharLiteral();
+                onToken(LITERAL, null);
+            } else if (Character.isJavaIdentifierStart(c)) {
+                startToken();
+                StringBuilder sb = new StringBuilder().append((char) c);
+                while ((c = peek()) != -1 && Character.isJavaIdentifierPart(c)) sb.append((char) read());
+                onToken(WORD, sb.toString());
+            } else if (Character.isDigit(c)) {
+                startToken();
+                while ((c = peek()) != -1 && (Character.isLetterOrDigit(c) || c == '_' || c == '.')) read();
+                onToken(LITERAL, null);
+            } else {
+                startToken();
+                onToken(OPERATOR, readOperator((char) c));
+            }
+        }
+        if (pendingLineEnd) {
+            checkPendingLineEnd(false);
+        }
+        return this;
+    }
+
+    boolean hasPackage() {
+        return hasPackage;
+    }
+
+    boolean hasClass() {
+        return hasClass;
+    }
+
+    int openBraces() {
+        return braces.opened;
+    }
+
+    int closeBraces() {
+        return braces.closed;
+    }
+
+    /**
+     * @return "line L, column C" of the first unmatched brace, or null if balanced
+     */
+    String unmatchedBrace() {
+        return braces.unmatched();
+    }
+
+    int openParentheses() {
+        return parentheses.opened;
+    }
+
+    int closeParentheses() {
+        return parentheses.closed;
+    }
+
+    String unmatchedParenthesis() {
+        return parentheses.unmatched();
+    }
+
+    /**
+     * @return the first missing semicolon found, or null
+     */
+    String semicolonError() {
+        return semicolonError;
+    }
+
+    private void startToken() {
+        tokenLine = line;
+        tokenColumn = column;
+    }
+
+    private void onToken(int kind, String text) {
+        if (pendingLineEnd) {
+            // A token that can only continue the previous line's expression does not end the statement
+            boolean continuation = kind == OPERATOR && !"@".equals(text) && !"}".equals(text)
+                    || kind == WORD && "instanceof".equals(text);
+            checkPendingLineEnd(continuation);
+        }
+        updateBasicSyntax(kind, text);
+
+        if (kind == OPERATOR) {
+            switch (text) {
+                case "{":
+                    braces.open(tokenLine, tokenColumn);
+                    resetSegment();
+                    return;
+                case "}":
+                    if (segmentTokens > 0 && looksLikeStatement() && lastEndsExpression) {
+                        reportMissingSemicolon(lineText.toString());
+                    }
+                    braces.close(tokenLine, tokenColumn);
+                    resetSegment();
+                    return;
+                case ";":
+                    resetSegment();
+                    return;
+                case "(":
+                    parentheses.open(tokenLine, tokenColumn);
+                    break;
+                case ")":
+                    parentheses.close(tokenLine, tokenColumn);
+                    // A segment started inside parentheses, e.g. after the first ';' of a for header
+                    segmentParenBase = Math.min(segmentParenBase, parentheses.depth);
+                    break;
+                case "[":
+                    bracketDepth++;
+                    break;
+                case "]":
+                    bracketDepth = Math.max(0, bracketDepth - 1);
+                    segmentBracketBase = Math.min(segmentBracketBase, bracketDepth);
+                    break;
+                default:
+                    if (isAssignment(text) && parentheses.depth == segmentParenBase && bracketDepth == segmentBracketBase) {
+                        segmentHasAssignment = true;
+                    }
+                    break;
+            }
+        }
+
+        boolean atSegmentLevel = parentheses.depth == segmentParenBase && bracketDepth == segmentBracketBase;
+        if (segmentTokens == 0 && kind == WORD) {
+            segmentIsStatement = isStatementKeyword(text);
+        }
+        if (kind == WORD && previousWasDeclarationType && atSegmentLevel) {
+            // e.g. "int count" or "String name": a declaration
+            segmentIsStatement = true;
+        }
+        previousWasDeclarationType = kind == WORD && isDeclarationType(text);
+        segmentTokens++;
+        lastEndsExpression = kind == LITERAL
+                || kind == WORD && !isKeyword(text)
+                || kind == OPERATOR && (")".equals(text) || "]".equals(text) || "++".equals(text) || "--".equals(text));
+        lastTokenLine = line;
+        lastTokenEndColumn = column;
+    }
+
+    private void onLineEnd() {
+        if (!pendingLineEnd && segmentTokens > 0 && lastTokenLine == line - 1
+                && parentheses.depth == segmentParenBase && bracketDepth == segmentBracketBase) {
+            pendingLineEnd = true;
+            pendingLineSnippet = endedLineText.toString();
+        }
+    }
+
+    private void checkPendingLineEnd(boolean continuation) {
+        pendingLineEnd = false;
+        if (!continuation && looksLikeStatement() && lastEndsExpression) {
+            reportMissingSemicolon(pendingLineSnippet);
+        }
+    }
+
+    private boolean looksLikeStatement() {
+        return braces.depth > 0 && (segmentHasAssignment || segmentIsStatement);
+    }
+
+    private void reportMissingSemicolon(String snippet) {
+        if (semicolonError == null) {
+            semicolonError = "Missing semicolon at line " + lastTokenLine + ", column " + (lastTokenEndColumn + 1) + ": " + snippet.trim();
+        }
+    }
+
+    private void resetSegment() {
+        segmentTokens = 0;
+        segmentParenBase = parentheses.depth;
+        segmentBracketBase = bracketDepth;
+        segmentHasAssignment = false;
+        segmentIsStatement = false;
+        previousWasDeclarationType = false;
+        pendingLineEnd = false;
+    }
+
+    private void updateBasicSyntax(int kind, String text) {
+        // package a.b.c;
+        if (!hasPackage && braces.depth == 0) {
+            if (kind == WORD && "package".equals(text)) {
+                packageState = 1;
+            } else if (packageState == 1 || packageState == 3) {
+                packageState = kind == WORD ? 2 : 0;
+            } else if (packageState == 2) {
+                if (".".equals(text)) {
+                    packageState = 3;
+                } else {
+                    hasPackage = ";".equals(text);
+                    packageState = 0;
+                }
+            }
+        }
+        // public [modifiers] class|enum|interface|record
+        if (!hasClass) {
+            if (kind == WORD && "public".equals(text)) {
+                pendingPublic = true;
+            } else if (pendingPublic && kind == WORD && isTypeKeyword(text)) {
+                hasClass = true;
+            } else if (!(kind == WORD && isModifier(text))) {
+                pendingPublic = false;
+            }
+        }
+    }
+
+    private void readStringOrTextBlock() throws IOException {
+        if (peek() == '"') {
+            read();
+            if (peek() != '"') {
+                return; // empty string ""
+            }
+            read();
+            // Text block: ends at the next unescaped """
+            int quotes = 0;
+            int c;
+            while ((c = read()) != -1) {
+                if (c == '\\') {
+                    read();
+                    quotes = 0;
+                } else if (c == '"') {
+                    if (++quotes == 3) return;
+                } else {
+                    quotes = 0;
+                }
+            }
+            return;
+        }
+        int c;
+        while ((c = read()) != -1 && c != '"' && c != '\n') {
+            if (c == '\\') read();
+        }
+    }
+
+    private void readCharLiteral() throws IOException {
+        int c;
+        while ((c = read()) != -1 && c != '\'' && c != '\n') {
+            if (c == '\\') read();
+        }
+    }
+
+    private void skipBlockComment() throws IOException {
+        int previous = 0;
+        int c;
+        while ((c = read()) != -1) {
+            if (previous == '*' && c == '/') return;
+            if (c == '\n') onLineEnd();
+            previous = c;
+        }
+    }
+
+    private String readOperator(char c) throws IOException {
+        int next = peek();
+        if (next != -1) {
+            String two = twoCharOperator(c, (char) next);
+            if (two != null) {
+                read();
+                return two;
+            }
+        }
+        return String.valueOf(c);
+    }
+
+    private static String twoCharOperator(char c, char next) {
+        switch (c) {
+            case '=': return next == '=' ? "==" : null;
+            case '!': return next == '=' ? "!=" : null;
+            case '<': return next == '=' ? "<=" : null;
+            case '>': return next == '=' ? ">=" : null;
+            case '+': return next == '+' ? "++" : next == '=' ? "+=" : null;
+            case '-': return next == '-' ? "--" : next == '=' ? "-=" : next == '>' ? "->" : null;
+            case '*': return next == '=' ? "*=" : null;
+            case '/': return next == '=' ? "/=" : null;
+            case '%': return next == '=' ? "%=" : null;
+            case '&': return next == '&' ? "&&" : next == '=' ? "&=" : null;
+            case '|': return next == '|' ? "||" : next == '=' ? "|=" : null;
+            case '^': return next == '=' ? "^=" : null;
+            case ':': return next == ':' ? "::" : null;
+            default: return null;
+        }
+    }
+
+    private static boolean isAssignment(String op) {
+        return op.endsWith("=") && !op.equals("==") && !op.equals("!=") && !op.equals("<=") && !op.equals(">=");
+    }
+
+    private static boolean isStatementKeyword(String word) {
+        switch (word) {
+            case "return":
+            case "throw":
+            case "break":
+            case "continue":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isDeclarationType(String word) {
+        switch (word) {
+            case "boolean":
+            case "byte":
+            case "short":
+            case "int":
+            case "long":
+            case "float":
+            case "double":
+            case "char":
+            case "String":
+            case "var":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isTypeKeyword(String word) {
+        return "class".equals(word) || "enum".equals(word) || "interface".equals(word) || "record".equals(word);
+    }
+
+    private static boolean isModifier(String word) {
+        switch (word) {
+            case "static":
+            case "final":
+            case "abstract":
+            case "sealed":
+            case "strictfp":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Words after which a statement cannot end.
+     */
+    private static boolean isKeyword(String word) {
+        if (isDeclarationType(word) && !"String".equals(word)) {
+            return true;
+        }
+        switch (word) {
+            case "return":
+            case "throw":
+            case "new":
+            case "else":
+            case "case":
+            case "instanceof":
+            case "public":
+            case "protected":
+            case "private":
+            case "static":
+            case "final":
+            case "abstract":
+            case "void":
+            case "extends":
+            case "implements":
+            case "throws":
+            case "package":
+            case "import":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private int peek() throws IOException {
+        if (peeked == -2) {
+            peeked = readRaw();
+        }
+        return peeked;
+    }
+
+    private int read() throws IOException {
+        int c;
+        if (peeked != -2) {
+            c = peeked;
+            peeked = -2;
+        } else {
+            c = readRaw();
+        }
+        if (c == '\r') {
+            // \r\n and a lone \r both end a line
+            afterCarriageReturn = true;
+            newLine();
+            return '\n';
+        }
+        if (c == '\n') {
+            if (afterCarriageReturn) {
+                afterCarriageReturn = false;
+                return read();
+            }
+            newLine();
+            return '\n';
+        }
+        afterCarriageReturn = false;
+        if (c != -1) {
+            column++;
+            if (lineText.length() < MAX_SNIPPET) {
+                lineText.append((char) c);
+            }
+        }
+        return c;
+    }
+
+    private void newLine() {
+        line++;
+        column = 0;
+        StringBuilder ended = lineText;
+        lineText = endedLineText;
+        lineText.setLength(0);
+        endedLineText = ended;
+    }
+
+    private int readRaw() throws IOException {
+        if (bufferPos == bufferLen) {
+            bufferLen = reader.read(buffer, 0, buffer.length);
+            bufferPos = 0;
+            if (bufferLen <= 0) {
+                bufferLen = 0;
+                return -1;
+            }
+        }
+        return buffer[bufferPos++];
+    }
+
+    /**
+     * Open/close counter that remembers where the first unmatched delimiter is.
+     */
+    private static class Counter {
+        private int opened;
+        private int closed;
+        private int depth;
+        private int[] openPositions = new int[32];
+        private String unexpectedClose;
+
+        void open(int line, int column) {
+            opened++;
+            if (depth * 2 + 1 >= openPositions.length) {
+                openPositions = Arrays.copyOf(openPositions, openPositions.length * 2);
+            }
+            openPositions[depth * 2] = line;
+            openPositions[depth * 2 + 1] = column;
+            depth++;
+        }
+
+        void close(int line, int column) {
+            closed++;
+            if (depth == 0) {
+                if (unexpectedClose == null) {
+                    unexpectedClose = "line " + line + ", column " + column;
+                }
+                return;
+            }
+            depth--;
+        }
+
+        String unmatched() {
+            if (unexpectedClose != null) {
+                return unexpectedClose;
+            }
+            if (depth > 0) {
+                // The innermost delimiter that was never closed
+                return "line " + openPositions[(depth - 1) * 2] + ", column " + openPositions[(depth - 1) * 2 + 1];
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,1055 @@
+package com.maimas.graphql.schema.processor;
+
+import com.maimas.graphql.schema.model.Arg;
+import com.maimas.graphql.schema.model.Field;
+import com.maimas.graphql.schema.model.FieldType;
+import com.maimas.graphql.schema.model.Type;
+import com.maimas.graphql.schema.model.enums.KindType;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Operations written as GraphQL documents ({@code .graphql} and {@code .gql} files of the {@code operationsDir}),
+ * parsed and validated against the schema at generation time. For each operation the templates generate a class
+ * holding the document and its hash, a variables class and a response class shaped to the selection set.
+ * <p>
+ * Fragments are shared by all the files. Fields selected through fragments on other types of an interface or
+ * union are merged into one response class, the fields of the types a value does not have are left null.
+ */
+public class OperationDocuments {
+    private static final Set<String> JAVA_KEYWORDS = Set.of(
+            "abstract", "assert", "boolean", "break", "byte", "case", "catch", "char", "class", "const", "continue",
+            "default", "do", "double", "else", "enum", "extends", "final", "finally", "float", "for", "goto", "if",
+            "implements", "import", "instanceof", "int", "interface", "long", "native", "new", "package", "private",
+            "protected", "public", "return", "short", "static", "strictfp", "super", "switch", "synchronized", "this",
+            "throw", "throws", "transient", "try", "void", "volatile", "while", "true", "false", "null", "var",
+            "record", "yield");
+    private static final String TYPENAME = "__typename";
+    // Response classes with these names would shadow the types of the generated fields
+    private static final Set<String> SHADOWING_CLASS_NAMES = Set.of(
+            "List", "String", "Integer", "Boolean", "Float", "Double", "Long", "Object", "Date", "Types");
+
+    private final SchemaIndex index;
+    private final TypeResolver typeResolver;
+    private final String typesPrefix;
+    private final Set<String> reservedClassNames;
+    private final Set<String> errors = new LinkedHashSet<>();
+    private final Map<String, Definition> fragments = new LinkedHashMap<>();
+    private final List<Definition> definitions = new ArrayList<>();
+    private final List<Operation> operations = new ArrayList<>();
+
+    /**
+     * @param sources the documents by file name, the name is used in error messages
+     * @param index the schema the operations are validated against
+     * @param typeResolver resolves the Java types of the leaf fields and variables
+     * @param typesPrefix prefix of the generated schema types, e.g. {@code Types.}
+     * @param reservedClassNames names of the classes enclosing the generated operation classes
+     * @throws IllegalArgumentException listing every syntax and validation error
+     */
+    public OperationDocuments(Map<String, String> sources, SchemaIndex index, TypeResolver typeResolver,
+                              String typesPrefix, Set<String> reservedClassNames) {
+        this.index = index;
+        this.typeResolver = typeResolver;
+        this.typesPrefix = typesPrefix;
+        this.reservedClassNames = reservedClassNames;
+        for (Map.Entry<String, String> source : sources.entrySet()) {
+            try {
+                new Parser(source.getKey(), source.getValue()).parseDocument();
+            } catch (IllegalArgumentException e) {
+                errors.add(source.getKey() + ": " + e.getMessage());
+            }
+        }
+        if (errors.isEmpty()) {
+            Set<String> classNames = new HashSet<>();
+            for (Definition definition : definitions) {
+                Operation operation = compile(definition);
+                if (operation == null) {
+                    continue;
+                }
+                if (!classNames.add(operation.getClassName())) {
+                    error(definition, "more than one operation named '" + definition.name + "'");
+                }
+                operations.add(operation);
+            }
+            for (Definition fragment : fragments.values()) {
+                if (!fragment.used) {
+                    error(fragment, "fragment '" + fragment.name + "' is never used");
+                }
+            }
+        }
+        if (!errors.isEmpty()) {
+            throw new IllegalArgumentException("Invalid GraphQL operations:\n" + String.join("\n", errors));
+        }
+    }
+
+    /**
+     * Reads and compiles the operation documents of a directory and its subdirectories.
+     *
+     * @param dir the operations directory
+     * @see #OperationDocuments(Map, SchemaIndex, TypeResolver, String, Set)
+     */
+    public static OperationDocuments read(Path dir, SchemaIndex index, TypeResolver typeResolver, String typesPrefix,
+                                          Set<String> reservedClassNames) throws IOException {
+        Map<String, String> sources = new LinkedHashMap<>();
+        for (Path file : find(dir)) {
+            sources.put(dir.relativize(file).toString().replace('\\', '/'), Files.readString(file, StandardCharsets.UTF_8));
+        }
+        return new OperationDocuments(sources, index, typeResolver, typesPrefix, reservedClassNames);
+    }
+
+    /**
+     * @return the {@code .graphql} and {@code .gql} files of the directory and its subdirectories, sorted by path
+     */
+    public static List<Path> find(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            throw new IllegalArgumentException("Operations directory does not exist: " + dir);
+        }
+        try (Stream<Path> files = Files.walk(dir)) {
+            return files.filter(Files::isRegularFile)
+                    .filter(file -> {
+                        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+                        return name.endsWith(".graphql") || name.endsWith(".gql");
+                    })
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * @return hex encoded SHA-256 of the names and contents of the operation documents, for incremental generation
+     */
+    public static String fingerprint(Path dir) throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (Path file : find(dir)) {
+            content.append(dir.relativize(file)).append('\n').append(Files.readString(file, StandardCharsets.UTF_8)).append('\n');
+        }
+        return GenerationFingerprint.sha256(content.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the operations in file order
+     */
+    public List<Operation> getOperations() {
+        return Collections.unmodifiableList(operations);
+    }
+
+    /**
+     * @return the operations as persisted query manifest entries
+     */
+    public List<StaticOperations.Operation> toManifestOperations() {
+        List<StaticOperations.Operation> entries = new ArrayList<>();
+        for (Operation operation : operations) {
+            Map<String, String> variables = new LinkedHashMap<>();
+            operation.getVariables().forEach(variable -> variables.put(variable.getName(), variable.getGraphqlType()));
+            entries.add(new StaticOperations.Operation(operation.getKind().toLowerCase(Locale.ROOT), operation.getName(),
+                    operation.getDocument(), null, variables));
+        }
+        return entries;
+    }
+
+    // --- Validation and response shapes ---
+
+    private Operation compile(Definition definition) {
+        Set<String> usedFragments = new LinkedHashSet<>();
+        Set<String> usedVariables = new LinkedHashSet<>();
+        collectUsages(definition, usedFragments, usedVariables, new ArrayList<>());
+        Type root = rootType(definition);
+        if (root == null) {
+            return null;
+        }
+        int errorCount = errors.size();
+        String className = definition.name.substring(0, 1).toUpperCase(Locale.ROOT) + definition.name.substring(1);
+        if (reservedClassNames.contains(className) || className.equals("Data") || className.equals("Variables")) {
+            error(definition, "operation name '" + definition.name + "' clashes with a generated class, rename the operation");
+        }
+
+        List<Variable> variables = new ArrayList<>();
+        Map<String, VariableDefinition> declared = new LinkedHashMap<>();
+        for (VariableDefinition variable : definition.variables) {
+            if (declared.put(variable.name, variable) != null) {
+                error(variable.line, variable.column, definition, "variable '$" + variable.name + "' is declared more than once");
+            }
+            if (JAVA_KEYWORDS.contains(variable.name)) {
+                error(variable.line, variable.column, definition, "variable '$" + variable.name + "' is a Java keyword, rename it");
+            }
+            Type type = index.getType(variable.type.namedType());
+            if (type == null || (type.getKind() != KindType.SCALAR && type.getKind() != KindType.ENUM
+                    && type.getKind() != KindType.INPUT_OBJECT)) {
+                error(variable.line, variable.column, definition, "variable '$" + variable.name + "' has type '"
+                        + variable.type.namedType() + "' which is not an input type of the schema");
+                continue;
+            }
+            variables.add(new Variable(variable.name, typeResolver.resolve(variable.type.toFieldType(index), typesPrefix),
+                    variable.type.toString()));
+        }
+
+        validateSelections(definition, definition.selections, root, new ArrayList<>());
+        for (String used : usedVariables) {
+            if (!declared.containsKey(used)) {
+                error(definition, "variable '$" + used + "' is not declared by operation '" + definition.name + "'");
+            }
+        }
+        for (VariableDefinition variable : definition.variables) {
+            if (!usedVariables.contains(variable.name)) {
+                error(variable.line, variable.column, definition, "variable '$" + variable.name + "' is never used");
+            }
+        }
+
+        if (errors.size() > errorCount) {
+            return null;
+        }
+
+        Set<String> enclosing = new HashSet<>(reservedClassNames);
+        enclosing.add(className);
+        ResponseClass data = responseClass("Data", List.of(new Scope(definition.selections, root, definition)), enclosing);
+
+        StringBuilder document = new StringBuilder();
+        printDefinition(definition, document);
+        for (Definition fragment : fragments.values()) {
+            if (usedFragments.contains(fragment.name)) {
+                document.append(' ');
+                printDefinition(fragment, document);
+            }
+        }
+        String text = document.toString();
+        String hash = GenerationFingerprint.sha256(text.getBytes(StandardCharsets.UTF_8));
+        return new Operation(className, definition.name, definition.keyword.substring(0, 1).toUpperCase(Locale.ROOT)
+                + definition.keyword.substring(1), text, hash, definition.file, variables, data);
+    }
+
+    private Type rootType(Definition definition) {
+        if (definition.keyword.equals("subscription")) {
+            error(definition, "subscription operations are not supported");
+            return null;
+        }
+        String kind = definition.keyword.equals("query") ? SchemaIndex.QUERY : SchemaIndex.MUTATION;
+        for (Type root : index.getOperations()) {
+            if (kind.equals(index.getOperationKinds().get(root.getName()))) {
+                return root;
+            }
+        }
+        error(definition, "the schema has no " + definition.keyword + " type");
+        return null;
+    }
+
+    /**
+     * Collects the fragments spread by a definition, transitively, and the variables they use.
+     */
+    private void collectUsages(Definition definition, Set<String> usedFragments, Set<String> usedVariables, List<String> path) {
+        usedVariables.addAll(definition.variableUsages);
+        for (Selection spread : definition.spreads) {
+            Definition fragment = fragments.get(spread.name);
+            if (fragment == null) {
+                error(spread.line, spread.column, definition, "unknown fragment '" + spread.name + "'");
+            } else if (path.contains(fragment.name)) {
+                error(spread.line, spread.column, definition, "fragment '" + fragment.name + "' spreads itself");
+            } else {
+                fragment.used = true;
+                if (usedFragments.add(fragment.name)) {
+                    path.add(fragment.name);
+                    collectUsages(fragment, usedFragments, usedVariables, path);
+                    path.remove(path.size() - 1);
+                }
+            }
+        }
+    }
+
+    private void validateSelections(Definition owner, List<Selection> selections, Type parent, List<String> path) {
+        for (Selection selection : selections) {
+            switch (selection.kind) {
+                case FIELD:
+                    validateField(owner, selection, parent, path);
+                    break;
+                case SPREAD: {
+                    Definition fragment = fragments.get(selection.name);
+                    if (fragment == null || path.contains(fragment.name)) {
+                        break; // reported with the usages
+                    }
+                    Type type = conditionType(owner, selection, fragment.typeCondition, parent);
+                    if (type != null) {
+                        path.add(fragment.name);
+                        validateSelections(fragment, fragment.selections, type, path);
+                        path.remove(path.size() - 1);
+                    }
+                    break;
+                }
+                default: {
+                    Type type = selection.typeCondition == null ? parent : conditionType(owner, selection, selection.typeCondition, parent);
+                    if (type != null) {
+                        validateSelections(owner, selection.selections, type, path);
+                    }
+                    break;
+                }
+            }
+        }
+    }
+
+    private void validateField(Definition owner, Selection selection, Type parent, List<String> path) {
+        if (JAVA_KEYWORDS.contains(selection.responseName())) {
+            error(selection.line, selection.column, owner, "'" + selection.responseName()
+                    + "' is a Java keyword, give the field an alias");
+        }
+        if (selection.name.equals(TYPENAME)) {
+            if (selection.selections != null) {
+                error(selection.line, selection.column, owner, "'" + TYPENAME + "' has no fields to select");
+            }
+            return;
+        }
+        Field field = field(parent, selection.name);
+        if (field == null) {
+            error(selection.line, selection.column, owner, "type '" + parent.getName() + "' has no field '" + selection.name + "'");
+            return;
+        }
+        Set<String> given = new HashSet<>();
+        for (Argument argument : selection.arguments) {
+            if (!given.add(argument.name)) {
+                error(selection.line, selection.column, owner, "argument '" + argument.name + "' is given more than once");
+            } else if (field.getArgs() == null || field.getArgs().stream().noneMatch(arg -> argument.name.equals(arg.getName()))) {
+                error(selection.line, selection.column, owner, "field '" + parent.getName() + "." + field.getName()
+                        + "' has no argument '" + argument.name + "'");
+            }
+        }
+        if (field.getArgs() != null) {
+            for (Arg arg : field.getArgs()) {
+                if (arg.getType() != null && "NON_NULL".equals(arg.getType().getKind()) && arg.getDefaultValue() == null
+                        && !given.contains(arg.getName())) {
+                    error(selection.line, selection.column, owner, "field '" + parent.getName() + "." + field.getName()
+                            + "' requires argument '" + arg.getName() + "'");
+                }
+            }
+        }
+        Type type = index.getType(namedType(field.getType()));
+        if (type == null) {
+            error(selection.line, selection.column, owner, "type '" + namedType(field.getType()) + "' of field '"
+                    + parent.getName() + "." + field.getName() + "' is not generated");
+        } else if (isLeaf(type)) {
+            if (selection.selections != null) {
+                error(selection.line, selection.column, owner, "field '" + field.getName() + "' of type '" + type.getName()
+                        + "' has no fields to select");
+            }
+        } else if (selection.selections == null) {
+            error(selection.line, selection.column, owner, "field '" + field.getName() + "' of type '" + type.getName()
+                    + "' needs a selection of fields");
+        } else {
+            validateSelections(owner, selection.selections, type, path);
+        }
+    }
+
+    /**
+     * @return the type of a fragment's type condition, or null when it cannot apply to the parent type
+     */
+    private Type conditionType(Definition owner, Selection selection, String condition, Type parent) {
+        Type type = index.getType(condition);
+        if (type == null || isLeaf(type) || type.getKind() == KindType.INPUT_OBJECT) {
+            error(selection.line, selection.column, owner, "unknown type '" + condition + "' in fragment type condition");
+            return null;
+        }
+        Set<String> possible = index.getPossibleTypes(type);
+        possible.retainAll(index.getPossibleTypes(parent));
+        if (possible.isEmpty()) {
+            error(selection.line, selection.column, owner, "fragment on '" + condition + "' can never apply to type '"
+                    + parent.getName() + "'");
+            return null;
+        }
+        return type;
+    }
+
+    /**
+     * Builds the class of a selection set. Fields with the same response name are merged, whether they come
+     * from the selection itself, from fragment spreads or from inline fragments.
+     */
+    private ResponseClass responseClass(String name, List<Scope> scopes, Set<String> enclosing) {
+        Map<String, MergedField> merged = new LinkedHashMap<>();
+        for (Scope scope : scopes) {
+            merge(scope.owner, scope.selections, scope.type, merged);
+        }
+
+        Set<String> nestedNames = new HashSet<>(enclosing);
+        nestedNames.add(name);
+        List<ResponseField> fields = new ArrayList<>();
+        List<ResponseClass> classes = new ArrayList<>();
+        for (Map.Entry<String, MergedField> entry : merged.entrySet()) {
+            MergedField field = entry.getValue();
+            if (field.nested.isEmpty()) {
+                fields.add(new ResponseField(entry.getKey(), field.javaType));
+                continue;
+            }
+            String className = entry.getKey().substring(0, 1).toUpperCase(Locale.ROOT) + entry.getKey().substring(1);
+            while (nestedNames.contains(className) || SHADOWING_CLASS_NAMES.contains(className)) {
+                className += "_";
+            }
+            nestedNames.add(className);
+            Set<String> nestedEnclosing = new HashSet<>(enclosing);
+            nestedEnclosing.add(name);
+            classes.add(responseClass(className, field.nested, nestedEnclosing));
+            String javaType = className;
+            for (int i = 0; i < field.listDepth; i++) {
+                javaType = "List<" + javaType + ">";
+            }
+            fields.add(new ResponseField(entry.getKey(), javaType));
+        }
+        return new ResponseClass(name, fields, classes);
+    }
+
+    private void merge(Definition owner, List<Selection> selections, Type parent, Map<String, MergedField> merged) {
+        for (Selection selection : selections) {
+            if (selection.kind == Selection.Kind.SPREAD) {
+                Definition fragment = fragments.get(selection.name);
+                merge(fragment, fragment.selections, index.getType(fragment.typeCondition), merged);
+                continue;
+            }
+            if (selection.kind == Selection.Kind.INLINE) {
+                merge(owner, selection.selections, selection.typeCondition == null ? parent : index.getType(selection.typeCondition), merged);
+                continue;
+            }
+            String responseName = selection.responseName();
+            String arguments = selection.printArguments();
+            MergedField field = merged.get(responseName);
+            if (field != null && (!field.name.equals(selection.name) || !field.arguments.equals(arguments))) {
+                error(selection.line, selection.column, owner, "'" + responseName + "' selects '" + field.name + field.arguments
+                        + "' and '" + selection.name + arguments + "', use different aliases");
+                continue;
+            }
+            String javaType;
+            int listDepth = 0;
+            Type type = null;
+            if (selection.name.equals(TYPENAME)) {
+                javaType = "String";
+            } else {
+                FieldType fieldType = field(parent, selection.name).getType();
+                type = index.getType(namedType(fieldType));
+                javaType = isLeaf(type) ? typeResolver.resolve(fieldType, typesPrefix) : null;
+                for (FieldType t = fieldType; t != null; t = t.getOfType()) {
+                    if ("LIST".equals(t.getKind())) {
+                        listDepth++;
+                    }
+                }
+            }
+            if (field == null) {
+                field = new MergedField(selection.name, arguments, javaType, listDepth);
+                merged.put(responseName, field);
+            } else if (!java.util.Objects.equals(field.javaType, javaType) || field.listDepth != listDepth) {
+                error(selection.line, selection.column, owner, "'" + responseName + "' has different types on the types of '"
+                        + parent.getName() + "', use different aliases");
+                continue;
+            }
+            if (javaType == null) {
+                field.nested.add(new Scope(selection.selections, type, owner));
+            }
+        }
+    }
+
+    private static Field field(Type type, String name) {
+        if (type.getFields() == null) {
+            return null;
+        }
+        for (Field field : type.getFields()) {
+            if (name.equals(field.getName())) {
+                return field;
+            }
+        }
+        return null;
+    }
+
+    private static String namedType(FieldType type) {
+        while (type != null && type.getName() == null) {
+            type = type.getOfType();
+        }
+        return type == null ? null : type.getName();
+    }
+
+    private static boolean isLeaf(Type type) {
+        return type.getKind() == KindType.SCALAR || type.getKind() == KindType.ENUM;
+    }
+
+    private void error(Definition definition, String message) {
+        error(definition.line, definition.column, definition, message);
+    }
+
+    private void error(int line, int column, Definition definition, String message) {
+        errors.add(definition.file + ":" + line + ":" + column + ": " + message);
+    }
+
+    // --- Printing: one line, canonical spacing, comments dropped ---
+
+    private static void printDefinition(Definition definition, StringBuilder out) {
+        out.append(definition.keyword).append(' ').append(definition.name);
+        if (definition.typeCondition != null) {
+            out.append(" on ").append(definition.typeCondition);
+        }
+        if (!definition.variables.isEmpty()) {
+            out.append('(');
+            String separator = "";
+            for (VariableDefinition variable : definition.variables) {
+                out.append(separator).append('$').append(variable.name).append(": ").append(variable.type);
+                if (variable.defaultValue != null) {
+                    out.append(" = ").append(variable.defaultValue);
+                }
+                out.append(variable.directives);
+                separator = ", ";
+            }
+            out.append(')');
+        }
+        out.append(definition.directives).append(' ');
+        printSelections(definition.selections, out);
+    }
+
+    private static void printSelections(List<Selection> selections, StringBuilder out) {
+        out.append('{');
+        for (Selection selection : selections) {
+            out.append(' ');
+            switch (selection.kind) {
+                case FIELD:
+                    if (selection.alias != null) {
+                        out.append(selection.alias).append(": ");
+                    }
+                    out.append(selection.name).append(selection.printArguments()).append(selection.directives);
+                    break;
+                case SPREAD:
+                    out.append("...").append(selection.name).append(selection.directives);
+                    break;
+                default:
+                    out.append("...");
+                    if (selection.typeCondition != null) {
+                        out.append(" on ").append(selection.typeCondition);
+                    }
+                    out.append(selection.directives);
+                    break;
+            }
+            if (selection.selections != null) {
+                out.append(' ');
+                printSelections(selection.selections, out);
+            }
+        }
+        out.append(" }");
+    }
+
+    // --- Parsing ---
+
+    private class Parser {
+        private final String file;
+        private final GraphQLLexer lexer;
+        private Definition current;
+
+        Parser(String file, String source) {
+            this.file = file;
+            this.lexer = new GraphQLLexer(source);
+        }
+
+        void parseDocument() {
+            while (lexer.kind() != GraphQLLexer.Kind.EOF) {
+                if (lexer.is("{")) {
+                    throw new IllegalArgumentException("line " + lexer.line() + ": anonymous operations are not supported, name the operation");
+                }
+                int line = lexer.line();
+                int column = lexer.column();
+                String keyword = lexer.expectName();
+                current = new Definition(file, keyword, line, column);
+                switch (keyword) {
+                    case "query":
+                    case "mutation":
+                    case "subscription":
+                        parseOperation();
+                        definitions.add(current);
+                        break;
+                    case "fragment":
+                        parseFragment();
+                        if (fragments.putIfAbsent(current.name, current) != null) {
+                            errors.add(file + ":" + line + ":" + column + ": fragment '" + current.name + "' is defined more than once");
+                        }
+                        break;
+                    default:
+                        throw new IllegalArgumentException("line " + line + ": unexpected definition '" + keyword + "'");
+                }
+            }
+        }
+
+        private void parseOperation() {
+            if (!lexer.isName()) {
+                throw lexer.error("expected the operation name");
+            }
+            current.name = lexer.expectName();
+            if (lexer.skip("(")) {
+                while (!lexer.skip(")")) {
+                    VariableDefinition variable = new VariableDefinition(lexer.line(), lexer.column());
+                    lexer.expect("$");
+                    variable.name = lexer.expectName();
+                    lexer.expect(":");
+                    variable.type = parseType();
+                    if (lexer.skip("=")) {
+                        variable.defaultValue = parseValue(true);
+                    }
+                    variable.directives = parseDirectives();
+                    current.variables.add(variable);
+                }
+            }
+            current.directives = parseDirectives();
+            current.selections = parseSelectionSet();
+        }
+
+        private void parseFragment() {
+            if (lexer.is("on")) {
+                throw lexer.error("expected the fragment name");
+            }
+            current.name = lexer.expectName();
+            lexer.expect("on");
+            current.typeCondition = lexer.expectName();
+            current.directives = parseDirectives();
+            current.selections = parseSelectionSet();
+        }
+
+        private TypeRef parseType() {
+            TypeRef type;
+            if (lexer.skip("[")) {
+                type = new TypeRef(null, parseType());
+                lexer.expect("]");
+            } else {
+                type = new TypeRef(lexer.expectName(), null);
+            }
+            type.nonNull = lexer.skip("!");
+            return type;
+        }
+
+        private List<Selection> parseSelectionSet() {
+            lexer.expect("{");
+            List<Selection> selections = new ArrayList<>();
+            do {
+                selections.add(parseSelection());
+            } while (!lexer.skip("}"));
+            return selections;
+        }
+
+        private Selection parseSelection() {
+            int line = lexer.line();
+            int column = lexer.column();
+            if (lexer.skip("...")) {
+                if (lexer.isName() && !lexer.is("on")) {
+                    Selection spread = new Selection(Selection.Kind.SPREAD, line, column);
+                    spread.name = lexer.expectName();
+                    spread.directives = parseDirectives();
+                    current.spreads.add(spread);
+                    return spread;
+                }
+                Selection inline = new Selection(Selection.Kind.INLINE, line, column);
+                if (lexer.skip("on")) {
+                    inline.typeCondition = lexer.expectName();
+                }
+                inline.directives = parseDirectives();
+                inline.selections = parseSelectionSet();
+                return inline;
+            }
+            Selection field = new Selection(Selection.Kind.FIELD, line, column);
+            field.name = lexer.expectName();
+            if (lexer.skip(":")) {
+                field.alias = field.name;
+                field.name = lexer.expectName();
+            }
+            field.arguments = parseArguments(false);
+            field.directives = parseDirectives();
+            if (lexer.is("{")) {
+                field.selections = parseSelectionSet();
+            }
+            return field;
+        }
+
+        private List<Argument> parseArguments(boolean constant) {
+            List<Argument> arguments = new ArrayList<>();
+            if (lexer.skip("(")) {
+                while (!lexer.skip(")")) {
+                    String name = lexer.expectName();
+                    lexer.expect(":");
+                    arguments.add(new Argument(name, parseValue(constant)));
+                }
+            }
+            return arguments;
+        }
+
+        private String parseDirectives() {
+            StringBuilder directives = new StringBuilder();
+            while (lexer.skip("@")) {
+                directives.append(" @").append(lexer.expectName());
+                List<Argument> arguments = parseArguments(false);
+                directives.append(Argument.print(arguments));
+            }
+            return directives.toString();
+        }
+
+        private String parseValue(boolean constant) {
+            if (lexer.is("$")) {
+                if (constant) {
+                    throw lexer.error("expected a constant value");
+                }
+                lexer.next();
+                String name = lexer.expectName();
+                current.variableUsages.add(name);
+                return "$" + name;
+            }
+            if (lexer.skip("[")) {
+                List<String> items = new ArrayList<>();
+                while (!lexer.skip("]")) {
+                    items.add(parseValue(constant));
+                }
+                return "[" + String.join(", ", items) + "]";
+            }
+            if (lexer.skip("{")) {
+                List<String> fields = new ArrayList<>();
+                while (!lexer.skip("}")) {
+                    String name = lexer.expectName();
+                    lexer.expect(":");
+                    fields.add(name + ": " + parseValue(constant));
+                }
+                return "{" + String.join(", ", fields) + "}";
+            }
+            if (lexer.isString()) {
+                return quote(lexer.next());
+            }
+            if (lexer.kind() == GraphQLLexer.Kind.INT || lexer.kind() == GraphQLLexer.Kind.FLOAT || lexer.isName()) {
+                return lexer.next();
+            }
+            throw lexer.error("expected a value");
+        }
+    }
+
+    private static String quote(String value) {
+        StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': quoted.append("\\\""); break;
+                case '\\': quoted.append("\\\\"); break;
+                case '\n': quoted.append("\\n"); break;
+                case '\r': quoted.append("\\r"); break;
+                case '\t': quoted.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        quoted.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        quoted.append(c);
+                    }
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    // --- Document model ---
+
+    /**
+     * An operation or fragment definition.
+     */
+    private static class Definition {
+        private final String file;
+        private final String keyword;
+        private final int line;
+        private final int column;
+        private String name;
+        private String typeCondition;
+        private String directives = "";
+        private final List<VariableDefinition> variables = new ArrayList<>();
+        private List<Selection> selections;
+        private final List<Selection> spreads = new ArrayList<>();
+        private final Set<String> variableUsages = new LinkedHashSet<>();
+        private boolean used;
+
+        Definition(String file, String keyword, int line, int column) {
+            this.file = file;
+            this.keyword = keyword;
+            this.line = line;
+            this.column = column;
+        }
+    }
+
+    private static class VariableDefinition {
+        private final int line;
+        private final int column;
+        private String name;
+        private TypeRef type;
+        private String defaultValue;
+        private String directives;
+
+        VariableDefinition(int line, int column) {
+            this.line = line;
+            this.column = column;
+        }
+    }
+
+    private static class TypeRef {
+        private final String name;
+        private final TypeRef ofType;
+        private boolean nonNull;
+
+        TypeRef(String name, TypeRef ofType) {
+            this.name = name;
+            this.ofType = ofType;
+        }
+
+        String namedType() {
+            return name != null ? name : ofType.namedType();
+        }
+
+        /**
+         * @return the type as a schema type reference, to resolve its Java type like the generated arguments
+         */
+        FieldType toFieldType(SchemaIndex index) {
+            FieldType type = new FieldType();
+            if (name != null) {
+                type.setKind(index.getType(name).getKind().name());
+                type.setName(name);
+            } else {
+                type.setKind("LIST");
+                type.setOfType(ofType.toFieldType(index));
+            }
+            if (!nonNull) {
+                return type;
+            }
+            FieldType wrapper = new FieldType();
+            wrapper.setKind("NON_NULL");
+            wrapper.setOfType(type);
+            return wrapper;
+        }
+
+        @Override
+        public String toString() {
+            return (name != null ? name : "[" + ofType + "]") + (nonNull ? "!" : "");
+        }
+    }
+
+    private static class Selection {
+        enum Kind { FIELD, SPREAD, INLINE }
+
+        private final Kind kind;
+        private final int line;
+        private final int column;
+        private String alias;
+        private String name;
+        private String typeCondition;
+        private List<Argument> arguments = List.of();
+        private String directives = "";
+        private List<Selection> selections;
+
+        Selection(Kind kind, int line, int column) {
+            this.kind = kind;
+            this.line = line;
+            this.column = column;
+        }
+
+        String responseName() {
+            return alias != null ? alias : name;
+        }
+
+        String printArguments() {
+            return Argument.print(arguments);
+        }
+    }
+
+    private static class Argument {
+        private final String name;
+        private final String value;
+
+        Argument(String name, String value) {
+            this.name = name;
+            this.value = value;
+        }
+
+        static String print(List<Argument> arguments) {
+            if (arguments.isEmpty()) {
+                return "";
+            }
+            return arguments.stream().map(argument -> argument.name + ": " + argument.value)
+                    .collect(Collectors.joining(", ", "(", ")"));
+        }
+    }
+
+    /**
+     * A selection set with the type it selects from, merged into one response class.
+     */
+    private static class Scope {
+        private final List<Selection> selections;
+        private final Type type;
+        private final Definition owner;
+
+        Scope(List<Selection> selections, Type type, Definition owner) {
+            this.selections = selections;
+            this.type = type;
+            this.owner = owner;
+        }
+    }
+
+    private static class MergedField {
+        private final String name;
+        private final String arguments;
+        private final String javaType;
+        private final int listDepth;
+        private final List<Scope> nested = new ArrayList<>();
+
+        MergedField(String name, String arguments, String javaType, int listDepth) {
+            this.name = name;
+            this.arguments = arguments;
+            this.javaType = javaType;
+            this.listDepth = listDepth;
+        }
+    }
+
+    // --- Template model ---
+
+    /**
+     * A compiled operation, rendered as a class of the generated {@code Operations} class.
+     */
+    public static class Operation {
+        private final String className;
+        private final String name;
+        private final String kind;
+        private final String document;
+        private final String hash;
+        private final String source;
+        private final List<Variable> variables;
+        private final ResponseClass data;
+
+        Operation(String className, String name, String kind, String document, String hash, String source,
+                  List<Variable> variables, ResponseClass data) {
+            this.className = className;
+            this.name = name;
+            this.kind = kind;
+            this.document = document;
+            this.hash = hash;
+            this.source = source;
+            this.variables = Collections.unmodifiableList(variables);
+            this.data = data;
+        }
+
+        public String getClassName() {
+            return className;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return {@code Query} or {@code Mutation}, as the runtime's {@code GQLFunctionType}
+         */
+        public String getKind() {
+            return kind;
+        }
+
+        /**
+         * @return the document, printed on one line with the fragments it uses
+         */
+        public String getDocument() {
+            return document;
+        }
+
+        /**
+         * @return hex encoded SHA-256 hash of the document
+         */
+        public String getHash() {
+            return hash;
+        }
+
+        /**
+         * @return the file the operation is defined in, relative to the operations directory
+         */
+        public String getSource() {
+            return source;
+        }
+
+        public List<Variable> getVariables() {
+            return variables;
+        }
+
+        public ResponseClass getData() {
+            return data;
+        }
+    }
+
+    /**
+     * A variable of an operation.
+     */
+    public static class Variable {
+        private final String name;
+        private final String javaType;
+        private final String graphqlType;
+
+        Variable(String name, String javaType, String graphqlType) {
+            this.name = name;
+            this.javaType = javaType;
+            this.graphqlType = graphqlType;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getJavaType() {
+            return javaType;
+        }
+
+        /**
+         * @return the type as declared in the document, e.g. {@code [String!]}
+         */
+        public String getGraphqlType() {
+            return graphqlType;
+        }
+    }
+
+    /**
+     * A response class: the fields of one selection set, and the classes of its nested selection sets.
+     */
+    public static class ResponseClass {
+        private final String className;
+        private final List<ResponseField> fields;
+        private final List<ResponseClass> classes;
+
+        ResponseClass(String className, List<ResponseField> fields, List<ResponseClass> classes) {
+            this.className = className;
+            this.fields = Collections.unmodifiableList(fields);
+            this.classes = Collections.unmodifiableList(classes);
+        }
+
+        public String getClassName() {
+            return className;
+        }
+
+        public List<ResponseField> getFields() {
+            return fields;
+        }
+
+        public List<ResponseClass> getClasses() {
+            return classes;
+        }
+    }
+
+    /**
+     * A field of a response class, named after the response name (the alias when there is one).
+     */
+    public static class ResponseField {
+        private final String name;
+        private final String javaType;
+
+        ResponseField(String name, String javaType) {
+            this.name = name;
+            this.javaType = javaType;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getJavaType() {
+            return javaType;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.maimas.graphql.schema.processor;
+
+import com.maimas.graphql.generator.UserConfig;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * On-disk cache of introspection responses, keyed by URL and header set.
+ * Keeps the validators (ETag / Last-Modified) returned by the server so that later fetches can be conditional.
+ */
+public class SchemaCache {
+    private static final java.util.logging.Logger LOGGER = java.util.logging.Logger.getLogger(SchemaCache.class.getName());
+
+    private final Path dir;
+    private final String key;
+    private final Path bodyFile;
+    private final Path metaFile;
+
+    private SchemaCache(Path dir, String key) {
+        this.dir = dir;
+        this.key = key;
+        this.bodyFile = dir.resolve(key + ".json");
+        this.metaFile = dir.resolve(key + ".properties");
+    }
+
+    /**
+     * Creates the cache for a schema endpoint.
+     *
+     * @param cfg the user configuration providing the cache directory
+     * @param url the GraphQL endpoint
+     * @param httpHeaders the headers sent with the introspection request
+     * @return the cache for this URL and header set
+     */
+    public static SchemaCache of(UserConfig cfg, String url, Map<String, String> httpHeaders) {
+        StringBuilder key = new StringBuilder(url);
+        // Sorted so that the key does not depend on header order
+        new TreeMap<>(httpHeaders == null ? Map.of() : httpHeaders).forEach((k, v) -> key.append('\n').append(k).append(':').append(v));
+        String hash = GenerationFingerprint.sha256(key.toString().getBytes(StandardCharsets.UTF_8));
+        return new SchemaCache(Paths.get(cfg.getCacheDir(), "schema-cache"), hash);
+    }
+
+    /**
+     * Loads the cached entry.
+     *
+     * @return the cached entry or null if there is none (or it is unreadable)
+     */
+    public Entry load() {
+        if (!Files.exists(bodyFile) || !Files.exists(metaFile)) {
+            return null;
+        }
+        try (InputStream in = Files.newInputStream(metaFile)) {
+            Properties meta = new Properties();
+            meta.load(in);
+            return new Entry(bodyFile,
+                    meta.getProperty("etag"),
+                    meta.getProperty("lastModified"),
+                    Long.parseLong(meta.getProperty("fetchedAt", "0")));
+        } catch (IOException | NumberFormatException e) {
+            LOGGER.warning("Ignoring unreadable schema cache entry " + metaFile + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Creates a temporary file in the cache directory that a response body can be streamed to.
+     * Hand it to {@link #store(Path, String, String)} once the body has been read completely.
+     *
+     * @return the temporary body file
+     */
+    public Path newBodyFile() throws IOException {
+        Files.createDirectories(dir);
+        return Files.createTempFile(dir, key, ".tmp");
+    }
+
+    /**
+     * Stores a freshly downloaded schema together with its validators.
+     *
+     * @param tempBody the response body, as written to a file obtained from {@link #newBodyFile()}
+     * @param etag the ETag response header, may be null
+     * @param lastModified the Last-Modified response header, may be null
+     */
+    public void store(Path tempBody, String etag, String lastModified) {
+        try {
+            replace(tempBody, bodyFile);
+            writeMeta(etag, lastModified);
+        } catch (IOException e) {
+            // Not fatal: the next build downloads the schema again
+            LOGGER.warning("Unable to write schema cache " + bodyFile + ": " + e.getMessage());
+            discard(tempBody);
+        }
+    }
+
+    /**
+     * Deletes a temporary body file whose response turned out to be unusable.
+     *
+     * @param tempBody the file obtained from {@link #newBodyFile()}
+     */
+    public void discard(Path tempBody) {
+        try {
+            Files.deleteIfExists(tempBody);
+        } catch (IOException e) {
+            LOGGER.fine("Unable to delete " + tempBody + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Marks a cached entry as revalidated now (server answered 304 Not Modified).
+     *
+     * @param entry the revalidated entry
+     */
+    public void touch(Entry entry) {
+        try {
+            writeMeta(entry.getEtag(), entry.getLastModified());
+        } catch (IOException e) {
+            LOGGER.warning("Unable to update schema cache " + metaFile + ": " + e.getMessage());
+        }
+    }
+
+    private void writeMeta(String etag, String lastModified) throws IOException {
+        Properties meta = new Properties();
+        if (etag != null) meta.setProperty("etag", etag);
+        if (lastModified != null) meta.setProperty("lastModified", lastModified);
+        meta.setProperty("fetchedAt", String.valueOf(System.currentTimeMillis()));
+        // Written aside and moved like the body: concurrent builds of the same URL never read a torn file
+        Files.createDirectories(dir);
+        Path tempMeta = Files.createTempFile(dir, key, ".properties.tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(tempMeta)) {
+                meta.store(out, "GraphQL introspection cache");
+            }
+            replace(tempMeta, metaFile);
+        } finally {
+            discard(tempMeta);
+        }
+    }
+
+    private static void replace(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (java.nio.file.AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * A cached introspection response.
+     */
+    public static class Entry {
+        private final Path bodyFile;
+        private final String etag;
+        private final String lastModified;
+        private final long fetchedAt;
+
+        Entry(Path bodyFile, String etag, String lastModified, long fetchedAt) {
+            this.bodyFile = bodyFile;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.fetchedAt = fetchedAt;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public String getLastModified() {
+            return lastModified;
+        }
+
+        /**
+         * Checks whether the entry may be used without contacting the server.
+         *
+         * @param ttlSeconds time to live in seconds, 0 or less means always revalidate
+         * @return true if the entry is younger than the TTL
+         */
+        public boolean isFresh(long ttlSeconds) {
+            return ttlSeconds > 0 && System.currentTimeMillis() - fetchedAt < ttlSeconds * 1000L;
+        }
+
+        public InputStream openBody() throws IOException {
+            return Files.newInputStream(bodyFile);
+        }
+    }
+}
@@ -1,8 +1,14 @@
 package com.maimas.graphql.schema.processor;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.maimas.graphql.generator.UserConfig;
+import com.maimas.graphql.schema.model.Data;
+import com.maimas.graphql.schema.model.SchemaModel;
+import org.apache.http.Header;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpStatus;
 import org.apache.http.client.config.RequestConfig;
@@ -13,15 +19,78 @@ import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClients;
 import org.apache.http.util.EntityUtils;
 
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 public class SchemaFetcher {
+    private static final java.util.logging.Logger LOGGER = java.util.logging.Logger.getLogger(SchemaFetcher.class.getName());
 
+    /**
+     * Shared mapper: ObjectMapper is thread safe once configured and expensive to create.
+     */
+    static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @FunctionalInterface
+    private interface BodyReader<T> {
+        T read(InputStream body) throws IOException;
+    }
+
+    /**
+     * Downloads the introspection response as a String.
+     * Prefer {@link #fetch(String, HashMap, UserConfig)}, which does not keep the raw response in memory.
+     */
     public static String download(final String gqlUrl, HashMap<String, String> httpHeaders, UserConfig cfg) throws IOException {
+        return execute(gqlUrl, httpHeaders, cfg, body -> {
+            byte[] bytes = body.readAllBytes();
+            readResponse(new ByteArrayInputStream(bytes), false, httpHeaders);
+            return new String(bytes, StandardCharsets.UTF_8);
+        });
+    }
+
+    /**
+     * Fetches the introspection response and parses it while it is being received.
+     *
+     * @return the parsed schema and the hash of the response body
+     */
+    public static FetchedSchema fetch(final String gqlUrl, HashMap<String, String> httpHeaders, UserConfig cfg) throws IOException {
+        return execute(gqlUrl, httpHeaders, cfg, body -> readResponse(body, true, httpHeaders));
+    }
+
+    /**
+     * Parses a locally stored introspection result.
+     *
+     * @param schemaFile JSON file holding the result of the introspection query
+     * @return the parsed schema and the hash of the file
+     */
+    public static FetchedSchema read(Path schemaFile) throws IOException {
+        try (InputStream in = Files.newInputStream(schemaFile)) {
+            return readResponse(in, true, null);
+        }
+    }
+
+    private static <T> T execute(final String gqlUrl, HashMap<String, String> httpHeaders, UserConfig cfg, BodyReader<T> reader) throws IOException {
+        SchemaCache cache = cfg.isSchemaCache() ? SchemaCache.of(cfg, gqlUrl, httpHeaders) : null;
+        SchemaCache.Entry cached = cache != null ? cache.load() : null;
+        int ttlSeconds = cfg.getSchemaCacheTtlSeconds() != null ? cfg.getSchemaCacheTtlSeconds() : 0;
+        if (cached != null && cached.isFresh(ttlSeconds)) {
+            LOGGER.info("Using cached GraphQL schema for " + gqlUrl + " (within TTL of " + ttlSeconds + "s)");
+            try (InputStream in = cached.openBody()) {
+                return reader.read(in);
+            }
+        }
+
         int maxRetries = cfg.getMaxRetries() != null ? cfg.getMaxRetries() : 0;
         int backoff = cfg.getRetryBackoffMs() != null ? cfg.getRetryBackoffMs() : 0;
         int connectTimeout = cfg.getConnectTimeoutMs() != null ? cfg.getConnectTimeoutMs() : 0;
@@ -49,42 +118,42 @@ public class SchemaFetcher {
 
                 post.setHeader("Content-Type", "application/json;charset=UTF-8");
                 httpHeaders.forEach(post::setHeader);
+                if (cached != null) {
+                    // Conditional request: servers supporting validators answer 304 without a body
+                    if (cached.getEtag() != null) post.setHeader("If-None-Match", cached.getEtag());
+                    if (cached.getLastModified() != null) post.setHeader("If-Modified-Since", cached.getLastModified());
+                }
                 post.setEntity(entity);
 
                 try (CloseableHttpResponse response = httpClient.execute(post)) {
                     int status = response.getStatusLine().getStatusCode();
+                    if (status == HttpStatus.SC_NOT_MODIFIED && cached != null) {
+                        LOGGER.info("GraphQL schema for " + gqlUrl + " not modified; using cached copy");
+                        EntityUtils.consumeQuietly(response.getEntity());
+                        cache.touch(cached);
+                        try (InputStream in = cached.openBody()) {
+                            return reader.read(in);
+                        }
+                    }
                     HttpEntity respEntity = response.getEntity();
-                    String responseBody = respEntity != null ? EntityUtils.toString(respEntity, StandardCharsets.UTF_8) : "";
 
                     if (status == HttpStatus.SC_OK) {
-                        // GraphQL may return 200 with an "errors" array. Detect and surface helpful diagnostics.
-                        try {
-                            if (responseBody != null && !responseBody.isEmpty()) {
-                                ObjectMapper mapper = new ObjectMapper();
-                                JsonNode root = mapper.readTree(responseBody);
-                                if (root != null && root.has("errors") && root.get("errors").isArray() && root.get("errors").size() > 0) {
-                                    JsonNode errors = root.get("errors");
-                                    String messages = "";
-                                    for (int i = 0; i < Math.min(5, errors.size()); i++) {
-                                        JsonNode err = errors.get(i);
-                                        String msg = err.has("message") ? err.get("message").asText() : err.toString();
-                                        String path = err.has("path") ? err.get("path").toString() : "[]";
-                                        messages += String.format("#%d message=%s path=%s; ", i + 1, msg, path);
-                                    }
-                                    String headerKeys = httpHeaders != null ? httpHeaders.keySet().stream().collect(Collectors.joining(", ")) : "";
-                                    throw new RuntimeException("ERROR - GraphQL responded with errors. Status: 200, Errors: " + messages + ", Headers(keys): [" + headerKeys + "]");
-                                }
-                            }
-                        } catch (Exception ignore) {
-                            // Ignore JSON parsing issues and fallback to a lightweight check below.
+                        // Parsed while streaming; with the cache enabled the body is copied to disk on the way through
+                        Path tempBody = cache != null ? cache.newBodyFile() : null;
+                        T result;
+                        try (InputStream body = respEntity != null ? respEntity.getContent() : InputStream.nullInputStream();
+                             InputStream in = tempBody != null ? new TeeInputStream(body, Files.newOutputStream(tempBody)) : body) {
+                            result = reader.read(in);
+                        } catch (IOException | RuntimeException e) {
+                            if (tempBody != null) cache.discard(tempBody);
+                            throw e;
                         }
-                        // Fallback: simple heuristic to detect GraphQL errors even if JSON parsing failed
-                        if (responseBody != null && responseBody.contains("\"errors\"")) {
-                            String headerKeys = httpHeaders != null ? httpHeaders.keySet().stream().collect(Collectors.joining(", ")) : "";
-                            throw new RuntimeException("ERROR - GraphQL responded with errors. Status: 200, Body snippet: " + truncate(responseBody) + ", Headers(keys): [" + headerKeys + "]");
+                        if (cache != null) {
+                            cache.store(tempBody, headerValue(response, "ETag"), headerValue(response, "Last-Modified"));
                         }
-                        return responseBody;
+                        return result;
                     }
+                    String responseBody = respEntity != null ? EntityUtils.toString(respEntity, StandardCharsets.UTF_8) : "";
 
                     // Retry on 5xx
                     if (status >= 500 && status < 600 && attempt <= maxRetries) {
@@ -112,6 +181,67 @@ public class SchemaFetcher {
         }
     }
 
+    /**
+     * Reads a GraphQL response document in a single streaming pass.
+     * A non-empty top-level {@code errors} member fails immediately; {@code data} is bound straight into the model.
+     *
+     * @param in the response body
+     * @param bindData false to only check for errors, e.g. when the caller keeps the raw document
+     * @param httpHeaders headers of the request, used in error messages; null for local files
+     */
+    private static FetchedSchema readResponse(InputStream in, boolean bindData, Map<String, String> httpHeaders) throws IOException {
+        MeteredInputStream metered = new MeteredInputStream(in);
+        SchemaModel model = null;
+        try (JsonParser parser = MAPPER.getFactory().createParser(metered)) {
+            JsonToken token = parser.nextToken();
+            if (token != null) {
+                if (token != JsonToken.START_OBJECT) {
+                    throw new RuntimeException("ERROR - Invalid GraphQL response: expected a JSON object but found " + token);
+                }
+                model = new SchemaModel();
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String name = parser.currentName();
+                    JsonToken value = parser.nextToken();
+                    if ("errors".equals(name) && value == JsonToken.START_ARRAY) {
+                        JsonNode errors = MAPPER.readTree(parser);
+                        if (errors.size() > 0) {
+                            throw new RuntimeException(errorsMessage(errors, httpHeaders));
+                        }
+                    } else if ("data".equals(name) && bindData && value == JsonToken.START_OBJECT) {
+                        model.setData(MAPPER.readValue(parser, Data.class));
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            }
+            // Consume trailing bytes so that the hash covers the whole document
+            metered.transferTo(OutputStream.nullOutputStream());
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("ERROR - Invalid GraphQL schema response: " + e.getOriginalMessage(), e);
+        }
+        return new FetchedSchema(model, metered.sha256(), metered.count);
+    }
+
+    private static String errorsMessage(JsonNode errors, Map<String, String> httpHeaders) {
+        String messages = "";
+        for (int i = 0; i < Math.min(5, errors.size()); i++) {
+            JsonNode err = errors.get(i);
+            String msg = err.has("message") ? err.get("message").asText() : err.toString();
+            String path = err.has("path") ? err.get("path").toString() : "[]";
+            messages += String.format("#%d message=%s path=%s; ", i + 1, msg, path);
+        }
+        if (httpHeaders == null) {
+            return "ERROR - GraphQL schema document contains errors: " + messages;
+        }
+        String headerKeys = httpHeaders.keySet().stream().collect(Collectors.joining(", "));
+        return "ERROR - GraphQL responded with errors. Status: 200, Errors: " + messages + ", Headers(keys): [" + headerKeys + "]";
+    }
+
+    private static String headerValue(CloseableHttpResponse response, String name) {
+        Header header = response.getFirstHeader(name);
+        return header != null ? header.getValue() : null;
+    }
+
     private static void sleepBackoff(int backoff, int attempt) {
         if (backoff <= 0) return;
         try {
@@ -129,4 +259,95 @@ public class SchemaFetcher {
     private static InputStream getSchemaQuery() {
         return SchemaFetcher.class.getClassLoader().getResourceAsStream("GraphQL_IntrospectionQuery.json");
     }
+
+    /**
+     * Computes the SHA-256 and size of everything read through it.
+     */
+    private static class MeteredInputStream extends FilterInputStream {
+        private final MessageDigest digest;
+        private long count;
+
+        MeteredInputStream(InputStream in) {
+            super(in);
+            try {
+                this.digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b >= 0) {
+                digest.update((byte) b);
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = in.read(b, off, len);
+            if (n > 0) {
+                digest.update(b, off, n);
+                count += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            // Skipped bytes still have to be hashed
+            byte[] buffer = new byte[(int) Math.min(n, 8192)];
+            int read = read(buffer, 0, buffer.length);
+            return Math.max(read, 0);
+        }
+
+        String sha256() {
+            return HexFormat.of().formatHex(digest.digest());
+        }
+    }
+
+    /**
+     * Copies everything read through it to a second stream.
+     */
+    private static class TeeInputStream extends FilterInputStream {
+        private final OutputStream copy;
+
+        TeeInputStream(InputStream in, OutputStream copy) {
+            super(in);
+            this.copy = copy;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b >= 0) copy.write(b);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = in.read(b, off, len);
+            if (n > 0) copy.write(b, off, n);
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            byte[] buffer = new byte[(int) Math.min(n, 8192)];
+            int read = read(buffer, 0, buffer.length);
+            return Math.max(read, 0);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                copy.close();
+            } finally {
+                super.close();
+            }
+        }
+    }
 }
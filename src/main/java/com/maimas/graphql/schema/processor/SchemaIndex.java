@@ -0,0 +1,254 @@
+package com.maimas.graphql.schema.processor;
+
+import com.maimas.graphql.schema.model.Field;
+import com.maimas.graphql.schema.model.FieldType;
+import com.maimas.graphql.schema.model.Schema;
+import com.maimas.graphql.schema.model.Type;
+import com.maimas.graphql.schema.model.enums.KindType;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Classification of the schema types, built once per generation and passed to the templates as {@code schemaIndex}.
+ * Templates list the pre-bucketed types instead of scanning {@code schema.types} and matching kinds and names
+ * with regular expressions for every type. All buckets keep the schema order. Introspection types ({@code __*})
+ * are left out.
+ */
+public class SchemaIndex {
+    public static final String QUERY = "Query";
+    public static final String MUTATION = "Mutation";
+
+    private final Map<String, Type> typesByName = new LinkedHashMap<>();
+    private final List<Type> enums = new ArrayList<>();
+    private final List<Type> objects = new ArrayList<>();
+    private final List<Type> inputs = new ArrayList<>();
+    private final List<Type> scalars = new ArrayList<>();
+    private final List<Type> leafTypes = new ArrayList<>();
+    private final List<Type> operations = new ArrayList<>();
+    private final Map<String, String> operationKinds = new LinkedHashMap<>();
+    private final Set<String> reachable;
+
+    public SchemaIndex(Schema schema) {
+        for (Type type : schema.getTypes()) {
+            String name = type.getName();
+            if (name != null && !name.isEmpty() && !name.startsWith("__") && type.getKind() != null) {
+                typesByName.putIfAbsent(name, type);
+            }
+        }
+        addOperation(rootType(schema.getQueryType() != null ? schema.getQueryType().getName() : null, QUERY), QUERY);
+        addOperation(rootType(schema.getMutationType() != null ? schema.getMutationType().getName() : null, MUTATION), MUTATION);
+
+        for (Type type : typesByName.values()) {
+            switch (type.getKind()) {
+                case ENUM:
+                    enums.add(type);
+                    leafTypes.add(type);
+                    break;
+                case SCALAR:
+                    scalars.add(type);
+                    leafTypes.add(type);
+                    break;
+                case OBJECT:
+                    if (!isOperation(type)) {
+                        objects.add(type);
+                    }
+                    break;
+                case INPUT_OBJECT:
+                    inputs.add(type);
+                    break;
+                default:
+                    break;
+            }
+        }
+        reachable = Collections.unmodifiableSet(closure(operations));
+    }
+
+    /**
+     * Finds a root operation type: the one named by the schema, or else the object type with the conventional name.
+     */
+    private Type rootType(String declaredName, String conventionalName) {
+        if (declaredName != null) {
+            return typesByName.get(declaredName);
+        }
+        for (Type type : typesByName.values()) {
+            if (type.getKind() == KindType.OBJECT && type.getName().equalsIgnoreCase(conventionalName)) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    private void addOperation(Type type, String kind) {
+        if (type != null && !operationKinds.containsKey(type.getName())) {
+            operations.add(type);
+            operationKinds.put(type.getName(), kind);
+        }
+    }
+
+    /**
+     * Collects the names of all types referenced, directly or transitively, from the given types through fields,
+     * arguments, input fields, interfaces and union members.
+     */
+    public Set<String> closure(Iterable<Type> roots) {
+        Set<String> seen = new LinkedHashSet<>();
+        Deque<Type> queue = new ArrayDeque<>();
+        for (Type root : roots) {
+            if (seen.add(root.getName())) {
+                queue.add(root);
+            }
+        }
+        while (!queue.isEmpty()) {
+            Type type = queue.poll();
+            List<String> refs = new ArrayList<>();
+            collectFieldRefs(type.getFields(), refs);
+            collectFieldRefs(type.getInputFields(), refs);
+            collectNamedRefs(type.getInterfaces(), refs);
+            collectNamedRefs(type.getPossibleTypes(), refs);
+            for (String ref : refs) {
+                Type target = typesByName.get(ref);
+                if (target != null && seen.add(ref)) {
+                    queue.add(target);
+                }
+            }
+        }
+        return seen;
+    }
+
+    private static void collectFieldRefs(List<Field> fields, List<String> refs) {
+        if (fields == null) {
+            return;
+        }
+        for (Field field : fields) {
+            addNamedType(field.getType(), refs);
+            if (field.getArgs() != null) {
+                field.getArgs().forEach(arg -> addNamedType(arg.getType(), refs));
+            }
+        }
+    }
+
+    /**
+     * Interfaces and union members are plain JSON objects when read from introspection and {@link FieldType}s when
+     * parsed from SDL.
+     */
+    private static void collectNamedRefs(List<Object> types, List<String> refs) {
+        if (types == null) {
+            return;
+        }
+        for (Object type : types) {
+            if (type instanceof FieldType) {
+                addNamedType((FieldType) type, refs);
+            } else if (type instanceof Map && ((Map<?, ?>) type).get("name") instanceof String) {
+                refs.add((String) ((Map<?, ?>) type).get("name"));
+            }
+        }
+    }
+
+    /**
+     * @return names of the object types a value of the given type can have: the type itself for an object type,
+     * the implementing object types of an interface and the members of a union
+     */
+    public Set<String> getPossibleTypes(Type type) {
+        Set<String> possible = new LinkedHashSet<>();
+        if (type.getKind() == KindType.OBJECT) {
+            possible.add(type.getName());
+        } else if (type.getKind() == KindType.UNION || type.getKind() == KindType.INTERFACE) {
+            List<String> refs = new ArrayList<>();
+            collectNamedRefs(type.getPossibleTypes(), refs);
+            possible.addAll(refs);
+            if (type.getKind() == KindType.INTERFACE) {
+                // SDL parsed interfaces only know their implementations through the implementing types
+                for (Type object : typesByName.values()) {
+                    List<String> interfaces = new ArrayList<>();
+                    collectNamedRefs(object.getInterfaces(), interfaces);
+                    if (object.getKind() == KindType.OBJECT && interfaces.contains(type.getName())) {
+                        possible.add(object.getName());
+                    }
+                }
+            }
+        }
+        return possible;
+    }
+
+    private static void addNamedType(FieldType type, List<String> refs) {
+        while (type != null && type.getName() == null) {
+            type = type.getOfType();
+        }
+        if (type != null) {
+            refs.add(type.getName());
+        }
+    }
+
+    /**
+     * @return all named types by name, in schema order
+     */
+    public Map<String, Type> getTypesByName() {
+        return Collections.unmodifiableMap(typesByName);
+    }
+
+    public Type getType(String name) {
+        return typesByName.get(name);
+    }
+
+    public List<Type> getEnums() {
+        return Collections.unmodifiableList(enums);
+    }
+
+    /**
+     * @return the object types, without the root operation types
+     */
+    public List<Type> getObjects() {
+        return Collections.unmodifiableList(objects);
+    }
+
+    public List<Type> getInputs() {
+        return Collections.unmodifiableList(inputs);
+    }
+
+    public List<Type> getScalars() {
+        return Collections.unmodifiableList(scalars);
+    }
+
+    /**
+     * @return scalars and enums, the types selected without a sub-selection
+     */
+    public List<Type> getLeafTypes() {
+        return Collections.unmodifiableList(leafTypes);
+    }
+
+    /**
+     * @return the root operation types, query first
+     */
+    public List<Type> getOperations() {
+        return Collections.unmodifiableList(operations);
+    }
+
+    /**
+     * @return root operation type name to its operation kind, {@value #QUERY} or {@value #MUTATION}
+     */
+    public Map<String, String> getOperationKinds() {
+        return Collections.unmodifiableMap(operationKinds);
+    }
+
+    public boolean isOperation(Type type) {
+        return operationKinds.containsKey(type.getName()) && typesByName.get(type.getName()) == type;
+    }
+
+    /**
+     * @return names of the types reachable from the root operation types, the roots included
+     */
+    public Set<String> getReachable() {
+        return reachable;
+    }
+
+    public boolean isReachable(String typeName) {
+        return reachable.contains(typeName);
+    }
+}
@@ -0,0 +1,214 @@
+package com.maimas.graphql.schema.processor;
+
+import com.maimas.graphql.generator.UserConfig;
+import com.maimas.graphql.schema.model.EnumValue;
+import com.maimas.graphql.schema.model.Field;
+import com.maimas.graphql.schema.model.FieldType;
+import com.maimas.graphql.schema.model.Schema;
+import com.maimas.graphql.schema.model.Type;
+import com.maimas.graphql.schema.model.enums.KindType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Reduces a schema to what the configured operations need.
+ * Root fields are selected with {@code includeOperations}/{@code excludeOperations}, fields and enum values are
+ * dropped when deprecated ({@code excludeDeprecated}) or when they reference an {@code excludeTypes} type, and only
+ * the types reachable from the remaining root fields are kept.
+ * An input type with a required input field of an excluded type cannot be sent without it, so it is excluded too,
+ * together with the fields and operations taking it.
+ */
+public class SchemaPruner {
+    private static final java.util.logging.Logger LOGGER = java.util.logging.Logger.getLogger(SchemaPruner.class.getName());
+
+    private final Set<String> includeOperations;
+    private final Set<String> excludeOperations;
+    private final Set<String> excludeTypes;
+    private final boolean excludeDeprecated;
+
+    public SchemaPruner(UserConfig cfg) {
+        this.includeOperations = toSet(cfg.getIncludeOperations());
+        this.excludeOperations = toSet(cfg.getExcludeOperations());
+        this.excludeTypes = toSet(cfg.getExcludeTypes());
+        this.excludeDeprecated = cfg.isExcludeDeprecated();
+    }
+
+    /**
+     * @return true if any pruning option is set; without options the schema is generated as is
+     */
+    public boolean isActive() {
+        return !includeOperations.isEmpty() || !excludeOperations.isEmpty() || !excludeTypes.isEmpty() || excludeDeprecated;
+    }
+
+    /**
+     * Prunes a schema. The given schema is left untouched.
+     *
+     * @param schema the full schema
+     * @return a schema holding only the selected operations and the types they reach
+     */
+    public Schema prune(Schema schema) {
+        SchemaIndex full = new SchemaIndex(schema);
+        Set<String> matchedOperations = new HashSet<>();
+        Set<String> removed = removedTypes(full);
+
+        List<Type> types = new ArrayList<>();
+        List<Type> roots = new ArrayList<>();
+        for (Type type : full.getTypesByName().values()) {
+            if (removed.contains(type.getName())) {
+                continue;
+            }
+            Type copy = copy(type, removed);
+            if (full.isOperation(type)) {
+                copy.setFields(copy.getFields().stream()
+                        .filter(field -> isSelected(type.getName(), field.getName(), matchedOperations))
+                        .collect(Collectors.toList()));
+                if (copy.getFields().isEmpty()) {
+                    continue;
+                }
+                roots.add(copy);
+            }
+            types.add(copy);
+        }
+        for (String operation : includeOperations) {
+            if (!matchedOperations.contains(operation)) {
+                LOGGER.warning("includeOperations entry '" + operation + "' does not match any Query or Mutation field");
+            }
+        }
+
+        Schema pruned = new Schema();
+        pruned.setQueryType(schema.getQueryType());
+        pruned.setMutationType(schema.getMutationType());
+        pruned.setSubscriptionType(schema.getSubscriptionType());
+        pruned.setDirectives(schema.getDirectives());
+        pruned.setTypes(types);
+
+        Set<String> reachable = new SchemaIndex(pruned).closure(roots);
+        types.removeIf(type -> !reachable.contains(type.getName()));
+        LOGGER.info("Schema pruned to " + roots.stream().mapToInt(root -> root.getFields().size()).sum() + " operation(s) and "
+                + types.size() + " of " + full.getTypesByName().size() + " type(s)");
+        return pruned;
+    }
+
+    /**
+     * @return the excluded types and the input types that have a required input field (non-null, without default
+     * value) of an excluded type, directly or through another such input type
+     */
+    private Set<String> removedTypes(SchemaIndex index) {
+        Set<String> removed = new LinkedHashSet<>(excludeTypes);
+        boolean changed = !removed.isEmpty();
+        while (changed) {
+            changed = false;
+            for (Type type : index.getTypesByName().values()) {
+                if (type.getKind() != KindType.INPUT_OBJECT || type.getInputFields() == null || removed.contains(type.getName())) {
+                    continue;
+                }
+                for (Field field : type.getInputFields()) {
+                    if (field.getType() != null && "NON_NULL".equals(field.getType().getKind()) && field.getDefaultValue() == null
+                            && references(field.getType(), removed)) {
+                        LOGGER.warning("Input type '" + type.getName() + "' is excluded, its required field '" + field.getName()
+                                + "' has an excluded type");
+                        removed.add(type.getName());
+                        changed = true;
+                        break;
+                    }
+                }
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Operations are matched by field name or by {@code <RootType>.<field>}.
+     */
+    private boolean isSelected(String rootName, String fieldName, Set<String> matchedOperations) {
+        String qualified = rootName + "." + fieldName;
+        boolean included = includeOperations.isEmpty();
+        if (includeOperations.contains(fieldName)) {
+            matchedOperations.add(fieldName);
+            included = true;
+        }
+        if (includeOperations.contains(qualified)) {
+            matchedOperations.add(qualified);
+            included = true;
+        }
+        return included && !excludeOperations.contains(fieldName) && !excludeOperations.contains(qualified);
+    }
+
+    private Type copy(Type type, Set<String> removed) {
+        Type copy = new Type();
+        copy.setKind(type.getKind());
+        copy.setName(type.getName());
+        copy.setDescription(type.getDescription());
+        copy.setFields(keepFields(type.getFields(), removed));
+        copy.setInputFields(keepFields(type.getInputFields(), removed));
+        copy.setInterfaces(keepNamedRefs(type.getInterfaces(), removed));
+        copy.setPossibleTypes(keepNamedRefs(type.getPossibleTypes(), removed));
+        if (type.getEnumValues() != null) {
+            List<EnumValue> values = new ArrayList<>();
+            for (EnumValue value : type.getEnumValues()) {
+                if (!(excludeDeprecated && value.isDeprecated())) {
+                    values.add(value);
+                }
+            }
+            copy.setEnumValues(values);
+        }
+        return copy;
+    }
+
+    private List<Field> keepFields(List<Field> fields, Set<String> removed) {
+        if (fields == null) {
+            return null;
+        }
+        List<Field> kept = new ArrayList<>();
+        for (Field field : fields) {
+            if (excludeDeprecated && field.isDeprecated()) {
+                continue;
+            }
+            if (references(field.getType(), removed)
+                    || field.getArgs() != null && field.getArgs().stream().anyMatch(arg -> references(arg.getType(), removed))) {
+                continue;
+            }
+            kept.add(field);
+        }
+        return kept;
+    }
+
+    private static List<Object> keepNamedRefs(List<Object> refs, Set<String> removed) {
+        if (refs == null) {
+            return null;
+        }
+        List<Object> kept = new ArrayList<>();
+        for (Object ref : refs) {
+            String name = ref instanceof FieldType ? ((FieldType) ref).getName()
+                    : ref instanceof Map ? String.valueOf(((Map<?, ?>) ref).get("name")) : null;
+            if (!removed.contains(name)) {
+                kept.add(ref);
+            }
+        }
+        return kept;
+    }
+
+    private static boolean references(FieldType type, Set<String> removed) {
+        while (type != null && type.getName() == null) {
+            type = type.getOfType();
+        }
+        return type != null && removed.contains(type.getName());
+    }
+
+    private static Set<String> toSet(String[] values) {
+        Set<String> set = new LinkedHashSet<>();
+        if (values != null) {
+            Arrays.stream(values)
+                    .filter(v -> v != null && !v.trim().isEmpty())
+                    .forEach(v -> set.add(v.trim()));
+        }
+        return set;
+    }
+}
@@ -0,0 +1,396 @@
+package com.maimas.graphql.schema.processor;
+
+import com.maimas.graphql.schema.model.Arg;
+import com.maimas.graphql.schema.model.Data;
+import com.maimas.graphql.schema.model.Directive;
+import com.maimas.graphql.schema.model.EnumValue;
+import com.maimas.graphql.schema.model.Field;
+import com.maimas.graphql.schema.model.FieldType;
+import com.maimas.graphql.schema.model.MutationType;
+import com.maimas.graphql.schema.model.QueryType;
+import com.maimas.graphql.schema.model.Schema;
+import com.maimas.graphql.schema.model.SchemaModel;
+import com.maimas.graphql.schema.model.SubscriptionType;
+import com.maimas.graphql.schema.model.Type;
+import com.maimas.graphql.schema.model.enums.KindType;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parses a GraphQL schema definition language (SDL) document straight into the introspection model
+ * ({@link SchemaModel}), so that a checked-in {@code .graphqls} file can be used instead of a live endpoint.
+ */
+public class SdlSchemaParser {
+
+    private static final String[] BUILT_IN_SCALARS = {"String", "Int", "Float", "Boolean", "ID"};
+
+    private final GraphQLLexer lexer;
+    private final Map<String, Type> types = new LinkedHashMap<>();
+    private final List<Directive> directives = new ArrayList<>();
+    private final List<FieldType> namedRefs = new ArrayList<>();
+    private String queryTypeName;
+    private String mutationTypeName;
+    private String subscriptionTypeName;
+
+    private SdlSchemaParser(String sdl) {
+        this.lexer = new GraphQLLexer(sdl);
+    }
+
+    /**
+     * Parses an SDL document.
+     *
+     * @param sdl the schema definition language document
+     * @return the schema model, shaped like an introspection response
+     * @throws IllegalArgumentException if the document is malformed or references unknown types
+     */
+    public static SchemaModel parse(String sdl) {
+        return new SdlSchemaParser(sdl).parseDocument();
+    }
+
+    private SchemaModel parseDocument() {
+        while (lexer.kind() != GraphQLLexer.Kind.EOF) {
+            parseDefinition();
+        }
+        for (String scalar : BUILT_IN_SCALARS) {
+            types.computeIfAbsent(scalar, name -> newType(KindType.SCALAR, name, null));
+        }
+        resolveNamedRefs();
+
+        Schema schema = new Schema();
+        schema.setTypes(new ArrayList<>(types.values()));
+        schema.setDirectives(directives);
+        String query = rootName(queryTypeName, "Query");
+        if (query != null) {
+            QueryType queryType = new QueryType();
+            queryType.setName(query);
+            schema.setQueryType(queryType);
+        }
+        String mutation = rootName(mutationTypeName, "Mutation");
+        if (mutation != null) {
+            MutationType mutationType = new MutationType();
+            mutationType.setName(mutation);
+            schema.setMutationType(mutationType);
+        }
+        if (rootName(subscriptionTypeName, "Subscription") != null) {
+            schema.setSubscriptionType(new SubscriptionType());
+        }
+
+        Data data = new Data();
+        data.setSchema(schema);
+        SchemaModel model = new SchemaModel();
+        model.setData(data);
+        return model;
+    }
+
+    private String rootName(String declared, String conventional) {
+        if (declared != null) {
+            return declared;
+        }
+        return types.containsKey(conventional) ? conventional : null;
+    }
+
+    private void parseDefinition() {
+        String description = parseDescription();
+        boolean extension = lexer.skip("extend");
+        String keyword = lexer.expectName();
+        switch (keyword) {
+            case "schema":
+                parseSchemaDefinition();
+                break;
+            case "scalar":
+                declare(KindType.SCALAR, lexer.expectName(), description, extension);
+                parseDirectives();
+                break;
+            case "type":
+                parseFieldsType(declare(KindType.OBJECT, lexer.expectName(), description, extension));
+                break;
+            case "interface":
+                parseFieldsType(declare(KindType.INTERFACE, lexer.expectName(), description, extension));
+                break;
+            case "union":
+                parseUnion(declare(KindType.UNION, lexer.expectName(), description, extension));
+                break;
+            case "enum":
+                parseEnum(declare(KindType.ENUM, lexer.expectName(), description, extension));
+                break;
+            case "input":
+                parseInput(declare(KindType.INPUT_OBJECT, lexer.expectName(), description, extension));
+                break;
+            case "directive":
+                parseDirectiveDefinition(description);
+                break;
+            default:
+                throw new IllegalArgumentException("GraphQL syntax error at line " + lexer.line() + ": unexpected definition '" + keyword + "'");
+        }
+    }
+
+    private void parseSchemaDefinition() {
+        parseDirectives();
+        lexer.expect("{");
+        while (!lexer.skip("}")) {
+            String operation = lexer.expectName();
+            lexer.expect(":");
+            String typeName = lexer.expectName();
+            switch (operation) {
+                case "query": queryTypeName = typeName; break;
+                case "mutation": mutationTypeName = typeName; break;
+                case "subscription": subscriptionTypeName = typeName; break;
+                default: throw lexer.error("expected query, mutation or subscription");
+            }
+        }
+    }
+
+    private Type declare(KindType kind, String name, String description, boolean extension) {
+        Type existing = types.get(name);
+        if (existing != null) {
+            if (existing.getKind() != kind) {
+                throw new IllegalArgumentException("Type '" + name + "' is declared as both " + existing.getKind() + " and " + kind);
+            }
+            if (!extension && existing.getDescription() == null) {
+                existing.setDescription(description);
+            }
+            return existing;
+        }
+        Type type = newType(kind, name, description);
+        types.put(name, type);
+        return type;
+    }
+
+    private static Type newType(KindType kind, String name, String description) {
+        Type type = new Type();
+        type.setKind(kind);
+        type.setName(name);
+        type.setDescription(description);
+        switch (kind) {
+            case OBJECT:
+            case INTERFACE:
+                type.setFields(new ArrayList<>());
+                type.setInterfaces(new ArrayList<>());
+                break;
+            case UNION:
+                type.setPossibleTypes(new ArrayList<>());
+                break;
+            case ENUM:
+                type.setEnumValues(new ArrayList<>());
+                break;
+            case INPUT_OBJECT:
+                type.setInputFields(new ArrayList<>());
+                break;
+            default:
+                break;
+        }
+        return type;
+    }
+
+    private void parseFieldsType(Type type) {
+        if (lexer.skip("implements")) {
+            lexer.skip("&");
+            do {
+                type.getInterfaces().add(namedRef(lexer.expectName()));
+            } while (lexer.skip("&"));
+        }
+        parseDirectives();
+        if (!lexer.skip("{")) {
+            return;
+        }
+        while (!lexer.skip("}")) {
+            Field field = new Field();
+            field.setDescription(parseDescription());
+            field.setName(lexer.expectName());
+            field.setArgs(lexer.is("(") ? parseArguments() : new ArrayList<>());
+            lexer.expect(":");
+            field.setType(parseTypeRef());
+            String deprecation = parseDirectives();
+            field.setDeprecated(deprecation != null);
+            field.setDeprecationReason(deprecation);
+            type.getFields().add(field);
+        }
+    }
+
+    private void parseInput(Type type) {
+        parseDirectives();
+        if (!lexer.skip("{")) {
+            return;
+        }
+        while (!lexer.skip("}")) {
+            Field field = new Field();
+            field.setDescription(parseDescription());
+            field.setName(lexer.expectName());
+            lexer.expect(":");
+            field.setType(parseTypeRef());
+            if (lexer.skip("=")) {
+                field.setDefaultValue(parseValueSource());
+            }
+            String deprecation = parseDirectives();
+            field.setDeprecated(deprecation != null);
+            field.setDeprecationReason(deprecation);
+            type.getInputFields().add(field);
+        }
+    }
+
+    private void parseEnum(Type type) {
+        parseDirectives();
+        if (!lexer.skip("{")) {
+            return;
+        }
+        while (!lexer.skip("}")) {
+            EnumValue value = new EnumValue();
+            value.setDescription(parseDescription());
+            value.setName(lexer.expectName());
+            String deprecation = parseDirectives();
+            value.setDeprecated(deprecation != null);
+            value.setDeprecationReason(deprecation);
+            type.getEnumValues().add(value);
+        }
+    }
+
+    private void parseUnion(Type type) {
+        parseDirectives();
+        if (!lexer.skip("=")) {
+            return;
+        }
+        lexer.skip("|");
+        do {
+            type.getPossibleTypes().add(namedRef(lexer.expectName()));
+        } while (lexer.skip("|"));
+    }
+
+    private void parseDirectiveDefinition(String description) {
+        lexer.expect("@");
+        Directive directive = new Directive();
+        directive.setName(lexer.expectName());
+        directive.setDescription(description);
+        directive.setArgs(lexer.is("(") ? parseArguments() : new ArrayList<>());
+        lexer.skip("repeatable");
+        lexer.expect("on");
+        lexer.skip("|");
+        List<Object> locations = new ArrayList<>();
+        do {
+            locations.add(lexer.expectName());
+        } while (lexer.skip("|"));
+        directive.setLocations(locations);
+        directives.add(directive);
+    }
+
+    private List<Arg> parseArguments() {
+        lexer.expect("(");
+        List<Arg> args = new ArrayList<>();
+        while (!lexer.skip(")")) {
+            Arg arg = new Arg();
+            arg.setDescription(parseDescription());
+            arg.setName(lexer.expectName());
+            lexer.expect(":");
+            arg.setType(parseTypeRef());
+            if (lexer.skip("=")) {
+                arg.setDefaultValue(parseValueSource());
+            }
+            parseDirectives();
+            args.add(arg);
+        }
+        return args;
+    }
+
+    private FieldType parseTypeRef() {
+        FieldType type;
+        if (lexer.skip("[")) {
+            type = new FieldType();
+            type.setKind("LIST");
+            type.setOfType(parseTypeRef());
+            lexer.expect("]");
+        } else {
+            type = namedRef(lexer.expectName());
+        }
+        if (lexer.skip("!")) {
+            FieldType nonNull = new FieldType();
+            nonNull.setKind("NON_NULL");
+            nonNull.setOfType(type);
+            return nonNull;
+        }
+        return type;
+    }
+
+    private FieldType namedRef(String name) {
+        FieldType ref = new FieldType();
+        ref.setName(name);
+        namedRefs.add(ref);
+        return ref;
+    }
+
+    /**
+     * The kind of named references is only known once every type has been declared.
+     */
+    private void resolveNamedRefs() {
+        for (FieldType ref : namedRefs) {
+            Type target = types.get(ref.getName());
+            if (target == null) {
+                throw new IllegalArgumentException("Unknown type '" + ref.getName() + "' referenced in schema");
+            }
+            ref.setKind(target.getKind().name());
+        }
+    }
+
+    private String parseDescription() {
+        return lexer.isString() ? lexer.next() : null;
+    }
+
+    /**
+     * Skips directive applications.
+     *
+     * @return the deprecation reason if {@code @deprecated} was applied, null otherwise
+     */
+    private String parseDirectives() {
+        String deprecation = null;
+        while (lexer.skip("@")) {
+            String name = lexer.expectName();
+            String reason = "No longer supported";
+            if (lexer.skip("(")) {
+                while (!lexer.skip(")")) {
+                    String argName = lexer.expectName();
+                    lexer.expect(":");
+                    boolean isString = lexer.isString();
+                    String value = isString ? lexer.text() : null;
+                    parseValueSource();
+                    if ("reason".equals(argName) && isString) {
+                        reason = value;
+                    }
+                }
+            }
+            if ("deprecated".equals(name)) {
+                deprecation = reason;
+            }
+        }
+        return deprecation;
+    }
+
+    /**
+     * Parses a value literal and returns its source text, the form introspection reports default values in.
+     */
+    private String parseValueSource() {
+        int start = lexer.tokenStart();
+        skipValue();
+        return lexer.source(start, lexer.previousEnd());
+    }
+
+    private void skipValue() {
+        if (lexer.skip("[")) {
+            while (!lexer.skip("]")) {
+                skipValue();
+            }
+        } else if (lexer.skip("{")) {
+            while (!lexer.skip("}")) {
+                lexer.expectName();
+                lexer.expect(":");
+                skipValue();
+            }
+        } else if (lexer.skip("$")) {
+            lexer.expectName();
+        } else if (lexer.kind() == GraphQLLexer.Kind.EOF || lexer.kind() == GraphQLLexer.Kind.PUNCTUATOR) {
+            throw lexer.error("expected a value");
+        } else {
+            lexer.next();
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.maimas.graphql.schema.processor;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.maimas.graphql.schema.model.Arg;
+import com.maimas.graphql.schema.model.Field;
+import com.maimas.graphql.schema.model.FieldType;
+import com.maimas.graphql.schema.model.Type;
+import com.maimas.graphql.schema.model.enums.KindType;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Operations whose document is known at generation time: for each Query/Mutation field returning an object type,
+ * the field called with its required arguments and selecting every scalar and enum field of the result.
+ * The document is built exactly as the generated runtime builds it, so its SHA-256 hash can be precomputed,
+ * emitted in the generated {@code prepare<Operation>()} methods and listed in an operation manifest for
+ * registering the persisted queries on the server.
+ * Fields with a required list argument are left out: the runtime derives variable types from the argument values'
+ * classes, which is not known for lists.
+ */
+public class StaticOperations {
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private final Map<String, Operation> operations = new LinkedHashMap<>();
+
+    /**
+     * @param index the schema
+     * @param typeResolver resolves the Java types of the arguments, as for the generated argument methods
+     */
+    public StaticOperations(SchemaIndex index, TypeResolver typeResolver) {
+        for (Type root : index.getOperations()) {
+            String kind = index.getOperationKinds().get(root.getName()).toLowerCase(Locale.ROOT);
+            if (root.getFields() == null) {
+                continue;
+            }
+            for (Field field : root.getFields()) {
+                Operation operation = build(index, typeResolver, kind, field);
+                if (operation != null) {
+                    operations.put(root.getName() + "." + field.getName(), operation);
+                }
+            }
+        }
+    }
+
+    private static Operation build(SchemaIndex index, TypeResolver typeResolver, String kind, Field field) {
+        Type result = index.getType(namedType(field.getType()).getName());
+        if (result == null || result.getKind() != KindType.OBJECT || result.getFields() == null) {
+            return null;
+        }
+        Map<String, String> variables = new LinkedHashMap<>();
+        if (field.getArgs() != null) {
+            for (Arg arg : field.getArgs()) {
+                if (arg.getType() == null || !"NON_NULL".equals(arg.getType().getKind())) {
+                    continue;
+                }
+                String javaType = typeResolver.resolve(arg.getType(), "");
+                if (javaType.contains("<")) {
+                    return null;
+                }
+                // The runtime uses the simple class name of the argument value
+                variables.put(arg.getName(), javaType.substring(javaType.lastIndexOf('.') + 1) + "!");
+            }
+        }
+        List<String> selection = new ArrayList<>();
+        for (Field resultField : result.getFields()) {
+            Type type = index.getType(namedType(resultField.getType()).getName());
+            if (type != null && (type.getKind() == KindType.SCALAR || type.getKind() == KindType.ENUM)) {
+                selection.add(resultField.getName());
+            }
+        }
+        if (selection.isEmpty()) {
+            return null;
+        }
+
+        // Same layout as GQLQuery.document() in Java_GraphQL_Builders.txt
+        StringBuilder document = new StringBuilder(kind).append('(');
+        String separator = "";
+        for (Map.Entry<String, String> variable : variables.entrySet()) {
+            document.append(separator).append('$').append(variable.getKey()).append(": ").append(variable.getValue());
+            separator = ", ";
+        }
+        document.append(" ){ ").append(field.getName()).append("( ");
+        separator = "";
+        for (String variable : variables.keySet()) {
+            document.append(separator).append(variable).append(": $").append(variable);
+            separator = ", ";
+        }
+        StringBuilder fields = new StringBuilder();
+        for (String name : selection) {
+            fields.append(name).append(' ');
+        }
+        document.append(" ){ ").append(fields).append("} }");
+        return new Operation(kind, field.getName(), document.toString(), fields.toString(), variables);
+    }
+
+    private static FieldType namedType(FieldType type) {
+        while (type != null && type.getName() == null && type.getOfType() != null) {
+            type = type.getOfType();
+        }
+        return type;
+    }
+
+    /**
+     * @return the operations by {@code <RootType>.<field>}, e.g. {@code Query.findById}
+     */
+    public Map<String, Operation> getOperations() {
+        return Collections.unmodifiableMap(operations);
+    }
+
+    /**
+     * Writes the operations as a persisted query manifest, in the layout of Apollo's
+     * {@code apollo-persisted-query-manifest} format.
+     *
+     * @param file target file; parent directories are created
+     */
+    public void writeManifest(Path file) throws IOException {
+        writeManifest(file, operations.values());
+    }
+
+    /**
+     * Writes operations as a persisted query manifest.
+     *
+     * @param file target file; parent directories are created
+     * @param operations the operations to list
+     * @see #writeManifest(Path)
+     */
+    public static void writeManifest(Path file, Collection<Operation> operations) throws IOException {
+        List<Map<String, Object>> entries = new ArrayList<>();
+        for (Operation operation : operations) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("id", operation.getHash());
+            entry.put("name", operation.getName());
+            entry.put("type", operation.getKind());
+            entry.put("body", operation.getDocument());
+            entries.add(entry);
+        }
+        Map<String, Object> manifest = new LinkedHashMap<>();
+        manifest.put("format", "apollo-persisted-query-manifest");
+        manifest.put("version", 1);
+        manifest.put("operations", entries);
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        MAPPER.writeValue(file.toFile(), manifest);
+    }
+
+    /**
+     * An operation with its precomputed document and hash.
+     */
+    public static class Operation {
+        private final String kind;
+        private final String name;
+        private final String document;
+        private final String hash;
+        private final String selection;
+        private final Map<String, String> variables;
+
+        Operation(String kind, String name, String document, String selection, Map<String, String> variables) {
+            this.kind = kind;
+            this.name = name;
+            this.document = document;
+            this.hash = GenerationFingerprint.sha256(document.getBytes(StandardCharsets.UTF_8));
+            this.selection = selection;
+            this.variables = Collections.unmodifiableMap(variables);
+        }
+
+        /**
+         * @return {@code query} or {@code mutation}
+         */
+        public String getKind() {
+            return kind;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getDocument() {
+            return document;
+        }
+
+        /**
+         * @return hex encoded SHA-256 hash of the document
+         */
+        public String getHash() {
+            return hash;
+        }
+
+        /**
+         * @return the fields selected on the result, as in the document, e.g. {@code id email }; null for the manifest
+         * entries of operation documents
+         */
+        public String getSelection() {
+            return selection;
+        }
+
+        /**
+         * @return the required arguments by name, with the variable types the runtime derives from their Java types
+         */
+        public Map<String, String> getVariables() {
+            return variables;
+        }
+    }
+}
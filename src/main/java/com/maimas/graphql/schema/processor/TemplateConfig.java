@@ -1,5 +1,6 @@
 package com.maimas.graphql.schema.processor;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -78,9 +79,9 @@ public class TemplateConfig {
     /**
      * Gets all properties from the configuration.
      *
-     * @return the properties
+     * @return read-only view of the properties; use {@link #setProperty(String, Object)} to change them
      */
     public Map<String, Object> getProperties() {
-        return new HashMap<>(properties);
+        return Collections.unmodifiableMap(properties);
     }
 }
\ No newline at end of file
@@ -0,0 +1,211 @@
+package com.maimas.graphql.schema.processor;
+
+import freemarker.cache.StrongCacheStorage;
+import freemarker.template.Configuration;
+import freemarker.template.DefaultObjectWrapperBuilder;
+import freemarker.template.Template;
+import freemarker.template.TemplateExceptionHandler;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * JVM wide cache of template engines, keyed by template language and version.
+ * A FreeMarker {@link Configuration} is thread safe once set up and keeps the templates it parsed, so sharing
+ * one per template set means the template tree and the builders content are loaded once per JVM rather than
+ * once per generated server (and per module in a reactor build).
+ */
+public class TemplateEngineCache {
+
+    private static final ConcurrentMap<String, Engine> ENGINES = new ConcurrentHashMap<>();
+    private static final AtomicLong HITS = new AtomicLong();
+    private static final AtomicLong MISSES = new AtomicLong();
+
+    private TemplateEngineCache() {
+    }
+
+    /**
+     * Gets the engine for a template set, creating it on first use.
+     *
+     * @param templateConfig the template set
+     * @return the shared engine
+     */
+    public static Engine get(TemplateConfig templateConfig) {
+        String key = key(templateConfig.getLanguage(), templateConfig.getVersion());
+        Engine engine = ENGINES.get(key);
+        if (engine != null) {
+            HITS.incrementAndGet();
+            return engine;
+        }
+        boolean[] created = new boolean[1];
+        engine = ENGINES.computeIfAbsent(key, k -> {
+            created[0] = true;
+            return new Engine(templateConfig.getLanguage());
+        });
+        // Another thread may have created it between the lookup and computeIfAbsent
+        (created[0] ? MISSES : HITS).incrementAndGet();
+        return engine;
+    }
+
+    /**
+     * Drops the engine of a template set, e.g. because it was registered again with different templates.
+     *
+     * @param language the template language
+     * @param version the template version
+     */
+    public static void invalidate(String language, String version) {
+        ENGINES.remove(key(language, version));
+    }
+
+    /**
+     * Drops all engines and resets the statistics.
+     */
+    public static void clear() {
+        ENGINES.clear();
+        HITS.set(0);
+        MISSES.set(0);
+    }
+
+    public static long getHits() {
+        return HITS.get();
+    }
+
+    public static long getMisses() {
+        return MISSES.get();
+    }
+
+    private static String key(String language, String version) {
+        return language + "_" + version;
+    }
+
+    /**
+     * Template engine for one template set: the FreeMarker configuration with its parsed templates and object
+     * wrapper, and the builders content inlined into generated code.
+     */
+    public static class Engine {
+        private static final java.util.regex.Pattern INCLUDE = java.util.regex.Pattern.compile("<#(?:include|import)\\s+\"([^\"$]+)\"");
+        private static final String[] ENTRY_TEMPLATES = {"templatePath", "unitTemplatePath", "runtimeTemplatePath"};
+
+        private final Configuration configuration;
+        private final String language;
+        private volatile String buildersContent;
+        private volatile String contentHash;
+
+        Engine(String language) {
+            this.language = language;
+            Configuration config = new Configuration(Configuration.VERSION_2_3_23);
+            config.setDefaultEncoding("UTF-8");
+            config.setTemplateExceptionHandler(TemplateExceptionHandler.RETHROW_HANDLER);
+            config.setLogTemplateExceptions(false);
+            config.setClassForTemplateLoading(TemplateEngineCache.class, "/");
+            config.setObjectWrapper(new DefaultObjectWrapperBuilder(Configuration.VERSION_2_3_23).build());
+            // Templates are classpath resources: they cannot change while the JVM runs, so never re-check them
+            config.setCacheStorage(new StrongCacheStorage());
+            config.setTemplateUpdateDelayMilliseconds(Long.MAX_VALUE);
+            this.configuration = config;
+        }
+
+        /**
+         * Gets a template, parsing it only on first use.
+         *
+         * @param path the template path relative to the classpath root
+         * @return the parsed template
+         */
+        public Template getTemplate(String path) throws IOException {
+            return configuration.getTemplate(path);
+        }
+
+        /**
+         * Gets the builders content for the language, reading it only on first use.
+         *
+         * @return the content of {@code <Language>_GraphQL_Builders.txt}
+         */
+        public String getBuildersContent() throws IOException {
+            String content = buildersContent;
+            if (content == null) {
+                synchronized (this) {
+                    content = buildersContent;
+                    if (content == null) {
+                        content = readBuildersContent();
+                        buildersContent = content;
+                    }
+                }
+            }
+            return content;
+        }
+
+        /**
+         * Gets the hash of what the template set renders with: the templates reachable from its entry templates
+         * through {@code <#include>} and {@code <#import>}, and the builders content. Computed on first use.
+         *
+         * @param templateConfig the template set of this engine
+         * @return hex encoded SHA-256 of the templates and the builders content
+         */
+        public String getContentHash(TemplateConfig templateConfig) throws IOException {
+            String hash = contentHash;
+            if (hash == null) {
+                synchronized (this) {
+                    hash = contentHash;
+                    if (hash == null) {
+                        hash = computeContentHash(templateConfig);
+                        contentHash = hash;
+                    }
+                }
+            }
+            return hash;
+        }
+
+        private String computeContentHash(TemplateConfig templateConfig) throws IOException {
+            // Sorted so that the hash does not depend on the include order
+            java.util.Map<String, String> sources = new java.util.TreeMap<>();
+            java.util.Deque<String> pending = new java.util.ArrayDeque<>();
+            for (String entry : ENTRY_TEMPLATES) {
+                Object path = templateConfig.getProperty(entry);
+                if (path != null) {
+                    pending.add(path.toString());
+                }
+            }
+            while (!pending.isEmpty()) {
+                String path = pending.pop();
+                if (sources.containsKey(path)) {
+                    continue;
+                }
+                String source = readResource(path);
+                sources.put(path, source);
+                java.util.regex.Matcher include = INCLUDE.matcher(source);
+                while (include.find()) {
+                    // Include paths are relative to the including template, or to the template root when absolute
+                    String target = include.group(1);
+                    pending.add(target.startsWith("/") ? target.substring(1)
+                            : java.net.URI.create(path).resolve(target).normalize().toString());
+                }
+            }
+            StringBuilder canonical = new StringBuilder();
+            sources.forEach((path, source) -> canonical.append(path).append('=')
+                    .append(GenerationFingerprint.sha256(source.getBytes(StandardCharsets.UTF_8))).append('\n'));
+            canonical.append("builders=").append(GenerationFingerprint.sha256(getBuildersContent().getBytes(StandardCharsets.UTF_8)));
+            return GenerationFingerprint.sha256(canonical.toString().getBytes(StandardCharsets.UTF_8));
+        }
+
+        private String readBuildersContent() throws IOException {
+            return readResource(language + "_GraphQL_Builders.txt");
+        }
+
+        private static String readResource(String resource) throws IOException {
+            InputStream stream = TemplateEngineCache.class.getClassLoader().getResourceAsStream(resource);
+            if (stream == null) {
+                throw new IllegalStateException("Template resource not found: " + resource);
+            }
+            try (BufferedReader br = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+                return br.lines().collect(Collectors.joining("\n"));
+            }
+        }
+    }
+}
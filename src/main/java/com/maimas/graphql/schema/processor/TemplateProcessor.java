@@ -1,24 +1,23 @@
 package com.maimas.graphql.schema.processor;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.maimas.graphql.generator.UserConfig;
 import com.maimas.graphql.schema.model.SchemaModel;
-import freemarker.template.Configuration;
 import freemarker.template.Template;
-import freemarker.template.TemplateExceptionHandler;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
-import java.util.stream.Collectors;
 
 /**
  * Generated the GraphQL class with all types, queries and mutations for a particular class.
  */
 public class TemplateProcessor {
     private static final java.util.logging.Logger LOGGER = java.util.logging.Logger.getLogger(TemplateProcessor.class.getName());
+    // Class holding the classes of the compiled operation documents
+    private static final String OPERATIONS_CLASS = "Operations";
+    private static final String CODECS_CLASS = "Codecs";
     private UserConfig userCfg;
+    private GenerationReport report;
 
     private TemplateProcessor() {
     }
@@ -27,6 +26,13 @@ public class TemplateProcessor {
         this.userCfg = userCfg;
     }
 
+    /**
+     * @return timings and sizes of the last generation, or null before the first one completed
+     */
+    public GenerationReport getReport() {
+        return report;
+    }
+
 
     /**
      * Generates GraphQL API class based on a template.
@@ -34,43 +40,156 @@ public class TemplateProcessor {
      * @return - generated class content.
      */
     public String generate() throws Exception {
+        return java.nio.file.Files.readString(generateToFile(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Generates GraphQL API class based on a template, streaming the rendered code to disk.
+     * The file is only replaced (atomically) when its content changed, so an unchanged output keeps its timestamp.
+     *
+     * @return - path of the generated class; in {@link UserConfig.OutputMode#MULTI_FILE} mode the shared runtime class.
+     */
+    public java.nio.file.Path generateToFile() throws Exception {
+        return generateFiles().get(0);
+    }
+
+    /**
+     * Generates the GraphQL API source files based on the templates.
+     * Only files whose content changed are replaced, so unchanged files keep their timestamp.
+     *
+     * @return - paths of all generated files, the main (or shared runtime) class first.
+     */
+    public java.util.List<java.nio.file.Path> generateFiles() throws Exception {
         LOGGER.info("Starting code generation for " + userCfg.getResultClassName() + " in package " + userCfg.getResultClassPackage());
         LOGGER.info("Using language: " + userCfg.getLanguage().getName());
 
-        try (ByteArrayOutputStream outStream = new ByteArrayOutputStream();
-             OutputStreamWriter writer = new OutputStreamWriter(outStream, StandardCharsets.UTF_8)) {
-
+        try {
             String language = userCfg.getLanguage().getName();
             LOGGER.info("Retrieving template configuration for language: " + language);
             TemplateConfig templateConfig = TemplateRegistry.getTemplateConfig(language);
             String templatePath = (String) templateConfig.getProperty("templatePath");
             LOGGER.info("Using template path: " + templatePath);
 
+            String fileExtension = (String) templateConfig.getProperty("fileExtension", userCfg.getLanguage().getExtension());
+            java.nio.file.Path targetDir = java.nio.file.Paths.get(userCfg.getDir());
+            java.nio.file.Path filePath = targetDir.resolve(userCfg.getResultClassName() + fileExtension);
+            boolean multiFile = userCfg.getOutputMode() == UserConfig.OutputMode.MULTI_FILE;
+            GenerationReport report = new GenerationReport(userCfg.getResultClassPackage() + "." + userCfg.getResultClassName());
+
+            FetchedSchema schema = fetchSchema(report);
+
+            // Incremental mode: nothing to do if schema, configuration and templates are unchanged
+            String fingerprint = null;
+            if (userCfg.isIncremental()) {
+                fingerprint = GenerationFingerprint.computeFromSchemaHash(schema.getSha256(), userCfg, templateConfig);
+                if (GenerationFingerprint.isUpToDate(userCfg, fingerprint)) {
+                    LOGGER.info("Schema, configuration and templates unchanged; skipping generation of " + filePath);
+                    report.setSkipped(true);
+                    completeReport(report);
+                    return multiFile ? readManifest(targetDir, filePath) : java.util.List.of(filePath);
+                }
+            }
+
+            GenerationReport.Measurement contextPhase = report.start(GenerationReport.Phase.CONTEXT);
             LOGGER.info("Loading template...");
-            Template template = getConfig().getTemplate(templatePath);
-            LOGGER.info("Template loaded successfully");
+            TemplateEngineCache.Engine engine = TemplateEngineCache.get(templateConfig);
+            LOGGER.info("Template engine cache: hits=" + TemplateEngineCache.getHits() + ", misses=" + TemplateEngineCache.getMisses());
 
-            // Add template configuration to the context
             LOGGER.info("Preparing template context...");
-            HashMap<Object, Object> context = getContext();
-            context.put("templateConfig", templateConfig);
+            HashMap<Object, Object> context = getContext(schema.getModel(), engine, templateConfig, multiFile);
             LOGGER.info("Template context prepared with " + context.size() + " entries");
 
-            // Process the template with the context
-            LOGGER.info("Processing template...");
-            template.process(context, writer);
-            writer.flush();
-            LOGGER.info("Template processing completed");
+            java.util.List<OutputUnit> units = multiFile
+                    ? multiFileUnits((SchemaIndex) context.get("schemaIndex"), (OperationDocuments) context.get("compiledOperations"), templateConfig)
+                    : java.util.List.of(new OutputUnit(userCfg.getResultClassName(), templatePath, null, null));
+            recordSchemaCounts(report, (SchemaIndex) context.get("schemaIndex"));
+            contextPhase.stop();
+
+            java.nio.file.Files.createDirectories(targetDir);
+            java.util.List<java.nio.file.Path> files = new java.util.ArrayList<>();
+            int written = 0;
+            LOGGER.info("Processing template" + (multiFile ? "s for " + units.size() + " files..." : "..."));
+            for (OutputUnit unit : units) {
+                HashMap<Object, Object> unitContext = context;
+                if (unit.kind != null) {
+                    unitContext = new HashMap<>(context);
+                    unitContext.put("unitKind", unit.kind);
+                    if (unit.type != null) {
+                        unitContext.put("unitTypes", java.util.List.of(unit.type));
+                    }
+                }
+                java.nio.file.Path target = targetDir.resolve(unit.name + fileExtension);
+                String templateKey = unit.kind == null ? unit.templatePath : unit.templatePath + "#" + unit.kind;
+                if (renderUnit(engine.getTemplate(unit.templatePath), unitContext, target, report, templateKey)) {
+                    written++;
+                }
+                files.add(target);
+            }
+            LOGGER.info("Template processing completed: " + written + " file(s) written, " + (files.size() - written) + " unchanged");
 
-            String generatedCode = outStream.toString(StandardCharsets.UTF_8);
+            // Files generated by a previous run but no longer part of the output would break compilation
+            updateManifest(targetDir, filePath, multiFile ? files : java.util.List.of());
+            writeOperationManifest((StaticOperations) context.get("staticOperations"), (OperationDocuments) context.get("compiledOperations"));
 
-            LOGGER.info("Generated code length: " + generatedCode.length() + " characters");
-            LOGGER.info("Validating generated code...");
+            if (fingerprint != null) {
+                GenerationFingerprint.store(userCfg, fingerprint, files);
+            }
+
+            completeReport(report);
+            return files;
+        } catch (Exception e) {
+            java.util.logging.Logger.getLogger(TemplateProcessor.class.getName())
+                    .log(java.util.logging.Level.SEVERE, "Error generating GraphQL API class", e);
+            throw e;
+        }
+    }
+
+    /**
+     * Renders the single file output for an already parsed schema, without fetching, validating or writing files.
+     * Useful for tooling that post-processes the generated code, and for benchmarking the template rendering.
+     *
+     * @param schemaModel the parsed schema
+     * @param out receives the generated class
+     */
+    public void render(SchemaModel schemaModel, Writer out) throws Exception {
+        TemplateConfig templateConfig = TemplateRegistry.getTemplateConfig(userCfg.getLanguage().getName());
+        TemplateEngineCache.Engine engine = TemplateEngineCache.get(templateConfig);
+        HashMap<Object, Object> context = getContext(schemaModel, engine, templateConfig, false);
+        engine.getTemplate((String) templateConfig.getProperty("templatePath")).process(context, out);
+    }
+
+    /**
+     * Renders one output file through a temp file next to the target, validates it and moves it into place
+     * unless the target already holds the same bytes.
+     *
+     * @return true if the target file was (re)written
+     */
+    private boolean renderUnit(Template template, HashMap<Object, Object> context, java.nio.file.Path target,
+                               GenerationReport report, String templateKey) throws Exception {
+        // Render next to the target so that the final move stays on the same file system.
+        // Not Files.createTempFile: it would give the generated file owner-only permissions.
+        java.nio.file.Path tempFile = target.resolveSibling(target.getFileName() + "." + java.util.UUID.randomUUID() + ".tmp");
+        try {
+            GenerationReport.Measurement render = report.start(GenerationReport.Phase.RENDER);
+            LineCountingWriter counter;
+            try (Writer writer = counter = new LineCountingWriter(java.nio.file.Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8, java.nio.file.StandardOpenOption.CREATE_NEW, java.nio.file.StandardOpenOption.WRITE))) {
+                template.process(context, writer);
+            }
+            report.addTemplateRender(templateKey, render.stop());
+            long size = java.nio.file.Files.size(tempFile);
+            LOGGER.fine("Generated code size of " + target.getFileName() + ": " + size + " bytes");
 
             // Validate the generated code
-            if (!CodeValidator.validate(generatedCode, userCfg.getValidationErrorOutputFile(), userCfg.getIgnoredValidationRules(), userCfg.getLanguage().getName())) {
+            boolean valid;
+            GenerationReport.Measurement validate = report.start(GenerationReport.Phase.VALIDATE);
+            try (Reader reader = java.nio.file.Files.newBufferedReader(tempFile, StandardCharsets.UTF_8)) {
+                valid = CodeValidator.validate(reader, userCfg.getValidationErrorOutputFile(), userCfg.getIgnoredValidationRules(), userCfg.getLanguage().getName());
+            } finally {
+                validate.stop();
+            }
+            if (!valid) {
                 if (userCfg.isFailOnValidationError()) {
-                    String errorMsg = "Generated code validation failed. ";
+                    String errorMsg = "Generated code validation failed for " + target.getFileName() + ". ";
                     if (userCfg.getValidationErrorOutputFile() != null) {
                         errorMsg += "Detailed errors written to: " + userCfg.getValidationErrorOutputFile();
                     } else {
@@ -80,42 +199,238 @@ public class TemplateProcessor {
                 }
                 java.util.logging.Logger.getLogger(TemplateProcessor.class.getName())
                         .warning("Generated code failed validation; continuing due to configuration failOnValidationError=false.");
+            }
+
+            // Write the generated content to a file, unless it is byte for byte what is already there
+            GenerationReport.Measurement write = report.start(GenerationReport.Phase.WRITE);
+            boolean changed = !java.nio.file.Files.exists(target) || java.nio.file.Files.mismatch(tempFile, target) != -1L;
+            if (changed) {
+                moveAtomically(tempFile, target);
             } else {
-                LOGGER.info("Code validation successful");
+                LOGGER.fine("Generated code unchanged; leaving " + target + " untouched");
             }
+            write.stop();
+            report.addFile(size, counter.getLines(), changed);
+            return changed;
+        } finally {
+            java.nio.file.Files.deleteIfExists(tempFile);
+        }
+    }
 
-            // Write the generated content to a file
-            String fileExtension = (String) templateConfig.getProperty("fileExtension", userCfg.getLanguage().getExtension());
-            java.nio.file.Path targetDir = java.nio.file.Paths.get(userCfg.getDir());
-            java.nio.file.Files.createDirectories(targetDir);
-            java.nio.file.Path filePath = targetDir.resolve(userCfg.getResultClassName() + fileExtension);
-            java.nio.file.Files.write(filePath, generatedCode.getBytes(StandardCharsets.UTF_8));
+    /**
+     * Lists the files of the MULTI_FILE output: the shared runtime class first, then one file per enum,
+     * object type (with its fragments), input type, leaf fragment and operation class, the compiled operations and the codecs.
+     */
+    private java.util.List<OutputUnit> multiFileUnits(SchemaIndex index, OperationDocuments compiledOperations, TemplateConfig templateConfig) {
+        String unitTemplate = (String) templateConfig.getProperty("unitTemplatePath");
+        String runtimeTemplate = (String) templateConfig.getProperty("runtimeTemplatePath");
+        if (unitTemplate == null || runtimeTemplate == null) {
+            throw new IllegalStateException("Template set " + templateConfig.getLanguage() + " " + templateConfig.getVersion()
+                    + " does not support " + UserConfig.OutputMode.MULTI_FILE + " output");
+        }
+        java.util.List<OutputUnit> units = new java.util.ArrayList<>();
+        units.add(new OutputUnit(userCfg.getResultClassName(), runtimeTemplate, null, null));
+        for (com.maimas.graphql.schema.model.Type type : index.getTypesByName().values()) {
+            String name = type.getName();
+            switch (type.getKind()) {
+                case ENUM:
+                    units.add(new OutputUnit(name, unitTemplate, "ENUM", type));
+                    units.add(new OutputUnit(name + "Fragment", unitTemplate, "LEAF_FRAGMENT", type));
+                    break;
+                case SCALAR:
+                    units.add(new OutputUnit(name + "Fragment", unitTemplate, "LEAF_FRAGMENT", type));
+                    break;
+                case OBJECT:
+                    if (index.isOperation(type)) {
+                        units.add(new OutputUnit(name, unitTemplate, "OPERATION", type));
+                    } else {
+                        units.add(new OutputUnit(name, unitTemplate, "OBJECT", type));
+                        units.add(new OutputUnit(name + "Fragment", unitTemplate, "OBJECT_FRAGMENT", type));
+                        units.add(new OutputUnit("List" + name + "Fragment", unitTemplate, "LIST_FRAGMENT", type));
+                    }
+                    break;
+                case INPUT_OBJECT:
+                    units.add(new OutputUnit(name, unitTemplate, "INPUT_OBJECT", type));
+                    break;
+                default:
+                    break;
+            }
+        }
+        if (compiledOperations != null) {
+            units.add(new OutputUnit(OPERATIONS_CLASS, unitTemplate, "COMPILED_OPERATIONS", null));
+        }
+        if (userCfg.isGenerateCodecs()) {
+            units.add(new OutputUnit(CODECS_CLASS, unitTemplate, "CODECS", null));
+        }
+        // Two units writing the same file would silently overwrite each other
+        java.util.Set<String> names = new java.util.HashSet<>();
+        for (OutputUnit unit : units) {
+            if (!names.add(unit.name.toLowerCase(java.util.Locale.ROOT))) {
+                throw new IllegalStateException("Cannot generate " + UserConfig.OutputMode.MULTI_FILE + " output: more than one class named '"
+                        + unit.name + "' (check 'resultClassName' against the schema type names)");
+            }
+        }
+        return units;
+    }
 
-            return generatedCode;
-        } catch (Exception e) {
-            java.util.logging.Logger.getLogger(TemplateProcessor.class.getName())
-                    .log(java.util.logging.Level.SEVERE, "Error generating GraphQL API class", e);
-            throw e;
+    private static java.nio.file.Path manifestFile(java.nio.file.Path mainFile) {
+        return mainFile.resolveSibling("." + mainFile.getFileName() + ".files");
+    }
+
+    private static java.util.List<java.nio.file.Path> readManifest(java.nio.file.Path targetDir, java.nio.file.Path mainFile) throws IOException {
+        java.nio.file.Path manifest = manifestFile(mainFile);
+        if (!java.nio.file.Files.exists(manifest)) {
+            return java.util.List.of(mainFile);
+        }
+        java.util.List<java.nio.file.Path> files = new java.util.ArrayList<>();
+        for (String line : java.nio.file.Files.readAllLines(manifest, StandardCharsets.UTF_8)) {
+            if (!line.isBlank()) {
+                files.add(targetDir.resolve(line.trim()));
+            }
         }
+        return files;
     }
 
-    private HashMap<Object, Object> getContext() throws Exception {
-        LOGGER.info("Fetching GraphQL schema from: " + userCfg.getUrl());
+    /**
+     * Records the files of a MULTI_FILE generation next to them and deletes the files of the previous
+     * generation that are not generated anymore (e.g. a type removed from the schema).
+     *
+     * @param files the generated files; empty for single file output, which only cleans up
+     */
+    private static void updateManifest(java.nio.file.Path targetDir, java.nio.file.Path mainFile, java.util.List<java.nio.file.Path> files) throws IOException {
+        java.nio.file.Path manifest = manifestFile(mainFile);
+        java.util.Set<java.nio.file.Path> current = new java.util.HashSet<>(files);
+        current.add(mainFile);
+        if (java.nio.file.Files.exists(manifest)) {
+            for (java.nio.file.Path previous : readManifest(targetDir, mainFile)) {
+                // Only names listed by us and still inside the target directory are deleted
+                if (!current.contains(previous) && previous.getParent().equals(targetDir) && java.nio.file.Files.deleteIfExists(previous)) {
+                    LOGGER.info("Deleted stale generated file " + previous);
+                }
+            }
+        }
+        if (files.isEmpty()) {
+            java.nio.file.Files.deleteIfExists(manifest);
+            return;
+        }
+        StringBuilder content = new StringBuilder();
+        for (java.nio.file.Path file : files) {
+            content.append(file.getFileName()).append('\n');
+        }
+        String newContent = content.toString();
+        if (!java.nio.file.Files.exists(manifest) || !java.nio.file.Files.readString(manifest, StandardCharsets.UTF_8).equals(newContent)) {
+            java.nio.file.Files.writeString(manifest, newContent, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * One generated source file: its class name, template and, in multi-file mode, the type it renders.
+     */
+    private static class OutputUnit {
+        private final String name;
+        private final String templatePath;
+        private final String kind;
+        private final com.maimas.graphql.schema.model.Type type;
+
+        OutputUnit(String name, String templatePath, String kind, com.maimas.graphql.schema.model.Type type) {
+            this.name = name;
+            this.templatePath = templatePath;
+            this.kind = kind;
+            this.type = type;
+        }
+    }
+
+    private static void recordSchemaCounts(GenerationReport report, SchemaIndex index) {
+        int fields = 0;
+        for (com.maimas.graphql.schema.model.Type type : index.getTypesByName().values()) {
+            fields += type.getFields() == null ? 0 : type.getFields().size();
+            fields += type.getInputFields() == null ? 0 : type.getInputFields().size();
+        }
+        int operations = index.getOperations().stream().mapToInt(root -> root.getFields() == null ? 0 : root.getFields().size()).sum();
+        report.setSchemaCounts(index.getTypesByName().size(), fields, operations);
+    }
+
+    /**
+     * Finishes the report of this generation and writes it to {@code cacheDir/reports}.
+     * A report that cannot be written is logged, it never fails the generation.
+     */
+    private void completeReport(GenerationReport report) {
+        this.report = report.finish();
+        java.nio.file.Path reportFile = java.nio.file.Paths.get(userCfg.getCacheDir(), "reports",
+                userCfg.getResultClassPackage() + "." + userCfg.getResultClassName() + ".json");
         try {
-            String remoteGQLSchema = SchemaFetcher.download(userCfg.getUrl(), userCfg.getHttpHeaders(), userCfg);
-            LOGGER.info("GraphQL schema fetched successfully (" + remoteGQLSchema.length() + " bytes)");
+            report.write(reportFile);
+            LOGGER.fine("Generation report written to " + reportFile);
+        } catch (IOException e) {
+            LOGGER.warning("Failed to write generation report " + reportFile + ": " + e.getMessage());
+        }
+    }
 
-            LOGGER.info("Parsing GraphQL schema...");
-            SchemaModel schemaModel;
-            try {
-                schemaModel = new ObjectMapper().readValue(remoteGQLSchema, SchemaModel.class);
-                LOGGER.info("GraphQL schema parsed successfully");
-            } catch (Exception e) {
-                LOGGER.severe("Failed to parse GraphQL schema: " + e.getMessage());
-                throw new RuntimeException("Error parsing GraphQL schema. The schema may be malformed or not in the expected format. " +
-                    "Please check that the GraphQL endpoint is correct and accessible. Details: " + e.getMessage(), e);
+    /**
+     * Writes the persisted query manifest of the static and compiled operations to
+     * {@code cacheDir/operations/<resultClassPackage>.<resultClassName>.json}. Only the Java runtime builds
+     * documents in the layout the hashes were computed for.
+     */
+    private void writeOperationManifest(StaticOperations operations, OperationDocuments compiledOperations) throws IOException {
+        if (userCfg.getLanguage() != UserConfig.Selector.Java || userCfg.getCacheDir() == null) {
+            return;
+        }
+        java.nio.file.Path manifest = java.nio.file.Paths.get(userCfg.getCacheDir(), "operations",
+                userCfg.getResultClassPackage() + "." + userCfg.getResultClassName() + ".json");
+        java.util.List<StaticOperations.Operation> entries = new java.util.ArrayList<>(operations.getOperations().values());
+        if (compiledOperations != null) {
+            entries.addAll(compiledOperations.toManifestOperations());
+        }
+        StaticOperations.writeManifest(manifest, entries);
+        LOGGER.info("Operation manifest with " + entries.size() + " persisted queries written to " + manifest);
+    }
+
+    private static void moveAtomically(java.nio.file.Path source, java.nio.file.Path target) throws IOException {
+        try {
+            java.nio.file.Files.move(source, target, java.nio.file.StandardCopyOption.REPLACE_EXISTING, java.nio.file.StandardCopyOption.ATOMIC_MOVE);
+        } catch (java.nio.file.AtomicMoveNotSupportedException e) {
+            java.nio.file.Files.move(source, target, java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private FetchedSchema fetchSchema(GenerationReport report) throws Exception {
+        try {
+            if (userCfg.getSchemaFile() != null && !userCfg.getSchemaFile().trim().isEmpty()) {
+                java.nio.file.Path schemaFile = java.nio.file.Paths.get(userCfg.getSchemaFile().trim());
+                LOGGER.info("Reading GraphQL schema from file: " + schemaFile);
+                FetchedSchema localSchema;
+                GenerationReport.Measurement fetch = report.start(GenerationReport.Phase.FETCH);
+                if (userCfg.isSdlSchemaFile()) {
+                    byte[] sdl = java.nio.file.Files.readAllBytes(schemaFile);
+                    fetch.stop();
+                    GenerationReport.Measurement parse = report.start(GenerationReport.Phase.PARSE);
+                    localSchema = new FetchedSchema(SdlSchemaParser.parse(new String(sdl, StandardCharsets.UTF_8)),
+                            GenerationFingerprint.sha256(sdl), sdl.length);
+                    parse.stop();
+                } else {
+                    localSchema = SchemaFetcher.read(schemaFile);
+                    fetch.stop();
+                }
+                report.setSchema(localSchema.getSize(), !userCfg.isSdlSchemaFile());
+                LOGGER.info("GraphQL schema read successfully (" + localSchema.getSize() + " bytes)");
+                return localSchema;
             }
+            LOGGER.info("Fetching GraphQL schema from: " + userCfg.getUrl());
+            GenerationReport.Measurement fetch = report.start(GenerationReport.Phase.FETCH);
+            FetchedSchema remoteSchema = SchemaFetcher.fetch(userCfg.getUrl(), userCfg.getHttpHeaders(), userCfg);
+            fetch.stop();
+            report.setSchema(remoteSchema.getSize(), true);
+            LOGGER.info("GraphQL schema fetched and parsed successfully (" + remoteSchema.getSize() + " bytes)");
+            return remoteSchema;
+        } catch (RuntimeException e) {
+            throw schemaError(e);
+        }
+    }
 
+    private HashMap<Object, Object> getContext(SchemaModel schemaModel, TemplateEngineCache.Engine engine,
+                                               TemplateConfig templateConfig, boolean multiFile) throws Exception {
+        HashMap<Object, Object> context = new HashMap<>();
+        try {
             if (schemaModel == null || schemaModel.getData() == null || schemaModel.getData().getSchema() == null) {
                 LOGGER.severe("GraphQL schema is empty or missing required data");
                 throw new RuntimeException("Error: GraphQL schema is empty or missing required data. " +
@@ -123,53 +438,123 @@ public class TemplateProcessor {
             }
 
             LOGGER.info("Building template context...");
-            HashMap<Object, Object> context = new HashMap<>();
             context.put("className", userCfg.getResultClassName());
             context.put("package", userCfg.getResultClassPackage());
-            context.put("schema", schemaModel.getData().getSchema());
+            com.maimas.graphql.schema.model.Schema schema = schemaModel.getData().getSchema();
+            SchemaPruner pruner = new SchemaPruner(userCfg);
+            if (pruner.isActive()) {
+                schema = pruner.prune(schema);
+            }
+            context.put("schema", schema);
+            // Types are classified once here rather than by every template scanning schema.types
+            context.put("schemaIndex", new SchemaIndex(schema));
 
             LOGGER.info("Loading GraphQL builders content...");
-            String buildersContent = getGQLBuildersContent();
+            String buildersContent = engine.getBuildersContent();
             context.put("gqlBuildersContent", buildersContent);
             LOGGER.info("GraphQL builders content loaded (" + buildersContent.length() + " bytes)");
 
-            return context;
-        } catch (com.fasterxml.jackson.core.JsonProcessingException e) {
-             throw e;
+            context.put("templateConfig", templateConfig);
+            TypeResolver typeResolver = new TypeResolver((java.util.Map<?, ?>) templateConfig.getProperty("scalarMappings"));
+            context.put("typeResolver", typeResolver);
+            // Documents and hashes of the operations known at generation time, for persisted queries
+            context.put("staticOperations", new StaticOperations((SchemaIndex) context.get("schemaIndex"), typeResolver));
+            // Nested classes in a single file; top level classes of the package in multi-file mode
+            context.put("classModifier", multiFile ? "" : "static ");
+            context.put("typesPrefix", multiFile ? "" : "Types.");
+            context.put("generateCodecs", userCfg.isGenerateCodecs());
         } catch (RuntimeException e) {
-            // Enhance error message with more context and troubleshooting information
-            String errorMsg = "Failed to fetch or process GraphQL schema from " + userCfg.getUrl() + ". ";
-            errorMsg += "Please check:\n";
-            errorMsg += "1. The GraphQL endpoint URL is correct and accessible\n";
-            errorMsg += "2. Authentication headers are valid (if required)\n";
-            errorMsg += "3. The GraphQL server is running and responding correctly\n";
-            errorMsg += "4. Network settings (timeouts, retries) are appropriate for your environment\n\n";
-            errorMsg += "Original error: " + e.getMessage();
+            throw schemaError(e);
+        }
+        // Outside of the schema error handling: errors in the operation documents are reported as they are
+        OperationDocuments compiledOperations = compileOperations((SchemaIndex) context.get("schemaIndex"),
+                (TypeResolver) context.get("typeResolver"), (String) context.get("typesPrefix"));
+        if (compiledOperations != null) {
+            context.put("compiledOperations", compiledOperations);
+        }
+        return context;
+    }
 
-            LOGGER.severe(errorMsg);
-            throw new RuntimeException(errorMsg, e);
+    /**
+     * Parses the operation documents of the configured {@code operationsDir} and validates them against the schema.
+     *
+     * @return the compiled operations, or null when no operations directory is configured
+     */
+    private OperationDocuments compileOperations(SchemaIndex index, TypeResolver typeResolver, String typesPrefix) throws IOException {
+        if (!userCfg.hasOperationsDir()) {
+            return null;
         }
+        java.nio.file.Path dir = java.nio.file.Paths.get(userCfg.getOperationsDir().trim());
+        LOGGER.info("Compiling GraphQL operations from " + dir);
+        OperationDocuments operations = OperationDocuments.read(dir, index, typeResolver, typesPrefix,
+                java.util.Set.of(userCfg.getResultClassName(), OPERATIONS_CLASS));
+        LOGGER.info("Compiled " + operations.getOperations().size() + " GraphQL operations");
+        return operations;
     }
 
-    private Configuration getConfig() {
-        Configuration config = new Configuration(Configuration.VERSION_2_3_23);
-        config.setDefaultEncoding("UTF-8");
-        config.setTemplateExceptionHandler(TemplateExceptionHandler.RETHROW_HANDLER);
-        config.setLogTemplateExceptions(false);
-        config.setClassForTemplateLoading(this.getClass(), "/");
+    /**
+     * Enhances error message with more context and troubleshooting information.
+     */
+    private RuntimeException schemaError(RuntimeException e) {
+        String errorMsg = "Failed to fetch or process GraphQL schema from " + userCfg.schemaSource() + ". ";
+        errorMsg += "Please check:\n";
+        errorMsg += "1. The GraphQL endpoint URL is correct and accessible\n";
+        errorMsg += "2. Authentication headers are valid (if required)\n";
+        errorMsg += "3. The GraphQL server is running and responding correctly\n";
+        errorMsg += "4. Network settings (timeouts, retries) are appropriate for your environment\n\n";
+        errorMsg += "Original error: " + e.getMessage();
 
-        return config;
+        LOGGER.severe(errorMsg);
+        return new RuntimeException(errorMsg, e);
     }
 
-    private String getGQLBuildersContent() throws IOException {
-        String resource = userCfg.getLanguage().getName() + "_GraphQL_Builders.txt";
-        InputStream stream = TemplateProcessor.class.getClassLoader().getResourceAsStream(resource);
-        if (stream == null) {
-            throw new IllegalStateException("Template resource not found: " + resource);
+    /**
+     * Counts the lines of the rendered code while it is written.
+     */
+    private static class LineCountingWriter extends FilterWriter {
+        private long lines;
+        private boolean pending;
+
+        LineCountingWriter(Writer out) {
+            super(out);
         }
-        try (BufferedReader br = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
-            return br.lines().collect(Collectors.joining("\n"));
+
+        @Override
+        public void write(int c) throws IOException {
+            count(c);
+            super.write(c);
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            for (int i = off; i < off + len; i++) {
+                count(cbuf[i]);
+            }
+            super.write(cbuf, off, len);
         }
-    }
 
+        @Override
+        public void write(String str, int off, int len) throws IOException {
+            for (int i = off; i < off + len; i++) {
+                count(str.charAt(i));
+            }
+            super.write(str, off, len);
+        }
+
+        private void count(int c) {
+            if (c == '\n') {
+                lines++;
+                pending = false;
+            } else {
+                pending = true;
+            }
+        }
+
+        /**
+         * @return number of lines, a last line without line break included
+         */
+        long getLines() {
+            return lines + (pending ? 1 : 0);
+        }
+    }
 }
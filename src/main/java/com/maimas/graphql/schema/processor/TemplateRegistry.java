@@ -16,7 +16,10 @@ public class TemplateRegistry {
         // Register default templates
         TemplateConfig javaConfig = new TemplateConfig("Java", "1.0")
                 .setProperty("fileExtension", ".java")
-                .setProperty("templatePath", "java/Java_GQL_schema_template.ftl");
+                .setProperty("templatePath", "java/Java_GQL_schema_template.ftl")
+                // MULTI_FILE output: one file per type/fragment/operation plus the shared runtime class
+                .setProperty("unitTemplatePath", "java/Java_GQL_unit_template.ftl")
+                .setProperty("runtimeTemplatePath", "java/Java_GQL_runtime_template.ftl");
         // Default scalar mappings for Java; can be overridden at runtime by replacing this property
         java.util.Map<String, String> defaultScalarMappings = new java.util.HashMap<>();
         defaultScalarMappings.put("ID", "String");
@@ -51,6 +54,8 @@ public class TemplateRegistry {
         templatePaths.put(key, path);
         templateVersions.put(language, version);
         templateConfigs.put(key, config);
+        // A re-registered template set may point at different templates
+        TemplateEngineCache.invalidate(language, version);
     }
 
     /**
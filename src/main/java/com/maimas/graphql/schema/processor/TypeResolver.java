@@ -0,0 +1,117 @@
+package com.maimas.graphql.schema.processor;
+
+import com.maimas.graphql.schema.model.FieldType;
+import freemarker.template.TemplateMethodModelEx;
+import freemarker.template.TemplateModel;
+import freemarker.template.TemplateModelException;
+import freemarker.template.utility.DeepUnwrap;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Resolves the Java type of a GraphQL type reference, exposed to the templates as {@code typeResolver(type, prefix)}.
+ * Results are memoized per type shape (the chain of NON_NULL and LIST wrappers around a named type) and prefix,
+ * so after warm-up resolving a field type is a single map lookup.
+ */
+public class TypeResolver implements TemplateMethodModelEx {
+
+    private final Map<String, String> exactMappings = new HashMap<>();
+    private final Map<String, String> caseInsensitiveMappings = new HashMap<>();
+    private final ConcurrentMap<String, String> resolved = new ConcurrentHashMap<>();
+
+    /**
+     * @param scalarMappings GraphQL scalar name to Java type; matched exactly first, then ignoring case
+     */
+    public TypeResolver(Map<?, ?> scalarMappings) {
+        if (scalarMappings != null) {
+            scalarMappings.forEach((name, javaType) -> {
+                if (name != null && javaType != null) {
+                    exactMappings.put(String.valueOf(name), String.valueOf(javaType));
+                }
+            });
+            // Sorted, so that the case-insensitive match is the same on every run when keys differ only by case
+            new TreeMap<>(exactMappings).forEach((name, javaType) ->
+                    caseInsensitiveMappings.putIfAbsent(name.toLowerCase(Locale.ROOT), javaType));
+        }
+    }
+
+    // FreeMarker's TemplateMethodModelEx declares the raw List
+    @Override
+    @SuppressWarnings("rawtypes")
+    public Object exec(List arguments) throws TemplateModelException {
+        if (arguments.size() != 2) {
+            throw new TemplateModelException("typeResolver expects 2 arguments (type, prefix) but got " + arguments.size());
+        }
+        Object type = DeepUnwrap.unwrap((TemplateModel) arguments.get(0));
+        Object prefix = DeepUnwrap.unwrap((TemplateModel) arguments.get(1));
+        if (type != null && !(type instanceof FieldType)) {
+            throw new TemplateModelException("typeResolver expects a type reference but got " + type.getClass().getName());
+        }
+        return resolve((FieldType) type, prefix == null ? "" : prefix.toString());
+    }
+
+    /**
+     * Resolves the Java type of a type reference.
+     *
+     * @param type the type reference, possibly wrapped in NON_NULL and LIST
+     * @param prefix prefix of the generated (non scalar) types, e.g. {@code "Types."}
+     * @return the Java type
+     */
+    public String resolve(FieldType type, String prefix) {
+        StringBuilder key = new StringBuilder(prefix).append('|');
+        for (FieldType t = type; t != null; t = t.getOfType()) {
+            key.append(t.getKind()).append(':').append(t.getName()).append('/');
+        }
+        return resolved.computeIfAbsent(key.toString(), k -> compute(type, prefix));
+    }
+
+    private String compute(FieldType type, String prefix) {
+        if (type == null) {
+            return "Object";
+        }
+        String kind = type.getKind() == null ? "" : type.getKind();
+        if (kind.equals("NON_NULL") && type.getOfType() != null) {
+            return compute(type.getOfType(), prefix);
+        }
+        if (kind.equals("LIST") && type.getOfType() != null) {
+            return "List<" + compute(type.getOfType(), prefix) + ">";
+        }
+        if (type.getName() != null) {
+            return named(type.getName(), prefix);
+        }
+        if (type.getOfType() != null && type.getOfType().getName() != null) {
+            return named(type.getOfType().getName(), prefix);
+        }
+        return "Object";
+    }
+
+    private String named(String name, String prefix) {
+        String mapped = exactMappings.get(name);
+        if (mapped == null) {
+            mapped = caseInsensitiveMappings.get(name.toLowerCase(Locale.ROOT));
+        }
+        if (mapped != null) {
+            return mapped;
+        }
+        // Fallback defaults when the template set has no mapping for a built-in scalar
+        switch (name.toLowerCase(Locale.ROOT)) {
+            case "id":
+                return "String";
+            case "int":
+                return "Integer";
+            case "boolean":
+            case "string":
+            case "date":
+            case "float":
+                return name;
+            default:
+                return prefix + name;
+        }
+    }
+}
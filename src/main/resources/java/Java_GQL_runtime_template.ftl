@@ -0,0 +1,22 @@
+<#-- Renders the shared runtime class of the MULTI_FILE output -->
+<#-- Import utility functions -->
+<#include "utils/functions.ftl">
+
+<#-- Include header with package declaration and imports -->
+<#include "fragments/header.ftl">
+
+/**
+* GENERATED BY MAVEN-GRAPHQL-JAVA-CODEGEN-PLUGIN.
+* Query builder runtime shared by the generated types, fragments and operations.
+*/
+public class ${className} {
+
+public static class Schema {
+<#-- Include the entity types of the normalized cache -->
+<#include "types/entities.ftl">
+}
+
+<#-- Include GraphQL Builders content -->
+${gqlBuildersContent}
+
+}
@@ -10,7 +10,8 @@
 public class ${className} {
 
 public static class Schema {
-
+<#-- Include the entity types of the normalized cache -->
+<#include "types/entities.ftl">
 }
 
 public static class Types {
@@ -36,6 +37,12 @@ public static class Types {
 <#-- Include query and mutation operations -->
 <#include "operations/query_mutation.ftl">
 
+<#-- Include the operations compiled from GraphQL documents -->
+<#include "operations/compiled_operations.ftl">
+
+<#-- Include the JSON codecs of the schema types -->
+<#include "types/codecs.ftl">
+
 <#-- Include GraphQL Builders content -->
 ${gqlBuildersContent}
 
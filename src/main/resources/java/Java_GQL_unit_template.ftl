@@ -0,0 +1,39 @@
+<#-- Renders one source file of the MULTI_FILE output: a single type, fragment or operation class -->
+<#-- Import utility functions -->
+<#include "utils/functions.ftl">
+
+<#-- Include header with package declaration and imports -->
+<#include "fragments/header.ftl">
+
+import ${package}.${className}.*;
+
+<#-- unitTypes holds the single type of this unit, so each included template renders only that type -->
+<#switch unitKind>
+    <#case "ENUM">
+        <#include "types/enum.ftl">
+        <#break>
+    <#case "OBJECT">
+        <#include "types/object.ftl">
+        <#break>
+    <#case "OBJECT_FRAGMENT">
+        <#include "types/object_fragment.ftl">
+        <#break>
+    <#case "LIST_FRAGMENT">
+        <#include "types/list_type_fragments.ftl">
+        <#break>
+    <#case "LEAF_FRAGMENT">
+        <#include "types/scalar_fragment.ftl">
+        <#break>
+    <#case "INPUT_OBJECT">
+        <#include "types/input_object.ftl">
+        <#break>
+    <#case "OPERATION">
+        <#include "operations/query_mutation.ftl">
+        <#break>
+    <#case "COMPILED_OPERATIONS">
+        <#include "operations/compiled_operations.ftl">
+        <#break>
+    <#case "CODECS">
+        <#include "types/codecs.ftl">
+        <#break>
+</#switch>
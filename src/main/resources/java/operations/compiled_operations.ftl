@@ -0,0 +1,56 @@
+<#-- Renders the classes of the operations compiled from the GraphQL documents of operationsDir -->
+<#macro renderResponseClass responseClass>
+        public static class ${responseClass.className} {
+        <#list responseClass.fields as field>
+            public ${field.javaType} ${field.name};
+        </#list>
+        <#list responseClass.classes as nested>
+
+        <@renderResponseClass nested/>
+        </#list>
+        }
+</#macro>
+
+<#--COMPILED OPERATIONS generation {-->
+<#if compiledOperations??>
+/**
+* Operations compiled from the GraphQL documents, validated against the schema at generation time.
+*/
+public ${classModifier}class Operations {
+<#list compiledOperations.operations as operation>
+
+    /**
+    * The "${operation.name}" ${operation.kind?lower_case} of ${operation.source}.
+    */
+    public static class ${operation.className} {
+        public static final String DOCUMENT = "${operation.document?j_string}";
+        public static final String HASH = "${operation.hash}";
+        public static final CompiledOperation<Variables, Data> OPERATION = new CompiledOperation<>(GQLFunctionType.${operation.kind},
+                "${operation.name}", DOCUMENT, HASH, Data.class);
+
+        /**
+        * Variables of the operation, unset variables are not sent.
+        */
+        public static class Variables {
+        <#list operation.variables as variable>
+            public ${variable.javaType} ${variable.name};
+        </#list>
+        <#list operation.variables as variable>
+
+            /**
+            * @param ${variable.name} - value of the ${variable.graphqlType} variable.
+            * @return - this variables instance.
+            */
+            public Variables ${variable.name}(${variable.javaType} ${variable.name}) {
+                this.${variable.name} = ${variable.name};
+                return this;
+            }
+        </#list>
+        }
+
+        <@renderResponseClass operation.data/>
+    }
+</#list>
+}
+</#if>
+<#--COMPILED OPERATIONS generation }-->
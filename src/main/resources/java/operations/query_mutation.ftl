@@ -1,53 +1,85 @@
 <#--QUERY & MUTATION generation {-->
-<#list schema.types as type>
-    <#if typeKindEquals(type,"OBJECT") && (typeNameEquals(type,"QUERY") || typeNameEquals(type,"MUTATION"))>
-
-        ${getTypeDescription(type)}
-        public static class ${type.name} {
-
-        <#list type.fields as field>
-            /**
-            * Generates GraphQL query string to perform "${field.name}" operation.
-            *
-            * @return - graphql query string.
-            */
-            public GQLQuery ${field.name}(Consumer< ${getAsFirstCapitalized(field.name)}Args> input,
-                                          Consumer< ${getFragmentType(field, "Types.")}> output){
-
-            final ${getAsFirstCapitalized(field.name)}Args args = new ${getAsFirstCapitalized(field.name)}Args();
-            input.accept(args);
-            final Arguments arguments = args.getArguments();
-
-            final ${getFragmentType(field, "Types.")} fragment = ${createFragmentInstance(field, "Types.")};
-            output.accept(fragment);
-            final ResultFragment resultFragment = fragment.getFragment();
-
-
-            GQLFunction function = new GQLFunction(GQLFunctionType.${getTypeName(type)}, "${field.name}")
-                    .arguments(arguments)
-                    .resultFragment(resultFragment)
-                    .returnType(new TypeReference<${getFieldType(field, "Types.")}>() {});
-
-            return GQLQuery.from(function);
-            }
-
-            /**
-            * Arguments provider.
-            *
-            * @return - ${getAsFirstCapitalized(field.name)}Args for "${field.name}" operation.
-            */
-            public class ${getAsFirstCapitalized(field.name)}Args {
-            private Arguments arguments = new Arguments();
-
-            ${buildArgumentMethods(field)}
-
-            private Arguments getArguments() {
-            return arguments;
-            }
-            }
-
-        </#list>
+<#list (unitTypes)!schemaIndex.operations as type>
+
+    ${getTypeDescription(type)}
+    public ${classModifier}class ${type.name} {
+
+    <#list type.fields as field>
+        // Created once: a type reference reflects on its own class when it is created
+        private static final TypeReference<${getFieldType(field, typesPrefix)}> ${field.name}ReturnType = new TypeReference<${getFieldType(field, typesPrefix)}>() {};
+
+        /**
+        * Generates GraphQL query string to perform "${field.name}" operation.
+        *
+        * @return - graphql query string.
+        */
+        public GQLQuery ${field.name}(Consumer< ${getAsFirstCapitalized(field.name)}Args> input,
+                                      Consumer< ${getFragmentType(field, typesPrefix)}> output){
+
+        final ${getAsFirstCapitalized(field.name)}Args args = new ${getAsFirstCapitalized(field.name)}Args();
+        input.accept(args);
+        final Arguments arguments = args.getArguments();
+
+        final ${getFragmentType(field, typesPrefix)} fragment = ${createFragmentInstance(field, typesPrefix)};
+        output.accept(fragment);
+        final ResultFragment resultFragment = fragment.getFragment();
+
+
+        GQLFunction function = new GQLFunction(GQLFunctionType.${schemaIndex.operationKinds[type.name]}, "${field.name}")
+                .arguments(arguments)
+                .resultFragment(resultFragment)
+                .returnType(${field.name}ReturnType);
+
+        return GQLQuery.from(function);
+        }
+
+        /**
+        * Prepares the "${field.name}" operation for the given output fields, the document is built once.
+        *
+        * @param shape - sample arguments; the arguments set and their types make the operation's variables.
+        * @return - prepared operation, executed with {@link PreparedQuery#bind(Consumer)}.
+        */
+        public PreparedQuery<${getAsFirstCapitalized(field.name)}Args, ${getFieldType(field, typesPrefix)}> prepare${getAsFirstCapitalized(field.name)}(Consumer< ${getAsFirstCapitalized(field.name)}Args> shape,
+                                      Consumer< ${getFragmentType(field, typesPrefix)}> output){
+        return new PreparedQuery<>(${field.name}(shape, output), ${getAsFirstCapitalized(field.name)}Args::new,
+                ${getAsFirstCapitalized(field.name)}Args::getArguments, ${field.name}ReturnType);
+        }
+        <#if staticOperations.operations[type.name + "." + field.name]??>
+        <#assign staticOperation = staticOperations.operations[type.name + "." + field.name]>
+
+        /**
+        * Prepares the "${field.name}" operation with its required arguments, selecting every scalar and enum field
+        * of the result. The document and its hash are computed at generation time and listed in the operation manifest.
+        *
+        * @return - prepared operation, executed with {@link PreparedQuery#bind(Consumer)}.
+        */
+        public PreparedQuery<${getAsFirstCapitalized(field.name)}Args, ${getFieldType(field, typesPrefix)}> prepare${getAsFirstCapitalized(field.name)}(){
+        return new PreparedQuery<>(GQLFunctionType.${schemaIndex.operationKinds[type.name]}, "${field.name}",
+                "${staticOperation.document?j_string}",
+                "${staticOperation.hash}",
+                "${staticOperation.selection?j_string}",
+                Map.ofEntries(<#list staticOperation.variables as name, variableType>Map.entry("${name}", "${variableType}")<#sep>, </#list>),
+                ${getAsFirstCapitalized(field.name)}Args::new, ${getAsFirstCapitalized(field.name)}Args::getArguments,
+                ${field.name}ReturnType);
         }
-    </#if>
+        </#if>
+
+        /**
+        * Arguments provider.
+        *
+        * @return - ${getAsFirstCapitalized(field.name)}Args for "${field.name}" operation.
+        */
+        public class ${getAsFirstCapitalized(field.name)}Args {
+        private Arguments arguments = new Arguments();
+
+        ${buildArgumentMethods(field)}
+
+        private Arguments getArguments() {
+        return arguments;
+        }
+        }
+
+    </#list>
+    }
 </#list>
 <#--QUERY & MUTATION generation }-->
@@ -0,0 +1,115 @@
+<#-- Renders the streaming JSON codecs of the enum, object and input types -->
+<#assign builtinCodecs = {
+    "String": "JsonCodec.STRING",
+    "Integer": "JsonCodec.INTEGER",
+    "Long": "JsonCodec.LONG",
+    "Float": "JsonCodec.FLOAT",
+    "Double": "JsonCodec.DOUBLE",
+    "Boolean": "JsonCodec.BOOLEAN",
+    "java.math.BigDecimal": "JsonCodec.BIG_DECIMAL",
+    "java.math.BigInteger": "JsonCodec.BIG_INTEGER",
+    "Date": "JsonCodec.DATE",
+    "java.util.Date": "JsonCodec.DATE",
+    "java.time.OffsetDateTime": "JsonCodec.OFFSET_DATE_TIME",
+    "java.time.LocalDateTime": "JsonCodec.LOCAL_DATE_TIME",
+    "java.time.LocalDate": "JsonCodec.LOCAL_DATE",
+    "java.time.Instant": "JsonCodec.INSTANT",
+    "Object": "JsonCodec.OBJECT"
+}>
+
+<#-- Codec expression of a type reference: lists use the list codec of their element codec -->
+<#function codecOf type>
+    <#if type.kind?? && type.kind == "NON_NULL" && type.ofType??>
+        <#return codecOf(type.ofType)>
+    </#if>
+    <#if type.kind?? && type.kind == "LIST" && type.ofType??>
+        <#return codecOf(type.ofType) + ".list()">
+    </#if>
+    <#if type.name?? && (schemaIndex.getType(type.name))??>
+        <#local named = schemaIndex.getType(type.name)>
+        <#if typeKindEquals(named, "ENUM|INPUT_OBJECT") || (typeKindEquals(named, "OBJECT") && !schemaIndex.isOperation(named))>
+            <#return type.name + "Codec">
+        </#if>
+    </#if>
+    <#local javaType = resolveType(type, typesPrefix)>
+    <#return builtinCodecs[javaType]!("JsonCodec.databind(" + javaType + ".class)")>
+</#function>
+
+<#macro renderFieldCodecs typeName fields>
+    private static ${typesPrefix}${typeName} read${typeName}(JsonParser parser) throws IOException {
+        JsonCodec.expectObject(parser, "${typeName}");
+        ${typesPrefix}${typeName} value = new ${typesPrefix}${typeName}();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+            <#list fields as field>
+                case "${field.name}":
+                    value.${field.name} = ${codecOf(field.type)}.read(parser);
+                    break;
+            </#list>
+                default:
+                    parser.skipChildren();
+            }
+        }
+        return value;
+    }
+
+    private static void write${typeName}(JsonGenerator generator, ${typesPrefix}${typeName} value) throws IOException {
+        generator.writeStartObject();
+    <#list fields as field>
+        if (value.${field.name} != null) {
+            generator.writeFieldName("${field.name}");
+            ${codecOf(field.type)}.write(generator, value.${field.name});
+        }
+    </#list>
+        generator.writeEndObject();
+    }
+</#macro>
+
+<#--CODECS generation {-->
+<#if generateCodecs!false>
+<#assign codecTypes = schemaIndex.enums + schemaIndex.objects + schemaIndex.inputs>
+/**
+* Streaming JSON codecs of the schema types, reading and writing them without reflection.
+* Unknown fields are skipped and null fields are not written.
+*/
+public ${classModifier}class Codecs {
+<#list codecTypes as type>
+    public static final JsonCodec<${typesPrefix}${type.name}> ${type.name}Codec = new JsonCodec<>(${typesPrefix}${type.name}.class,
+            Codecs::read${type.name}, Codecs::write${type.name});
+</#list>
+
+    /**
+    * The codecs of the schema types and of the built-in scalars.
+    */
+    public static final CodecRegistry REGISTRY = new CodecRegistry()<#list codecTypes as type>
+            .register(${type.name}Codec)</#list>;
+<#list schemaIndex.enums as type>
+
+    private static ${typesPrefix}${type.name} read${type.name}(JsonParser parser) throws IOException {
+        switch (JsonCodec.text(parser, "${type.name}")) {
+        <#list type.enumValues as enum>
+            case "${enum.name}":
+                return ${typesPrefix}${type.name}.${enum.name};
+        </#list>
+            default:
+                throw JsonCodec.unknownValue(parser, "${type.name}");
+        }
+    }
+
+    private static void write${type.name}(JsonGenerator generator, ${typesPrefix}${type.name} value) throws IOException {
+        generator.writeString(value.name());
+    }
+</#list>
+<#list schemaIndex.objects as type>
+
+<@renderFieldCodecs type.name type.fields/>
+</#list>
+<#list schemaIndex.inputs as type>
+
+<@renderFieldCodecs type.name type.inputFields/>
+</#list>
+}
+</#if>
+<#--CODECS generation }-->
@@ -0,0 +1,36 @@
+<#-- Renders the entity types of the normalized cache: the ID field of each object type and its fields of object types -->
+<#function namedTypeOf type>
+    <#if type.ofType??>
+        <#return namedTypeOf(type.ofType)>
+    </#if>
+    <#return type>
+</#function>
+
+<#-- The fields whose type is an object, interface or union, e.g. "friends:User address:Address" -->
+<#function objectFieldsOf type>
+    <#local result = []>
+    <#list type.fields![] as field>
+        <#local named = namedTypeOf(field.type)>
+        <#if named.name?? && (schemaIndex.getType(named.name))?? && typeKindEquals(schemaIndex.getType(named.name), "OBJECT|INTERFACE|UNION")>
+            <#local result = result + [field.name + ":" + named.name]>
+        </#if>
+    </#list>
+    <#return result?join(" ")>
+</#function>
+
+<#-- The first field of type ID without arguments, empty when there is none -->
+<#function idFieldOf type>
+    <#list type.fields![] as field>
+        <#if namedTypeOf(field.type).name! == "ID" && !(field.args)?has_content>
+            <#return field.name>
+        </#if>
+    </#list>
+    <#return "">
+</#function>
+
+    /**
+    * The entity types of the {@link NormalizedCache}: the ID field of each object type and its fields of object types.
+    */
+    public static final NormalizedCache.EntityTypes ENTITIES = new NormalizedCache.EntityTypes()<#list schemaIndex.operations as type>
+            .root(GQLFunctionType.${schemaIndex.operationKinds[type.name]}, "${objectFieldsOf(type)}")</#list><#list schemaIndex.objects as type><#assign idField = idFieldOf(type)><#assign objectFields = objectFieldsOf(type)><#if idField?has_content || objectFields?has_content>
+            .type("${type.name}", <#if idField?has_content>"${idField}"<#else>null</#if>, "${objectFields}")</#if></#list>;
@@ -11,9 +11,7 @@
 </#macro>
 
 <#--ENUM generation {-->
-<#list schema.types as type>
-    <#if type.name!="" && !type.name?starts_with("__") && typeKindEquals(type,"ENUM")>
-        <@renderType type/>
-    </#if>
+<#list (unitTypes)!schemaIndex.enums as type>
+    <@renderType type/>
 </#list>
 <#--ENUM generation }-->
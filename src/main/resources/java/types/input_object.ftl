@@ -3,7 +3,7 @@
 
 <#-- Override the renderTypeContent macro -->
 <#macro renderTypeContent type>
-    public static class ${type.name} {
+    public ${classModifier}class ${type.name} {
     <#list type.inputFields as field>
         public ${getFieldType(field, "")}  ${field.name};
     </#list>
@@ -11,9 +11,7 @@
 </#macro>
 
 <#--INPUT_OBJECT generation {-->
-<#list schema.types as type>
-    <#if type.name!="" && !type.name?starts_with("__") && typeKindEquals(type,"INPUT_OBJECT") && !type.name?upper_case?matches("QUERY|MUTATION")>
-        <@renderType type/>
-    </#if>
+<#list (unitTypes)!schemaIndex.inputs as type>
+    <@renderType type/>
 </#list>
 <#--INPUT_OBJECT generation }-->
@@ -3,7 +3,7 @@
 
 <#-- Override the renderTypeContent macro -->
 <#macro renderTypeContent type>
-    public static class ${type.name} {
+    public ${classModifier}class ${type.name} {
     <#list type.fields as field>
         public ${getFieldType(field, "")}  ${field.name};
     </#list>
@@ -16,9 +16,7 @@
 </#macro>
 
 <#--OBJECT generation {-->
-<#list schema.types as type>
-    <#if isUserObjectType(type)>
-        <@renderType type/>
-    </#if>
+<#list (unitTypes)!schemaIndex.objects as type>
+    <@renderType type/>
 </#list>
 <#--OBJECT generation }-->
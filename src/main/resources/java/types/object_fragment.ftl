@@ -1,25 +1,23 @@
 <#--OBJECT fragment generation {-->
-<#list schema.types as type>
-    <#if isUserObjectType(type)>
-        <#if (type.description??) && type.description!="">
-            /**
-            * ${type.description}
-            */
-        </#if>
-        public static class ${type.name}Fragment {
-        private final ResultFragment resultFragment = new ResultFragment();
-
-        <#list type.fields as field>
-            public ${type.name}Fragment ${field.name}() {
-            resultFragment.add(FragmentField.of("${field.name}"));
-            return this;
-            }
-        </#list>
+<#list (unitTypes)!schemaIndex.objects as type>
+    <#if (type.description??) && type.description!="">
+        /**
+        * ${type.description}
+        */
+    </#if>
+    public ${classModifier}class ${type.name}Fragment {
+    private final ResultFragment resultFragment = new ResultFragment();
 
-        public ResultFragment getFragment() {
-        return resultFragment;
-        }
+    <#list type.fields as field>
+        public ${type.name}Fragment ${field.name}() {
+        resultFragment.add(FragmentField.of("${field.name}"));
+        return this;
         }
-    </#if>
+    </#list>
+
+    public ResultFragment getFragment() {
+    return resultFragment;
+    }
+    }
 </#list>
 <#--OBJECT fragment generation }-->
\ No newline at end of file
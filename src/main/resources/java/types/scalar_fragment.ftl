@@ -1,65 +1,15 @@
 <#--SCALAR fragment generation {-->
-<#-- Generate other scalar fragments based on schema -->
-<#list schema.types as type>
-    <#if isScalarType(type, "String")>
-        /**
-         * Fragment for String scalar type
-         */
-        public static class StringFragment {
-            private final ResultFragment resultFragment = new ResultFragment();
-
-            public ResultFragment getFragment() {
-                return resultFragment;
-            }
-        }
-    </#if>
-    <#if isScalarType(type, "Boolean")>
-        /**
-        * Fragment for Boolean scalar type
-        */
-        public static class BooleanFragment {
+<#-- Leaf types (scalars and enums) have no sub-selection: their fragment only carries an empty result fragment -->
+<#list (unitTypes)!schemaIndex.leafTypes as type>
+    /**
+     * Fragment for ${type.name} ${type.kind?lower_case} type
+     */
+    public ${classModifier}class ${type.name}Fragment {
         private final ResultFragment resultFragment = new ResultFragment();
 
         public ResultFragment getFragment() {
-        return resultFragment;
-        }
-        }
-    </#if>
-    <#if isScalarType(type, "Int")>
-        /**
-         * Fragment for Int scalar type
-         */
-        public static class IntFragment {
-            private final ResultFragment resultFragment = new ResultFragment();
-
-            public ResultFragment getFragment() {
-                return resultFragment;
-            }
-        }
-    </#if>
-    <#if isScalarType(type, "Float")>
-        /**
-         * Fragment for Float scalar type
-         */
-        public static class FloatFragment {
-            private final ResultFragment resultFragment = new ResultFragment();
-
-            public ResultFragment getFragment() {
-                return resultFragment;
-            }
-        }
-    </#if>
-    <#if isScalarType(type, "ID")>
-        /**
-         * Fragment for ID scalar type
-         */
-        public static class IDFragment {
-            private final ResultFragment resultFragment = new ResultFragment();
-
-            public ResultFragment getFragment() {
-                return resultFragment;
-            }
+            return resultFragment;
         }
-    </#if>
+    }
 </#list>
 <#--SCALAR fragment generation }-->
@@ -15,12 +15,12 @@
         <#list field.args as arg>
             <#if (arg.name??)>
                 <#if isArgOptional(arg)>
-                    <#local result += "public "+getAsFirstCapitalized(field.name)+"Args "+arg.name+"(Optional<"+getFieldType(arg, "Types.")+"> "+arg.name+") {
+                    <#local result += "public "+getAsFirstCapitalized(field.name)+"Args "+arg.name+"(Optional<"+getFieldType(arg, typesPrefix)+"> "+arg.name+") {
                     arguments.add(Argument.of(\""+arg.name+"\", "+arg.name+"));
                     return this;
                     }">
                 <#else>
-                    <#local result += "public "+getAsFirstCapitalized(field.name)+"Args "+arg.name+"("+getFieldType(arg, "Types.")+" "+arg.name+") {
+                    <#local result += "public "+getAsFirstCapitalized(field.name)+"Args "+arg.name+"("+getFieldType(arg, typesPrefix)+" "+arg.name+") {
                     arguments.add(Argument.of(\""+arg.name+"\", "+arg.name+"));
                     return this;
                     }">
@@ -35,70 +35,9 @@
     <#return resolveType(field.type, typePrefix)>
 </#function>
 
-<#-- Improved function to handle complex nested types with scalar mappings (overridable via templateConfig) -->
+<#-- Java type of a type reference; scalar mappings come from templateConfig, resolved and memoized by TypeResolver -->
 <#function resolveType type typePrefix>
-    <#assign typeName = "">
-    <#assign typeKind = "">
-
-    <#if (type.kind??)>
-        <#assign typeKind = type.kind>
-    </#if>
-
-    <#-- Handle NON_NULL types -->
-    <#if typeKind == "NON_NULL" && type.ofType??>
-        <#return resolveType(type.ofType, typePrefix)>
-    </#if>
-
-    <#-- Handle LIST types -->
-    <#if typeKind == "LIST" && type.ofType??>
-        <#assign innerType = resolveType(type.ofType, typePrefix)>
-        <#return "List<" + innerType + ">">
-    </#if>
-
-    <#-- Handle named types -->
-    <#if (type.name??)>
-        <#assign typeName = type.name>
-        <#-- Prefer template-provided scalar mappings if available -->
-        <#assign scalarMappings = (templateConfig.properties.scalarMappings)!{}>
-        <#assign mapped = scalarMappings[typeName]?if_exists>
-        <#if !(mapped??)><#assign mapped = scalarMappings[typeName?lower_case]?if_exists></#if>
-        <#if !(mapped??)><#assign mapped = scalarMappings[typeName?upper_case]?if_exists></#if>
-        <#if mapped??>
-            <#return mapped>
-        </#if>
-        <#-- Fallback defaults -->
-        <#if typeName?lower_case == "id">
-            <#return "String">
-        <#elseif typeName?lower_case == "int">
-            <#return "Integer">
-        <#elseif typeName?lower_case?matches("boolean|string|date|float")>
-            <#return typeName>
-        </#if>
-        <#return typePrefix + typeName>
-    </#if>
-
-    <#-- Handle ofType as fallback -->
-    <#if (type.ofType??) && (type.ofType.name??)>
-        <#assign typeName = type.ofType.name>
-        <#assign scalarMappings = (templateConfig.properties.scalarMappings)!{}>
-        <#assign mapped = scalarMappings[typeName]?if_exists>
-        <#if !(mapped??)><#assign mapped = scalarMappings[typeName?lower_case]?if_exists></#if>
-        <#if !(mapped??)><#assign mapped = scalarMappings[typeName?upper_case]?if_exists></#if>
-        <#if mapped??>
-            <#return mapped>
-        </#if>
-        <#if typeName?lower_case == "id">
-            <#return "String">
-        <#elseif typeName?lower_case == "int">
-            <#return "Integer">
-        <#elseif typeName?lower_case?matches("boolean|string|date|float")>
-            <#return typeName>
-        </#if>
-        <#return typePrefix + typeName>
-    </#if>
-
-    <#-- Default fallback -->
-    <#return "Object">
+    <#return typeResolver(type, typePrefix)>
 </#function>
 
 <#function typeKindEquals type value>
@@ -132,9 +71,9 @@
         <#list field.args as arg>
             <#if (arg.name??)>
                 <#if isArgOptional(arg)>
-                    <#local result += "Optional<" + getFieldType(arg, "Types.") + "> " + arg.name>
+                    <#local result += "Optional<" + getFieldType(arg, typesPrefix) + "> " + arg.name>
                 <#else>
-                    <#local result += getFieldType(arg, "Types.") + " " + arg.name>
+                    <#local result += getFieldType(arg, typesPrefix) + " " + arg.name>
                 </#if>
                 <#if arg?index < argsSize-1>
                     <#local result +=", ">
@@ -193,24 +132,21 @@
     <#return false>
 </#function>
 
+<#-- Unwraps NON_NULL and LIST wrappers down to the named type -->
+<#function namedType type>
+    <#if (type.ofType??) && !(type.name??)>
+        <#return namedType(type.ofType)>
+    </#if>
+    <#return type>
+</#function>
+
 <#-- Function to get the appropriate fragment type for a field -->
 <#function getFragmentType field typePrefix>
-    <#-- For List types, we still use the per-item fragment type -->
-    <#if field.type.kind == "LIST" && field.type.ofType??>
-        <#local innerType = resolveType(field.type.ofType, typePrefix)>
-        <#return innerType + "Fragment">
-    <#else>
-        <#return getFieldType(field, typePrefix) + "Fragment">
-    </#if>
+    <#-- Lists and non-null wrappers use the fragment of the item type (per-item selection set) -->
+    <#return typePrefix + namedType(field.type).name + "Fragment">
 </#function>
 
 <#-- Function to create a new fragment instance for a field -->
 <#function createFragmentInstance field typePrefix>
-    <#-- For List types, create the inner fragment instance (per-item selection set) -->
-    <#if field.type.kind == "LIST" && field.type.ofType??>
-        <#local innerType = resolveType(field.type.ofType, typePrefix)>
-        <#return "new " + innerType + "Fragment()">
-    <#else>
-        <#return "new " + getFieldType(field, typePrefix) + "Fragment()">
-    </#if>
+    <#return "new " + getFragmentType(field, typePrefix) + "()">
 </#function>
@@ -87,4 +87,33 @@ public class UserConfigTest {
         badTimeout.setConnectTimeoutMs(-1);
         Assertions.assertThrows(IllegalArgumentException.class, badTimeout::validate);
     }
+
+    @Test
+    void validate_schema_file_replaces_url() {
+        UserConfig cfg = new UserConfig();
+        cfg.setSchemaFile("src/test/resources/UserServiceSchema.graphqls");
+        Assertions.assertDoesNotThrow(cfg::validate);
+        Assertions.assertTrue(cfg.isSdlSchemaFile());
+
+        UserConfig missing = new UserConfig();
+        missing.setSchemaFile("src/test/resources/does-not-exist.json");
+        Assertions.assertThrows(IllegalArgumentException.class, missing::validate);
+        Assertions.assertFalse(missing.isSdlSchemaFile());
+
+        // neither url nor schemaFile
+        Assertions.assertThrows(IllegalArgumentException.class, new UserConfig()::validate);
+    }
+
+    @Test
+    void validate_operations_dir_must_be_a_directory() {
+        UserConfig cfg = new UserConfig();
+        cfg.setSchemaFile("src/test/resources/UserServiceSchema.graphqls");
+        cfg.setOperationsDir("src/test/resources/operations");
+        Assertions.assertDoesNotThrow(cfg::validate);
+        Assertions.assertTrue(cfg.hasOperationsDir());
+
+        cfg.setOperationsDir("src/test/resources/operations/UserOperations.graphql");
+        IllegalArgumentException error = Assertions.assertThrows(IllegalArgumentException.class, cfg::validate);
+        Assertions.assertTrue(error.getMessage().contains("operationsDir"), error.getMessage());
+    }
 }
@@ -0,0 +1,204 @@
+package com.maimas.generated;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.maimas.generated.GeneratedGraphqlAPI.Arguments;
+import com.maimas.generated.GeneratedGraphqlAPI.Codecs;
+import com.maimas.generated.GeneratedGraphqlAPI.GQLException;
+import com.maimas.generated.GeneratedGraphqlAPI.GQLExecutor;
+import com.maimas.generated.GeneratedGraphqlAPI.GQLFunctionType;
+import com.maimas.generated.GeneratedGraphqlAPI.GQLStream;
+import com.maimas.generated.GeneratedGraphqlAPI.PreparedQuery;
+import com.maimas.generated.GeneratedGraphqlAPI.Query;
+import com.maimas.generated.GeneratedGraphqlAPI.Types.User;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streamed list results. The test schema has no list operation: the tests prepare one, as generated for
+ * {@code exportUsers: [User]}, which needs the package-private constructor of {@link PreparedQuery}.
+ */
+public class GQLStreamTest {
+    private static final URI ENDPOINT = URI.create("https://api.example.com/graphql");
+    private static final PreparedQuery<Arguments, List<User>> EXPORT_USERS = new PreparedQuery<>(GQLFunctionType.Query, "exportUsers",
+            "query{ exportUsers{ id email } }", null, "id email ", Map.of(), Arguments::new, args -> args, new TypeReference<List<User>>() {});
+
+    /**
+     * Stand-in server answering every request with the same body, read through a stream that counts the bytes read.
+     */
+    private static final class Server implements GQLExecutor.Transport {
+        private final int status;
+        private final byte[] body;
+        private CountingStream stream;
+
+        Server(int status, String body) {
+            this.status = status;
+            this.body = body.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public GQLExecutor.Response send(GQLExecutor.Request request) {
+            return new GQLExecutor.Response(status, body);
+        }
+
+        @Override
+        public GQLExecutor.StreamedResponse open(GQLExecutor.Request request) {
+            stream = new CountingStream(new ByteArrayInputStream(body));
+            return new GQLExecutor.StreamedResponse(status, stream);
+        }
+    }
+
+    private static final class CountingStream extends FilterInputStream {
+        private long read;
+        private boolean closed;
+
+        CountingStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            read += b < 0 ? 0 : 1;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            read += Math.max(n, 0);
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            closed = true;
+            super.close();
+        }
+    }
+
+    @Test
+    void elements_are_read_as_the_response_arrives() throws Exception {
+        Server server = new Server(200, "{\"data\":{\"exportUsers\":" + users(20_000) + ",\"total\":20000},"
+                + "\"errors\":[{\"message\":\"export truncated\"}]}");
+
+        for (GQLExecutor executor : List.of(new GQLExecutor(ENDPOINT, server), new GQLExecutor(ENDPOINT, server).codecs(Codecs.REGISTRY))) {
+            try (GQLStream<User> users = executor.stream(EXPORT_USERS, args -> { })) {
+                Assertions.assertEquals("0", users.next().id);
+                Assertions.assertTrue(server.stream.read < server.body.length / 10, server.stream.read + " bytes read");
+                Assertions.assertFalse(users.hasErrors());
+
+                int count = 1;
+                while (users.hasNext()) {
+                    Assertions.assertEquals("user" + count + "@example.com", users.next().email);
+                    count++;
+                }
+                Assertions.assertEquals(20_000, count);
+                // The errors that follow the list are read at its end, and the response is closed
+                Assertions.assertEquals(List.of("export truncated"), users.getErrorMessages());
+                Assertions.assertTrue(server.stream.closed);
+            }
+        }
+    }
+
+    @Test
+    void closing_the_stream_early_stops_reading_the_response() throws Exception {
+        Server server = new Server(200, "{\"data\":{\"exportUsers\":" + users(20_000) + "}}");
+        GQLExecutor executor = new GQLExecutor(ENDPOINT, server);
+
+        try (java.util.stream.Stream<User> users = executor.<Arguments, User>stream(EXPORT_USERS, args -> { }).stream()) {
+            Assertions.assertEquals(List.of("0", "1", "2"), users.limit(3).map(user -> user.id).collect(Collectors.toList()));
+        }
+        Assertions.assertTrue(server.stream.closed);
+        Assertions.assertTrue(server.stream.read < server.body.length / 10, server.stream.read + " bytes read");
+    }
+
+    @Test
+    void errors_are_returned_and_http_errors_thrown() throws Exception {
+        Server denied = new Server(200, "{\"errors\":[{\"message\":\"export denied\"}],\"data\":{\"exportUsers\":null}}");
+        try (GQLStream<User> users = new GQLExecutor(ENDPOINT, denied).stream(EXPORT_USERS, args -> { })) {
+            Assertions.assertFalse(users.hasNext());
+            Assertions.assertEquals(List.of("export denied"), users.getErrorMessages());
+            Assertions.assertTrue(denied.stream.closed);
+        }
+
+        Server failing = new Server(502, "<html>Bad Gateway</html>");
+        GQLException error = Assertions.assertThrows(GQLException.class,
+                () -> new GQLExecutor(ENDPOINT, failing).stream(EXPORT_USERS, args -> { }));
+        Assertions.assertEquals("HTTP status 502 from api.example.com for 'exportUsers'", error.getMessage());
+        Assertions.assertTrue(failing.stream.closed);
+
+        Server server = new Server(200, "{\"data\":{\"findById\":{\"id\":\"42\"}}}");
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new GQLExecutor(ENDPOINT, server).stream(new Query().findById(args -> args.id("42"), user -> user.id())));
+    }
+
+    @Test
+    void http_transport_streams_compressed_responses_and_aborts_them_on_close() throws Exception {
+        CountDownLatch aborted = new CountDownLatch(1);
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/graphql", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            int size = exchange.getRequestURI().getPath().endsWith("all") ? 1_000 : Integer.MAX_VALUE;
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = new GZIPOutputStream(exchange.getResponseBody())) {
+                out.write("{\"data\":{\"exportUsers\":[".getBytes(StandardCharsets.UTF_8));
+                for (int i = 0; i < size; i++) {
+                    out.write(((i > 0 ? "," : "") + user(i)).getBytes(StandardCharsets.UTF_8));
+                }
+                out.write("]}}".getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                aborted.countDown();
+            }
+        });
+        server.start();
+        try {
+            URI base = URI.create("http://localhost:" + server.getAddress().getPort() + "/graphql");
+            GQLExecutor.HttpTransport transport = new GQLExecutor.HttpTransport(Duration.ofSeconds(5));
+
+            try (GQLStream<User> users = new GQLExecutor(URI.create(base + "/all"), transport).codecs(Codecs.REGISTRY)
+                    .stream(EXPORT_USERS, args -> { })) {
+                Assertions.assertEquals(1_000, users.stream().count());
+            }
+            // An endless response: the server fails to write once the client closes the stream
+            try (GQLStream<User> users = new GQLExecutor(base, transport).stream(EXPORT_USERS, args -> { })) {
+                for (int i = 0; i < 10_000; i++) {
+                    Assertions.assertEquals(String.valueOf(i), users.next().id);
+                }
+            }
+            Assertions.assertTrue(aborted.await(10, TimeUnit.SECONDS), "response not aborted");
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private static String users(int count) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < count; i++) {
+            sb.append(i > 0 ? "," : "").append(user(i));
+        }
+        return sb.append(']').toString();
+    }
+
+    private static String user(int i) {
+        return "{\"id\":\"" + i + "\",\"email\":\"user" + i + "@example.com\"}";
+    }
+}
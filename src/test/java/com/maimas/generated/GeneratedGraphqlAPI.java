@@ -1,11 +1,23 @@
 package com.maimas.generated;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedOutputStream;
 import com.fasterxml.jackson.databind.util.RawValue;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
 import java.util.*;
 import java.util.function.Consumer;
 
@@ -17,6 +29,12 @@ public class GeneratedGraphqlAPI {
 
 public static class Schema {
 
+    /**
+    * The entity types of the {@link NormalizedCache}: the ID field of each object type and its fields of object types.
+    */
+    public static final NormalizedCache.EntityTypes ENTITIES = new NormalizedCache.EntityTypes()
+            .root(GQLFunctionType.Query, "findById:User findByEmail:User")
+            .root(GQLFunctionType.Mutation, "enable:User create:User update:User");
 }
 
 public static class Types {
@@ -126,6 +144,9 @@ public static class Types {
         */
         public static class Query {
 
+            // Created once: a type reference reflects on its own class when it is created
+            private static final TypeReference<Types.User> findByIdReturnType = new TypeReference<Types.User>() {};
+
             /**
             * Generates GraphQL query string to perform "findById" operation.
             *
@@ -146,11 +167,39 @@ public static class Types {
             GQLFunction function = new GQLFunction(GQLFunctionType.Query, "findById")
             .arguments(arguments)
             .resultFragment(resultFragment)
-            .returnType(new TypeReference<Types.User>() {});
+            .returnType(findByIdReturnType);
 
             return GQLQuery.from(function);
             }
 
+            /**
+            * Prepares the "findById" operation for the given output fields, the document is built once.
+            *
+            * @param shape - sample arguments; the arguments set and their types make the operation's variables.
+            * @return - prepared operation, executed with {@link PreparedQuery#bind(Consumer)}.
+            */
+            public PreparedQuery<FindByIdArgs, Types.User> prepareFindById(Consumer< FindByIdArgs> shape,
+                                          Consumer< Types.UserFragment> output){
+            return new PreparedQuery<>(findById(shape, output), FindByIdArgs::new,
+                    FindByIdArgs::getArguments, findByIdReturnType);
+            }
+
+            /**
+            * Prepares the "findById" operation with its required arguments, selecting every scalar and enum field
+            * of the result. The document and its hash are computed at generation time and listed in the operation manifest.
+            *
+            * @return - prepared operation, executed with {@link PreparedQuery#bind(Consumer)}.
+            */
+            public PreparedQuery<FindByIdArgs, Types.User> prepareFindById(){
+            return new PreparedQuery<>(GQLFunctionType.Query, "findById",
+                    "query($id: String! ){ findById( id: $id ){ createdDate dateOfBirth email enabled firstName gender id lastName modifiedDate status } }",
+                    "face9877a97d558548342b7ab0498bdb0d6e9e01ae96b4f867ccafdf49cb8208",
+                    "createdDate dateOfBirth email enabled firstName gender id lastName modifiedDate status ",
+                    Map.ofEntries(Map.entry("id", "String!")),
+                    FindByIdArgs::new, FindByIdArgs::getArguments,
+                    findByIdReturnType);
+            }
+
             /**
             * Arguments provider.
             *
@@ -169,6 +218,9 @@ public static class Types {
             }
             }
 
+            // Created once: a type reference reflects on its own class when it is created
+            private static final TypeReference<Types.User> findByEmailReturnType = new TypeReference<Types.User>() {};
+
             /**
             * Generates GraphQL query string to perform "findByEmail" operation.
             *
@@ -189,11 +241,39 @@ public static class Types {
             GQLFunction function = new GQLFunction(GQLFunctionType.Query, "findByEmail")
             .arguments(arguments)
             .resultFragment(resultFragment)
-            .returnType(new TypeReference<Types.User>() {});
+            .returnType(findByEmailReturnType);
 
             return GQLQuery.from(function);
             }
 
+            /**
+            * Prepares the "findByEmail" operation for the given output fields, the document is built once.
+            *
+            * @param shape - sample arguments; the arguments set and their types make the operation's variables.
+            * @return - prepared operation, executed with {@link PreparedQuery#bind(Consumer)}.
+            */
+            public PreparedQuery<FindByEmailArgs, Types.User> prepareFindByEmail(Consumer< FindByEmailArgs> shape,
+                                          Consumer< Types.UserFragment> output){
+            return new PreparedQuery<>(findByEmail(shape, output), FindByEmailArgs::new,
+                    FindByEmailArgs::getArguments, findByEmailReturnType);
+            }
+
+            /**
+            * Prepares the "findByEmail" operation with its required arguments, selecting every scalar and enum field
+            * of the result. The document and its hash are computed at generation time and listed in the operation manifest.
+            *
+            * @return - prepared operation, executed with {@link PreparedQuery#bind(Consumer)}.
+            */
+            public PreparedQuery<FindByEmailArgs, Types.User> prepareFindByEmail(){
+            return new PreparedQuery<>(GQLFunctionType.Query, "findByEmail",
+                    "query($email: String! ){ findByEmail( email: $email ){ createdDate dateOfBirth email enabled firstName gender id lastName modifiedDate status } }",
+                    "9e1149d7c855ee94020447fdf3432bd7800bdc079e9829cbd02419fa1c873aa2",
+                    "createdDate dateOfBirth email enabled firstName gender id lastName modifiedDate status ",
+                    Map.ofEntries(Map.entry("email", "String!")),
+                    FindByEmailArgs::new, FindByEmailArgs::getArguments,
+                    findByEmailReturnType);
+            }
+
             /**
             * Arguments provider.
             *
@@ -220,6 +300,9 @@ public static class Types {
         */
         public static class Mutation {
 
+            // Created once: a type reference reflects on its own class when it is created
+            private static final TypeReference<Types.User> resetPasswordReturnType = new TypeReference<Types.User>() {};
+
             /**
             * Generates GraphQL query string to perform "resetPassword" operation.
             *
@@ -240,11 +323,23 @@ public static class Types {
             GQLFunction function = new GQLFunction(GQLFunctionType.Mutation, "resetPassword")
             .arguments(arguments)
             .resultFragment(resultFragment)
-            .returnType(new TypeReference<Types.User>() {});
+            .returnType(resetPasswordReturnType);
 
             return GQLQuery.from(function);
             }
 
+            /**
+            * Prepares the "resetPassword" operation for the given output fields, the document is built once.
+            *
+            * @param shape - sample arguments; the arguments set and their types make the operation's variables.
+            * @return - prepared operation, executed with {@link PreparedQuery#bind(Consumer)}.
+            */
+            public PreparedQuery<ResetPasswordArgs, Types.User> prepareResetPassword(Consumer< ResetPasswordArgs> shape,
+                                          Consumer< Types.UserFragment> output){
+            return new PreparedQuery<>(resetPassword(shape, output), ResetPasswordArgs::new,
+                    ResetPasswordArgs::getArguments, resetPasswordReturnType);
+            }
+
             /**
             * Arguments provider.
             *
@@ -266,6 +361,9 @@ public static class Types {
             }
             }
 
+            // Created once: a type reference reflects on its own class when it is created
+            private static final TypeReference<Types.User> enableReturnType = new TypeReference<Types.User>() {};
+
             /**
             * Generates GraphQL query string to perform "enable" operation.
             *
@@ -286,11 +384,39 @@ public static class Types {
             GQLFunction function = new GQLFunction(GQLFunctionType.Mutation, "enable")
             .arguments(arguments)
             .resultFragment(resultFragment)
-            .returnType(new TypeReference<Types.User>() {});
+            .returnType(enableReturnType);
 
             return GQLQuery.from(function);
             }
 
+            /**
+            * Prepares the "enable" operation for the given output fields, the document is built once.
+            *
+            * @param shape - sample arguments; the arguments set and their types make the operation's variables.
+            * @return - prepared operation, executed with {@link PreparedQuery#bind(Consumer)}.
+            */
+            public PreparedQuery<EnableArgs, Types.User> prepareEnable(Consumer< EnableArgs> shape,
+                                          Consumer< Types.UserFragment> output){
+            return new PreparedQuery<>(enable(shape, output), EnableArgs::new,
+                    EnableArgs::getArguments, enableReturnType);
+            }
+
+            /**
+            * Prepares the "enable" operation with its required arguments, selecting every scalar and enum field
+            * of the result. The document and its hash are computed at generation time and listed in the operation manifest.
+            *
+            * @return - prepared operation, executed with {@link PreparedQuery#bind(Consumer)}.
+            */
+            public PreparedQuery<EnableArgs, Types.User> prepareEnable(){
+            return new PreparedQuery<>(GQLFunctionType.Mutation, "enable",
+                    "mutation($id: String! ){ enable( id: $id ){ createdDate dateOfBirth email enabled firstName gender id lastName modifiedDate status } }",
+                    "00375b25b5aa1d1df081c0929f6bc48b155eacbd15cc3b592dc90a75ceebb47d",
+                    "createdDate dateOfBirth email enabled firstName gender id lastName modifiedDate status ",
+                    Map.ofEntries(Map.entry("id", "String!")),
+                    EnableArgs::new, EnableArgs::getArguments,
+                    enableReturnType);
+            }
+
             /**
             * Arguments provider.
             *
@@ -312,6 +438,9 @@ public static class Types {
             }
             }
 
+            // Created once: a type reference reflects on its own class when it is created
+            private static final TypeReference<Types.User> updateReturnType = new TypeReference<Types.User>() {};
+
             /**
             * Generates GraphQL query string to perform "update" operation.
             *
@@ -332,11 +461,39 @@ public static class Types {
             GQLFunction function = new GQLFunction(GQLFunctionType.Mutation, "update")
             .arguments(arguments)
             .resultFragment(resultFragment)
-            .returnType(new TypeReference<Types.User>() {});
+            .returnType(updateReturnType);
 
             return GQLQuery.from(function);
             }
 
+            /**
+            * Prepares the "update" operation for the given output fields, the document is built once.
+            *
+            * @param shape - sample arguments; the arguments set and their types make the operation's variables.
+            * @return - prepared operation, executed with {@link PreparedQuery#bind(Consumer)}.
+            */
+            public PreparedQuery<UpdateArgs, Types.User> prepareUpdate(Consumer< UpdateArgs> shape,
+                                          Consumer< Types.UserFragment> output){
+            return new PreparedQuery<>(update(shape, output), UpdateArgs::new,
+                    UpdateArgs::getArguments, updateReturnType);
+            }
+
+            /**
+            * Prepares the "update" operation with its required arguments, selecting every scalar and enum field
+            * of the result. The document and its hash are computed at generation time and listed in the operation manifest.
+            *
+            * @return - prepared operation, executed with {@link PreparedQuery#bind(Consumer)}.
+            */
+            public PreparedQuery<UpdateArgs, Types.User> prepareUpdate(){
+            return new PreparedQuery<>(GQLFunctionType.Mutation, "update",
+                    "mutation($user: UserInput! ){ update( user: $user ){ createdDate dateOfBirth email enabled firstName gender id lastName modifiedDate status } }",
+                    "3d1dcc6cb4a766798e8f30188e91edbc05babb328fa60b93cde0b6aebc9f5e54",
+                    "createdDate dateOfBirth email enabled firstName gender id lastName modifiedDate status ",
+                    Map.ofEntries(Map.entry("user", "UserInput!")),
+                    UpdateArgs::new, UpdateArgs::getArguments,
+                    updateReturnType);
+            }
+
             /**
             * Arguments provider.
             *
@@ -355,6 +512,9 @@ public static class Types {
             }
             }
 
+            // Created once: a type reference reflects on its own class when it is created
+            private static final TypeReference<Types.User> createReturnType = new TypeReference<Types.User>() {};
+
             /**
             * Generates GraphQL query string to perform "create" operation.
             *
@@ -375,11 +535,39 @@ public static class Types {
             GQLFunction function = new GQLFunction(GQLFunctionType.Mutation, "create")
             .arguments(arguments)
             .resultFragment(resultFragment)
-            .returnType(new TypeReference<Types.User>() {});
+            .returnType(createReturnType);
 
             return GQLQuery.from(function);
             }
 
+            /**
+            * Prepares the "create" operation for the given output fields, the document is built once.
+            *
+            * @param shape - sample arguments; the arguments set and their types make the operation's variables.
+            * @return - prepared operation, executed with {@link PreparedQuery#bind(Consumer)}.
+            */
+            public PreparedQuery<CreateArgs, Types.User> prepareCreate(Consumer< CreateArgs> shape,
+                                          Consumer< Types.UserFragment> output){
+            return new PreparedQuery<>(create(shape, output), CreateArgs::new,
+                    CreateArgs::getArguments, createReturnType);
+            }
+
+            /**
+            * Prepares the "create" operation with its required arguments, selecting every scalar and enum field
+            * of the result. The document and its hash are computed at generation time and listed in the operation manifest.
+            *
+            * @return - prepared operation, executed with {@link PreparedQuery#bind(Consumer)}.
+            */
+            public PreparedQuery<CreateArgs, Types.User> prepareCreate(){
+            return new PreparedQuery<>(GQLFunctionType.Mutation, "create",
+                    "mutation($user: UserInput! ){ create( user: $user ){ createdDate dateOfBirth email enabled firstName gender id lastName modifiedDate status } }",
+                    "a20b4134f0453398644bc1c919b29f00d7ba89be8fa0c1850c2cfa8ed4090678",
+                    "createdDate dateOfBirth email enabled firstName gender id lastName modifiedDate status ",
+                    Map.ofEntries(Map.entry("user", "UserInput!")),
+                    CreateArgs::new, CreateArgs::getArguments,
+                    createReturnType);
+            }
+
             /**
             * Arguments provider.
             *
@@ -400,173 +588,3339 @@ public static class Types {
 
         }
 
-    //--------------------------------------------------------------
-    //---------QueryBuilder Inner classes---------------------------
-    //--------------------------------------------------------------
+/**
+* Operations compiled from the GraphQL documents, validated against the schema at generation time.
+*/
+public static class Operations {
 
     /**
-     * GraphQL Query builder.
-     * Generates a GraphQL query string from a <@code>Function</@code>
-     */
-    public static class GQLQuery {
+    * The "FindUser" query of UserOperations.graphql.
+    */
+    public static class FindUser {
+        public static final String DOCUMENT = "query FindUser($id: String!) { user: findById(id: $id) { ...UserName email gender } } fragment UserName on User { id firstName lastName }";
+        public static final String HASH = "7c2b8ab72c603245b8962ff09ca4116f8c6f0d8f0af42d33a23d0d0411a6af8b";
+        public static final CompiledOperation<Variables, Data> OPERATION = new CompiledOperation<>(GQLFunctionType.Query,
+                "FindUser", DOCUMENT, HASH, Data.class);
 
-        private final ObjectMapper mapper = new ObjectMapper();
-        private GQLFunction function;
+        /**
+        * Variables of the operation, unset variables are not sent.
+        */
+        public static class Variables {
+            public String id;
 
-        private GQLQuery() {
-            mapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
+            /**
+            * @param id - value of the String! variable.
+            * @return - this variables instance.
+            */
+            public Variables id(String id) {
+                this.id = id;
+                return this;
+            }
         }
 
-        public static GQLQuery from(GQLFunction function) {
-            GQLQuery query = new GQLQuery();
-            query.function = function;
-            return query;
+        public static class Data {
+            public User user;
+
+        public static class User {
+            public String id;
+            public String firstName;
+            public String lastName;
+            public String email;
+            public Types.EnGender gender;
         }
+        }
+    }
 
-        public String toString() {
-            String query =
-                    "\"" + function.getType().getName() + "(" + function.getArguments().toQueryArgumentsString() + ")" +
-                            "{ " + function.getName() + "( " + function.getArguments().toMethodArgumentsString() + ")" +
-                            "{ " + function.getFragment().toString() + "} }\"";
+    /**
+    * The "FindUsers" query of UserOperations.graphql.
+    */
+    public static class FindUsers {
+        public static final String DOCUMENT = "query FindUsers($first: String!, $second: String!) { first: findById(id: $first) { ...UserName } second: findById(id: $second) { ...UserName status } } fragment UserName on User { id firstName lastName }";
+        public static final String HASH = "6f0468d515e221d458ec2e4397c59b69c3a3fab2ad27f3e3ad5b4835b6260cf5";
+        public static final CompiledOperation<Variables, Data> OPERATION = new CompiledOperation<>(GQLFunctionType.Query,
+                "FindUsers", DOCUMENT, HASH, Data.class);
 
-            ObjectNode rootNode = mapper.createObjectNode();
-            rootNode.putRawValue("operationName", null);
-            rootNode.putRawValue("query", new RawValue(query));
-            rootNode.putPOJO("variables", function.getArguments().toVariables());
+        /**
+        * Variables of the operation, unset variables are not sent.
+        */
+        public static class Variables {
+            public String first;
+            public String second;
 
-            // Normalize line endings to \n for cross-platform compatibility
-            return rootNode.toPrettyString().replace("\r\n", "\n");
-        }
+            /**
+            * @param first - value of the String! variable.
+            * @return - this variables instance.
+            */
+            public Variables first(String first) {
+                this.first = first;
+                return this;
+            }
 
-        public TypeReference<?> getReturnType() {
-            return function.getRturnType();
+            /**
+            * @param second - value of the String! variable.
+            * @return - this variables instance.
+            */
+            public Variables second(String second) {
+                this.second = second;
+                return this;
+            }
         }
 
-        public String getName() {
-            return function.getName();
+        public static class Data {
+            public First first;
+            public Second second;
+
+        public static class First {
+            public String id;
+            public String firstName;
+            public String lastName;
         }
 
+        public static class Second {
+            public String id;
+            public String firstName;
+            public String lastName;
+            public Types.EnUserStatus status;
+        }
+        }
     }
 
-
     /**
-     * Represents a function argument, and it's details.
-     */
-    public static class Argument {
-        private String name;
-        private String type;
-        private Object value;
-        private boolean optional;
-        private boolean ignore;
+    * The "EnableUser" mutation of UserOperations.graphql.
+    */
+    public static class EnableUser {
+        public static final String DOCUMENT = "mutation EnableUser($id: String!, $enable: Boolean = true) { enable(id: $id, enable: $enable) { id enabled } }";
+        public static final String HASH = "48501dfb3262394a27b25a27acbfbea042224c824b936dafdfdc175eeea22bc5";
+        public static final CompiledOperation<Variables, Data> OPERATION = new CompiledOperation<>(GQLFunctionType.Mutation,
+                "EnableUser", DOCUMENT, HASH, Data.class);
 
-        private Argument() {
-        }
+        /**
+        * Variables of the operation, unset variables are not sent.
+        */
+        public static class Variables {
+            public String id;
+            public Boolean enable;
 
-        private Argument(String name, Object value) {
-            if (value == null) {//mark argument as ignorable
-                ignore = true;
-                return;
+            /**
+            * @param id - value of the String! variable.
+            * @return - this variables instance.
+            */
+            public Variables id(String id) {
+                this.id = id;
+                return this;
+            }
 
-            } else if ((value instanceof Optional)) {
-                if (!((Optional<?>) value).isPresent()) {
-                    ignore = true;
-                    return;
-                }
-                this.optional = true;
-                value = ((Optional<?>) value).get();
+            /**
+            * @param enable - value of the Boolean variable.
+            * @return - this variables instance.
+            */
+            public Variables enable(Boolean enable) {
+                this.enable = enable;
+                return this;
             }
+        }
 
-            this.name = name;
-            this.value = value;
-            this.type = this.value.getClass().getSimpleName();
+        public static class Data {
+            public Enable enable;
+
+        public static class Enable {
+            public String id;
+            public Boolean enabled;
         }
+        }
+    }
+}
 
-        public static Argument of(String name, Object value) {
-            return new Argument(name, value);
+
+/**
+* Streaming JSON codecs of the schema types, reading and writing them without reflection.
+* Unknown fields are skipped and null fields are not written.
+*/
+public static class Codecs {
+    public static final JsonCodec<Types.EnGender> EnGenderCodec = new JsonCodec<>(Types.EnGender.class,
+            Codecs::readEnGender, Codecs::writeEnGender);
+    public static final JsonCodec<Types.EnUserStatus> EnUserStatusCodec = new JsonCodec<>(Types.EnUserStatus.class,
+            Codecs::readEnUserStatus, Codecs::writeEnUserStatus);
+    public static final JsonCodec<Types.User> UserCodec = new JsonCodec<>(Types.User.class,
+            Codecs::readUser, Codecs::writeUser);
+    public static final JsonCodec<Types.UserInput> UserInputCodec = new JsonCodec<>(Types.UserInput.class,
+            Codecs::readUserInput, Codecs::writeUserInput);
+
+    /**
+    * The codecs of the schema types and of the built-in scalars.
+    */
+    public static final CodecRegistry REGISTRY = new CodecRegistry()
+            .register(EnGenderCodec)
+            .register(EnUserStatusCodec)
+            .register(UserCodec)
+            .register(UserInputCodec);
+
+    private static Types.EnGender readEnGender(JsonParser parser) throws IOException {
+        switch (JsonCodec.text(parser, "EnGender")) {
+            case "Female":
+                return Types.EnGender.Female;
+            case "Male":
+                return Types.EnGender.Male;
+            case "Unknown":
+                return Types.EnGender.Unknown;
+            default:
+                throw JsonCodec.unknownValue(parser, "EnGender");
         }
+    }
 
-        public String getName() {
-            return name;
+    private static void writeEnGender(JsonGenerator generator, Types.EnGender value) throws IOException {
+        generator.writeString(value.name());
+    }
+
+    private static Types.EnUserStatus readEnUserStatus(JsonParser parser) throws IOException {
+        switch (JsonCodec.text(parser, "EnUserStatus")) {
+            case "Active":
+                return Types.EnUserStatus.Active;
+            case "Pending":
+                return Types.EnUserStatus.Pending;
+            default:
+                throw JsonCodec.unknownValue(parser, "EnUserStatus");
         }
+    }
 
-        public Object getValue() {
-            return value;
+    private static void writeEnUserStatus(JsonGenerator generator, Types.EnUserStatus value) throws IOException {
+        generator.writeString(value.name());
+    }
+
+    private static Types.User readUser(JsonParser parser) throws IOException {
+        JsonCodec.expectObject(parser, "User");
+        Types.User value = new Types.User();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "createdDate":
+                    value.createdDate = JsonCodec.DATE.read(parser);
+                    break;
+                case "dateOfBirth":
+                    value.dateOfBirth = JsonCodec.DATE.read(parser);
+                    break;
+                case "email":
+                    value.email = JsonCodec.STRING.read(parser);
+                    break;
+                case "enabled":
+                    value.enabled = JsonCodec.BOOLEAN.read(parser);
+                    break;
+                case "firstName":
+                    value.firstName = JsonCodec.STRING.read(parser);
+                    break;
+                case "gender":
+                    value.gender = EnGenderCodec.read(parser);
+                    break;
+                case "id":
+                    value.id = JsonCodec.STRING.read(parser);
+                    break;
+                case "lastName":
+                    value.lastName = JsonCodec.STRING.read(parser);
+                    break;
+                case "modifiedDate":
+                    value.modifiedDate = JsonCodec.DATE.read(parser);
+                    break;
+                case "status":
+                    value.status = EnUserStatusCodec.read(parser);
+                    break;
+                default:
+                    parser.skipChildren();
+            }
         }
+        return value;
+    }
 
-        public String getType() {
-            return type;
+    private static void writeUser(JsonGenerator generator, Types.User value) throws IOException {
+        generator.writeStartObject();
+        if (value.createdDate != null) {
+            generator.writeFieldName("createdDate");
+            JsonCodec.DATE.write(generator, value.createdDate);
+        }
+        if (value.dateOfBirth != null) {
+            generator.writeFieldName("dateOfBirth");
+            JsonCodec.DATE.write(generator, value.dateOfBirth);
+        }
+        if (value.email != null) {
+            generator.writeFieldName("email");
+            JsonCodec.STRING.write(generator, value.email);
+        }
+        if (value.enabled != null) {
+            generator.writeFieldName("enabled");
+            JsonCodec.BOOLEAN.write(generator, value.enabled);
+        }
+        if (value.firstName != null) {
+            generator.writeFieldName("firstName");
+            JsonCodec.STRING.write(generator, value.firstName);
         }
+        if (value.gender != null) {
+            generator.writeFieldName("gender");
+            EnGenderCodec.write(generator, value.gender);
+        }
+        if (value.id != null) {
+            generator.writeFieldName("id");
+            JsonCodec.STRING.write(generator, value.id);
+        }
+        if (value.lastName != null) {
+            generator.writeFieldName("lastName");
+            JsonCodec.STRING.write(generator, value.lastName);
+        }
+        if (value.modifiedDate != null) {
+            generator.writeFieldName("modifiedDate");
+            JsonCodec.DATE.write(generator, value.modifiedDate);
+        }
+        if (value.status != null) {
+            generator.writeFieldName("status");
+            EnUserStatusCodec.write(generator, value.status);
+        }
+        generator.writeEndObject();
+    }
 
-        public boolean isOptional() {
-            return optional;
+    private static Types.UserInput readUserInput(JsonParser parser) throws IOException {
+        JsonCodec.expectObject(parser, "UserInput");
+        Types.UserInput value = new Types.UserInput();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "dateOfBirth":
+                    value.dateOfBirth = JsonCodec.DATE.read(parser);
+                    break;
+                case "id":
+                    value.id = JsonCodec.STRING.read(parser);
+                    break;
+                case "firstName":
+                    value.firstName = JsonCodec.STRING.read(parser);
+                    break;
+                case "lastName":
+                    value.lastName = JsonCodec.STRING.read(parser);
+                    break;
+                case "createdDate":
+                    value.createdDate = JsonCodec.DATE.read(parser);
+                    break;
+                case "password":
+                    value.password = JsonCodec.STRING.read(parser);
+                    break;
+                case "enabled":
+                    value.enabled = JsonCodec.BOOLEAN.read(parser);
+                    break;
+                case "status":
+                    value.status = EnUserStatusCodec.read(parser);
+                    break;
+                case "modifiedDate":
+                    value.modifiedDate = JsonCodec.DATE.read(parser);
+                    break;
+                case "email":
+                    value.email = JsonCodec.STRING.read(parser);
+                    break;
+                case "gender":
+                    value.gender = EnGenderCodec.read(parser);
+                    break;
+                default:
+                    parser.skipChildren();
+            }
         }
+        return value;
+    }
 
-        public boolean isIgnore() {
-            return ignore;
+    private static void writeUserInput(JsonGenerator generator, Types.UserInput value) throws IOException {
+        generator.writeStartObject();
+        if (value.dateOfBirth != null) {
+            generator.writeFieldName("dateOfBirth");
+            JsonCodec.DATE.write(generator, value.dateOfBirth);
+        }
+        if (value.id != null) {
+            generator.writeFieldName("id");
+            JsonCodec.STRING.write(generator, value.id);
+        }
+        if (value.firstName != null) {
+            generator.writeFieldName("firstName");
+            JsonCodec.STRING.write(generator, value.firstName);
+        }
+        if (value.lastName != null) {
+            generator.writeFieldName("lastName");
+            JsonCodec.STRING.write(generator, value.lastName);
+        }
+        if (value.createdDate != null) {
+            generator.writeFieldName("createdDate");
+            JsonCodec.DATE.write(generator, value.createdDate);
         }
+        if (value.password != null) {
+            generator.writeFieldName("password");
+            JsonCodec.STRING.write(generator, value.password);
+        }
+        if (value.enabled != null) {
+            generator.writeFieldName("enabled");
+            JsonCodec.BOOLEAN.write(generator, value.enabled);
+        }
+        if (value.status != null) {
+            generator.writeFieldName("status");
+            EnUserStatusCodec.write(generator, value.status);
+        }
+        if (value.modifiedDate != null) {
+            generator.writeFieldName("modifiedDate");
+            JsonCodec.DATE.write(generator, value.modifiedDate);
+        }
+        if (value.email != null) {
+            generator.writeFieldName("email");
+            JsonCodec.STRING.write(generator, value.email);
+        }
+        if (value.gender != null) {
+            generator.writeFieldName("gender");
+            EnGenderCodec.write(generator, value.gender);
+        }
+        generator.writeEndObject();
     }
+}
 
+    //--------------------------------------------------------------
+    //---------QueryBuilder Inner classes---------------------------
+    //--------------------------------------------------------------
 
     /**
-     * A wrapper for the function arguments.
+     * GraphQL Query builder.
+     * Generates a GraphQL query string from a <@code>Function</@code>
      */
-    public static class Arguments {
-        private LinkedHashSet<Argument> arguments = new LinkedHashSet<>();
+    public static class GQLQuery {
 
-        private Arguments() {
+        private static final ObjectMapper MAPPER = new ObjectMapper()
+                .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+                .configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+        private GQLFunction function;
+        private PreparedQuery<?, ?> prepared;
+        private String hash;
+
+        /**
+         * What a request body carries, following the automatic persisted queries (APQ) protocol.
+         */
+        public enum BodyFormat {
+            /** The document, as without persisted queries. */
+            DOCUMENT,
+            /** Only the hash of the document, the server answers {@code PersistedQueryNotFound} if it does not know it. */
+            PERSISTED,
+            /** The document and its hash, registering the document on the server. */
+            DOCUMENT_AND_HASH
         }
 
-        private void add(Argument argument) {
-            this.arguments.add(argument);
+        private GQLQuery() {
+        }
+
+        public static GQLQuery from(GQLFunction function) {
+            GQLQuery query = new GQLQuery();
+            query.function = function;
+            return query;
+        }
+
+        private static GQLQuery from(GQLFunction function, PreparedQuery<?, ?> prepared) {
+            GQLQuery query = from(function);
+            query.prepared = prepared;
+            return query;
         }
 
         /**
-         * Builds the arguments for graphql FUNCTION.
-         * Ex: getUser(firstName: $firstName, lastName: $lastName)...
-         *
-         * @return graphql function arguments with parameters as variables.
+         * Pretty printed request body, for logging and debugging. Use {@link #writeTo(OutputStream)} or
+         * {@link #toBytes()} to send the request.
          */
-        public String toMethodArgumentsString() {
-            StringBuilder sb = new StringBuilder();
-            arguments.forEach(arg -> {
-                if (!arg.isIgnore()) { //do not build arg if marked as ignorable
-                    sb.append(arg.getName()).append(": $").append(arg.getName()).append(", ");
-                }
-            });
-            sb.deleteCharAt(sb.lastIndexOf(","));
-            return sb.toString();
+        public String toString() {
+            ObjectNode rootNode = MAPPER.createObjectNode();
+            rootNode.putRawValue("operationName", null);
+            rootNode.putRawValue("query", new RawValue("\"" + document() + "\""));
+            rootNode.putPOJO("variables", function.getArguments().toVariables());
+
+            // Normalize line endings to \n for cross-platform compatibility
+            return rootNode.toPrettyString().replace("\r\n", "\n");
         }
 
         /**
-         * Builds the arguments for graphql QUERY type.
-         * Ex: mutation($firstName: String, $lastName: String)...
+         * Writes the compact JSON request body, UTF-8 encoded. The stream is flushed but not closed.
          *
-         * @return graphql query arguments with type.
+         * @param out target stream, e.g. the HTTP request body
          */
-        public String toQueryArgumentsString() {
-            StringBuilder sb = new StringBuilder();
-
-            arguments.forEach(arg -> {
-                if (!arg.isIgnore()) {
-                    sb.append("$")
-                            .append(arg.getName())
-                            .append(": ")
-                            .append(arg.getType())
-                            .append(arg.isOptional() ? "" : "!")
-                            .append(", ");
-                }
-            });
-            sb.deleteCharAt(sb.lastIndexOf(","));
-            return sb.toString();
+        public void writeTo(OutputStream out) throws IOException {
+            writeTo(out, BodyFormat.DOCUMENT);
         }
 
         /**
-         * Builds a map of variables that can be passed to GQL query in the variables JSON element.
+         * Writes the compact JSON request body in the given format, UTF-8 encoded. The stream is flushed but not closed.
          *
-         * @return a map of variables.
+         * @param out target stream, e.g. the HTTP request body
+         * @param format what the body carries
          */
-        public HashMap<String, Object> toVariables() {
-            HashMap<String, Object> variables = new HashMap<>();
+        public void writeTo(OutputStream out, BodyFormat format) throws IOException {
+            try (JsonGenerator generator = MAPPER.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+                write(generator, format);
+            }
+        }
+
+        /**
+         * Writes the compact JSON request body. The writer is flushed but not closed.
+         *
+         * @param out target writer
+         */
+        public void writeTo(Writer out) throws IOException {
+            writeTo(out, BodyFormat.DOCUMENT);
+        }
+
+        /**
+         * Writes the compact JSON request body in the given format. The writer is flushed but not closed.
+         *
+         * @param out target writer
+         * @param format what the body carries
+         */
+        public void writeTo(Writer out, BodyFormat format) throws IOException {
+            try (JsonGenerator generator = MAPPER.getFactory().createGenerator(out)) {
+                write(generator, format);
+            }
+        }
+
+        /**
+         * Writes the compact JSON request body, UTF-8 encoded, at the position of the buffer.
+         *
+         * @param buffer target buffer
+         * @return the number of bytes written
+         * @throws java.nio.BufferOverflowException if the body does not fit in the remaining space
+         */
+        public int writeTo(ByteBuffer buffer) throws IOException {
+            return writeTo(buffer, BodyFormat.DOCUMENT);
+        }
+
+        /**
+         * Writes the compact JSON request body in the given format, UTF-8 encoded, at the position of the buffer.
+         *
+         * @param buffer target buffer
+         * @param format what the body carries
+         * @return the number of bytes written
+         * @throws java.nio.BufferOverflowException if the body does not fit in the remaining space
+         */
+        public int writeTo(ByteBuffer buffer, BodyFormat format) throws IOException {
+            int start = buffer.position();
+            writeTo(new ByteBufferBackedOutputStream(buffer), format);
+            return buffer.position() - start;
+        }
+
+        /**
+         * @return the compact JSON request body, UTF-8 encoded
+         */
+        public byte[] toBytes() {
+            return toBytes(BodyFormat.DOCUMENT);
+        }
+
+        /**
+         * @param format what the body carries
+         * @return the compact JSON request body in the given format, UTF-8 encoded
+         */
+        public byte[] toBytes(BodyFormat format) {
+            try (ByteArrayBuilder bytes = new ByteArrayBuilder(512)) {
+                writeTo(bytes, format);
+                return bytes.toByteArray();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Sends the query as an automatic persisted query: the hash only, then the document with its hash when
+         * the server does not know the hash yet.
+         *
+         * @param send posts a request body and returns the response
+         * @param notFound tells whether a response is a {@code PersistedQueryNotFound} error,
+         *                 e.g. {@code response -> GQLQuery.isPersistedQueryNotFound(response.body())}
+         * @return the response of the last request
+         */
+        public <R> R sendPersisted(java.util.function.Function<byte[], R> send, java.util.function.Predicate<R> notFound) {
+            R response = send.apply(toBytes(BodyFormat.PERSISTED));
+            return notFound.test(response) ? send.apply(toBytes(BodyFormat.DOCUMENT_AND_HASH)) : response;
+        }
+
+        /**
+         * @param responseBody a GraphQL JSON response
+         * @return true if the server does not know the hash of a persisted query
+         */
+        public static boolean isPersistedQueryNotFound(String responseBody) {
+            try {
+                return isPersistedQueryNotFound(MAPPER.readTree(responseBody).path("errors"));
+            } catch (IOException e) {
+                return false;
+            }
+        }
+
+        static boolean isPersistedQueryNotFound(com.fasterxml.jackson.databind.JsonNode errors) {
+            for (com.fasterxml.jackson.databind.JsonNode error : errors) {
+                if ("PersistedQueryNotFound".equals(error.path("message").asText())
+                        || "PERSISTED_QUERY_NOT_FOUND".equals(error.path("extensions").path("code").asText())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Encodes the query as URL parameters for an HTTP GET request, which lets CDNs cache the response.
+         * With {@link BodyFormat#PERSISTED} the URL only carries the hash and stays short.
+         *
+         * @param format what the request carries
+         * @return the URL encoded parameters, without the leading {@code ?}
+         * @throws IllegalStateException for mutations, which must be sent with POST
+         */
+        public String toGetParameters(BodyFormat format) {
+            if (function.getType() != GQLFunctionType.Query) {
+                throw new IllegalStateException("Only queries can be sent with HTTP GET, '" + function.getName() + "' is a " + function.getType().getName());
+            }
+            StringBuilder parameters = new StringBuilder();
+            if (format != BodyFormat.PERSISTED) {
+                parameters.append("query=").append(urlEncode(document())).append('&');
+            }
+            StringWriter json = new StringWriter();
+            try (JsonGenerator generator = MAPPER.getFactory().createGenerator(json)) {
+                generator.writeStartObject();
+                function.getArguments().writeVariables(generator);
+                generator.writeEndObject();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            parameters.append("variables=").append(urlEncode(json.toString()));
+            if (format != BodyFormat.DOCUMENT) {
+                parameters.append("&extensions=").append(urlEncode(
+                        "{\"persistedQuery\":{\"version\":1,\"sha256Hash\":\"" + getHash() + "\"}}"));
+            }
+            return parameters.toString();
+        }
+
+        /**
+         * @return hex encoded SHA-256 hash of the document, as sent in persisted queries
+         */
+        public String getHash() {
+            if (prepared != null) {
+                return prepared.getHash();
+            }
+            if (hash == null) {
+                hash = PreparedQuery.sha256(document());
+            }
+            return hash;
+        }
+
+        private void write(JsonGenerator generator, BodyFormat format) throws IOException {
+            generator.writeStartObject();
+            generator.writeNullField("operationName");
+            if (format != BodyFormat.PERSISTED) {
+                generator.writeStringField("query", document());
+            }
+            generator.writeObjectFieldStart("variables");
+            function.getArguments().writeVariables(generator);
+            generator.writeEndObject();
+            if (format != BodyFormat.DOCUMENT) {
+                generator.writeObjectFieldStart("extensions");
+                generator.writeObjectFieldStart("persistedQuery");
+                generator.writeNumberField("version", 1);
+                generator.writeStringField("sha256Hash", getHash());
+                generator.writeEndObject();
+                generator.writeEndObject();
+            }
+            generator.writeEndObject();
+        }
+
+        private static String urlEncode(String value) {
+            return java.net.URLEncoder.encode(value, java.nio.charset.StandardCharsets.UTF_8);
+        }
+
+        /**
+         * @return the GraphQL document, e.g. {@code query($id: String! ){ findById( id: $id ){ id } }}
+         */
+        private String document() {
+            if (prepared != null) {
+                return prepared.getDocument();
+            }
+            Arguments arguments = function.getArguments();
+            StringBuilder sb = new StringBuilder(128).append(function.getType().getName()).append('(');
+            arguments.appendQueryArguments(sb).append("){ ").append(function.getName()).append("( ");
+            arguments.appendMethodArguments(sb).append("){ ");
+            function.getFragment().appendFields(sb).append("} }");
+            return sb.toString();
+        }
+
+        public TypeReference<?> getReturnType() {
+            return function.getRturnType();
+        }
+
+        public String getName() {
+            return function.getName();
+        }
+
+        /**
+         * @return the fields selected on the result, e.g. {@code id friends { id } }
+         */
+        String selection() {
+            return prepared != null ? prepared.selection() : function.getFragment().toString();
+        }
+
+    }
+
+
+    /**
+     * An operation shape built once and executed many times: the document, its hash and the return type are
+     * computed when the query is prepared, {@link #bind(Consumer)} only binds the variables.
+     * Immutable and safe to share between threads.
+     *
+     * @param <A> the operation's arguments provider
+     * @param <T> the operation's result type
+     */
+    public static final class PreparedQuery<A, T> {
+        private final GQLFunctionType type;
+        private final String name;
+        private final String document;
+        private final String hash;
+        private final String selection;
+        private final TypeReference<T> returnType;
+        private final Map<String, String> variables;
+        private final java.util.function.Supplier<A> argsFactory;
+        private final java.util.function.Function<A, Arguments> argsAccessor;
+
+        /**
+         * @param shape query built with sample arguments; the arguments set and their types make the variables
+         * @param argsFactory creates the arguments provider of each binding
+         * @param argsAccessor reads the arguments from the provider
+         * @param returnType the operation's result type
+         */
+        PreparedQuery(GQLQuery shape, java.util.function.Supplier<A> argsFactory,
+                      java.util.function.Function<A, Arguments> argsAccessor, TypeReference<T> returnType) {
+            this(shape.function.getType(), shape.function.getName(), shape.document(), null, shape.function.getFragment().toString(),
+                    shape.function.getArguments().toSignature(), argsFactory, argsAccessor, returnType);
+        }
+
+        /**
+         * For operations whose document and hash are computed at generation time.
+         *
+         * @param hash hex encoded SHA-256 hash of the document, computed when null
+         * @param selection the fields selected on the result, as in the document
+         * @param variables the variables by name, with their GraphQL types
+         */
+        PreparedQuery(GQLFunctionType type, String name, String document, String hash, String selection, Map<String, String> variables,
+                      java.util.function.Supplier<A> argsFactory, java.util.function.Function<A, Arguments> argsAccessor,
+                      TypeReference<T> returnType) {
+            this.type = type;
+            this.name = name;
+            this.document = document;
+            this.hash = hash != null ? hash : sha256(document);
+            this.selection = selection;
+            this.returnType = returnType;
+            this.variables = Collections.unmodifiableMap(new LinkedHashMap<>(variables));
+            this.argsFactory = argsFactory;
+            this.argsAccessor = argsAccessor;
+        }
+
+        /**
+         * Binds the variables of one execution.
+         *
+         * @param input sets the arguments; they must be the ones of the prepared shape, with the same types
+         * @return the query, sharing the prepared document
+         * @throws IllegalArgumentException if the arguments do not match the prepared variables
+         */
+        public GQLQuery bind(Consumer<A> input) {
+            A args = argsFactory.get();
+            input.accept(args);
+            Arguments arguments = argsAccessor.apply(args);
+            if (!arguments.matches(variables)) {
+                throw new IllegalArgumentException("Arguments " + arguments.toSignature() + " do not match the variables "
+                        + variables + " of the prepared '" + name + "' operation");
+            }
+            return GQLQuery.from(new GQLFunction(type, name).arguments(arguments).returnType(returnType), this);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return the GraphQL document sent with every execution
+         */
+        public String getDocument() {
+            return document;
+        }
+
+        /**
+         * @return hex encoded SHA-256 hash of the document
+         */
+        public String getHash() {
+            return hash;
+        }
+
+        public TypeReference<T> getReturnType() {
+            return returnType;
+        }
+
+        /**
+         * Reads the result of this operation from a response with the generated codecs, without reflection.
+         *
+         * @param response the JSON response body
+         * @param codecs the codecs, e.g. {@code Codecs.REGISTRY}
+         * @return the result, or null when the response has none (e.g. on errors)
+         */
+        public T readData(byte[] response, CodecRegistry codecs) throws IOException {
+            return codecs.readData(response, name, returnType);
+        }
+
+        /**
+         * @return the variables of the operation, by name, with their GraphQL types
+         */
+        public Map<String, String> getVariables() {
+            return variables;
+        }
+
+        /**
+         * @return the fields selected on the result, e.g. {@code id email } of {@code query($id: String! ){ findById( id: $id ){ id email } }}
+         */
+        String selection() {
+            return selection;
+        }
+
+        private static String sha256(String text) {
+            try {
+                byte[] digest = java.security.MessageDigest.getInstance("SHA-256").digest(text.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+                StringBuilder hex = new StringBuilder(digest.length * 2);
+                for (byte b : digest) {
+                    hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+                }
+                return hex.toString();
+            } catch (java.security.NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+        }
+    }
+
+
+    /**
+     * An operation compiled at generation time from a GraphQL document: the document, its hash and the classes of
+     * its variables and response data are generated, nothing is built when it is executed.
+     * Immutable and safe to share between threads.
+     *
+     * @param <V> the operation's variables class
+     * @param <D> the operation's response data class
+     */
+    public static final class CompiledOperation<V, D> {
+        private final GQLFunctionType type;
+        private final String name;
+        private final String document;
+        private final String hash;
+        private final Class<D> dataType;
+
+        public CompiledOperation(GQLFunctionType type, String name, String document, String hash, Class<D> dataType) {
+            this.type = type;
+            this.name = name;
+            this.document = document;
+            this.hash = hash;
+            this.dataType = dataType;
+        }
+
+        /**
+         * @param variables the variables, null when the operation has none
+         * @return the compact JSON request body, UTF-8 encoded
+         */
+        public byte[] toBytes(V variables) {
+            return toBytes(variables, GQLQuery.BodyFormat.DOCUMENT);
+        }
+
+        /**
+         * @param variables the variables, null when the operation has none
+         * @param format what the body carries
+         * @return the compact JSON request body in the given format, UTF-8 encoded
+         */
+        public byte[] toBytes(V variables, GQLQuery.BodyFormat format) {
+            try (ByteArrayBuilder bytes = new ByteArrayBuilder(512)) {
+                writeTo(bytes, variables, format);
+                return bytes.toByteArray();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Writes the compact JSON request body in the given format, UTF-8 encoded. The stream is flushed but not closed.
+         *
+         * @param out target stream, e.g. the HTTP request body
+         * @param variables the variables, null when the operation has none
+         * @param format what the body carries
+         */
+        public void writeTo(OutputStream out, V variables, GQLQuery.BodyFormat format) throws IOException {
+            try (JsonGenerator generator = GQLQuery.MAPPER.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+                generator.writeStartObject();
+                generator.writeStringField("operationName", name);
+                if (format != GQLQuery.BodyFormat.PERSISTED) {
+                    generator.writeStringField("query", document);
+                }
+                generator.writeFieldName("variables");
+                if (variables == null) {
+                    generator.writeStartObject();
+                    generator.writeEndObject();
+                } else {
+                    GQLQuery.MAPPER.writeValue(generator, variables);
+                }
+                if (format != GQLQuery.BodyFormat.DOCUMENT) {
+                    generator.writeObjectFieldStart("extensions");
+                    generator.writeObjectFieldStart("persistedQuery");
+                    generator.writeNumberField("version", 1);
+                    generator.writeStringField("sha256Hash", hash);
+                    generator.writeEndObject();
+                    generator.writeEndObject();
+                }
+                generator.writeEndObject();
+            }
+        }
+
+        /**
+         * Reads the {@code data} member of a response; the rest of the response is skipped.
+         *
+         * @param response the JSON response body
+         * @return the data, or null when the response has none (e.g. on errors)
+         */
+        public D readData(byte[] response) throws IOException {
+            try (com.fasterxml.jackson.core.JsonParser parser = GQLQuery.MAPPER.getFactory().createParser(response)) {
+                if (parser.nextToken() != com.fasterxml.jackson.core.JsonToken.START_OBJECT) {
+                    throw new IOException("Expected a JSON object as the response of '" + name + "'");
+                }
+                while (parser.nextToken() == com.fasterxml.jackson.core.JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    com.fasterxml.jackson.core.JsonToken value = parser.nextToken();
+                    if ("data".equals(field)) {
+                        return value == com.fasterxml.jackson.core.JsonToken.VALUE_NULL ? null : GQLQuery.MAPPER.readValue(parser, dataType);
+                    }
+                    parser.skipChildren();
+                }
+                return null;
+            }
+        }
+
+        public GQLFunctionType getType() {
+            return type;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return the GraphQL document, printed on one line with the fragments it uses
+         */
+        public String getDocument() {
+            return document;
+        }
+
+        /**
+         * @return hex encoded SHA-256 hash of the document, computed at generation time
+         */
+        public String getHash() {
+            return hash;
+        }
+
+        public Class<D> getDataType() {
+            return dataType;
+        }
+    }
+
+
+    /**
+     * Reads and writes the values of one type with the streaming Jackson API. The codecs of the schema types are
+     * generated in the {@code Codecs} class, without reflection; see {@link CodecRegistry}.
+     * Immutable and safe to share between threads.
+     *
+     * @param <T> the type of the values
+     */
+    public static final class JsonCodec<T> {
+
+        /**
+         * Reads a non null value, the parser is on its first token.
+         */
+        public interface ValueReader<T> {
+            T read(JsonParser parser) throws IOException;
+        }
+
+        /**
+         * Writes a non null value.
+         */
+        public interface ValueWriter<T> {
+            void write(JsonGenerator generator, T value) throws IOException;
+        }
+
+        public static final JsonCodec<String> STRING = new JsonCodec<>(String.class,
+                parser -> text(parser, "String"), JsonGenerator::writeString);
+        public static final JsonCodec<Integer> INTEGER = new JsonCodec<>(Integer.class,
+                parser -> parser.currentToken().isNumeric() ? parser.getIntValue() : parse(parser, "Integer", Integer::valueOf),
+                JsonGenerator::writeNumber);
+        public static final JsonCodec<Long> LONG = new JsonCodec<>(Long.class,
+                parser -> parser.currentToken().isNumeric() ? parser.getLongValue() : parse(parser, "Long", Long::valueOf),
+                JsonGenerator::writeNumber);
+        public static final JsonCodec<Float> FLOAT = new JsonCodec<>(Float.class,
+                parser -> parser.currentToken().isNumeric() ? parser.getFloatValue() : parse(parser, "Float", Float::valueOf),
+                JsonGenerator::writeNumber);
+        public static final JsonCodec<Double> DOUBLE = new JsonCodec<>(Double.class,
+                parser -> parser.currentToken().isNumeric() ? parser.getDoubleValue() : parse(parser, "Double", Double::valueOf),
+                JsonGenerator::writeNumber);
+        public static final JsonCodec<Boolean> BOOLEAN = new JsonCodec<>(Boolean.class,
+                parser -> parser.currentToken().isBoolean() ? parser.getBooleanValue() : parse(parser, "Boolean", JsonCodec::parseBoolean),
+                JsonGenerator::writeBoolean);
+        public static final JsonCodec<java.math.BigDecimal> BIG_DECIMAL = new JsonCodec<>(java.math.BigDecimal.class,
+                parser -> parser.currentToken().isNumeric() ? parser.getDecimalValue() : parse(parser, "BigDecimal", java.math.BigDecimal::new),
+                JsonGenerator::writeNumber);
+        public static final JsonCodec<java.math.BigInteger> BIG_INTEGER = new JsonCodec<>(java.math.BigInteger.class,
+                parser -> parser.currentToken().isNumeric() ? parser.getBigIntegerValue() : parse(parser, "BigInteger", java.math.BigInteger::new),
+                JsonGenerator::writeNumber);
+        /** Dates are read from epoch milliseconds or ISO-8601 text, and written as epoch milliseconds, like Jackson does by default. */
+        public static final JsonCodec<java.util.Date> DATE = new JsonCodec<>(java.util.Date.class,
+                parser -> parser.currentToken() == JsonToken.VALUE_NUMBER_INT ? new java.util.Date(parser.getLongValue())
+                        : parse(parser, "Date", JsonCodec::parseDate),
+                (generator, value) -> generator.writeNumber(value.getTime()));
+        public static final JsonCodec<java.time.OffsetDateTime> OFFSET_DATE_TIME = new JsonCodec<>(java.time.OffsetDateTime.class,
+                parser -> parse(parser, "OffsetDateTime", java.time.OffsetDateTime::parse), JsonCodec::writeText);
+        public static final JsonCodec<java.time.LocalDateTime> LOCAL_DATE_TIME = new JsonCodec<>(java.time.LocalDateTime.class,
+                parser -> parse(parser, "LocalDateTime", java.time.LocalDateTime::parse), JsonCodec::writeText);
+        public static final JsonCodec<java.time.LocalDate> LOCAL_DATE = new JsonCodec<>(java.time.LocalDate.class,
+                parser -> parse(parser, "LocalDate", java.time.LocalDate::parse), JsonCodec::writeText);
+        public static final JsonCodec<java.time.Instant> INSTANT = new JsonCodec<>(java.time.Instant.class,
+                parser -> parse(parser, "Instant", java.time.Instant::parse), JsonCodec::writeText);
+        /** Untyped values: maps, lists, strings, numbers and booleans. */
+        public static final JsonCodec<Object> OBJECT = new JsonCodec<>(Object.class,
+                parser -> GQLQuery.MAPPER.readValue(parser, Object.class), GQLQuery.MAPPER::writeValue);
+
+        private static final java.util.concurrent.ConcurrentMap<Class<?>, JsonCodec<?>> DATABIND = new java.util.concurrent.ConcurrentHashMap<>();
+
+        private final Class<T> type;
+        private final ValueReader<T> reader;
+        private final ValueWriter<T> writer;
+        private volatile JsonCodec<List<T>> list;
+
+        public JsonCodec(Class<T> type, ValueReader<T> reader, ValueWriter<T> writer) {
+            this.type = type;
+            this.reader = reader;
+            this.writer = writer;
+        }
+
+        /**
+         * Codec that delegates to Jackson data binding, for scalars mapped to types without a built-in codec.
+         *
+         * @param type the mapped Java type
+         * @return the codec, shared by all callers
+         */
+        @SuppressWarnings("unchecked")
+        public static <T> JsonCodec<T> databind(Class<T> type) {
+            return (JsonCodec<T>) DATABIND.computeIfAbsent(type, t -> new JsonCodec<>(type,
+                    parser -> GQLQuery.MAPPER.readValue(parser, type), GQLQuery.MAPPER::writeValue));
+        }
+
+        /**
+         * @return the built-in codecs of the scalar types
+         */
+        public static List<JsonCodec<?>> scalars() {
+            return Arrays.asList(STRING, INTEGER, LONG, FLOAT, DOUBLE, BOOLEAN, BIG_DECIMAL, BIG_INTEGER, DATE,
+                    OFFSET_DATE_TIME, LOCAL_DATE_TIME, LOCAL_DATE, INSTANT, OBJECT);
+        }
+
+        /**
+         * @param parser on the first token of the value
+         * @return the value, null for a JSON null
+         */
+        public T read(JsonParser parser) throws IOException {
+            return parser.currentToken() == JsonToken.VALUE_NULL ? null : reader.read(parser);
+        }
+
+        /**
+         * @param json a JSON document holding one value
+         * @return the value, null for a JSON null
+         */
+        public T read(byte[] json) throws IOException {
+            try (JsonParser parser = GQLQuery.MAPPER.getFactory().createParser(json)) {
+                parser.nextToken();
+                return read(parser);
+            }
+        }
+
+        /**
+         * @param generator the target
+         * @param value the value, written as a JSON null when null
+         */
+        public void write(JsonGenerator generator, T value) throws IOException {
+            if (value == null) {
+                generator.writeNull();
+            } else {
+                writer.write(generator, value);
+            }
+        }
+
+        /**
+         * @param value the value
+         * @return the compact JSON of the value, UTF-8 encoded
+         */
+        public byte[] toBytes(T value) {
+            try (ByteArrayBuilder bytes = new ByteArrayBuilder(256);
+                 JsonGenerator generator = GQLQuery.MAPPER.getFactory().createGenerator(bytes, JsonEncoding.UTF8)) {
+                write(generator, value);
+                generator.flush();
+                return bytes.toByteArray();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * @return the codec of lists of this codec's type, created once
+         */
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        public JsonCodec<List<T>> list() {
+            JsonCodec<List<T>> codec = list;
+            if (codec == null) {
+                list = codec = new JsonCodec<>((Class) List.class, this::readList, this::writeList);
+            }
+            return codec;
+        }
+
+        public Class<T> getType() {
+            return type;
+        }
+
+        private List<T> readList(JsonParser parser) throws IOException {
+            if (parser.currentToken() != JsonToken.START_ARRAY) {
+                throw new com.fasterxml.jackson.core.JsonParseException(parser, "Expected a list of " + type.getSimpleName()
+                        + " but got " + parser.currentToken());
+            }
+            List<T> values = new ArrayList<>();
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                values.add(read(parser));
+            }
+            return values;
+        }
+
+        private void writeList(JsonGenerator generator, List<T> values) throws IOException {
+            generator.writeStartArray();
+            for (T value : values) {
+                write(generator, value);
+            }
+            generator.writeEndArray();
+        }
+
+        /**
+         * Checks that the parser is on the start of an object, for the generated codecs.
+         */
+        public static void expectObject(JsonParser parser, String typeName) throws IOException {
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                throw new com.fasterxml.jackson.core.JsonParseException(parser, "Expected a " + typeName + " object but got "
+                        + parser.currentToken());
+            }
+        }
+
+        /**
+         * @return the text of a scalar value, for the generated enum codecs
+         */
+        public static String text(JsonParser parser, String typeName) throws IOException {
+            if (!parser.currentToken().isScalarValue()) {
+                throw new com.fasterxml.jackson.core.JsonParseException(parser, "Expected a " + typeName + " value but got "
+                        + parser.currentToken());
+            }
+            return parser.getText();
+        }
+
+        /**
+         * @return the error for an enum value that is not part of the schema, for the generated enum codecs
+         */
+        public static IOException unknownValue(JsonParser parser, String typeName) throws IOException {
+            return new com.fasterxml.jackson.core.JsonParseException(parser, "Unknown " + typeName + " value '" + parser.getText() + "'");
+        }
+
+        private static <V> V parse(JsonParser parser, String typeName, java.util.function.Function<String, V> parse) throws IOException {
+            String text = text(parser, typeName);
+            try {
+                return parse.apply(text.trim());
+            } catch (RuntimeException e) {
+                throw new com.fasterxml.jackson.core.JsonParseException(parser, "Cannot read " + typeName + " from '" + text + "'", e);
+            }
+        }
+
+        private static Boolean parseBoolean(String text) {
+            if ("true".equalsIgnoreCase(text) || "false".equalsIgnoreCase(text)) {
+                return Boolean.valueOf(text);
+            }
+            throw new IllegalArgumentException("not a boolean");
+        }
+
+        private static java.util.Date parseDate(String text) {
+            try {
+                return new com.fasterxml.jackson.databind.util.StdDateFormat().parse(text);
+            } catch (java.text.ParseException e) {
+                throw new IllegalArgumentException(e.getMessage(), e);
+            }
+        }
+
+        private static void writeText(JsonGenerator generator, Object value) throws IOException {
+            generator.writeString(value.toString());
+        }
+    }
+
+
+    /**
+     * Codecs by type, to decode responses directly into the generated types. {@code Codecs.REGISTRY} holds the
+     * generated codecs of the schema types and the built-in scalar codecs; lists are decoded with the codec of
+     * their element type.
+     */
+    public static final class CodecRegistry {
+        private final Map<Class<?>, JsonCodec<?>> codecs = new java.util.concurrent.ConcurrentHashMap<>();
+
+        /**
+         * Creates a registry holding the built-in scalar codecs.
+         */
+        public CodecRegistry() {
+            for (JsonCodec<?> codec : JsonCodec.scalars()) {
+                register(codec);
+            }
+        }
+
+        /**
+         * @param codec the codec, replacing any registered for the same type
+         * @return this registry
+         */
+        public CodecRegistry register(JsonCodec<?> codec) {
+            codecs.put(codec.getType(), codec);
+            return this;
+        }
+
+        /**
+         * @param type the Java type
+         * @return the codec of the type
+         * @throws IllegalArgumentException if no codec is registered for the type
+         */
+        @SuppressWarnings("unchecked")
+        public <T> JsonCodec<T> get(Class<T> type) {
+            JsonCodec<T> codec = (JsonCodec<T>) codecs.get(type);
+            if (codec == null) {
+                throw new IllegalArgumentException("No codec registered for " + type.getName());
+            }
+            return codec;
+        }
+
+        /**
+         * @param type the Java type, e.g. the return type of an operation
+         * @return the codec of the type, a list codec for {@code List<...>}
+         * @throws IllegalArgumentException if no codec is registered for the type or its elements
+         */
+        @SuppressWarnings("unchecked")
+        public <T> JsonCodec<T> get(TypeReference<T> type) {
+            return (JsonCodec<T>) get(type.getType());
+        }
+
+        private JsonCodec<?> get(java.lang.reflect.Type type) {
+            if (type instanceof Class) {
+                return get((Class<?>) type);
+            }
+            if (type instanceof java.lang.reflect.ParameterizedType && ((java.lang.reflect.ParameterizedType) type).getRawType() == List.class) {
+                return get(((java.lang.reflect.ParameterizedType) type).getActualTypeArguments()[0]).list();
+            }
+            throw new IllegalArgumentException("No codec registered for " + type.getTypeName());
+        }
+
+        /**
+         * Reads the result of one operation from a response, the rest of the response is skipped.
+         *
+         * @param response the JSON response body
+         * @param field the response field of the operation, e.g. {@code findById}
+         * @param type the result type of the operation
+         * @return the result, or null when the response has none (e.g. on errors)
+         */
+        public <T> T readData(byte[] response, String field, TypeReference<T> type) throws IOException {
+            JsonCodec<T> codec = get(type);
+            try (JsonParser parser = GQLQuery.MAPPER.getFactory().createParser(response)) {
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    throw new IOException("Expected a JSON object as the response of '" + field + "'");
+                }
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String name = parser.currentName();
+                    if (parser.nextToken() == JsonToken.START_OBJECT && "data".equals(name)) {
+                        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                            String dataField = parser.currentName();
+                            parser.nextToken();
+                            if (field.equals(dataField)) {
+                                return codec.read(parser);
+                            }
+                            parser.skipChildren();
+                        }
+                        return null;
+                    }
+                    parser.skipChildren();
+                }
+                return null;
+            }
+        }
+    }
+
+
+    /**
+     * Sends operations to a GraphQL endpoint and decodes their results, either asynchronously with the
+     * {@code executeAsync} methods or blocking the calling thread with the {@code execute} methods, which suit virtual threads.
+     * By default the requests go through one {@link HttpTransport}: HTTP/2 when the server supports it, pooled keep-alive
+     * connections and gzip or deflate compressed responses. Results are decoded into the operation's return type, with
+     * the generated codecs when a {@link CodecRegistry} is set and with Jackson data binding otherwise.
+     * Configure the executor before sharing it between threads.
+     */
+    public static class GQLExecutor {
+        private final java.net.URI endpoint;
+        private final Transport transport;
+        private final Map<String, String> headers = new LinkedHashMap<>();
+        private CodecRegistry codecs;
+        private boolean persistedQueries;
+        private boolean arrayBatching;
+        private NormalizedCache cache;
+
+        /**
+         * Sends the requests over HTTP with a {@link HttpTransport} of its own.
+         *
+         * @param endpoint the GraphQL endpoint
+         */
+        public GQLExecutor(java.net.URI endpoint) {
+            this(endpoint, new HttpTransport(java.time.Duration.ofSeconds(30)));
+        }
+
+        /**
+         * @param endpoint the GraphQL endpoint
+         * @param transport sends the requests, e.g. an in-memory server in tests
+         */
+        public GQLExecutor(java.net.URI endpoint, Transport transport) {
+            this.endpoint = endpoint;
+            this.transport = transport;
+        }
+
+        /**
+         * @param name header name, e.g. {@code Authorization}
+         * @param value header value
+         * @return this executor
+         */
+        public GQLExecutor header(String name, String value) {
+            headers.put(name, value);
+            return this;
+        }
+
+        /**
+         * @param codecs the codecs that decode the results, e.g. {@code Codecs.REGISTRY}; null to use data binding
+         * @return this executor
+         */
+        public GQLExecutor codecs(CodecRegistry codecs) {
+            this.codecs = codecs;
+            return this;
+        }
+
+        /**
+         * Sends operations as automatic persisted queries: the hash first, and the document only when the server
+         * does not know the hash yet. Queries then go with HTTP GET, so that CDNs can cache them.
+         *
+         * @param persistedQueries true to send persisted queries
+         * @return this executor
+         */
+        public GQLExecutor persistedQueries(boolean persistedQueries) {
+            this.persistedQueries = persistedQueries;
+            return this;
+        }
+
+        /**
+         * Sends batches as a JSON array of requests, answered with an array of responses, instead of merging their
+         * operations into one document. Only for servers that accept array batching.
+         *
+         * @param arrayBatching true to send batches as arrays
+         * @return this executor
+         */
+        public GQLExecutor arrayBatching(boolean arrayBatching) {
+            this.arrayBatching = arrayBatching;
+            return this;
+        }
+
+        /**
+         * Answers queries from a normalized cache when it holds all their selected fields, and stores the results of
+         * queries and mutations in it. Prepared queries use the cache, compiled operations and batches do not.
+         *
+         * @param cache the cache, e.g. {@code new NormalizedCache(Schema.ENTITIES, 10_000)}; null for no cache
+         * @return this executor
+         */
+        public GQLExecutor cache(NormalizedCache cache) {
+            this.cache = cache;
+            return this;
+        }
+
+        /**
+         * Executes a query, blocking the calling thread until the response is decoded.
+         *
+         * @param query the query
+         * @return the response, with the result decoded into the query's return type
+         * @throws GQLException if the server answers with an HTTP error and no GraphQL response
+         */
+        public <T> GQLResponse<T> execute(GQLQuery query) throws IOException {
+            if (cache != null) {
+                GQLResponse<T> cached = cache.read(query, codecs);
+                return cached != null ? cached : cache.write(query, execute(query, treeReader(query)), codecs);
+            }
+            return execute(query, resultReader(query));
+        }
+
+        private <T> GQLResponse<T> execute(GQLQuery query, JsonCodec.ValueReader<T> reader) throws IOException {
+            GQLResponse<T> response = decode(transport.send(first(query)), reader, query.getName());
+            if (persistedQueries && response.isPersistedQueryNotFound()) {
+                response = decode(transport.send(post(query.toBytes(GQLQuery.BodyFormat.DOCUMENT_AND_HASH))), reader, query.getName());
+            }
+            return response;
+        }
+
+        /**
+         * @param prepared the prepared operation
+         * @param input sets the arguments of this execution
+         * @return the response, with the result decoded into the operation's return type
+         */
+        public <A, T> GQLResponse<T> execute(PreparedQuery<A, T> prepared, Consumer<A> input) throws IOException {
+            return execute(prepared.bind(input));
+        }
+
+        /**
+         * @param operation the compiled operation
+         * @param variables the variables, null when the operation has none
+         * @return the response, with the {@code data} member decoded into the operation's data class
+         */
+        public <V, D> GQLResponse<D> execute(CompiledOperation<V, D> operation, V variables) throws IOException {
+            JsonCodec.ValueReader<D> reader = dataReader(operation);
+            GQLResponse<D> response = decode(transport.send(post(operation.toBytes(variables, firstFormat()))), reader, operation.getName());
+            if (persistedQueries && response.isPersistedQueryNotFound()) {
+                response = decode(transport.send(post(operation.toBytes(variables, GQLQuery.BodyFormat.DOCUMENT_AND_HASH))),
+                        reader, operation.getName());
+            }
+            return response;
+        }
+
+        /**
+         * Executes a query without blocking the calling thread.
+         *
+         * @param query the query
+         * @return the response, with the result decoded into the query's return type; completes exceptionally with
+         *         {@link GQLException} if the server answers with an HTTP error and no GraphQL response
+         */
+        public <T> java.util.concurrent.CompletableFuture<GQLResponse<T>> executeAsync(GQLQuery query) {
+            if (cache != null) {
+                try {
+                    GQLResponse<T> cached = cache.read(query, codecs);
+                    if (cached != null) {
+                        return java.util.concurrent.CompletableFuture.completedFuture(cached);
+                    }
+                } catch (IOException e) {
+                    return java.util.concurrent.CompletableFuture.failedFuture(e);
+                }
+                return send(first(query), () -> post(query.toBytes(GQLQuery.BodyFormat.DOCUMENT_AND_HASH)),
+                        treeReader(query), query.getName()).thenApply(response -> {
+                    try {
+                        return cache.<T>write(query, response, codecs);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+            JsonCodec.ValueReader<T> reader = resultReader(query);
+            return send(first(query), () -> post(query.toBytes(GQLQuery.BodyFormat.DOCUMENT_AND_HASH)), reader, query.getName());
+        }
+
+        /**
+         * @param prepared the prepared operation
+         * @param input sets the arguments of this execution
+         * @return the response, with the result decoded into the operation's return type
+         */
+        public <A, T> java.util.concurrent.CompletableFuture<GQLResponse<T>> executeAsync(PreparedQuery<A, T> prepared, Consumer<A> input) {
+            return executeAsync(prepared.bind(input));
+        }
+
+        /**
+         * @param operation the compiled operation
+         * @param variables the variables, null when the operation has none
+         * @return the response, with the {@code data} member decoded into the operation's data class
+         */
+        public <V, D> java.util.concurrent.CompletableFuture<GQLResponse<D>> executeAsync(CompiledOperation<V, D> operation, V variables) {
+            return send(post(operation.toBytes(variables, firstFormat())),
+                    () -> post(operation.toBytes(variables, GQLQuery.BodyFormat.DOCUMENT_AND_HASH)), dataReader(operation), operation.getName());
+        }
+
+        /**
+         * Executes the operations of a batch in one request, blocking the calling thread until the response is decoded.
+         * Batches are not sent as persisted queries.
+         *
+         * @param batch the operations
+         * @return the responses of the operations
+         * @throws GQLException if the server answers with an HTTP error and no GraphQL response
+         */
+        public GQLBatch.Result execute(GQLBatch batch) throws IOException {
+            return decode(transport.send(post(arrayBatching ? batch.toArrayBytes() : batch.toBytes())), batch);
+        }
+
+        /**
+         * Executes the operations of a batch in one request without blocking the calling thread.
+         *
+         * @param batch the operations
+         * @return the responses of the operations
+         */
+        public java.util.concurrent.CompletableFuture<GQLBatch.Result> executeAsync(GQLBatch batch) {
+            return transport.sendAsync(post(arrayBatching ? batch.toArrayBytes() : batch.toBytes())).thenApply(response -> {
+                try {
+                    return decode(response, batch);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+
+        /**
+         * Executes a query whose result is a list and reads its elements one at a time, as the response arrives,
+         * instead of decoding the whole list: only the current element is held in memory. The stream must be closed;
+         * closing it before its end aborts the response. Streamed queries do not use the normalized cache.
+         *
+         * @param query the query, returning a list
+         * @return the elements of the result, decoded into the element type of the query's return type
+         * @throws IllegalArgumentException if the query does not return a list
+         * @throws GQLException if the server answers with an HTTP error and no GraphQL response
+         */
+        public <E> GQLStream<E> stream(GQLQuery query) throws IOException {
+            JsonCodec.ValueReader<E> reader = elementReader(query);
+            GQLStream<E> stream = open(first(query), reader, query.getName());
+            if (persistedQueries && stream.isPersistedQueryNotFound()) {
+                stream = open(post(query.toBytes(GQLQuery.BodyFormat.DOCUMENT_AND_HASH)), reader, query.getName());
+            }
+            return stream;
+        }
+
+        /**
+         * @param prepared the prepared operation, returning a list
+         * @param input sets the arguments of this execution
+         * @return the elements of the result, read as the response arrives
+         */
+        public <A, E> GQLStream<E> stream(PreparedQuery<A, List<E>> prepared, Consumer<A> input) throws IOException {
+            return stream(prepared.bind(input));
+        }
+
+        private <E> GQLStream<E> open(Request request, JsonCodec.ValueReader<E> reader, String operation) throws IOException {
+            StreamedResponse response = transport.open(request);
+            return new GQLStream<>(response.getStatus(), response.getBody(), operation, reader, endpoint.getHost());
+        }
+
+        private GQLBatch.Result decode(Response response, GQLBatch batch) throws IOException {
+            boolean success = response.getStatus() >= 200 && response.getStatus() < 300;
+            GQLBatch.Result result = null;
+            try {
+                result = batch.read(response.getStatus(), response.getBody(), codecs);
+            } catch (com.fasterxml.jackson.core.JsonProcessingException e) {
+                if (success) {
+                    throw e;
+                }
+                // Not a GraphQL response, e.g. the error page of a proxy
+            }
+            if (!success && (result == null || result.isEmpty())) {
+                throw new GQLException("HTTP status " + response.getStatus() + " from " + endpoint.getHost() + " for batch '"
+                        + batch.getName() + "'", response.getStatus(), null);
+            }
+            return result;
+        }
+
+        private <T> java.util.concurrent.CompletableFuture<GQLResponse<T>> send(Request request, java.util.function.Supplier<Request> retry,
+                                                                                JsonCodec.ValueReader<T> reader, String operation) {
+            return transport.sendAsync(request).thenCompose(first -> {
+                GQLResponse<T> response = decodeUnchecked(first, reader, operation);
+                if (persistedQueries && response.isPersistedQueryNotFound()) {
+                    return transport.sendAsync(retry.get()).thenApply(second -> decodeUnchecked(second, reader, operation));
+                }
+                return java.util.concurrent.CompletableFuture.completedFuture(response);
+            });
+        }
+
+        /**
+         * The first request of a query: a POST with the document, or the hash only when persisted queries are on.
+         */
+        private Request first(GQLQuery query) {
+            if (persistedQueries && query.function.getType() == GQLFunctionType.Query) {
+                java.net.URI uri = java.net.URI.create(endpoint + (endpoint.getRawQuery() == null ? "?" : "&")
+                        + query.toGetParameters(GQLQuery.BodyFormat.PERSISTED));
+                return new Request("GET", uri, requestHeaders(false), null);
+            }
+            return post(query.toBytes(firstFormat()));
+        }
+
+        private GQLQuery.BodyFormat firstFormat() {
+            return persistedQueries ? GQLQuery.BodyFormat.PERSISTED : GQLQuery.BodyFormat.DOCUMENT;
+        }
+
+        private Request post(byte[] body) {
+            return new Request("POST", endpoint, requestHeaders(true), body);
+        }
+
+        private Map<String, String> requestHeaders(boolean body) {
+            Map<String, String> requestHeaders = new LinkedHashMap<>();
+            requestHeaders.put("Accept", "application/graphql-response+json, application/json");
+            if (body) {
+                requestHeaders.put("Content-Type", "application/json");
+            }
+            requestHeaders.putAll(headers);
+            return requestHeaders;
+        }
+
+        /**
+         * Reads the result of a query from the {@code data} member, the other fields of {@code data} are skipped.
+         */
+        @SuppressWarnings("unchecked")
+        private <T> JsonCodec.ValueReader<T> resultReader(GQLQuery query) {
+            return resultReader(query.getName(), valueReader((TypeReference<T>) query.getReturnType(), codecs));
+        }
+
+        /**
+         * Reads the result of a query as a tree, for the normalized cache.
+         */
+        private static JsonCodec.ValueReader<com.fasterxml.jackson.databind.JsonNode> treeReader(GQLQuery query) {
+            return resultReader(query.getName(), GQLExecutor.<com.fasterxml.jackson.databind.JsonNode>valueReader(null, null));
+        }
+
+        private static <T> JsonCodec.ValueReader<T> resultReader(String name, JsonCodec.ValueReader<T> value) {
+            return parser -> {
+                T result = null;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    parser.nextToken();
+                    if (name.equals(field)) {
+                        result = value.read(parser);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                return result;
+            };
+        }
+
+        /**
+         * Reads a value with its codec when there is one, with data binding otherwise, and as a tree when the type is unknown.
+         */
+        @SuppressWarnings("unchecked")
+        static <T> JsonCodec.ValueReader<T> valueReader(TypeReference<T> type, CodecRegistry codecs) {
+            if (type == null) {
+                return parser -> (T) GQLQuery.MAPPER.readTree(parser);
+            }
+            if (codecs != null) {
+                return codecs.get(type)::read;
+            }
+            return parser -> GQLQuery.MAPPER.readValue(parser, type);
+        }
+
+        /**
+         * Reads the elements of a list result with their codec when there is one, with data binding otherwise.
+         */
+        @SuppressWarnings("unchecked")
+        private <E> JsonCodec.ValueReader<E> elementReader(GQLQuery query) {
+            java.lang.reflect.Type type = query.getReturnType().getType();
+            if (!(type instanceof java.lang.reflect.ParameterizedType) || ((java.lang.reflect.ParameterizedType) type).getRawType() != List.class) {
+                throw new IllegalArgumentException("'" + query.getName() + "' returns " + type.getTypeName() + ", not a list");
+            }
+            java.lang.reflect.Type element = ((java.lang.reflect.ParameterizedType) type).getActualTypeArguments()[0];
+            if (codecs != null) {
+                return ((JsonCodec<E>) codecs.get(element))::read;
+            }
+            com.fasterxml.jackson.databind.ObjectReader reader = GQLQuery.MAPPER.readerFor(GQLQuery.MAPPER.getTypeFactory().constructType(element));
+            return parser -> reader.readValue(parser);
+        }
+
+        private static <D> JsonCodec.ValueReader<D> dataReader(CompiledOperation<?, D> operation) {
+            return parser -> GQLQuery.MAPPER.readValue(parser, operation.getDataType());
+        }
+
+        private <T> GQLResponse<T> decodeUnchecked(Response response, JsonCodec.ValueReader<T> reader, String operation) {
+            try {
+                return decode(response, reader, operation);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private <T> GQLResponse<T> decode(Response response, JsonCodec.ValueReader<T> reader, String operation) throws IOException {
+            boolean success = response.getStatus() >= 200 && response.getStatus() < 300;
+            T data = null;
+            com.fasterxml.jackson.databind.JsonNode errors = null;
+            try (JsonParser parser = GQLQuery.MAPPER.getFactory().createParser(response.getBody())) {
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    throw new com.fasterxml.jackson.core.JsonParseException(parser, "Expected a JSON object");
+                }
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    JsonToken value = parser.nextToken();
+                    if ("data".equals(field) && value == JsonToken.START_OBJECT) {
+                        data = reader.read(parser);
+                    } else if ("errors".equals(field) && value == JsonToken.START_ARRAY) {
+                        errors = GQLQuery.MAPPER.readTree(parser);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } catch (com.fasterxml.jackson.core.JsonProcessingException e) {
+                if (success) {
+                    throw e;
+                }
+                // Not a GraphQL response, e.g. the error page of a proxy
+            }
+            if (!success && data == null && errors == null) {
+                throw new GQLException("HTTP status " + response.getStatus() + " from " + endpoint.getHost() + " for '" + operation + "'",
+                        response.getStatus(), null);
+            }
+            return new GQLResponse<>(response.getStatus(), data, errors);
+        }
+
+        /**
+         * Sends the requests of a {@link GQLExecutor}.
+         */
+        public interface Transport {
+
+            /**
+             * Sends a request, blocking the calling thread until the whole response is received.
+             *
+             * @param request the request
+             * @return the response, with its body decompressed
+             */
+            Response send(Request request) throws IOException;
+
+            /**
+             * Sends a request without blocking the calling thread. By default the request is sent with
+             * {@link #send(Request)} on the calling thread.
+             *
+             * @param request the request
+             * @return the response, with its body decompressed
+             */
+            default java.util.concurrent.CompletableFuture<Response> sendAsync(Request request) {
+                try {
+                    return java.util.concurrent.CompletableFuture.completedFuture(send(request));
+                } catch (IOException | RuntimeException e) {
+                    java.util.concurrent.CompletableFuture<Response> failed = new java.util.concurrent.CompletableFuture<>();
+                    failed.completeExceptionally(e);
+                    return failed;
+                }
+            }
+
+            /**
+             * Sends a request, blocking the calling thread until the response headers are received: the body is read
+             * from the returned stream as it arrives. By default the whole response is received with {@link #send(Request)}.
+             *
+             * @param request the request
+             * @return the response, with its body decompressed; closing the body before its end aborts the response
+             */
+            default StreamedResponse open(Request request) throws IOException {
+                Response response = send(request);
+                return new StreamedResponse(response.getStatus(), new java.io.ByteArrayInputStream(response.getBody()));
+            }
+        }
+
+        /**
+         * An HTTP request to the GraphQL endpoint.
+         */
+        public static final class Request {
+            private final String method;
+            private final java.net.URI uri;
+            private final Map<String, String> headers;
+            private final byte[] body;
+
+            public Request(String method, java.net.URI uri, Map<String, String> headers, byte[] body) {
+                this.method = method;
+                this.uri = uri;
+                this.headers = Collections.unmodifiableMap(headers);
+                this.body = body;
+            }
+
+            /**
+             * @return {@code GET} or {@code POST}
+             */
+            public String getMethod() {
+                return method;
+            }
+
+            public java.net.URI getUri() {
+                return uri;
+            }
+
+            public Map<String, String> getHeaders() {
+                return headers;
+            }
+
+            /**
+             * @return the JSON request body, null for GET requests
+             */
+            public byte[] getBody() {
+                return body;
+            }
+        }
+
+        /**
+         * An HTTP response, with its body decompressed.
+         */
+        public static final class Response {
+            private final int status;
+            private final byte[] body;
+
+            public Response(int status, byte[] body) {
+                this.status = status;
+                this.body = body;
+            }
+
+            public int getStatus() {
+                return status;
+            }
+
+            public byte[] getBody() {
+                return body;
+            }
+        }
+
+        /**
+         * An HTTP response whose body is read as it arrives, decompressed.
+         */
+        public static final class StreamedResponse {
+            private final int status;
+            private final java.io.InputStream body;
+
+            public StreamedResponse(int status, java.io.InputStream body) {
+                this.status = status;
+                this.body = body;
+            }
+
+            public int getStatus() {
+                return status;
+            }
+
+            /**
+             * @return the body, to be closed by the reader
+             */
+            public java.io.InputStream getBody() {
+                return body;
+            }
+        }
+
+        /**
+         * Sends the requests with a {@link java.net.http.HttpClient}. The client negotiates HTTP/2, keeps the connections
+         * alive and reuses them across requests, so one transport should be shared by all the requests to a server.
+         * Responses compressed with gzip or deflate are decompressed.
+         */
+        public static class HttpTransport implements Transport {
+            private final java.net.http.HttpClient client;
+            private final java.time.Duration timeout;
+
+            /**
+             * @param timeout connect timeout, and time to wait for each response
+             */
+            public HttpTransport(java.time.Duration timeout) {
+                this(java.net.http.HttpClient.newBuilder()
+                        .version(java.net.http.HttpClient.Version.HTTP_2)
+                        .connectTimeout(timeout)
+                        .followRedirects(java.net.http.HttpClient.Redirect.NORMAL)
+                        .build(), timeout);
+            }
+
+            /**
+             * @param client the client, e.g. with an executor of virtual threads or a proxy
+             * @param timeout time to wait for each response
+             */
+            public HttpTransport(java.net.http.HttpClient client, java.time.Duration timeout) {
+                this.client = client;
+                this.timeout = timeout;
+            }
+
+            @Override
+            public Response send(Request request) throws IOException {
+                try {
+                    return toResponse(client.send(toHttpRequest(request), java.net.http.HttpResponse.BodyHandlers.ofByteArray()));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new java.io.InterruptedIOException("Interrupted while waiting for " + request.getUri().getHost());
+                }
+            }
+
+            @Override
+            public java.util.concurrent.CompletableFuture<Response> sendAsync(Request request) {
+                return client.sendAsync(toHttpRequest(request), java.net.http.HttpResponse.BodyHandlers.ofByteArray())
+                        .thenApply(response -> {
+                            try {
+                                return toResponse(response);
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        });
+            }
+
+            @Override
+            public StreamedResponse open(Request request) throws IOException {
+                java.net.http.HttpResponse<java.io.InputStream> response;
+                try {
+                    response = client.send(toHttpRequest(request), java.net.http.HttpResponse.BodyHandlers.ofInputStream());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new java.io.InterruptedIOException("Interrupted while waiting for " + request.getUri().getHost());
+                }
+                try {
+                    return new StreamedResponse(response.statusCode(), decompressed(response.body(), contentEncoding(response)));
+                } catch (IOException | RuntimeException e) {
+                    response.body().close();
+                    throw e;
+                }
+            }
+
+            private java.net.http.HttpRequest toHttpRequest(Request request) {
+                java.net.http.HttpRequest.Builder builder = java.net.http.HttpRequest.newBuilder(request.getUri())
+                        .timeout(timeout)
+                        .header("Accept-Encoding", "gzip, deflate");
+                request.getHeaders().forEach(builder::header);
+                if (request.getBody() == null) {
+                    builder.GET();
+                } else {
+                    builder.method(request.getMethod(), java.net.http.HttpRequest.BodyPublishers.ofByteArray(request.getBody()));
+                }
+                return builder.build();
+            }
+
+            private static Response toResponse(java.net.http.HttpResponse<byte[]> response) throws IOException {
+                String encoding = contentEncoding(response);
+                byte[] body = response.body();
+                if (encoding.equals("gzip") || encoding.equals("deflate")) {
+                    try (java.io.InputStream in = decompressed(new java.io.ByteArrayInputStream(body), encoding)) {
+                        body = in.readAllBytes();
+                    }
+                }
+                return new Response(response.statusCode(), body);
+            }
+
+            private static String contentEncoding(java.net.http.HttpResponse<?> response) {
+                return response.headers().firstValue("Content-Encoding").orElse("").trim().toLowerCase(Locale.ROOT);
+            }
+
+            private static java.io.InputStream decompressed(java.io.InputStream body, String encoding) throws IOException {
+                if (encoding.equals("gzip")) {
+                    return new java.util.zip.GZIPInputStream(body);
+                }
+                if (encoding.equals("deflate")) {
+                    return new java.util.zip.InflaterInputStream(body);
+                }
+                return body;
+            }
+        }
+    }
+
+
+    /**
+     * The response to an operation: the decoded result and the GraphQL errors. A response can carry both,
+     * when only part of the result could be computed.
+     *
+     * @param <T> the result type
+     */
+    public static final class GQLResponse<T> {
+        private final int status;
+        private final T data;
+        private final com.fasterxml.jackson.databind.JsonNode errors;
+
+        public GQLResponse(int status, T data, com.fasterxml.jackson.databind.JsonNode errors) {
+            this.status = status;
+            this.data = data;
+            this.errors = errors;
+        }
+
+        /**
+         * @return the HTTP status of the response
+         */
+        public int getStatus() {
+            return status;
+        }
+
+        /**
+         * @return the result, null when the server returned none
+         */
+        public T getData() {
+            return data;
+        }
+
+        /**
+         * @return the result
+         * @throws GQLException if the response has errors
+         */
+        public T getDataOrThrow() {
+            if (hasErrors()) {
+                throw new GQLException("GraphQL errors: " + String.join("; ", getErrorMessages()), status, errors);
+            }
+            return data;
+        }
+
+        public boolean hasErrors() {
+            return errors != null && errors.size() > 0;
+        }
+
+        /**
+         * @return the {@code errors} member of the response, null when there is none
+         */
+        public com.fasterxml.jackson.databind.JsonNode getErrors() {
+            return errors;
+        }
+
+        /**
+         * @return the messages of the errors, empty when there are none
+         */
+        public List<String> getErrorMessages() {
+            List<String> messages = new ArrayList<>();
+            if (errors != null) {
+                for (com.fasterxml.jackson.databind.JsonNode error : errors) {
+                    messages.add(error.path("message").asText());
+                }
+            }
+            return messages;
+        }
+
+        boolean isPersistedQueryNotFound() {
+            return errors != null && GQLQuery.isPersistedQueryNotFound(errors);
+        }
+    }
+
+
+    /**
+     * Thrown when an operation fails: the server answered with an HTTP error, or with GraphQL errors
+     * where a result was required.
+     */
+    public static class GQLException extends RuntimeException {
+        private final int status;
+        private final com.fasterxml.jackson.databind.JsonNode errors;
+
+        public GQLException(String message, int status, com.fasterxml.jackson.databind.JsonNode errors) {
+            super(message);
+            this.status = status;
+            this.errors = errors;
+        }
+
+        /**
+         * @return the HTTP status of the response
+         */
+        public int getStatus() {
+            return status;
+        }
+
+        /**
+         * @return the GraphQL errors, null when the server did not send any
+         */
+        public com.fasterxml.jackson.databind.JsonNode getErrors() {
+            return errors;
+        }
+    }
+
+
+    /**
+     * Several operations of the same type sent in one request, to save the round trips of independent operations.
+     * The operations are merged into one document: root fields that collide with an earlier one are aliased, e.g.
+     * {@code findById_2: findById(id: $id_2)}, and their variables renamed. {@link #read(int, byte[], CodecRegistry)}
+     * splits the response back into one {@link GQLResponse} per operation. Servers that accept array batching can
+     * receive the operations unmerged with {@link #toArrayBytes()}.
+     * Not thread-safe while operations are added.
+     */
+    public static final class GQLBatch {
+        private final GQLFunctionType type;
+        private final List<Part<?>> parts = new ArrayList<>();
+        private final Map<String, Part<?>> byResponseName = new HashMap<>();
+        private final Set<String> variableNames = new HashSet<>();
+
+        /**
+         * @param type the type of the operations, mutations of a batch are executed one after the other
+         */
+        public GQLBatch(GQLFunctionType type) {
+            this.type = type;
+        }
+
+        /**
+         * @param query an operation of the batch's type
+         * @return the operation's part, to get its response from the {@link Result}
+         * @throws IllegalArgumentException if the operation is not of the batch's type
+         */
+        @SuppressWarnings("unchecked")
+        public <T> Part<T> add(GQLQuery query) {
+            return (Part<T>) add(query, query.selection());
+        }
+
+        /**
+         * @param prepared a prepared operation of the batch's type
+         * @param input sets the arguments of this execution
+         * @return the operation's part, to get its response from the {@link Result}
+         */
+        public <A, T> Part<T> add(PreparedQuery<A, T> prepared, Consumer<A> input) {
+            return add(prepared.bind(input));
+        }
+
+        /**
+         * @param function an operation of the batch's type
+         * @return the operation's part, to get its response from the {@link Result}
+         * @throws IllegalArgumentException if the operation is not of the batch's type
+         */
+        public Part<?> add(GQLFunction function) {
+            return add(GQLQuery.from(function));
+        }
+
+        private Part<?> add(GQLQuery query, String selection) {
+            GQLFunction function = query.function;
+            if (function.getType() != type) {
+                throw new IllegalArgumentException("Cannot add the " + function.getType().getName() + " '" + function.getName()
+                        + "' to a batch of " + type.getName() + " operations");
+            }
+            String responseName = unique(function.getName(), byResponseName.keySet());
+            Map<String, String> renamed = new HashMap<>();
+            for (String variable : function.getArguments().toSignature().keySet()) {
+                String name = unique(variable, variableNames);
+                variableNames.add(name);
+                if (!name.equals(variable)) {
+                    renamed.put(variable, name);
+                }
+            }
+            Part<?> part = new Part<>(this, parts.size(), query, selection, responseName.equals(function.getName()) ? null : responseName, renamed);
+            parts.add(part);
+            byResponseName.put(responseName, part);
+            return part;
+        }
+
+        /**
+         * @return the name, or the name with the first free {@code _2}, {@code _3}... suffix
+         */
+        private static String unique(String name, Set<String> taken) {
+            String candidate = name;
+            for (int suffix = 2; taken.contains(candidate); suffix++) {
+                candidate = name + "_" + suffix;
+            }
+            return candidate;
+        }
+
+        public List<Part<?>> getParts() {
+            return Collections.unmodifiableList(parts);
+        }
+
+        /**
+         * @return the names of the operations, for error messages
+         */
+        public String getName() {
+            StringBuilder name = new StringBuilder();
+            for (Part<?> part : parts) {
+                name.append(name.length() == 0 ? "" : ", ").append(part.function.getName());
+            }
+            return name.toString();
+        }
+
+        /**
+         * @return the merged document, e.g. {@code query($id: String!, $id_2: String! ){ findById( id: $id ){ id } findById_2: findById( id: $id_2 ){ id } }}
+         */
+        public String getDocument() {
+            if (parts.isEmpty()) {
+                throw new IllegalStateException("The batch has no operations");
+            }
+            StringBuilder sb = new StringBuilder(128 * parts.size()).append(type.getName()).append('(');
+            String separator = "";
+            for (Part<?> part : parts) {
+                for (Map.Entry<String, String> variable : part.function.getArguments().toSignature().entrySet()) {
+                    sb.append(separator).append('$').append(part.variables.getOrDefault(variable.getKey(), variable.getKey()))
+                            .append(": ").append(variable.getValue());
+                    separator = ", ";
+                }
+            }
+            sb.append(" ){ ");
+            for (Part<?> part : parts) {
+                if (part.alias != null) {
+                    sb.append(part.alias).append(": ");
+                }
+                sb.append(part.function.getName()).append("( ");
+                part.function.getArguments().appendMethodArguments(sb, part.variables).append("){ ");
+                sb.append(part.selection).append("} ");
+            }
+            return sb.append('}').toString();
+        }
+
+        /**
+         * @return the compact JSON request body of the merged document, UTF-8 encoded
+         */
+        public byte[] toBytes() {
+            String document = getDocument();
+            return write(generator -> {
+                generator.writeStartObject();
+                generator.writeNullField("operationName");
+                generator.writeStringField("query", document);
+                generator.writeObjectFieldStart("variables");
+                for (Part<?> part : parts) {
+                    part.function.getArguments().writeVariables(generator, part.variables);
+                }
+                generator.writeEndObject();
+                generator.writeEndObject();
+            });
+        }
+
+        /**
+         * @return a JSON array with the request body of each operation, UTF-8 encoded, for servers that accept array batching
+         */
+        public byte[] toArrayBytes() {
+            if (parts.isEmpty()) {
+                throw new IllegalStateException("The batch has no operations");
+            }
+            return write(generator -> {
+                generator.writeStartArray();
+                for (Part<?> part : parts) {
+                    part.query.write(generator, GQLQuery.BodyFormat.DOCUMENT);
+                }
+                generator.writeEndArray();
+            });
+        }
+
+        private interface BodyWriter {
+            void write(JsonGenerator generator) throws IOException;
+        }
+
+        private static byte[] write(BodyWriter body) {
+            try (ByteArrayBuilder bytes = new ByteArrayBuilder(512)) {
+                try (JsonGenerator generator = GQLQuery.MAPPER.getFactory().createGenerator(bytes, JsonEncoding.UTF8)) {
+                    body.write(generator);
+                }
+                return bytes.toByteArray();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Splits a response into the responses of the operations. The response to the merged document is an object: each
+         * operation gets its field of {@code data} and the errors whose path starts with that field, errors without
+         * a path go to every operation. The response to an array batch is an array of responses, in the order of the operations.
+         *
+         * @param status the HTTP status of the response
+         * @param body the JSON response body
+         * @param codecs the codecs that decode the results; null to use data binding
+         * @return the responses of the operations
+         */
+        public Result read(int status, byte[] body, CodecRegistry codecs) throws IOException {
+            Result result = new Result(this, status);
+            try (JsonParser parser = GQLQuery.MAPPER.getFactory().createParser(body)) {
+                JsonToken token = parser.nextToken();
+                if (token == JsonToken.START_ARRAY) {
+                    int index = 0;
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        if (index == parts.size()) {
+                            throw new com.fasterxml.jackson.core.JsonParseException(parser,
+                                    "More responses than the " + parts.size() + " operations of the batch");
+                        }
+                        readResponse(parser, result, parts.get(index++), codecs);
+                    }
+                } else if (token == JsonToken.START_OBJECT) {
+                    readResponse(parser, result, null, codecs);
+                } else {
+                    throw new com.fasterxml.jackson.core.JsonParseException(parser, "Expected a JSON object or array");
+                }
+            }
+            return result;
+        }
+
+        /**
+         * @param only the operation of the response with array batching, null for the response to the merged document
+         */
+        private void readResponse(JsonParser parser, Result result, Part<?> only, CodecRegistry codecs) throws IOException {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("data".equals(field) && value == JsonToken.START_OBJECT) {
+                    result.empty = false;
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String name = parser.currentName();
+                        parser.nextToken();
+                        Part<?> part = only == null ? byResponseName.get(name) : only.function.getName().equals(name) ? only : null;
+                        if (part != null) {
+                            result.data[part.index] = GQLExecutor.valueReader(part.getReturnType(), codecs).read(parser);
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                } else if ("errors".equals(field) && value == JsonToken.START_ARRAY) {
+                    result.empty = false;
+                    com.fasterxml.jackson.databind.JsonNode errors = GQLQuery.MAPPER.readTree(parser);
+                    for (com.fasterxml.jackson.databind.JsonNode error : errors) {
+                        Part<?> part = only != null ? only : byResponseName.get(error.path("path").path(0).asText());
+                        if (part != null) {
+                            result.addError(part, error);
+                        } else {
+                            for (Part<?> each : parts) {
+                                result.addError(each, error);
+                            }
+                        }
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+
+        /**
+         * An operation of a batch.
+         *
+         * @param <T> the operation's result type
+         */
+        public static final class Part<T> {
+            private final GQLBatch batch;
+            private final int index;
+            private final GQLQuery query;
+            private final GQLFunction function;
+            private final String selection;
+            private final String alias;
+            private final Map<String, String> variables;
+
+            private Part(GQLBatch batch, int index, GQLQuery query, String selection, String alias, Map<String, String> variables) {
+                this.batch = batch;
+                this.index = index;
+                this.query = query;
+                this.function = query.function;
+                this.selection = selection;
+                this.alias = alias;
+                this.variables = variables;
+            }
+
+            /**
+             * @return the field of {@code data} that holds the result: the alias, or the name when the field is not aliased
+             */
+            public String getResponseName() {
+                return alias != null ? alias : function.getName();
+            }
+
+            @SuppressWarnings("unchecked")
+            public TypeReference<T> getReturnType() {
+                return (TypeReference<T>) function.getRturnType();
+            }
+        }
+
+        /**
+         * The responses of the operations of a batch.
+         */
+        public static final class Result {
+            private final GQLBatch batch;
+            private final int status;
+            private final Object[] data;
+            private final com.fasterxml.jackson.databind.node.ArrayNode[] errors;
+            private boolean empty = true;
+
+            private Result(GQLBatch batch, int status) {
+                this.batch = batch;
+                this.status = status;
+                this.data = new Object[batch.parts.size()];
+                this.errors = new com.fasterxml.jackson.databind.node.ArrayNode[batch.parts.size()];
+            }
+
+            /**
+             * @param part an operation of the batch
+             * @return the operation's response, with its result and its errors
+             * @throws IllegalArgumentException if the operation is not part of the batch
+             */
+            @SuppressWarnings("unchecked")
+            public <T> GQLResponse<T> get(Part<T> part) {
+                if (part.batch != batch || part.index >= data.length) {
+                    throw new IllegalArgumentException("'" + part.getResponseName() + "' is not part of the batch");
+                }
+                return new GQLResponse<>(status, (T) data[part.index], errors[part.index]);
+            }
+
+            /**
+             * @return the HTTP status of the response
+             */
+            public int getStatus() {
+                return status;
+            }
+
+            /**
+             * @return true if the response had neither data nor errors
+             */
+            boolean isEmpty() {
+                return empty;
+            }
+
+            private void addError(Part<?> part, com.fasterxml.jackson.databind.JsonNode error) {
+                if (errors[part.index] == null) {
+                    errors[part.index] = GQLQuery.MAPPER.createArrayNode();
+                }
+                errors[part.index].add(error);
+            }
+        }
+    }
+
+
+    /**
+     * Coalesces the queries of concurrent callers in front of a {@link GQLExecutor}, DataLoader style. A query identical
+     * to one in flight, with the same document and variables, shares its response instead of making another call.
+     * Queries passed to {@code load} are also collected during a short window and sent together as one {@link GQLBatch}.
+     * Mutations are never coalesced. The coalescer is lock-free; configure it before sharing it between threads.
+     */
+    public static final class GQLCoalescer {
+        private final GQLExecutor executor;
+        private long windowNanos = java.util.concurrent.TimeUnit.MILLISECONDS.toNanos(2);
+        private int maxBatchSize = 50;
+        private final java.util.concurrent.ConcurrentHashMap<String, java.util.concurrent.CompletableFuture<? extends GQLResponse<?>>> inFlight =
+                new java.util.concurrent.ConcurrentHashMap<>();
+        private final java.util.concurrent.ConcurrentHashMap<String, OperationStats> stats = new java.util.concurrent.ConcurrentHashMap<>();
+        private final java.util.concurrent.atomic.AtomicReference<Window> window = new java.util.concurrent.atomic.AtomicReference<>();
+
+        /**
+         * @param executor sends the requests
+         */
+        public GQLCoalescer(GQLExecutor executor) {
+            this.executor = executor;
+        }
+
+        /**
+         * @param window how long {@code load} collects queries before sending them, 2 ms by default; zero sends them at once
+         * @return this coalescer
+         */
+        public GQLCoalescer window(java.time.Duration window) {
+            if (window.isNegative()) {
+                throw new IllegalArgumentException("The window cannot be negative: " + window);
+            }
+            this.windowNanos = window.toNanos();
+            return this;
+        }
+
+        /**
+         * @param maxBatchSize the number of queries that sends a window before it ends, 50 by default
+         * @return this coalescer
+         */
+        public GQLCoalescer maxBatchSize(int maxBatchSize) {
+            if (maxBatchSize < 1) {
+                throw new IllegalArgumentException("The batch size must be at least 1: " + maxBatchSize);
+            }
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+
+        /**
+         * Executes a query at once, or shares the response of the identical query in flight.
+         *
+         * @param query the query
+         * @return the response, with the result decoded into the query's return type
+         */
+        public <T> java.util.concurrent.CompletableFuture<GQLResponse<T>> executeAsync(GQLQuery query) {
+            return coalesce(query, false);
+        }
+
+        /**
+         * Executes a query at once, or waits for the response of the identical query in flight, blocking the calling thread.
+         *
+         * @param query the query
+         * @return the response, with the result decoded into the query's return type
+         * @throws GQLException if the server answers with an HTTP error and no GraphQL response
+         */
+        public <T> GQLResponse<T> execute(GQLQuery query) throws IOException {
+            return join(this.<T>executeAsync(query), query.getName());
+        }
+
+        /**
+         * Adds a query to the current window, to be sent in one batch with the other queries of the window, or shares
+         * the response of the identical query in flight.
+         *
+         * @param query the query, e.g. a lookup by id
+         * @return the response, with the result decoded into the query's return type
+         */
+        public <T> java.util.concurrent.CompletableFuture<GQLResponse<T>> load(GQLQuery query) {
+            return coalesce(query, windowNanos > 0);
+        }
+
+        /**
+         * @param prepared the prepared query
+         * @param input sets the arguments of this execution, e.g. the id to look up
+         * @return the response, with the result decoded into the query's return type
+         */
+        public <A, T> java.util.concurrent.CompletableFuture<GQLResponse<T>> load(PreparedQuery<A, T> prepared, Consumer<A> input) {
+            return load(prepared.bind(input));
+        }
+
+        /**
+         * @return the counters of each operation, by operation name; the counters are live
+         */
+        public Map<String, OperationStats> getStats() {
+            return Collections.unmodifiableMap(stats);
+        }
+
+        @SuppressWarnings("unchecked")
+        private <T> java.util.concurrent.CompletableFuture<GQLResponse<T>> coalesce(GQLQuery query, boolean batched) {
+            OperationStats operation = stats.computeIfAbsent(query.getName(), OperationStats::new);
+            operation.requests.increment();
+            if (query.function.getType() != GQLFunctionType.Query) {
+                return executor.executeAsync(query);
+            }
+            // The request body holds the document and the variables
+            String key = new String(query.toBytes(), java.nio.charset.StandardCharsets.UTF_8);
+            java.util.concurrent.CompletableFuture<GQLResponse<T>> future = new java.util.concurrent.CompletableFuture<>();
+            java.util.concurrent.CompletableFuture<? extends GQLResponse<?>> existing = inFlight.putIfAbsent(key, future);
+            if (existing != null) {
+                operation.hits.increment();
+                return ((java.util.concurrent.CompletableFuture<GQLResponse<T>>) existing).copy();
+            }
+            if (batched) {
+                enqueue(new Entry(key, query, (java.util.concurrent.CompletableFuture<GQLResponse<Object>>) (Object) future, operation));
+            } else {
+                send(key, query, future);
+            }
+            return future.copy();
+        }
+
+        private <T> void send(String key, GQLQuery query, java.util.concurrent.CompletableFuture<GQLResponse<T>> future) {
+            try {
+                executor.<T>executeAsync(query).whenComplete((response, error) -> complete(key, future, response, error));
+            } catch (RuntimeException e) {
+                complete(key, future, null, e);
+            }
+        }
+
+        /**
+         * Completes a call once it is no longer in flight, so that the callers it completes start new calls.
+         */
+        private <T> void complete(String key, java.util.concurrent.CompletableFuture<GQLResponse<T>> future, GQLResponse<T> response, Throwable error) {
+            inFlight.remove(key, future);
+            if (error != null) {
+                future.completeExceptionally(error);
+            } else {
+                future.complete(response);
+            }
+        }
+
+        private void enqueue(Entry entry) {
+            while (true) {
+                Window current = window.get();
+                if (current != null && current.add(entry)) {
+                    if (entry.size >= maxBatchSize && window.compareAndSet(current, null)) {
+                        flush(current);
+                    }
+                    return;
+                }
+                Window fresh = new Window();
+                if (window.compareAndSet(current, fresh)) {
+                    java.util.concurrent.CompletableFuture.delayedExecutor(windowNanos, java.util.concurrent.TimeUnit.NANOSECONDS).execute(() -> {
+                        if (window.compareAndSet(fresh, null)) {
+                            flush(fresh);
+                        }
+                    });
+                }
+            }
+        }
+
+        private void flush(Window closing) {
+            List<Entry> entries = closing.close();
+            if (entries.size() == 1) {
+                send(entries.get(0).key, entries.get(0).query, entries.get(0).future);
+                return;
+            }
+            GQLBatch batch = new GQLBatch(GQLFunctionType.Query);
+            List<GQLBatch.Part<Object>> parts = new ArrayList<>(entries.size());
+            for (Entry entry : entries) {
+                entry.stats.coalesced.increment();
+                parts.add(batch.add(entry.query));
+            }
+            java.util.concurrent.CompletableFuture<GQLBatch.Result> sent;
+            try {
+                sent = executor.executeAsync(batch);
+            } catch (RuntimeException e) {
+                sent = java.util.concurrent.CompletableFuture.failedFuture(e);
+            }
+            sent.whenComplete((result, error) -> {
+                for (int i = 0; i < entries.size(); i++) {
+                    complete(entries.get(i).key, entries.get(i).future, error != null ? null : result.get(parts.get(i)), error);
+                }
+            });
+        }
+
+        static <T> T join(java.util.concurrent.CompletableFuture<T> future, String operation) throws IOException {
+            try {
+                return future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new java.io.InterruptedIOException("Interrupted while waiting for '" + operation + "'");
+            } catch (java.util.concurrent.ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof UncheckedIOException) {
+                    throw ((UncheckedIOException) cause).getCause();
+                } else if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                } else if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw new IOException("'" + operation + "' failed", cause);
+            }
+        }
+
+        /**
+         * A query waiting in a window, linked to the query added before it.
+         */
+        private static final class Entry {
+            private final String key;
+            private final GQLQuery query;
+            private final java.util.concurrent.CompletableFuture<GQLResponse<Object>> future;
+            private final OperationStats stats;
+            private Entry previous;
+            private int size;
+
+            private Entry(String key, GQLQuery query, java.util.concurrent.CompletableFuture<GQLResponse<Object>> future, OperationStats stats) {
+                this.key = key;
+                this.query = query;
+                this.future = future;
+                this.stats = stats;
+            }
+        }
+
+        /**
+         * The queries collected during a window: a stack of entries, closed when the window is sent.
+         */
+        private static final class Window {
+            private static final Entry CLOSED = new Entry(null, null, null, null);
+            private final java.util.concurrent.atomic.AtomicReference<Entry> last = new java.util.concurrent.atomic.AtomicReference<>();
+
+            /**
+             * @return false if the window was closed
+             */
+            boolean add(Entry entry) {
+                while (true) {
+                    Entry previous = last.get();
+                    if (previous == CLOSED) {
+                        return false;
+                    }
+                    entry.previous = previous;
+                    entry.size = previous == null ? 1 : previous.size + 1;
+                    if (last.compareAndSet(previous, entry)) {
+                        return true;
+                    }
+                }
+            }
+
+            /**
+             * @return the entries, in the order they were added
+             */
+            List<Entry> close() {
+                LinkedList<Entry> entries = new LinkedList<>();
+                for (Entry entry = last.getAndSet(CLOSED); entry != null; entry = entry.previous) {
+                    entries.addFirst(entry);
+                }
+                return entries;
+            }
+        }
+
+        /**
+         * Counters of an operation.
+         */
+        public static final class OperationStats {
+            private final String operation;
+            private final java.util.concurrent.atomic.LongAdder requests = new java.util.concurrent.atomic.LongAdder();
+            private final java.util.concurrent.atomic.LongAdder hits = new java.util.concurrent.atomic.LongAdder();
+            private final java.util.concurrent.atomic.LongAdder coalesced = new java.util.concurrent.atomic.LongAdder();
+
+            private OperationStats(String operation) {
+                this.operation = operation;
+            }
+
+            public String getOperation() {
+                return operation;
+            }
+
+            /**
+             * @return the number of times the operation was executed or loaded
+             */
+            public long getRequests() {
+                return requests.sum();
+            }
+
+            /**
+             * @return the number of executions that shared the response of an identical query in flight
+             */
+            public long getHits() {
+                return hits.sum();
+            }
+
+            /**
+             * @return the number of executions sent in a batch with other queries
+             */
+            public long getCoalesced() {
+                return coalesced.sum();
+            }
+
+            public String toString() {
+                return operation + ": " + getRequests() + " requests, " + getHits() + " hits, " + getCoalesced() + " coalesced";
+            }
+        }
+    }
+
+
+    /**
+     * A normalized cache of query and mutation results for a {@link GQLExecutor}. Each object of a type with an ID field
+     * is stored once, under its type name and id, and the results refer to it; an object written by a later query or
+     * mutation updates every result that refers to it. A query whose selection can be read entirely from the cache is
+     * answered without a call. The cache is bounded: the least recently used entries are evicted first.
+     * Safe to share between threads.
+     */
+    public static final class NormalizedCache {
+        private static final String REF = "__ref";
+        private final EntityTypes types;
+        private final int maxEntries;
+        private final LinkedHashMap<String, com.fasterxml.jackson.databind.JsonNode> entries;
+        private final java.util.concurrent.atomic.LongAdder hits = new java.util.concurrent.atomic.LongAdder();
+        private final java.util.concurrent.atomic.LongAdder misses = new java.util.concurrent.atomic.LongAdder();
+        private final java.util.concurrent.atomic.LongAdder evictions = new java.util.concurrent.atomic.LongAdder();
+
+        /**
+         * @param types the entity types, e.g. {@code Schema.ENTITIES}
+         * @param maxEntries the number of entities and query results kept
+         */
+        public NormalizedCache(EntityTypes types, int maxEntries) {
+            if (maxEntries < 1) {
+                throw new IllegalArgumentException("The cache must hold at least 1 entry: " + maxEntries);
+            }
+            this.types = types;
+            this.maxEntries = maxEntries;
+            this.entries = new LinkedHashMap<String, com.fasterxml.jackson.databind.JsonNode>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, com.fasterxml.jackson.databind.JsonNode> eldest) {
+                    if (size() > NormalizedCache.this.maxEntries) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        /**
+         * Reads the result of a query from the cache.
+         *
+         * @param query the query
+         * @param codecs the codecs that decode the result; null to use data binding
+         * @return the response, or null when a selected field is not cached; always null for mutations
+         */
+        public <T> GQLResponse<T> read(GQLQuery query, CodecRegistry codecs) throws IOException {
+            if (query.function.getType() != GQLFunctionType.Query) {
+                return null;
+            }
+            com.fasterxml.jackson.databind.JsonNode stored = get(rootKey(query));
+            com.fasterxml.jackson.databind.JsonNode result = stored == null ? null : read(stored, Field.parse(query.selection()));
+            if (result == null) {
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return new GQLResponse<>(200, this.<T>decode(query, result, codecs), null);
+        }
+
+        /**
+         * Stores the result of an operation: its entities, and for queries the result itself. Responses with errors
+         * are not stored.
+         *
+         * @param query the operation
+         * @param response the response, with the operation's field of {@code data}
+         * @param codecs the codecs that decode the result; null to use data binding
+         * @return the response, with the result decoded into the operation's return type
+         */
+        <T> GQLResponse<T> write(GQLQuery query, GQLResponse<com.fasterxml.jackson.databind.JsonNode> response, CodecRegistry codecs) throws IOException {
+            com.fasterxml.jackson.databind.JsonNode result = response.getData();
+            if (result != null && !response.hasErrors()) {
+                Map<String, com.fasterxml.jackson.databind.node.ObjectNode> records = new LinkedHashMap<>();
+                com.fasterxml.jackson.databind.JsonNode normalized = normalize(result,
+                        types.rootFieldType(query.function.getType(), query.getName()), records);
+                synchronized (entries) {
+                    records.forEach((key, fields) -> {
+                        com.fasterxml.jackson.databind.JsonNode cached = entries.get(key);
+                        if (cached != null) {
+                            // Stored nodes are never modified, readers may hold them
+                            com.fasterxml.jackson.databind.node.ObjectNode merged = ((com.fasterxml.jackson.databind.node.ObjectNode) cached).deepCopy();
+                            merged.setAll(fields);
+                            fields = merged;
+                        }
+                        entries.put(key, fields);
+                    });
+                    if (query.function.getType() == GQLFunctionType.Query) {
+                        entries.put(rootKey(query), normalized);
+                    }
+                }
+            }
+            return new GQLResponse<>(response.getStatus(), result == null ? null : this.<T>decode(query, result, codecs), response.getErrors());
+        }
+
+        /**
+         * Removes an entity, the results that refer to it are read from the server again.
+         *
+         * @param typeName the entity's type, e.g. {@code User}
+         * @param id the entity's id
+         */
+        public void evict(String typeName, String id) {
+            synchronized (entries) {
+                entries.remove(typeName + ":" + id);
+            }
+        }
+
+        public void clear() {
+            synchronized (entries) {
+                entries.clear();
+            }
+        }
+
+        /**
+         * @return the number of entities and query results in the cache
+         */
+        public int size() {
+            synchronized (entries) {
+                return entries.size();
+            }
+        }
+
+        /**
+         * @return the number of queries answered from the cache
+         */
+        public long getHits() {
+            return hits.sum();
+        }
+
+        /**
+         * @return the number of queries the cache could not answer
+         */
+        public long getMisses() {
+            return misses.sum();
+        }
+
+        /**
+         * @return the number of entries evicted to keep the cache within its bound
+         */
+        public long getEvictions() {
+            return evictions.sum();
+        }
+
+        private com.fasterxml.jackson.databind.JsonNode get(String key) {
+            synchronized (entries) {
+                return entries.get(key);
+            }
+        }
+
+        /**
+         * @return the key of a query result: the operation name with its variables, e.g. {@code findById{"id":"42"}}
+         */
+        private static String rootKey(GQLQuery query) {
+            StringWriter key = new StringWriter().append(query.getName());
+            try (JsonGenerator generator = GQLQuery.MAPPER.getFactory().createGenerator(key)) {
+                generator.writeStartObject();
+                query.function.getArguments().writeVariables(generator);
+                generator.writeEndObject();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return key.toString();
+        }
+
+        private static <T> T decode(GQLQuery query, com.fasterxml.jackson.databind.JsonNode result, CodecRegistry codecs) throws IOException {
+            @SuppressWarnings("unchecked")
+            TypeReference<T> type = (TypeReference<T>) query.getReturnType();
+            try (JsonParser parser = GQLQuery.MAPPER.treeAsTokens(result)) {
+                parser.nextToken();
+                return GQLExecutor.valueReader(type, codecs).read(parser);
+            }
+        }
+
+        /**
+         * Replaces the objects of entity types that have an id with references, collecting their fields in records.
+         */
+        private com.fasterxml.jackson.databind.JsonNode normalize(com.fasterxml.jackson.databind.JsonNode value, String typeName,
+                                                                  Map<String, com.fasterxml.jackson.databind.node.ObjectNode> records) {
+            if (value.isArray()) {
+                com.fasterxml.jackson.databind.node.ArrayNode elements = GQLQuery.MAPPER.createArrayNode();
+                for (com.fasterxml.jackson.databind.JsonNode element : value) {
+                    elements.add(normalize(element, typeName, records));
+                }
+                return elements;
+            }
+            if (!value.isObject() || typeName == null) {
+                return value;
+            }
+            // Objects of interface and union types are only known by their __typename
+            String concreteType = value.path("__typename").asText(typeName);
+            EntityTypes.EntityType type = types.get(concreteType);
+            if (type == null) {
+                return value;
+            }
+            com.fasterxml.jackson.databind.node.ObjectNode fields = GQLQuery.MAPPER.createObjectNode();
+            Iterator<Map.Entry<String, com.fasterxml.jackson.databind.JsonNode>> iterator = value.fields();
+            while (iterator.hasNext()) {
+                Map.Entry<String, com.fasterxml.jackson.databind.JsonNode> field = iterator.next();
+                fields.set(field.getKey(), normalize(field.getValue(), type.fieldTypes.get(field.getKey()), records));
+            }
+            com.fasterxml.jackson.databind.JsonNode id = type.idField != null ? value.get(type.idField) : null;
+            if (id == null || id.isNull()) {
+                return fields;
+            }
+            String key = concreteType + ":" + id.asText();
+            records.merge(key, fields, (first, second) -> (com.fasterxml.jackson.databind.node.ObjectNode) first.setAll(second));
+            return GQLQuery.MAPPER.createObjectNode().put(REF, key);
+        }
+
+        /**
+         * @return the selected fields of a stored value, following the references; null when a field is not cached
+         */
+        private com.fasterxml.jackson.databind.JsonNode read(com.fasterxml.jackson.databind.JsonNode stored, List<Field> selection) {
+            if (stored.isArray()) {
+                com.fasterxml.jackson.databind.node.ArrayNode elements = GQLQuery.MAPPER.createArrayNode();
+                for (com.fasterxml.jackson.databind.JsonNode element : stored) {
+                    com.fasterxml.jackson.databind.JsonNode value = read(element, selection);
+                    if (value == null) {
+                        return null;
+                    }
+                    elements.add(value);
+                }
+                return elements;
+            }
+            if (!stored.isObject() || selection.isEmpty()) {
+                return stored;
+            }
+            com.fasterxml.jackson.databind.JsonNode record = stored.has(REF) ? get(stored.get(REF).asText()) : stored;
+            if (record == null) {
+                return null;
+            }
+            com.fasterxml.jackson.databind.node.ObjectNode result = GQLQuery.MAPPER.createObjectNode();
+            for (Field field : selection) {
+                com.fasterxml.jackson.databind.JsonNode value = record.get(field.name);
+                com.fasterxml.jackson.databind.JsonNode selected = value == null ? null : read(value, field.children);
+                if (selected == null) {
+                    return null;
+                }
+                result.set(field.name, selected);
+            }
+            return result;
+        }
+
+        /**
+         * A selected field and its sub-selection.
+         */
+        private static final class Field {
+            private final String name;
+            private final List<Field> children = new ArrayList<>();
+
+            private Field(String name) {
+                this.name = name;
+            }
+
+            /**
+             * @param selection the fields of a selection set, e.g. {@code id friends { id email } }
+             */
+            static List<Field> parse(String selection) {
+                List<Field> fields = new ArrayList<>();
+                Deque<List<Field>> parents = new ArrayDeque<>();
+                List<Field> current = fields;
+                Field last = null;
+                for (String token : selection.trim().split("\\s+")) {
+                    if (token.equals("{")) {
+                        parents.push(current);
+                        current = last.children;
+                    } else if (token.equals("}")) {
+                        current = parents.pop();
+                    } else if (!token.isEmpty()) {
+                        last = new Field(token);
+                        current.add(last);
+                    }
+                }
+                return fields;
+            }
+        }
+
+        /**
+         * The entity types of a schema: the field that identifies the objects of each type, and the types of the
+         * fields holding objects, which the cache follows to find nested entities. Generated as {@code Schema.ENTITIES}
+         * from the fields of type {@code ID}; configure it before the cache is used.
+         */
+        public static final class EntityTypes {
+            private final Map<String, EntityType> types = new HashMap<>();
+            private final Map<GQLFunctionType, Map<String, String>> roots = new EnumMap<>(GQLFunctionType.class);
+
+            /**
+             * @param type the operation type
+             * @param objectFields the root fields returning objects, with their types, e.g. {@code "user:User search:SearchResult"}
+             * @return these entity types
+             */
+            public EntityTypes root(GQLFunctionType type, String objectFields) {
+                roots.put(type, parseFields(objectFields));
+                return this;
+            }
+
+            /**
+             * @param name the object type
+             * @param idField the field that identifies its objects, null when they cannot be stored apart
+             * @param objectFields the fields holding objects, with their types, e.g. {@code "friends:User address:Address"}
+             * @return these entity types
+             */
+            public EntityTypes type(String name, String idField, String objectFields) {
+                types.put(name, new EntityType(idField, parseFields(objectFields)));
+                return this;
+            }
+
+            /**
+             * Identifies the objects of a type by another field, e.g. an id of type {@code String}.
+             *
+             * @param name the object type
+             * @param idField the field that identifies its objects
+             * @return these entity types
+             */
+            public EntityTypes key(String name, String idField) {
+                EntityType type = types.get(name);
+                types.put(name, new EntityType(idField, type != null ? type.fieldTypes : Collections.emptyMap()));
+                return this;
+            }
+
+            /**
+             * @return the field that identifies the objects of the type, null when there is none
+             */
+            public String getIdField(String name) {
+                EntityType type = types.get(name);
+                return type != null ? type.idField : null;
+            }
+
+            EntityType get(String name) {
+                return types.get(name);
+            }
+
+            String rootFieldType(GQLFunctionType type, String field) {
+                return roots.getOrDefault(type, Collections.emptyMap()).get(field);
+            }
+
+            private static Map<String, String> parseFields(String objectFields) {
+                Map<String, String> fields = new HashMap<>();
+                for (String field : objectFields.trim().split("\\s+")) {
+                    int colon = field.indexOf(':');
+                    if (colon > 0) {
+                        fields.put(field.substring(0, colon), field.substring(colon + 1));
+                    }
+                }
+                return fields;
+            }
+
+            static final class EntityType {
+                private final String idField;
+                private final Map<String, String> fieldTypes;
+
+                private EntityType(String idField, Map<String, String> fieldTypes) {
+                    this.idField = idField;
+                    this.fieldTypes = fieldTypes;
+                }
+            }
+        }
+    }
+
+
+    /**
+     * The elements of a list result, read one at a time as the response arrives, for results too large to be
+     * decoded at once, e.g. exports. Only the current element is held in memory. The GraphQL errors sent before the
+     * list are read when the stream is opened, the ones sent after it when the iteration reaches its end.
+     * Closing the stream before its end aborts the response, e.g. after {@code stream().limit(10)}.
+     * Not thread-safe.
+     *
+     * @param <T> the element type
+     */
+    public static final class GQLStream<T> implements Iterator<T>, AutoCloseable {
+        private final int status;
+        private final String name;
+        private final java.io.InputStream body;
+        private final JsonCodec.ValueReader<T> reader;
+        private JsonParser parser;
+        private com.fasterxml.jackson.databind.JsonNode errors;
+        private T next;
+        private boolean hasNext;
+        private boolean done;
+
+        /**
+         * Reads the response up to the first element of the list.
+         *
+         * @param name the response field of the list, e.g. {@code findAll}
+         * @param host the server, for the error messages
+         * @throws GQLException if the response is an HTTP error and no GraphQL response
+         */
+        GQLStream(int status, java.io.InputStream body, String name, JsonCodec.ValueReader<T> reader, String host) throws IOException {
+            this.status = status;
+            this.name = name;
+            this.body = body;
+            this.reader = reader;
+            boolean success = status >= 200 && status < 300;
+            try {
+                parser = GQLQuery.MAPPER.getFactory().createParser(body);
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    throw new com.fasterxml.jackson.core.JsonParseException(parser, "Expected a JSON object");
+                }
+                done = !seekResponse();
+            } catch (com.fasterxml.jackson.core.JsonProcessingException e) {
+                if (success) {
+                    close();
+                    throw e;
+                }
+                // Not a GraphQL response, e.g. the error page of a proxy
+                done = true;
+            } catch (IOException | RuntimeException e) {
+                close();
+                throw e;
+            }
+            if (done) {
+                close();
+                if (!success && errors == null) {
+                    throw new GQLException("HTTP status " + status + " from " + host + " for '" + name + "'", status, null);
+                }
+            }
+        }
+
+        /**
+         * Reads the response up to the list, or to its end when it has none; the errors on the way are kept.
+         */
+        private boolean seekResponse() throws IOException {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("data".equals(field) && value == JsonToken.START_OBJECT) {
+                    if (seekData()) {
+                        return true;
+                    }
+                } else if ("errors".equals(field) && value == JsonToken.START_ARRAY) {
+                    errors = GQLQuery.MAPPER.readTree(parser);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Reads the {@code data} member up to the list, or to its end; the other results are skipped.
+         */
+        private boolean seekData() throws IOException {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                if (parser.nextToken() == JsonToken.START_ARRAY && name.equals(field)) {
+                    return true;
+                }
+                parser.skipChildren();
+            }
+            return false;
+        }
+
+        /**
+         * Reads the next element from the response, blocking until it arrives.
+         *
+         * @throws UncheckedIOException if the response cannot be read; the stream is closed
+         */
+        @Override
+        public boolean hasNext() {
+            if (hasNext) {
+                return true;
+            }
+            if (done) {
+                return false;
+            }
+            try {
+                if (parser.nextToken() == JsonToken.END_ARRAY) {
+                    // The rest of the response, for the errors that follow the list
+                    seekData();
+                    seekResponse();
+                    close();
+                    return false;
+                }
+                next = reader.read(parser);
+                hasNext = true;
+                return true;
+            } catch (IOException e) {
+                close();
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            T element = next;
+            next = null;
+            hasNext = false;
+            return element;
+        }
+
+        /**
+         * @return the remaining elements, closing this stream when closed
+         */
+        public java.util.stream.Stream<T> stream() {
+            return java.util.stream.StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED), false)
+                    .onClose(this::close);
+        }
+
+        /**
+         * Stops reading the response; when it has not been read to its end, the connection is aborted.
+         *
+         * @throws UncheckedIOException if the response cannot be closed
+         */
+        @Override
+        public void close() {
+            done = true;
+            hasNext = false;
+            next = null;
+            try {
+                if (parser != null) {
+                    parser.close();
+                }
+                body.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * @return the HTTP status of the response
+         */
+        public int getStatus() {
+            return status;
+        }
+
+        public boolean hasErrors() {
+            return errors != null && errors.size() > 0;
+        }
+
+        /**
+         * @return the {@code errors} member of the response read so far, null when there is none
+         */
+        public com.fasterxml.jackson.databind.JsonNode getErrors() {
+            return errors;
+        }
+
+        /**
+         * @return the messages of the errors read so far, empty when there are none
+         */
+        public List<String> getErrorMessages() {
+            List<String> messages = new ArrayList<>();
+            if (errors != null) {
+                for (com.fasterxml.jackson.databind.JsonNode error : errors) {
+                    messages.add(error.path("message").asText());
+                }
+            }
+            return messages;
+        }
+
+        boolean isPersistedQueryNotFound() {
+            return errors != null && GQLQuery.isPersistedQueryNotFound(errors);
+        }
+    }
+
+
+    /**
+     * Represents a function argument, and it's details.
+     */
+    public static class Argument {
+        private String name;
+        private String type;
+        private Object value;
+        private boolean optional;
+        private boolean ignore;
+
+        private Argument() {
+        }
+
+        private Argument(String name, Object value) {
+            if (value == null) {//mark argument as ignorable
+                ignore = true;
+                return;
+
+            } else if ((value instanceof Optional)) {
+                if (!((Optional<?>) value).isPresent()) {
+                    ignore = true;
+                    return;
+                }
+                this.optional = true;
+                value = ((Optional<?>) value).get();
+            }
+
+            this.name = name;
+            this.value = value;
+            this.type = this.value.getClass().getSimpleName();
+        }
+
+        public static Argument of(String name, Object value) {
+            return new Argument(name, value);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Object getValue() {
+            return value;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public boolean isOptional() {
+            return optional;
+        }
+
+        public boolean isIgnore() {
+            return ignore;
+        }
+    }
+
+
+    /**
+     * A wrapper for the function arguments.
+     */
+    public static class Arguments {
+        private LinkedHashSet<Argument> arguments = new LinkedHashSet<>();
+
+        Arguments() {
+        }
+
+        void add(Argument argument) {
+            this.arguments.add(argument);
+        }
+
+        /**
+         * Builds the arguments for graphql FUNCTION.
+         * Ex: getUser(firstName: $firstName, lastName: $lastName)...
+         *
+         * @return graphql function arguments with parameters as variables.
+         */
+        public String toMethodArgumentsString() {
+            return appendMethodArguments(new StringBuilder()).toString();
+        }
+
+        /**
+         * Builds the arguments for graphql QUERY type.
+         * Ex: mutation($firstName: String, $lastName: String)...
+         *
+         * @return graphql query arguments with type.
+         */
+        public String toQueryArgumentsString() {
+            return appendQueryArguments(new StringBuilder()).toString();
+        }
+
+        StringBuilder appendMethodArguments(StringBuilder sb) {
+            return appendMethodArguments(sb, Collections.emptyMap());
+        }
+
+        /**
+         * @param variables the new names of the renamed variables, e.g. when the function is part of a {@link GQLBatch}
+         */
+        StringBuilder appendMethodArguments(StringBuilder sb, Map<String, String> variables) {
+            String separator = "";
+            for (Argument arg : arguments) {
+                if (!arg.isIgnore()) { //do not build arg if marked as ignorable
+                    sb.append(separator).append(arg.getName()).append(": $").append(variables.getOrDefault(arg.getName(), arg.getName()));
+                    separator = ", ";
+                }
+            }
+            return sb.append(' ');
+        }
+
+        StringBuilder appendQueryArguments(StringBuilder sb) {
+            String separator = "";
+            for (Argument arg : arguments) {
+                if (!arg.isIgnore()) {
+                    sb.append(separator)
+                            .append("$")
+                            .append(arg.getName())
+                            .append(": ")
+                            .append(arg.getType())
+                            .append(arg.isOptional() ? "" : "!");
+                    separator = ", ";
+                }
+            }
+            return sb.append(' ');
+        }
+
+        /**
+         * Builds a map of variables that can be passed to GQL query in the variables JSON element.
+         *
+         * @return a map of variables.
+         */
+        public HashMap<String, Object> toVariables() {
+            HashMap<String, Object> variables = new HashMap<>();
             arguments.forEach(arg -> {
                 if (!arg.isIgnore()) {
                     variables.put(arg.getName(), arg.getValue());
@@ -575,6 +3929,61 @@ public static class Types {
 
             return variables;
         }
+
+        /**
+         * @return the set arguments by name, with their GraphQL variable types, e.g. {@code id -> String!}
+         */
+        LinkedHashMap<String, String> toSignature() {
+            LinkedHashMap<String, String> signature = new LinkedHashMap<>();
+            for (Argument arg : arguments) {
+                if (!arg.isIgnore()) {
+                    signature.put(arg.getName(), variableType(arg));
+                }
+            }
+            return signature;
+        }
+
+        /**
+         * @return true if exactly the arguments of the signature are set, with the same types, in any order
+         */
+        boolean matches(Map<String, String> signature) {
+            int count = 0;
+            for (Argument arg : arguments) {
+                if (!arg.isIgnore()) {
+                    // Compares with variableType(arg) without building the string
+                    String type = signature.get(arg.getName());
+                    if (type == null || !type.startsWith(arg.getType())
+                            || type.length() != arg.getType().length() + (arg.isOptional() ? 0 : 1)) {
+                        return false;
+                    }
+                    count++;
+                }
+            }
+            return count == signature.size();
+        }
+
+        private static String variableType(Argument arg) {
+            return arg.isOptional() ? arg.getType() : arg.getType() + "!";
+        }
+
+        /**
+         * Writes the variables as the fields of the current JSON object, without building a map.
+         */
+        void writeVariables(JsonGenerator generator) throws IOException {
+            writeVariables(generator, Collections.emptyMap());
+        }
+
+        /**
+         * @param variables the new names of the renamed variables
+         */
+        void writeVariables(JsonGenerator generator, Map<String, String> variables) throws IOException {
+            for (Argument arg : arguments) {
+                if (!arg.isIgnore()) {
+                    generator.writeFieldName(variables.getOrDefault(arg.getName(), arg.getName()));
+                    generator.writeObject(arg.getValue());
+                }
+            }
+        }
     }
 
 
@@ -695,27 +4104,32 @@ public static class Types {
     public static class ResultFragment {
         private LinkedHashSet<FragmentField> fields = new LinkedHashSet<>();
 
-        private ResultFragment() {
+        ResultFragment() {
         }
 
-        private ResultFragment add(FragmentField field) {
+        ResultFragment add(FragmentField field) {
             this.fields.add(field);
             return this;
         }
 
         public String toString() {
-            return getFieldString(fields);
+            return appendFields(new StringBuilder()).toString();
+        }
+
+        StringBuilder appendFields(StringBuilder sb) {
+            appendFields(sb, fields);
+            return sb;
         }
 
-        private String getFieldString(LinkedHashSet<FragmentField> fields) {
-            StringBuilder sb = new StringBuilder();
-            fields.forEach(field -> {
+        private static void appendFields(StringBuilder sb, LinkedHashSet<FragmentField> fields) {
+            for (FragmentField field : fields) {
                 sb.append(field.getName()).append(" ");
                 if (field.getFieldList() != null && !field.getFieldList().isEmpty()) {
-                    sb.append("{ ").append(getFieldString(field.getFieldList())).append(" } ");
+                    sb.append("{ ");
+                    appendFields(sb, field.getFieldList());
+                    sb.append(" } ");
                 }
-            });
-            return sb.toString();
+            }
         }
     }
 
@@ -0,0 +1,230 @@
+package com.maimas.graphql.generator;
+
+import com.sun.net.httpserver.HttpServer;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class GQLCodeGeneratorMojoTest {
+
+    private static final Path OUT_DIR = Path.of("target", "test-generated", "mojo");
+
+    private HttpServer server;
+    private int port;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(0), 0);
+        port = server.getAddress().getPort();
+        server.createContext("/graphql", exchange -> {
+            byte[] content;
+            try (InputStream is = GQLCodeGeneratorMojoTest.class.getResourceAsStream("/RemoteServiceGraphlqSchema.json")) {
+                content = is.readAllBytes();
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, content.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(content);
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        if (server != null) server.stop(0);
+    }
+
+    @Test
+    void parallel_generation_writes_every_server() throws Exception {
+        GQLCodeGeneratorMojo mojo = new GQLCodeGeneratorMojo();
+        mojo.parallelism = 3;
+        for (int i = 0; i < 3; i++) {
+            mojo.servers.add(server("ParallelApi" + i));
+        }
+
+        mojo.execute();
+
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertTrue(Files.exists(OUT_DIR.resolve("ParallelApi" + i + ".java")));
+        }
+        // One report per server plus the aggregate over all of them
+        Path reports = OUT_DIR.resolve("cache").resolve("reports");
+        Assertions.assertTrue(Files.exists(reports.resolve("com.maimas.generated.ParallelApi2.json")));
+        Assertions.assertTrue(Files.readString(reports.resolve("summary.json")).contains("\"name\" : \"3 servers\""));
+    }
+
+    @Test
+    void parallel_generation_keeps_the_processor_logs_of_each_server_together() throws Exception {
+        List<String> lines = Collections.synchronizedList(new ArrayList<>());
+        GQLCodeGeneratorMojo mojo = new GQLCodeGeneratorMojo();
+        mojo.setLog(new SystemStreamLog() {
+            @Override
+            public void info(CharSequence content) {
+                lines.add(content.toString());
+            }
+        });
+        mojo.parallelism = 3;
+        for (int i = 0; i < 3; i++) {
+            mojo.servers.add(server("LoggedApi" + i));
+        }
+
+        mojo.execute();
+
+        for (int i = 0; i < 3; i++) {
+            int start = -1;
+            for (int line = 0; line < lines.size(); line++) {
+                if (lines.get(line).startsWith("Starting code generation for LoggedApi" + i)) {
+                    start = line;
+                }
+            }
+            // The TemplateProcessor line is flushed in the block of its server
+            Assertions.assertTrue(start > 0, "TemplateProcessor lines not routed to the Maven log: " + lines);
+            int header = start;
+            while (!lines.get(header).startsWith("Server[")) {
+                header--;
+            }
+            Assertions.assertTrue(lines.get(header).startsWith("Server[" + i + "]"), lines.toString());
+        }
+    }
+
+    @Test
+    void concurrent_executions_share_the_log_router_and_restore_the_logger() throws Exception {
+        java.util.logging.Logger logger = java.util.logging.Logger.getLogger("com.maimas.graphql");
+        int handlers = logger.getHandlers().length;
+        java.util.concurrent.ExecutorService modules = java.util.concurrent.Executors.newFixedThreadPool(2);
+        try {
+            List<java.util.concurrent.Future<List<String>>> logs = new ArrayList<>();
+            for (String module : List.of("ModuleA", "ModuleB")) {
+                logs.add(modules.submit(() -> {
+                    List<String> lines = Collections.synchronizedList(new ArrayList<>());
+                    GQLCodeGeneratorMojo mojo = new GQLCodeGeneratorMojo();
+                    mojo.setLog(new SystemStreamLog() {
+                        @Override
+                        public void info(CharSequence content) {
+                            lines.add(content.toString());
+                        }
+                    });
+                    mojo.parallelism = 2;
+                    for (int i = 0; i < 2; i++) {
+                        mojo.servers.add(server(module + "Api" + i));
+                    }
+                    mojo.execute();
+                    return lines;
+                }));
+            }
+            for (int m = 0; m < logs.size(); m++) {
+                String own = m == 0 ? "ModuleA" : "ModuleB";
+                for (String line : logs.get(m).get(60, java.util.concurrent.TimeUnit.SECONDS)) {
+                    if (line.startsWith("Starting code generation for")) {
+                        Assertions.assertTrue(line.contains(own), line);
+                    }
+                }
+            }
+        } finally {
+            modules.shutdownNow();
+        }
+
+        Assertions.assertTrue(logger.getUseParentHandlers());
+        Assertions.assertEquals(handlers, logger.getHandlers().length);
+    }
+
+    @Test
+    void servers_without_cache_dir_use_the_build_directory_of_the_module() throws Exception {
+        GQLCodeGeneratorMojo mojo = new GQLCodeGeneratorMojo();
+        Path moduleCache = OUT_DIR.resolve("module").resolve("target").resolve("graphql-codegen");
+        mojo.defaultCacheDir = moduleCache.toFile();
+        UserConfig cfg = server("ModuleCacheApi");
+        cfg.setCacheDir(null);
+        mojo.servers.add(cfg);
+
+        mojo.execute();
+
+        Assertions.assertEquals(moduleCache.toString(), cfg.getCacheDir());
+        Assertions.assertTrue(Files.exists(moduleCache.resolve("reports").resolve("com.maimas.generated.ModuleCacheApi.json")));
+    }
+
+    @Test
+    void parallel_virtual_threads_fall_back_or_run() throws Exception {
+        GQLCodeGeneratorMojo mojo = new GQLCodeGeneratorMojo();
+        mojo.parallelism = 2;
+        mojo.useVirtualThreads = true;
+        mojo.servers.add(server("VirtualApi0"));
+        mojo.servers.add(server("VirtualApi1"));
+
+        Assertions.assertDoesNotThrow(mojo::execute);
+        Assertions.assertTrue(Files.exists(OUT_DIR.resolve("VirtualApi1.java")));
+    }
+
+    @Test
+    void collect_all_reports_every_failure() {
+        GQLCodeGeneratorMojo mojo = new GQLCodeGeneratorMojo();
+        mojo.parallelism = 2;
+        mojo.failFast = false;
+        mojo.servers.add(invalidServer());
+        mojo.servers.add(server("CollectAllOk"));
+        mojo.servers.add(invalidServer());
+
+        MojoFailureException ex = Assertions.assertThrows(MojoFailureException.class, mojo::execute);
+        Assertions.assertTrue(ex.getMessage().contains("failed for 2 of 3 server(s)"), ex.getMessage());
+        Assertions.assertTrue(ex.getMessage().contains("server index 0"));
+        Assertions.assertTrue(ex.getMessage().contains("server index 2"));
+        Assertions.assertEquals(1, ex.getSuppressed().length);
+        Assertions.assertTrue(Files.exists(OUT_DIR.resolve("CollectAllOk.java")));
+    }
+
+    @Test
+    void collect_all_mixed_failures_is_execution_exception() {
+        GQLCodeGeneratorMojo mojo = new GQLCodeGeneratorMojo();
+        mojo.failFast = false;
+        UserConfig unreachable = server("Unreachable");
+        unreachable.setUrl("http://localhost:" + port + "/missing");
+        mojo.servers.add(invalidServer());
+        mojo.servers.add(unreachable);
+
+        Assertions.assertThrows(MojoExecutionException.class, mojo::execute);
+    }
+
+    @Test
+    void fail_fast_stops_at_first_failure() throws IOException {
+        Files.deleteIfExists(OUT_DIR.resolve("NeverGenerated.java"));
+        GQLCodeGeneratorMojo mojo = new GQLCodeGeneratorMojo();
+        mojo.servers.add(invalidServer());
+        mojo.servers.add(server("NeverGenerated"));
+
+        MojoFailureException ex = Assertions.assertThrows(MojoFailureException.class, mojo::execute);
+        Assertions.assertTrue(ex.getMessage().startsWith("Invalid configuration for server index 0"));
+        Assertions.assertFalse(Files.exists(OUT_DIR.resolve("NeverGenerated.java")));
+    }
+
+    private UserConfig server(String className) {
+        UserConfig cfg = new UserConfig();
+        cfg.setUrl("http://localhost:" + port + "/graphql");
+        cfg.setResultClassName(className);
+        cfg.setResultClassPackage("com.maimas.generated");
+        cfg.setDir(OUT_DIR.toString());
+        cfg.setCacheDir(OUT_DIR.resolve("cache").toString());
+        cfg.setMaxRetries(0);
+        return cfg;
+    }
+
+    private static UserConfig invalidServer() {
+        UserConfig cfg = new UserConfig();
+        cfg.setUrl("localhost");
+        return cfg;
+    }
+}
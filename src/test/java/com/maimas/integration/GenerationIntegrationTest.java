@@ -2,6 +2,8 @@ package com.maimas.integration;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.maimas.graphql.generator.UserConfig;
+import com.maimas.graphql.schema.processor.GenerationReport;
+import com.maimas.graphql.schema.processor.SdlSchemaParser;
 import com.maimas.graphql.schema.processor.TemplateProcessor;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
@@ -14,6 +16,7 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.HashMap;
+import java.util.List;
 
 /**
  * End-to-end integration tests that start an embedded HTTP server which serves a GraphQL introspection JSON,
@@ -104,7 +107,348 @@ public class GenerationIntegrationTest {
         Assertions.assertTrue(Files.exists(OUT_DIR.resolve("GenWithIgnore.java")));
     }
 
+    @Test
+    void generate_incremental_skips_unchanged_and_regenerates_on_config_change() throws Exception {
+        server.createContext("/graphql", new ResourceResponder("/RemoteServiceGraphlqSchema.json"));
+
+        UserConfig cfg = new UserConfig();
+        cfg.setUrl("http://localhost:" + port + "/graphql");
+        cfg.setResultClassName("IncrementalApi");
+        cfg.setResultClassPackage("com.maimas.generated");
+        cfg.setDir(OUT_DIR.toString());
+        cfg.setCacheDir(OUT_DIR.resolve("cache").toString());
+        cfg.setIncremental(true);
+
+        Path genFile = OUT_DIR.resolve("IncrementalApi.java");
+        String first = new TemplateProcessor(cfg).generate();
+        java.nio.file.attribute.FileTime stamp = java.nio.file.attribute.FileTime.fromMillis(1_000_000L);
+        Files.setLastModifiedTime(genFile, stamp);
+
+        // Same inputs: file must be left untouched
+        String second = new TemplateProcessor(cfg).generate();
+        Assertions.assertEquals(first, second);
+        Assertions.assertEquals(stamp, Files.getLastModifiedTime(genFile));
+
+        // Operation manifest for persisted queries, hashes match the generated code
+        Path manifest = OUT_DIR.resolve("cache").resolve("operations").resolve("com.maimas.generated.IncrementalApi.json");
+        String operations = Files.readString(manifest);
+        Assertions.assertTrue(operations.contains("apollo-persisted-query-manifest"));
+        Assertions.assertTrue(first.contains("\"face9877a97d558548342b7ab0498bdb0d6e9e01ae96b4f867ccafdf49cb8208\""));
+        Assertions.assertTrue(operations.contains("\"face9877a97d558548342b7ab0498bdb0d6e9e01ae96b4f867ccafdf49cb8208\""));
+
+        // Config change: regenerated
+        cfg.setResultClassPackage("com.maimas.generated.other");
+        String third = new TemplateProcessor(cfg).generate();
+        Assertions.assertTrue(third.contains("package com.maimas.generated.other;"));
+        Assertions.assertNotEquals(stamp, Files.getLastModifiedTime(genFile));
+    }
+
+    @Test
+    void generate_unchanged_output_keeps_file_timestamp() throws Exception {
+        server.createContext("/graphql", new ResourceResponder("/RemoteServiceGraphlqSchema.json"));
+
+        UserConfig cfg = new UserConfig();
+        cfg.setUrl("http://localhost:" + port + "/graphql");
+        cfg.setResultClassName("ContentAwareApi");
+        cfg.setResultClassPackage("com.maimas.generated");
+        cfg.setDir(OUT_DIR.toString());
+
+        Path genFile = new TemplateProcessor(cfg).generateToFile();
+        Assertions.assertEquals(OUT_DIR.resolve("ContentAwareApi.java"), genFile);
+        java.nio.file.attribute.FileTime stamp = java.nio.file.attribute.FileTime.fromMillis(1_000_000L);
+        Files.setLastModifiedTime(genFile, stamp);
+
+        // Rendered again (not incremental), but the bytes are identical: the file is not rewritten
+        new TemplateProcessor(cfg).generateToFile();
+        Assertions.assertEquals(stamp, Files.getLastModifiedTime(genFile));
+
+        // Changed content replaces the file
+        cfg.setResultClassPackage("com.maimas.generated.changed");
+        new TemplateProcessor(cfg).generateToFile();
+        Assertions.assertNotEquals(stamp, Files.getLastModifiedTime(genFile));
+
+        try (var files = Files.list(OUT_DIR)) {
+            Assertions.assertTrue(files.noneMatch(p -> p.getFileName().toString().endsWith(".tmp")), "Temp files left behind");
+        }
+    }
+
+    @Test
+    void generate_offline_from_introspection_json_and_sdl_files() throws Exception {
+        Path json = Path.of("src", "test", "resources", "RemoteServiceGraphlqSchema.json");
+        Path sdl = Path.of("src", "test", "resources", "UserServiceSchema.graphqls");
+
+        for (Path schemaFile : new Path[]{json, sdl}) {
+            String className = schemaFile == json ? "OfflineJsonApi" : "OfflineSdlApi";
+            UserConfig cfg = new UserConfig();
+            cfg.setSchemaFile(schemaFile.toString());
+            cfg.setResultClassName(className);
+            cfg.setResultClassPackage("com.maimas.generated");
+            cfg.setDir(OUT_DIR.toString());
+            Assertions.assertDoesNotThrow(cfg::validate);
+
+            String generated = new TemplateProcessor(cfg).generate();
+            Assertions.assertTrue(generated.contains("public class " + className));
+            Assertions.assertTrue(generated.contains("public static class UserInput"));
+            Assertions.assertTrue(generated.contains("public GQLQuery findByEmail("));
+            Assertions.assertTrue(Files.exists(OUT_DIR.resolve(className + ".java")));
+        }
+    }
+
+    @Test
+    void generate_multi_file_writes_one_compilable_file_per_class() throws Exception {
+        Path dir = OUT_DIR.resolve("multi");
+        UserConfig cfg = new UserConfig();
+        cfg.setSchemaFile(Path.of("src", "test", "resources", "RemoteServiceGraphlqSchema.json").toString());
+        cfg.setResultClassName("MultiApi");
+        cfg.setResultClassPackage("com.maimas.generated.multi");
+        cfg.setDir(dir.toString());
+        cfg.setOutputMode(UserConfig.OutputMode.MULTI_FILE);
+
+        List<Path> files = new TemplateProcessor(cfg).generateFiles();
+        Assertions.assertEquals(dir.resolve("MultiApi.java"), files.get(0));
+        for (String name : new String[]{"User", "UserFragment", "ListUserFragment", "UserInput", "EnGender", "EnGenderFragment",
+                "BooleanFragment", "Query", "Mutation"}) {
+            Assertions.assertTrue(files.contains(dir.resolve(name + ".java")), "Missing " + name);
+        }
+        Assertions.assertTrue(Files.readString(dir.resolve("User.java")).contains("public class User {"));
+        assertCompiles(files);
+
+        // Second run: nothing rewritten; a file from an earlier run that is not generated anymore is removed
+        java.nio.file.attribute.FileTime stamp = java.nio.file.attribute.FileTime.fromMillis(1_000_000L);
+        for (Path file : files) {
+            Files.setLastModifiedTime(file, stamp);
+        }
+        Path stale = dir.resolve("Removed.java");
+        Files.writeString(stale, "package com.maimas.generated.multi;");
+        Files.writeString(dir.resolve(".MultiApi.java.files"), "Removed.java\n", java.nio.file.StandardOpenOption.APPEND);
+
+        List<Path> again = new TemplateProcessor(cfg).generateFiles();
+        Assertions.assertEquals(files, again);
+        for (Path file : again) {
+            Assertions.assertEquals(stamp, Files.getLastModifiedTime(file), "Rewritten: " + file);
+        }
+        Assertions.assertFalse(Files.exists(stale));
+    }
+
+    @Test
+    void generate_incremental_multi_file_regenerates_deleted_or_edited_files() throws Exception {
+        Path dir = OUT_DIR.resolve("incremental-multi");
+        UserConfig cfg = new UserConfig();
+        cfg.setSchemaFile(Path.of("src", "test", "resources", "RemoteServiceGraphlqSchema.json").toString());
+        cfg.setResultClassName("IncrementalMultiApi");
+        cfg.setResultClassPackage("com.maimas.generated.incremental");
+        cfg.setDir(dir.toString());
+        cfg.setCacheDir(OUT_DIR.resolve("cache").toString());
+        cfg.setOutputMode(UserConfig.OutputMode.MULTI_FILE);
+        cfg.setIncremental(true);
+
+        new TemplateProcessor(cfg).generateFiles();
+        Path user = dir.resolve("User.java");
+        String generated = Files.readString(user);
+        TemplateProcessor unchanged = new TemplateProcessor(cfg);
+        Assertions.assertTrue(unchanged.generateFiles().contains(user));
+        Assertions.assertTrue(unchanged.getReport().isSkipped());
+
+        // A deleted unit file is not up to date
+        Files.delete(user);
+        TemplateProcessor deleted = new TemplateProcessor(cfg);
+        deleted.generateFiles();
+        Assertions.assertFalse(deleted.getReport().isSkipped());
+        Assertions.assertEquals(generated, Files.readString(user));
+
+        // Neither is an edited one
+        Files.writeString(user, "// edited\n" + generated);
+        TemplateProcessor edited = new TemplateProcessor(cfg);
+        edited.generateFiles();
+        Assertions.assertFalse(edited.getReport().isSkipped());
+        Assertions.assertEquals(generated, Files.readString(user));
+    }
+
+    @Test
+    void generate_single_file_output_compiles() throws Exception {
+        UserConfig cfg = new UserConfig();
+        cfg.setSchemaFile(Path.of("src", "test", "resources", "RemoteServiceGraphlqSchema.json").toString());
+        cfg.setResultClassName("SingleApi");
+        cfg.setResultClassPackage("com.maimas.generated.single");
+        cfg.setDir(OUT_DIR.resolve("single").toString());
+
+        Path file = new TemplateProcessor(cfg).generateToFile();
+        Assertions.assertFalse(Files.readString(file).contains("class Codecs"));
+        assertCompiles(List.of(file));
+    }
+
+    @Test
+    void generate_compiled_operations_and_codecs_compile_in_both_output_modes() throws Exception {
+        UserConfig cfg = new UserConfig();
+        cfg.setSchemaFile(Path.of("src", "test", "resources", "RemoteServiceGraphlqSchema.json").toString());
+        cfg.setOperationsDir(Path.of("src", "test", "resources", "operations").toString());
+        cfg.setResultClassName("OperationsApi");
+        cfg.setResultClassPackage("com.maimas.generated.operations");
+        cfg.setDir(OUT_DIR.resolve("operations").toString());
+        cfg.setCacheDir(OUT_DIR.resolve("operations-cache").toString());
+        cfg.setGenerateCodecs(true);
+
+        Path file = new TemplateProcessor(cfg).generateToFile();
+        String generated = Files.readString(file);
+        Assertions.assertTrue(generated.contains("public static class FindUser {"));
+        Assertions.assertTrue(generated.contains("public static final JsonCodec<Types.User> UserCodec"));
+        Assertions.assertTrue(generated.contains("public static class EnableUser {"));
+        assertCompiles(List.of(file));
+
+        // Compiled operations are registered next to the static ones
+        String manifest = Files.readString(OUT_DIR.resolve("operations-cache").resolve("operations")
+                .resolve("com.maimas.generated.operations.OperationsApi.json"));
+        Assertions.assertTrue(manifest.contains("\"7c2b8ab72c603245b8962ff09ca4116f8c6f0d8f0af42d33a23d0d0411a6af8b\""), manifest);
+
+        cfg.setResultClassPackage("com.maimas.generated.operations.multi");
+        cfg.setDir(OUT_DIR.resolve("operations-multi").toString());
+        cfg.setOutputMode(UserConfig.OutputMode.MULTI_FILE);
+        List<Path> files = new TemplateProcessor(cfg).generateFiles();
+        Assertions.assertTrue(files.contains(OUT_DIR.resolve("operations-multi").resolve("Operations.java")));
+        Assertions.assertTrue(files.contains(OUT_DIR.resolve("operations-multi").resolve("Codecs.java")));
+        assertCompiles(files);
+    }
+
+    @Test
+    void generate_fails_on_invalid_operation_documents() throws Exception {
+        Path dir = Files.createDirectories(OUT_DIR.resolve("invalid-operations"));
+        Files.writeString(dir.resolve("Broken.graphql"), "query Broken { findById(id: \"1\") { nope } }");
+        UserConfig cfg = new UserConfig();
+        cfg.setSchemaFile(Path.of("src", "test", "resources", "RemoteServiceGraphlqSchema.json").toString());
+        cfg.setOperationsDir(dir.toString());
+        cfg.setResultClassName("BrokenApi");
+        cfg.setResultClassPackage("com.maimas.generated.broken");
+        cfg.setDir(OUT_DIR.resolve("broken").toString());
+
+        IllegalArgumentException error = Assertions.assertThrows(IllegalArgumentException.class, () -> new TemplateProcessor(cfg).generateToFile());
+        Assertions.assertTrue(error.getMessage().contains("Broken.graphql:1:36: type 'User' has no field 'nope'"), error.getMessage());
+    }
+
+    @Test
+    void generate_with_custom_root_type_names_compiles() throws Exception {
+        Path sdl = Files.createDirectories(OUT_DIR).resolve("CustomRoots.graphqls");
+        Files.writeString(sdl, String.join("\n",
+                "schema { query: RootQuery, mutation: RootMutation }",
+                "type RootQuery { user(id: ID!): User }",
+                "type RootMutation { rename(id: ID!, name: String!): User }",
+                "type User { id: ID!, name: String }"));
+        UserConfig cfg = new UserConfig();
+        cfg.setSchemaFile(sdl.toString());
+        cfg.setResultClassName("CustomRootsApi");
+        cfg.setResultClassPackage("com.maimas.generated.roots");
+        cfg.setDir(OUT_DIR.resolve("roots").toString());
+
+        Path file = new TemplateProcessor(cfg).generateToFile();
+        String generated = Files.readString(file);
+        Assertions.assertTrue(generated.contains("public static class RootQuery {"));
+        Assertions.assertTrue(generated.contains("GQLFunctionType.Mutation, \"rename\""));
+        Assertions.assertFalse(generated.contains("class RootQueryFragment"), "Root types are not object types");
+        assertCompiles(List.of(file));
+    }
+
+    @Test
+    void generate_entity_types_from_id_fields_in_both_output_modes() throws Exception {
+        Path sdl = Files.createDirectories(OUT_DIR).resolve("Entities.graphqls");
+        Files.writeString(sdl, String.join("\n",
+                "type Query { user(id: ID!): User, groups(first: Int): [Group!]! }",
+                "type User { name: String, id: ID!, friends: UserConnection, address: Address }",
+                "type Group { id: ID!, members: [User!]! }",
+                "type UserConnection { nodes: [User], count: Int }",
+                "type Address { city: String }"));
+        UserConfig cfg = new UserConfig();
+        cfg.setSchemaFile(sdl.toString());
+        cfg.setResultClassName("EntitiesApi");
+        cfg.setResultClassPackage("com.maimas.generated.entities");
+        cfg.setDir(OUT_DIR.resolve("entities").toString());
+
+        Path file = new TemplateProcessor(cfg).generateToFile();
+        String generated = Files.readString(file);
+        Assertions.assertTrue(generated.contains(".root(GQLFunctionType.Query, \"user:User groups:Group\")"), generated);
+        Assertions.assertTrue(generated.contains(".type(\"User\", \"id\", \"friends:UserConnection address:Address\")"));
+        Assertions.assertTrue(generated.contains(".type(\"Group\", \"id\", \"members:User\")"));
+        Assertions.assertTrue(generated.contains(".type(\"UserConnection\", null, \"nodes:User\")"));
+        Assertions.assertFalse(generated.contains(".type(\"Address\""), "Address has neither an id nor object fields");
+        assertCompiles(List.of(file));
+
+        cfg.setDir(OUT_DIR.resolve("entities-multi").toString());
+        cfg.setOutputMode(UserConfig.OutputMode.MULTI_FILE);
+        List<Path> files = new TemplateProcessor(cfg).generateFiles();
+        Assertions.assertTrue(Files.readString(files.get(0)).contains(".type(\"User\", \"id\", \"friends:UserConnection address:Address\")"));
+        assertCompiles(files);
+    }
+
+    @Test
+    void generate_pruned_to_included_operations_compiles() throws Exception {
+        UserConfig cfg = new UserConfig();
+        cfg.setSchemaFile(Path.of("src", "test", "resources", "UserServiceSchema.graphqls").toString());
+        cfg.setResultClassName("PrunedApi");
+        cfg.setResultClassPackage("com.maimas.generated.pruned");
+        cfg.setDir(OUT_DIR.resolve("pruned").toString());
+        cfg.setIncludeOperations(new String[]{"findById"});
+
+        Path file = new TemplateProcessor(cfg).generateToFile();
+        String generated = Files.readString(file);
+        Assertions.assertTrue(generated.contains("public GQLQuery findById("));
+        Assertions.assertFalse(generated.contains("findByEmail"));
+        Assertions.assertFalse(generated.contains("class Mutation"), "Mutation has no selected operation");
+        Assertions.assertFalse(generated.contains("class UserInput"), "UserInput is only used by mutations");
+        assertCompiles(List.of(file));
+    }
+
+    @Test
+    void generate_records_phase_and_size_report() throws Exception {
+        UserConfig cfg = new UserConfig();
+        cfg.setSchemaFile(Path.of("src", "test", "resources", "UserServiceSchema.graphqls").toString());
+        cfg.setResultClassName("ReportedApi");
+        cfg.setResultClassPackage("com.maimas.generated.report");
+        cfg.setDir(OUT_DIR.resolve("report").toString());
+        cfg.setCacheDir(OUT_DIR.resolve("report-cache").toString());
+
+        TemplateProcessor processor = new TemplateProcessor(cfg);
+        Path file = processor.generateToFile();
+        GenerationReport report = processor.getReport();
+
+        Assertions.assertEquals(Files.size(file), report.getGeneratedBytes());
+        Assertions.assertEquals(Files.readAllLines(file).size(), report.getGeneratedLines());
+        Assertions.assertEquals(Files.size(Path.of(cfg.getSchemaFile())), report.getSchemaBytes());
+        Assertions.assertEquals(6, report.getOperations());
+        Assertions.assertEquals(1, report.getFiles());
+        Assertions.assertTrue(report.getPhaseNanos(GenerationReport.Phase.PARSE) > 0);
+        Assertions.assertTrue(report.getPhaseNanos(GenerationReport.Phase.RENDER) > 0);
+        Assertions.assertTrue(report.summary().contains("6 operations"), report.summary());
+
+        String json = Files.readString(OUT_DIR.resolve("report-cache").resolve("reports").resolve("com.maimas.generated.report.ReportedApi.json"));
+        Assertions.assertTrue(json.contains("\"validate\""), json);
+        Assertions.assertTrue(json.contains("java/Java_GQL_schema_template.ftl"), json);
+    }
+
+    @Test
+    void render_matches_generated_file() throws Exception {
+        Path sdl = Path.of("src", "test", "resources", "UserServiceSchema.graphqls");
+        UserConfig cfg = new UserConfig();
+        cfg.setSchemaFile(sdl.toString());
+        cfg.setResultClassName("RenderedApi");
+        cfg.setResultClassPackage("com.maimas.generated");
+        cfg.setDir(OUT_DIR.toString());
+
+        StringWriter rendered = new StringWriter();
+        new TemplateProcessor(cfg).render(SdlSchemaParser.parse(Files.readString(sdl)), rendered);
+        Assertions.assertEquals(new TemplateProcessor(cfg).generate(), rendered.toString());
+    }
+
     // Helpers
+    private static void assertCompiles(List<Path> sources) throws IOException {
+        javax.tools.JavaCompiler compiler = javax.tools.ToolProvider.getSystemJavaCompiler();
+        Path classes = Files.createDirectories(OUT_DIR.resolve("classes"));
+        StringWriter diagnostics = new StringWriter();
+        try (javax.tools.StandardJavaFileManager fm = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8)) {
+            List<String> options = List.of("-classpath", System.getProperty("java.class.path"), "-d", classes.toString(), "-proc:none");
+            boolean ok = compiler.getTask(diagnostics, fm, null, options, null,
+                    fm.getJavaFileObjectsFromPaths(sources)).call();
+            Assertions.assertTrue(ok, "Generated code does not compile:\n" + diagnostics);
+        }
+    }
+
     static class ResourceResponder implements HttpHandler {
         private final String resourcePath;
         ResourceResponder(String resourcePath) { this.resourcePath = resourcePath; }
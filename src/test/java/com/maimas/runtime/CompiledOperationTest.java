@@ -0,0 +1,57 @@
+package com.maimas.runtime;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+import static com.maimas.generated.GeneratedGraphqlAPI.GQLQuery.BodyFormat;
+import static com.maimas.generated.GeneratedGraphqlAPI.Operations;
+import static com.maimas.generated.GeneratedGraphqlAPI.Types.EnGender;
+
+public class CompiledOperationTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Test
+    void request_body_carries_the_generated_document() throws Exception {
+        byte[] body = Operations.FindUser.OPERATION.toBytes(new Operations.FindUser.Variables().id("42"));
+
+        Assertions.assertEquals("{\"operationName\":\"FindUser\",\"query\":\"" + Operations.FindUser.DOCUMENT + "\","
+                + "\"variables\":{\"id\":\"42\"}}", new String(body, StandardCharsets.UTF_8));
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(Operations.FindUser.DOCUMENT.getBytes(StandardCharsets.UTF_8));
+        Assertions.assertEquals(HexFormat.of().formatHex(digest), Operations.FindUser.HASH);
+    }
+
+    @Test
+    void unset_variables_are_not_sent_and_persisted_bodies_carry_the_hash() throws Exception {
+        JsonNode body = MAPPER.readTree(Operations.EnableUser.OPERATION.toBytes(new Operations.EnableUser.Variables().id("1"), BodyFormat.PERSISTED));
+
+        Assertions.assertEquals("{\"id\":\"1\"}", body.get("variables").toString());
+        Assertions.assertFalse(body.has("query"));
+        Assertions.assertEquals(Operations.EnableUser.HASH, body.path("extensions").path("persistedQuery").path("sha256Hash").asText());
+        Assertions.assertEquals("{}", MAPPER.readTree(Operations.EnableUser.OPERATION.toBytes(null)).get("variables").toString());
+    }
+
+    @Test
+    void response_is_read_into_the_generated_data_classes() throws Exception {
+        String response = "{\"extensions\":{\"cost\":[1,2]},\"data\":{\"user\":{\"id\":\"42\",\"firstName\":\"Ada\","
+                + "\"lastName\":\"Lovelace\",\"email\":\"ada@example.com\",\"gender\":\"Female\"}},\"errors\":[]}";
+
+        Operations.FindUser.Data data = Operations.FindUser.OPERATION.readData(response.getBytes(StandardCharsets.UTF_8));
+        Assertions.assertEquals("42", data.user.id);
+        Assertions.assertEquals("Lovelace", data.user.lastName);
+        Assertions.assertEquals(EnGender.Female, data.user.gender);
+
+        Operations.FindUsers.Data both = Operations.FindUsers.OPERATION.readData(
+                "{\"data\":{\"first\":{\"id\":\"1\"},\"second\":null}}".getBytes(StandardCharsets.UTF_8));
+        Assertions.assertEquals("1", both.first.id);
+        Assertions.assertNull(both.second);
+
+        Assertions.assertNull(Operations.FindUser.OPERATION.readData(
+                "{\"errors\":[{\"message\":\"boom\"}],\"data\":null}".getBytes(StandardCharsets.UTF_8)));
+    }
+}
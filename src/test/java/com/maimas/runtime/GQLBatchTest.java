@@ -0,0 +1,130 @@
+package com.maimas.runtime;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.maimas.generated.GeneratedGraphqlAPI.Codecs;
+import static com.maimas.generated.GeneratedGraphqlAPI.GQLBatch;
+import static com.maimas.generated.GeneratedGraphqlAPI.GQLException;
+import static com.maimas.generated.GeneratedGraphqlAPI.GQLExecutor;
+import static com.maimas.generated.GeneratedGraphqlAPI.GQLFunctionType;
+import static com.maimas.generated.GeneratedGraphqlAPI.GQLResponse;
+import static com.maimas.generated.GeneratedGraphqlAPI.Mutation;
+import static com.maimas.generated.GeneratedGraphqlAPI.Query;
+import static com.maimas.generated.GeneratedGraphqlAPI.Types.User;
+
+public class GQLBatchTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final URI ENDPOINT = URI.create("https://api.example.com/graphql");
+
+    @Test
+    void colliding_root_fields_are_aliased_and_variables_renamed() throws Exception {
+        GQLBatch batch = new GQLBatch(GQLFunctionType.Query);
+        GQLBatch.Part<User> first = batch.add(new Query().findById(args -> args.id("1"), user -> user.id()));
+        GQLBatch.Part<User> byEmail = batch.add(new Query().findByEmail(args -> args.email("ada@example.com"), user -> user.id().email()));
+        GQLBatch.Part<User> second = batch.add(new Query().prepareFindById(), args -> args.id("2"));
+
+        Assertions.assertEquals("findById", first.getResponseName());
+        Assertions.assertEquals("findByEmail", byEmail.getResponseName());
+        Assertions.assertEquals("findById_2", second.getResponseName());
+        Assertions.assertTrue(batch.getDocument().startsWith(
+                "query($id: String!, $email: String!, $id_2: String! ){ findById( id: $id ){ id } findByEmail( email: $email ){ id email } "
+                        + "findById_2: findById( id: $id_2 ){ "), batch.getDocument());
+
+        JsonNode body = MAPPER.readTree(batch.toBytes());
+        Assertions.assertEquals(batch.getDocument(), body.path("query").asText());
+        Assertions.assertEquals(MAPPER.readTree("{\"id\":\"1\",\"email\":\"ada@example.com\",\"id_2\":\"2\"}"), body.path("variables"));
+
+        // A batch of one sends the same document as the query
+        GQLBatch single = new GQLBatch(GQLFunctionType.Query);
+        single.add(new Query().findById(args -> args.id("1"), user -> user.id().email()));
+        Assertions.assertEquals(MAPPER.readTree(new Query().findById(args -> args.id("1"), user -> user.id().email()).toBytes()),
+                MAPPER.readTree(single.toBytes()));
+    }
+
+    @Test
+    void response_is_split_into_the_responses_of_the_operations() throws Exception {
+        GQLBatch batch = new GQLBatch(GQLFunctionType.Query);
+        GQLBatch.Part<User> first = batch.add(new Query().findById(args -> args.id("1"), user -> user.id()));
+        GQLBatch.Part<User> second = batch.add(new Query().findById(args -> args.id("2"), user -> user.id().email()));
+        String response = "{\"errors\":[{\"message\":\"email hidden\",\"path\":[\"findById_2\",\"email\"]},{\"message\":\"slow down\"}],"
+                + "\"data\":{\"findById\":{\"id\":\"1\"},\"findById_2\":{\"id\":\"2\",\"email\":null}}}";
+
+        for (GQLBatch.Result result : List.of(batch.read(200, bytes(response), null), batch.read(200, bytes(response), Codecs.REGISTRY))) {
+            GQLResponse<User> one = result.get(first);
+            GQLResponse<User> two = result.get(second);
+            Assertions.assertEquals("1", one.getData().id);
+            Assertions.assertEquals("2", two.getData().id);
+            Assertions.assertEquals(List.of("slow down"), one.getErrorMessages());
+            Assertions.assertEquals(List.of("email hidden", "slow down"), two.getErrorMessages());
+        }
+
+        GQLBatch other = new GQLBatch(GQLFunctionType.Query);
+        GQLBatch.Part<User> foreign = other.add(new Query().findById(args -> args.id("1"), user -> user.id()));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> batch.read(200, bytes(response), null).get(foreign));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> batch.add(new Mutation().enable(args -> args.id("1").enable(true), user -> user.id())));
+        Assertions.assertThrows(IllegalStateException.class, () -> new GQLBatch(GQLFunctionType.Mutation).toBytes());
+    }
+
+    @Test
+    void executor_sends_one_request_per_batch() throws Exception {
+        List<GQLExecutor.Request> requests = new ArrayList<>();
+        GQLExecutor executor = new GQLExecutor(ENDPOINT, request -> {
+            requests.add(request);
+            return new GQLExecutor.Response(200, bytes("{\"data\":{\"enable\":{\"id\":\"1\"},\"enable_2\":{\"id\":\"2\"}}}"));
+        });
+        GQLBatch batch = new GQLBatch(GQLFunctionType.Mutation);
+        GQLBatch.Part<User> first = batch.add(new Mutation().enable(args -> args.id("1").enable(true), user -> user.id()));
+        GQLBatch.Part<User> second = batch.add(new Mutation().enable(args -> args.id("2").enable(false), user -> user.id()));
+
+        GQLBatch.Result result = executor.executeAsync(batch).get(5, TimeUnit.SECONDS);
+        Assertions.assertEquals("1", result.get(first).getDataOrThrow().id);
+        Assertions.assertEquals("2", result.get(second).getDataOrThrow().id);
+        Assertions.assertEquals(1, requests.size());
+        Assertions.assertEquals("POST", requests.get(0).getMethod());
+        Assertions.assertTrue(MAPPER.readTree(requests.get(0).getBody()).path("query").asText().startsWith("mutation("));
+
+        GQLExecutor failing = new GQLExecutor(ENDPOINT, request -> new GQLExecutor.Response(503, bytes("Service Unavailable")));
+        GQLException error = Assertions.assertThrows(GQLException.class, () -> failing.execute(batch));
+        Assertions.assertEquals("HTTP status 503 from api.example.com for batch 'enable, enable'", error.getMessage());
+    }
+
+    @Test
+    void array_batching_sends_each_operation_unmerged() throws Exception {
+        List<GQLExecutor.Request> requests = new ArrayList<>();
+        GQLExecutor executor = new GQLExecutor(ENDPOINT, request -> {
+            requests.add(request);
+            return new GQLExecutor.Response(200, bytes("[{\"data\":{\"findById\":{\"id\":\"1\"}}},"
+                    + "{\"errors\":[{\"message\":\"not found\"}],\"data\":{\"findById\":null}}]"));
+        }).arrayBatching(true);
+        GQLBatch batch = new GQLBatch(GQLFunctionType.Query);
+        GQLBatch.Part<User> first = batch.add(new Query().findById(args -> args.id("1"), user -> user.id()));
+        GQLBatch.Part<User> second = batch.add(new Query().findById(args -> args.id("2"), user -> user.id()));
+
+        GQLBatch.Result result = executor.execute(batch);
+        Assertions.assertEquals("1", result.get(first).getData().id);
+        Assertions.assertFalse(result.get(first).hasErrors());
+        Assertions.assertNull(result.get(second).getData());
+        Assertions.assertEquals(List.of("not found"), result.get(second).getErrorMessages());
+
+        JsonNode body = MAPPER.readTree(requests.get(0).getBody());
+        Assertions.assertEquals(2, body.size());
+        Assertions.assertEquals(MAPPER.readTree(new Query().findById(args -> args.id("2"), user -> user.id()).toBytes()), body.get(1));
+
+        Assertions.assertThrows(com.fasterxml.jackson.core.JsonParseException.class,
+                () -> batch.read(200, bytes("[{\"data\":{}},{\"data\":{}},{\"data\":{}}]"), null));
+    }
+
+    private static byte[] bytes(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+}
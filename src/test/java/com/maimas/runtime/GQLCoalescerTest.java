@@ -0,0 +1,197 @@
+package com.maimas.runtime;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.maimas.generated.GeneratedGraphqlAPI.GQLCoalescer;
+import static com.maimas.generated.GeneratedGraphqlAPI.GQLException;
+import static com.maimas.generated.GeneratedGraphqlAPI.GQLExecutor;
+import static com.maimas.generated.GeneratedGraphqlAPI.GQLQuery;
+import static com.maimas.generated.GeneratedGraphqlAPI.GQLResponse;
+import static com.maimas.generated.GeneratedGraphqlAPI.Mutation;
+import static com.maimas.generated.GeneratedGraphqlAPI.Query;
+import static com.maimas.generated.GeneratedGraphqlAPI.Types.User;
+
+public class GQLCoalescerTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final URI ENDPOINT = URI.create("https://api.example.com/graphql");
+    private static final Pattern FIND_BY_ID = Pattern.compile("(?:(\\w+): )?findById\\( id: \\$(\\w+) \\)");
+
+    /**
+     * Stand-in server that answers each (aliased) findById of a document with the requested id. The responses of
+     * {@code sendAsync} wait until {@link #release()} when the server is held.
+     */
+    private static final class UserServer implements GQLExecutor.Transport {
+        private final Queue<GQLExecutor.Request> requests = new ConcurrentLinkedQueue<>();
+        private final CompletableFuture<Void> released = new CompletableFuture<>();
+
+        UserServer(boolean held) {
+            if (!held) {
+                release();
+            }
+        }
+
+        void release() {
+            released.complete(null);
+        }
+
+        @Override
+        public GQLExecutor.Response send(GQLExecutor.Request request) throws IOException {
+            requests.add(request);
+            JsonNode body = MAPPER.readTree(request.getBody());
+            ObjectNode data = MAPPER.createObjectNode();
+            Matcher matcher = FIND_BY_ID.matcher(body.path("query").asText());
+            while (matcher.find()) {
+                String field = matcher.group(1) != null ? matcher.group(1) : "findById";
+                data.putObject(field).put("id", body.path("variables").path(matcher.group(2)).asText());
+            }
+            ObjectNode response = MAPPER.createObjectNode();
+            response.set("data", data);
+            return new GQLExecutor.Response(200, MAPPER.writeValueAsBytes(response));
+        }
+
+        @Override
+        public CompletableFuture<GQLExecutor.Response> sendAsync(GQLExecutor.Request request) {
+            return released.thenApplyAsync(ignored -> {
+                try {
+                    return send(request);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    @Test
+    void identical_queries_in_flight_share_one_call() throws Exception {
+        UserServer server = new UserServer(true);
+        GQLCoalescer coalescer = new GQLCoalescer(new GQLExecutor(ENDPOINT, server));
+
+        CompletableFuture<GQLResponse<User>> first = coalescer.executeAsync(findById("1"));
+        CompletableFuture<GQLResponse<User>> second = coalescer.executeAsync(findById("1"));
+        CompletableFuture<GQLResponse<User>> other = coalescer.executeAsync(findById("2"));
+        server.release();
+
+        Assertions.assertEquals("1", first.get(5, TimeUnit.SECONDS).getData().id);
+        Assertions.assertSame(first.get().getData(), second.get(5, TimeUnit.SECONDS).getData());
+        Assertions.assertEquals("2", other.get(5, TimeUnit.SECONDS).getData().id);
+        Assertions.assertEquals(2, server.requests.size());
+
+        // Completed calls are not cached
+        Assertions.assertEquals("1", coalescer.<User>execute(findById("1")).getData().id);
+        Assertions.assertEquals(3, server.requests.size());
+
+        GQLCoalescer.OperationStats stats = coalescer.getStats().get("findById");
+        Assertions.assertEquals(4, stats.getRequests());
+        Assertions.assertEquals(1, stats.getHits());
+        Assertions.assertEquals(0, stats.getCoalesced());
+    }
+
+    @Test
+    void loads_of_a_window_are_sent_in_one_batch() throws Exception {
+        UserServer server = new UserServer(false);
+        GQLCoalescer coalescer = new GQLCoalescer(new GQLExecutor(ENDPOINT, server)).window(Duration.ofMillis(50));
+
+        CompletableFuture<GQLResponse<User>> one = coalescer.load(findById("1"));
+        CompletableFuture<GQLResponse<User>> two = coalescer.load(new Query().prepareFindById(), args -> args.id("2"));
+        CompletableFuture<GQLResponse<User>> again = coalescer.load(findById("1"));
+
+        Assertions.assertEquals("1", one.get(5, TimeUnit.SECONDS).getData().id);
+        Assertions.assertEquals("2", two.get(5, TimeUnit.SECONDS).getData().id);
+        Assertions.assertEquals("1", again.get(5, TimeUnit.SECONDS).getData().id);
+        Assertions.assertEquals(1, server.requests.size());
+        Assertions.assertTrue(MAPPER.readTree(server.requests.peek().getBody()).path("query").asText().contains("findById_2: findById"));
+
+        GQLCoalescer.OperationStats stats = coalescer.getStats().get("findById");
+        Assertions.assertEquals(1, stats.getHits());
+        Assertions.assertEquals(2, stats.getCoalesced());
+        Assertions.assertEquals("findById: 3 requests, 1 hits, 2 coalesced", stats.toString());
+    }
+
+    @Test
+    void a_full_window_is_sent_before_it_ends() throws Exception {
+        UserServer server = new UserServer(false);
+        GQLCoalescer coalescer = new GQLCoalescer(new GQLExecutor(ENDPOINT, server)).window(Duration.ofMinutes(1)).maxBatchSize(2);
+
+        CompletableFuture<GQLResponse<User>> one = coalescer.load(findById("1"));
+        CompletableFuture<GQLResponse<User>> two = coalescer.load(findById("2"));
+        Assertions.assertEquals("1", one.get(5, TimeUnit.SECONDS).getData().id);
+        Assertions.assertEquals("2", two.get(5, TimeUnit.SECONDS).getData().id);
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> coalescer.maxBatchSize(0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> coalescer.window(Duration.ofMillis(-1)));
+    }
+
+    @Test
+    void concurrent_loads_get_their_own_results() throws Exception {
+        UserServer server = new UserServer(false);
+        GQLCoalescer coalescer = new GQLCoalescer(new GQLExecutor(ENDPOINT, server)).window(Duration.ofMillis(5)).maxBatchSize(8);
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                tasks.add(threads.submit(() -> {
+                    List<CompletableFuture<GQLResponse<User>>> loads = new ArrayList<>();
+                    for (int i = 0; i < 50; i++) {
+                        loads.add(coalescer.load(findById(String.valueOf(i % 10))));
+                    }
+                    for (int i = 0; i < 50; i++) {
+                        Assertions.assertEquals(String.valueOf(i % 10), loads.get(i).get(5, TimeUnit.SECONDS).getData().id);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> task : tasks) {
+                task.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            threads.shutdownNow();
+        }
+
+        GQLCoalescer.OperationStats stats = coalescer.getStats().get("findById");
+        Assertions.assertEquals(400, stats.getRequests());
+        Assertions.assertTrue(server.requests.size() < 400, server.requests.size() + " requests");
+        Assertions.assertTrue(stats.getHits() > 0, stats.toString());
+    }
+
+    @Test
+    void mutations_and_failures_are_not_shared() throws Exception {
+        UserServer server = new UserServer(false);
+        GQLCoalescer coalescer = new GQLCoalescer(new GQLExecutor(ENDPOINT, server));
+        GQLQuery enable = new Mutation().enable(args -> args.id("1").enable(true), user -> user.id());
+        coalescer.executeAsync(enable).get(5, TimeUnit.SECONDS);
+        coalescer.load(enable).get(5, TimeUnit.SECONDS);
+        Assertions.assertEquals(2, server.requests.size());
+        Assertions.assertEquals(0, coalescer.getStats().get("enable").getHits());
+
+        GQLCoalescer failing = new GQLCoalescer(new GQLExecutor(ENDPOINT,
+                request -> new GQLExecutor.Response(502, "Bad Gateway".getBytes(StandardCharsets.UTF_8))));
+        GQLException error = Assertions.assertThrows(GQLException.class, () -> failing.execute(findById("1")));
+        Assertions.assertEquals(502, error.getStatus());
+        Assertions.assertThrows(GQLException.class, () -> failing.execute(findById("1")));
+    }
+
+    private static GQLQuery findById(String id) {
+        return new Query().findById(args -> args.id(id), user -> user.id());
+    }
+}
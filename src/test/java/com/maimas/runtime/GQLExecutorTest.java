@@ -0,0 +1,203 @@
+package com.maimas.runtime;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static com.maimas.generated.GeneratedGraphqlAPI.Codecs;
+import static com.maimas.generated.GeneratedGraphqlAPI.GQLException;
+import static com.maimas.generated.GeneratedGraphqlAPI.GQLExecutor;
+import static com.maimas.generated.GeneratedGraphqlAPI.GQLQuery;
+import static com.maimas.generated.GeneratedGraphqlAPI.GQLResponse;
+import static com.maimas.generated.GeneratedGraphqlAPI.Mutation;
+import static com.maimas.generated.GeneratedGraphqlAPI.Operations;
+import static com.maimas.generated.GeneratedGraphqlAPI.Query;
+import static com.maimas.generated.GeneratedGraphqlAPI.Types.EnGender;
+import static com.maimas.generated.GeneratedGraphqlAPI.Types.User;
+
+public class GQLExecutorTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final URI ENDPOINT = URI.create("https://api.example.com/graphql");
+    private static final String USER = "{\"id\":\"42\",\"email\":\"ada@example.com\",\"gender\":\"Female\"}";
+    private static final String NOT_FOUND = "{\"errors\":[{\"message\":\"PersistedQueryNotFound\"}]}";
+
+    /**
+     * Stand-in for the GraphQL server: records the requests and answers them with the given function.
+     */
+    private static final class InMemoryServer implements GQLExecutor.Transport {
+        private final List<GQLExecutor.Request> requests = new ArrayList<>();
+        private final Function<GQLExecutor.Request, GQLExecutor.Response> answer;
+
+        InMemoryServer(Function<GQLExecutor.Request, GQLExecutor.Response> answer) {
+            this.answer = answer;
+        }
+
+        InMemoryServer(int status, String body) {
+            this(request -> new GQLExecutor.Response(status, body.getBytes(StandardCharsets.UTF_8)));
+        }
+
+        @Override
+        public GQLExecutor.Response send(GQLExecutor.Request request) {
+            requests.add(request);
+            return answer.apply(request);
+        }
+    }
+
+    @Test
+    void query_is_posted_and_its_result_decoded() throws Exception {
+        InMemoryServer server = new InMemoryServer(200, "{\"data\":{\"findById\":" + USER + "}}");
+        GQLExecutor executor = new GQLExecutor(ENDPOINT, server).header("Authorization", "Bearer token");
+
+        GQLQuery query = findById();
+        GQLResponse<User> response = executor.execute(query);
+        Assertions.assertEquals("ada@example.com", response.getDataOrThrow().email);
+        Assertions.assertEquals(EnGender.Female, response.getData().gender);
+        Assertions.assertFalse(response.hasErrors());
+
+        GQLExecutor.Request request = server.requests.get(0);
+        Assertions.assertEquals("POST", request.getMethod());
+        Assertions.assertEquals(ENDPOINT, request.getUri());
+        Assertions.assertEquals("Bearer token", request.getHeaders().get("Authorization"));
+        Assertions.assertEquals("application/json", request.getHeaders().get("Content-Type"));
+        Assertions.assertArrayEquals(query.toBytes(), request.getBody());
+
+        // Same result through the generated codecs, asynchronously
+        GQLResponse<User> decoded = new GQLExecutor(ENDPOINT, server).codecs(Codecs.REGISTRY)
+                .<User>executeAsync(findById()).get(5, TimeUnit.SECONDS);
+        Assertions.assertEquals("42", decoded.getData().id);
+    }
+
+    @Test
+    void graphql_errors_are_returned_and_http_errors_thrown() throws Exception {
+        GQLResponse<User> partial = new GQLExecutor(ENDPOINT, new InMemoryServer(200,
+                "{\"errors\":[{\"message\":\"email hidden\",\"path\":[\"findById\",\"email\"]}],\"data\":{\"findById\":{\"id\":\"42\"}}}"))
+                .execute(findById());
+        Assertions.assertEquals("42", partial.getData().id);
+        Assertions.assertEquals(List.of("email hidden"), partial.getErrorMessages());
+        GQLException error = Assertions.assertThrows(GQLException.class, partial::getDataOrThrow);
+        Assertions.assertEquals("GraphQL errors: email hidden", error.getMessage());
+
+        GQLResponse<User> invalid = new GQLExecutor(ENDPOINT, new InMemoryServer(400,
+                "{\"errors\":[{\"message\":\"Validation error\"}]}")).execute(findById());
+        Assertions.assertEquals(400, invalid.getStatus());
+        Assertions.assertNull(invalid.getData());
+        Assertions.assertTrue(invalid.hasErrors());
+
+        GQLExecutor proxyError = new GQLExecutor(ENDPOINT, new InMemoryServer(502, "<html>Bad Gateway</html>"));
+        GQLException badGateway = Assertions.assertThrows(GQLException.class, () -> proxyError.execute(findById()));
+        Assertions.assertEquals(502, badGateway.getStatus());
+        Assertions.assertEquals("HTTP status 502 from api.example.com for 'findById'", badGateway.getMessage());
+
+        Throwable async = Assertions.assertThrows(java.util.concurrent.ExecutionException.class,
+                () -> proxyError.executeAsync(findById()).get(5, TimeUnit.SECONDS)).getCause();
+        Assertions.assertTrue(async instanceof GQLException, String.valueOf(async));
+    }
+
+    @Test
+    void persisted_queries_send_the_hash_and_fall_back_to_the_document() throws Exception {
+        InMemoryServer server = new InMemoryServer(request -> new GQLExecutor.Response(200,
+                ("GET".equals(request.getMethod()) ? NOT_FOUND : "{\"data\":{\"findById\":" + USER + "}}").getBytes(StandardCharsets.UTF_8)));
+        GQLExecutor executor = new GQLExecutor(ENDPOINT, server).persistedQueries(true);
+
+        GQLQuery query = findById();
+        GQLResponse<User> response = executor.execute(query);
+        Assertions.assertEquals("42", response.getData().id);
+        Assertions.assertEquals(2, server.requests.size());
+
+        GQLExecutor.Request hashOnly = server.requests.get(0);
+        Assertions.assertEquals("GET", hashOnly.getMethod());
+        Assertions.assertNull(hashOnly.getBody());
+        String parameters = URLDecoder.decode(hashOnly.getUri().getRawQuery(), StandardCharsets.UTF_8);
+        Assertions.assertFalse(parameters.contains("query="));
+        Assertions.assertTrue(parameters.contains(query.getHash()), parameters);
+
+        JsonNode registration = MAPPER.readTree(server.requests.get(1).getBody());
+        Assertions.assertEquals("POST", server.requests.get(1).getMethod());
+        Assertions.assertTrue(registration.has("query"));
+        Assertions.assertEquals(query.getHash(), registration.path("extensions").path("persistedQuery").path("sha256Hash").asText());
+
+        // Mutations are posted; a known hash needs one request
+        InMemoryServer known = new InMemoryServer(200, "{\"data\":{\"enable\":" + USER + "}}");
+        GQLResponse<User> enabled = new GQLExecutor(ENDPOINT, known).persistedQueries(true)
+                .<User>executeAsync(new Mutation().enable(args -> args.id("42").enable(true), user -> user.id())).get(5, TimeUnit.SECONDS);
+        Assertions.assertEquals("42", enabled.getData().id);
+        Assertions.assertEquals(1, known.requests.size());
+        Assertions.assertEquals("POST", known.requests.get(0).getMethod());
+        Assertions.assertFalse(MAPPER.readTree(known.requests.get(0).getBody()).has("query"));
+    }
+
+    @Test
+    void compiled_and_prepared_operations_are_executed() throws Exception {
+        InMemoryServer server = new InMemoryServer(request -> new GQLExecutor.Response(200,
+                ("{\"data\":{\"" + (new String(request.getBody(), StandardCharsets.UTF_8).contains("FindUser") ? "user" : "findById")
+                        + "\":" + USER + "}}").getBytes(StandardCharsets.UTF_8)));
+        GQLExecutor executor = new GQLExecutor(ENDPOINT, server);
+
+        GQLResponse<Operations.FindUser.Data> compiled = executor.execute(Operations.FindUser.OPERATION, new Operations.FindUser.Variables().id("42"));
+        Assertions.assertEquals("ada@example.com", compiled.getData().user.email);
+        Assertions.assertEquals("FindUser", MAPPER.readTree(server.requests.get(0).getBody()).path("operationName").asText());
+
+        GQLResponse<User> prepared = executor.executeAsync(new Query().prepareFindById(), args -> args.id("42")).get(5, TimeUnit.SECONDS);
+        Assertions.assertEquals(EnGender.Female, prepared.getData().gender);
+    }
+
+    @Test
+    void http_transport_decompresses_gzip_and_deflate_responses() throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        List<String> acceptEncodings = new ArrayList<>();
+        server.createContext("/graphql", exchange -> {
+            acceptEncodings.add(exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+            exchange.getRequestBody().readAllBytes();
+            String encoding = exchange.getRequestURI().getPath().endsWith("deflate") ? "deflate" : "gzip";
+            byte[] body = compress(("{\"data\":{\"findById\":" + USER + "}}").getBytes(StandardCharsets.UTF_8), encoding);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.getResponseHeaders().add("Content-Encoding", encoding);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        try {
+            URI base = URI.create("http://localhost:" + server.getAddress().getPort() + "/graphql");
+            GQLExecutor.HttpTransport transport = new GQLExecutor.HttpTransport(java.time.Duration.ofSeconds(5));
+
+            GQLResponse<User> gzip = new GQLExecutor(base, transport).execute(findById());
+            Assertions.assertEquals("ada@example.com", gzip.getData().email);
+            GQLResponse<User> deflate = new GQLExecutor(URI.create(base + "/deflate"), transport)
+                    .<User>executeAsync(findById()).get(5, TimeUnit.SECONDS);
+            Assertions.assertEquals("42", deflate.getData().id);
+            Assertions.assertEquals(List.of("gzip, deflate", "gzip, deflate"), acceptEncodings);
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private static GQLQuery findById() {
+        return new Query().findById(args -> args.id("42"), user -> user.id().email().gender());
+    }
+
+    private static byte[] compress(byte[] content, String encoding) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = encoding.equals("gzip") ? new GZIPOutputStream(bytes) : new DeflaterOutputStream(bytes)) {
+            out.write(content);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,104 @@
+package com.maimas.runtime;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+
+import static com.maimas.generated.GeneratedGraphqlAPI.Codecs;
+import static com.maimas.generated.GeneratedGraphqlAPI.JsonCodec;
+import static com.maimas.generated.GeneratedGraphqlAPI.PreparedQuery;
+import static com.maimas.generated.GeneratedGraphqlAPI.Query;
+import static com.maimas.generated.GeneratedGraphqlAPI.Types.EnGender;
+import static com.maimas.generated.GeneratedGraphqlAPI.Types.EnUserStatus;
+import static com.maimas.generated.GeneratedGraphqlAPI.Types.User;
+import static com.maimas.generated.GeneratedGraphqlAPI.Types.UserInput;
+
+public class JsonCodecTest {
+    // Data binding as configured for the request bodies: null fields are left out
+    private static final ObjectMapper MAPPER = new ObjectMapper().setSerializationInclusion(JsonInclude.Include.NON_NULL);
+
+    private static final String USER = "{\"id\":\"42\",\"email\":\"ada@example.com\",\"enabled\":true,\"firstName\":\"Ada\","
+            + "\"lastName\":null,\"gender\":\"Female\",\"status\":\"Active\",\"createdDate\":1700000000000,"
+            + "\"dateOfBirth\":\"1815-12-10\",\"modifiedDate\":\"2024-01-02T03:04:05.678Z\"}";
+
+    @Test
+    void decoding_matches_data_binding() throws Exception {
+        User decoded = Codecs.UserCodec.read(bytes(USER));
+        User bound = MAPPER.readValue(USER, User.class);
+
+        Assertions.assertEquals(MAPPER.readTree(MAPPER.writeValueAsBytes(bound)), MAPPER.readTree(MAPPER.writeValueAsBytes(decoded)));
+        Assertions.assertEquals(EnGender.Female, decoded.gender);
+        Assertions.assertEquals(new Date(1700000000000L), decoded.createdDate);
+        Assertions.assertEquals(bound.dateOfBirth, decoded.dateOfBirth);
+        Assertions.assertNull(decoded.lastName);
+
+        String users = "[" + USER + ",null,{\"id\":\"7\",\"status\":\"Pending\"}]";
+        List<User> list = Codecs.REGISTRY.get(new TypeReference<List<User>>() {}).read(bytes(users));
+        List<User> boundList = MAPPER.readValue(users, new TypeReference<List<User>>() {});
+        Assertions.assertEquals(MAPPER.readTree(MAPPER.writeValueAsBytes(boundList)), MAPPER.readTree(MAPPER.writeValueAsBytes(list)));
+    }
+
+    @Test
+    void encoding_matches_data_binding() throws Exception {
+        UserInput input = new UserInput();
+        input.id = "42";
+        input.email = "ada@example.com";
+        input.gender = EnGender.Male;
+        input.status = EnUserStatus.Pending;
+        input.enabled = false;
+        input.createdDate = new Date(1700000000000L);
+
+        Assertions.assertEquals(MAPPER.readTree(MAPPER.writeValueAsBytes(input)), MAPPER.readTree(Codecs.UserInputCodec.toBytes(input)));
+        Assertions.assertEquals("null", new String(Codecs.UserInputCodec.toBytes(null), StandardCharsets.UTF_8));
+
+        User user = MAPPER.readValue(USER, User.class);
+        Assertions.assertEquals(MAPPER.readTree(MAPPER.writeValueAsBytes(user)), MAPPER.readTree(Codecs.UserCodec.toBytes(user)));
+    }
+
+    @Test
+    void unknown_fields_are_skipped_and_unknown_enum_values_fail() throws Exception {
+        User user = Codecs.UserCodec.read(bytes("{\"__typename\":\"User\",\"friends\":[{\"id\":\"1\"}],\"id\":\"42\"}"));
+        Assertions.assertEquals("42", user.id);
+
+        JsonParseException error = Assertions.assertThrows(JsonParseException.class,
+                () -> Codecs.UserCodec.read(bytes("{\"gender\":\"Other\"}")));
+        Assertions.assertTrue(error.getMessage().startsWith("Unknown EnGender value 'Other'"), error.getMessage());
+        Assertions.assertThrows(JsonParseException.class, () -> Codecs.UserCodec.read(bytes("[]")));
+        Assertions.assertThrows(JsonParseException.class, () -> JsonCodec.INTEGER.read(bytes("\"many\"")));
+    }
+
+    @Test
+    void scalars_are_coerced_like_data_binding() throws Exception {
+        Assertions.assertEquals(MAPPER.readValue("\"12\"", Integer.class), JsonCodec.INTEGER.read(bytes("\"12\"")));
+        Assertions.assertEquals(MAPPER.readValue("12", String.class), JsonCodec.STRING.read(bytes("12")));
+        Assertions.assertEquals(MAPPER.readValue("\"true\"", Boolean.class), JsonCodec.BOOLEAN.read(bytes("\"true\"")));
+        Assertions.assertEquals(MAPPER.readValue("1.5", Float.class), JsonCodec.FLOAT.read(bytes("1.5")));
+        Assertions.assertEquals(MAPPER.readValue("\"2024-01-02T03:04:05Z\"", Date.class), JsonCodec.DATE.read(bytes("\"2024-01-02T03:04:05Z\"")));
+        Assertions.assertNull(JsonCodec.LONG.read(bytes("null")));
+    }
+
+    @Test
+    void registry_reads_the_result_of_a_prepared_operation() throws Exception {
+        PreparedQuery<Query.FindByIdArgs, User> findById = new Query().prepareFindById();
+        String response = "{\"extensions\":{\"cost\":1},\"data\":{\"other\":{\"id\":\"0\"},\"findById\":" + USER + "}}";
+
+        User user = findById.readData(bytes(response), Codecs.REGISTRY);
+        Assertions.assertEquals("ada@example.com", user.email);
+        Assertions.assertNull(findById.readData(bytes("{\"errors\":[{\"message\":\"boom\"}],\"data\":null}"), Codecs.REGISTRY));
+
+        Assertions.assertSame(Codecs.UserCodec, Codecs.REGISTRY.get(User.class));
+        Assertions.assertSame(JsonCodec.STRING, Codecs.REGISTRY.get(String.class));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Codecs.REGISTRY.get(Thread.class));
+    }
+
+    private static byte[] bytes(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+}
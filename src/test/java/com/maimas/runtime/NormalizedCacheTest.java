@@ -0,0 +1,204 @@
+package com.maimas.runtime;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static com.maimas.generated.GeneratedGraphqlAPI.Codecs;
+import static com.maimas.generated.GeneratedGraphqlAPI.GQLExecutor;
+import static com.maimas.generated.GeneratedGraphqlAPI.GQLFunctionType;
+import static com.maimas.generated.GeneratedGraphqlAPI.GQLQuery;
+import static com.maimas.generated.GeneratedGraphqlAPI.GQLResponse;
+import static com.maimas.generated.GeneratedGraphqlAPI.Mutation;
+import static com.maimas.generated.GeneratedGraphqlAPI.NormalizedCache;
+import static com.maimas.generated.GeneratedGraphqlAPI.Query;
+import static com.maimas.generated.GeneratedGraphqlAPI.Schema;
+import static com.maimas.generated.GeneratedGraphqlAPI.Types.EnGender;
+import static com.maimas.generated.GeneratedGraphqlAPI.Types.User;
+
+public class NormalizedCacheTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final URI ENDPOINT = URI.create("https://api.example.com/graphql");
+    private static final String ADA = "{\"id\":\"42\",\"email\":\"ada@example.com\",\"gender\":\"Female\"}";
+
+    /**
+     * The test schema's ids are strings, not IDs: the users are keyed by their id field explicitly.
+     */
+    private static NormalizedCache.EntityTypes entities() {
+        return new NormalizedCache.EntityTypes()
+                .root(GQLFunctionType.Query, "findById:User findByEmail:User")
+                .root(GQLFunctionType.Mutation, "enable:User create:User update:User")
+                .key("User", "id");
+    }
+
+    private static final class Server implements GQLExecutor.Transport {
+        private final List<JsonNode> requests = new ArrayList<>();
+        private final Function<JsonNode, String> answer;
+
+        Server(Function<JsonNode, String> answer) {
+            this.answer = answer;
+        }
+
+        @Override
+        public GQLExecutor.Response send(GQLExecutor.Request request) throws java.io.IOException {
+            JsonNode body = MAPPER.readTree(request.getBody());
+            requests.add(body);
+            return new GQLExecutor.Response(200, answer.apply(body).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void a_query_satisfied_by_the_cache_needs_no_call() throws Exception {
+        Server server = new Server(body -> "{\"data\":{\"findById\":" + ADA + "}}");
+        NormalizedCache cache = new NormalizedCache(entities(), 100);
+        GQLExecutor executor = new GQLExecutor(ENDPOINT, server).cache(cache);
+
+        GQLResponse<User> first = executor.execute(findById("42", "id email gender"));
+        Assertions.assertEquals("ada@example.com", first.getData().email);
+        Assertions.assertEquals(EnGender.Female, first.getData().gender);
+
+        // Fewer fields, the prepared shape and the codecs: all from the cache
+        GQLResponse<User> fewer = executor.execute(new Query().findById(args -> args.id("42"), user -> user.email()));
+        Assertions.assertEquals("ada@example.com", fewer.getData().email);
+        Assertions.assertNull(fewer.getData().id);
+        GQLResponse<User> decoded = new GQLExecutor(ENDPOINT, server).cache(cache).codecs(Codecs.REGISTRY)
+                .<User>executeAsync(findById("42", "id gender")).get(5, TimeUnit.SECONDS);
+        Assertions.assertEquals(EnGender.Female, decoded.getData().gender);
+        Assertions.assertEquals(1, server.requests.size());
+
+        // Another field, or another id, misses
+        executor.execute(new Query().findById(args -> args.id("42"), user -> user.firstName()));
+        executor.execute(findById("7", "id"));
+        Assertions.assertEquals(3, server.requests.size());
+        Assertions.assertEquals(2, cache.getHits());
+        Assertions.assertEquals(3, cache.getMisses());
+    }
+
+    @Test
+    void prepared_operations_are_read_from_the_cache_with_their_selection() throws Exception {
+        Server server = new Server(body -> "{\"data\":{\"findById\":{\"createdDate\":null,\"dateOfBirth\":null,"
+                + "\"email\":\"ada@example.com\",\"enabled\":true,\"firstName\":\"Ada\",\"gender\":\"Female\",\"id\":\"42\","
+                + "\"lastName\":\"Lovelace\",\"modifiedDate\":null,\"status\":null}}}");
+        GQLExecutor executor = new GQLExecutor(ENDPOINT, server).cache(new NormalizedCache(entities(), 100));
+
+        executor.execute(new Query().prepareFindById().bind(args -> args.id("42")));
+        GQLResponse<User> cached = executor.execute(new Query().prepareFindById().bind(args -> args.id("42")));
+        Assertions.assertEquals("Lovelace", cached.getData().lastName);
+        GQLResponse<User> shape = executor.execute(new Query().prepareFindById(args -> args.id("0"), user -> user.firstName().gender())
+                .bind(args -> args.id("42")));
+        Assertions.assertEquals(EnGender.Female, shape.getData().gender);
+        Assertions.assertEquals(1, server.requests.size());
+    }
+
+    @Test
+    void entities_are_shared_between_queries_and_updated_by_mutations() throws Exception {
+        Server server = new Server(body -> {
+            String query = body.path("query").asText();
+            if (query.startsWith("mutation")) {
+                return "{\"data\":{\"enable\":{\"id\":\"42\",\"email\":\"ada@lovelace.org\"}}}";
+            }
+            return query.contains("findByEmail") ? "{\"data\":{\"findByEmail\":" + ADA + "}}" : "{\"data\":{\"findById\":" + ADA + "}}";
+        });
+        NormalizedCache cache = new NormalizedCache(entities(), 100);
+        GQLExecutor executor = new GQLExecutor(ENDPOINT, server).cache(cache);
+
+        executor.execute(new Query().findByEmail(args -> args.email("ada@example.com"), user -> user.id().email()));
+        executor.execute(findById("42", "id email"));
+        Assertions.assertEquals(2, server.requests.size());
+
+        GQLResponse<User> enabled = executor.execute(new Mutation().enable(args -> args.id("42").enable(true), user -> user.id().email()));
+        Assertions.assertEquals("ada@lovelace.org", enabled.getData().email);
+        Assertions.assertEquals(3, server.requests.size());
+
+        // Both cached queries see the mutation's result
+        Assertions.assertEquals("ada@lovelace.org", executor.<User>execute(findById("42", "id email")).getData().email);
+        Assertions.assertEquals("ada@lovelace.org", executor.<User>execute(
+                new Query().findByEmail(args -> args.email("ada@example.com"), user -> user.email())).getData().email);
+        Assertions.assertEquals(3, server.requests.size());
+
+        cache.evict("User", "42");
+        executor.execute(findById("42", "id email"));
+        Assertions.assertEquals(4, server.requests.size());
+    }
+
+    @Test
+    void responses_with_errors_are_not_stored_and_the_cache_is_bounded() throws Exception {
+        Server failing = new Server(body -> "{\"errors\":[{\"message\":\"hidden\"}],\"data\":{\"findById\":" + ADA + "}}");
+        NormalizedCache cache = new NormalizedCache(entities(), 4);
+        GQLExecutor executor = new GQLExecutor(ENDPOINT, failing).cache(cache);
+        Assertions.assertTrue(executor.execute(findById("42", "id")).hasErrors());
+        executor.execute(findById("42", "id"));
+        Assertions.assertEquals(2, failing.requests.size());
+        Assertions.assertEquals(0, cache.size());
+
+        Server server = new Server(body -> "{\"data\":{\"findById\":{\"id\":\"" + body.path("variables").path("id").asText() + "\"}}}");
+        GQLExecutor bounded = new GQLExecutor(ENDPOINT, server).cache(cache);
+        for (int id = 0; id < 4; id++) {
+            bounded.execute(findById(String.valueOf(id), "id"));
+        }
+        // Each query stores its result and its user
+        Assertions.assertEquals(4, cache.size());
+        Assertions.assertEquals(4, cache.getEvictions());
+        bounded.execute(findById("3", "id"));
+        Assertions.assertEquals(4, server.requests.size());
+        bounded.execute(findById("0", "id"));
+        Assertions.assertEquals(5, server.requests.size());
+
+        cache.clear();
+        Assertions.assertEquals(0, cache.size());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new NormalizedCache(entities(), 0));
+    }
+
+    @Test
+    void nested_and_abstract_objects_are_normalized_by_their_typename() throws Exception {
+        NormalizedCache.EntityTypes types = new NormalizedCache.EntityTypes()
+                .root(GQLFunctionType.Query, "findById:Node")
+                .type("User", "id", "friends:Connection")
+                .type("Connection", null, "nodes:User");
+        NormalizedCache cache = new NormalizedCache(types, 100);
+        Server server = new Server(body -> "{\"data\":{\"findById\":{\"__typename\":\"User\",\"id\":\"1\",\"friends\":{\"nodes\":["
+                + "{\"id\":\"2\",\"email\":\"bob@example.com\"}]}}}}");
+        // The codecs skip the fields the User class does not have
+        GQLExecutor executor = new GQLExecutor(ENDPOINT, server).cache(cache).codecs(Codecs.REGISTRY);
+
+        executor.execute(findById("1", "id"));
+        // The root result, user 1 and its friend user 2
+        Assertions.assertEquals(3, cache.size());
+        Assertions.assertEquals("1", executor.<User>execute(findById("1", "id")).getData().id);
+        Assertions.assertEquals(1, server.requests.size());
+
+        cache.evict("User", "2");
+        Assertions.assertEquals(2, cache.size());
+        cache.evict("User", "1");
+        executor.execute(findById("1", "id"));
+        Assertions.assertEquals(2, server.requests.size());
+    }
+
+    @Test
+    void generated_entity_types_come_from_id_fields() {
+        // The test schema has no ID fields
+        Assertions.assertNull(Schema.ENTITIES.getIdField("User"));
+        Assertions.assertEquals("id", entities().getIdField("User"));
+    }
+
+    private static GQLQuery findById(String id, String fields) {
+        return new Query().findById(args -> args.id(id), user -> {
+            for (String field : fields.split(" ")) {
+                switch (field) {
+                    case "id": user.id(); break;
+                    case "email": user.email(); break;
+                    case "gender": user.gender(); break;
+                    default: throw new IllegalArgumentException(field);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,138 @@
+package com.maimas.runtime;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maimas.generated.GeneratedGraphqlAPI;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+
+import static com.maimas.generated.GeneratedGraphqlAPI.GQLQuery;
+import static com.maimas.generated.GeneratedGraphqlAPI.GQLQuery.BodyFormat;
+import static com.maimas.generated.GeneratedGraphqlAPI.PreparedQuery;
+import static com.maimas.generated.GeneratedGraphqlAPI.Query;
+import static com.maimas.generated.GeneratedGraphqlAPI.Types.User;
+
+public class PersistedQueryTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String NOT_FOUND = "{\"errors\":[{\"message\":\"PersistedQueryNotFound\"}]}";
+
+    @Test
+    void persisted_body_carries_the_hash_instead_of_the_document() throws Exception {
+        GQLQuery query = findById();
+        JsonNode persisted = MAPPER.readTree(query.toBytes(BodyFormat.PERSISTED));
+
+        Assertions.assertFalse(persisted.has("query"));
+        Assertions.assertEquals("1", persisted.path("variables").path("id").asText());
+        Assertions.assertEquals(1, persisted.path("extensions").path("persistedQuery").path("version").asInt());
+        Assertions.assertEquals(query.getHash(), persisted.path("extensions").path("persistedQuery").path("sha256Hash").asText());
+        Assertions.assertEquals(sha256("query($id: String! ){ findById( id: $id ){ id email } }"), query.getHash());
+
+        JsonNode both = MAPPER.readTree(query.toBytes(BodyFormat.DOCUMENT_AND_HASH));
+        Assertions.assertEquals(MAPPER.readTree(query.toBytes()).path("query"), both.path("query"));
+        Assertions.assertEquals(query.getHash(), both.path("extensions").path("persistedQuery").path("sha256Hash").asText());
+        Assertions.assertFalse(MAPPER.readTree(query.toBytes()).has("extensions"));
+    }
+
+    @Test
+    void sendPersisted_sends_the_document_only_when_the_hash_is_unknown() throws Exception {
+        GQLQuery query = findById();
+
+        List<JsonNode> sent = new ArrayList<>();
+        String response = query.sendPersisted(body -> {
+            sent.add(readTree(body));
+            return sent.size() == 1 ? NOT_FOUND : "{\"data\":{}}";
+        }, GQLQuery::isPersistedQueryNotFound);
+        Assertions.assertEquals("{\"data\":{}}", response);
+        Assertions.assertEquals(2, sent.size());
+        Assertions.assertFalse(sent.get(0).has("query"));
+        Assertions.assertTrue(sent.get(1).has("query"));
+
+        sent.clear();
+        query.sendPersisted(body -> {
+            sent.add(readTree(body));
+            return "{\"data\":{}}";
+        }, GQLQuery::isPersistedQueryNotFound);
+        Assertions.assertEquals(1, sent.size());
+    }
+
+    @Test
+    void not_found_is_recognized_by_message_or_code() {
+        Assertions.assertTrue(GQLQuery.isPersistedQueryNotFound(NOT_FOUND));
+        Assertions.assertTrue(GQLQuery.isPersistedQueryNotFound(
+                "{\"errors\":[{\"message\":\"unknown\",\"extensions\":{\"code\":\"PERSISTED_QUERY_NOT_FOUND\"}}]}"));
+        Assertions.assertFalse(GQLQuery.isPersistedQueryNotFound("{\"errors\":[{\"message\":\"Validation error\"}]}"));
+        Assertions.assertFalse(GQLQuery.isPersistedQueryNotFound("{\"data\":{}}"));
+        Assertions.assertFalse(GQLQuery.isPersistedQueryNotFound("<html>"));
+    }
+
+    @Test
+    void get_parameters_are_url_encoded() throws Exception {
+        GQLQuery query = findById();
+
+        String persisted = query.toGetParameters(BodyFormat.PERSISTED);
+        Assertions.assertTrue(persisted.startsWith("variables="), persisted);
+        String[] parameters = persisted.split("&");
+        Assertions.assertEquals(2, parameters.length);
+        Assertions.assertEquals("{\"id\":\"1\"}", decode(parameters[0].substring("variables=".length())));
+        JsonNode extensions = MAPPER.readTree(decode(parameters[1].substring("extensions=".length())));
+        Assertions.assertEquals(query.getHash(), extensions.path("persistedQuery").path("sha256Hash").asText());
+
+        String document = query.toGetParameters(BodyFormat.DOCUMENT);
+        Assertions.assertEquals("query($id: String! ){ findById( id: $id ){ id email } }",
+                decode(document.substring("query=".length(), document.indexOf('&'))));
+        Assertions.assertFalse(document.contains("extensions="));
+
+        GQLQuery mutation = new GeneratedGraphqlAPI.Mutation().resetPassword(
+                input -> input.id("1").rawPassword(Optional.of("secret")), output -> output.id());
+        Assertions.assertThrows(IllegalStateException.class, () -> mutation.toGetParameters(BodyFormat.PERSISTED));
+    }
+
+    @Test
+    void generated_operation_matches_the_runtime_document() {
+        PreparedQuery<Query.FindByIdArgs, User> generated = new Query().prepareFindById();
+        PreparedQuery<Query.FindByIdArgs, User> built = new Query().prepareFindById(shape -> shape.id("1"),
+                output -> output.createdDate().dateOfBirth().email().enabled().firstName().gender().id()
+                        .lastName().modifiedDate().status());
+
+        Assertions.assertEquals(built.getDocument(), generated.getDocument());
+        Assertions.assertEquals(built.getHash(), generated.getHash());
+        Assertions.assertEquals(sha256(generated.getDocument()), generated.getHash());
+        Assertions.assertEquals(built.getVariables(), generated.getVariables());
+
+        GQLQuery bound = generated.bind(args -> args.id("42"));
+        Assertions.assertEquals(generated.getHash(), bound.getHash());
+        Assertions.assertArrayEquals(built.bind(args -> args.id("42")).toBytes(BodyFormat.PERSISTED), bound.toBytes(BodyFormat.PERSISTED));
+    }
+
+    private static GQLQuery findById() {
+        return new Query().findById(input -> input.id("1"), output -> output.id().email());
+    }
+
+    private static JsonNode readTree(byte[] body) {
+        try {
+            return MAPPER.readTree(body);
+        } catch (java.io.IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static String decode(String value) {
+        return URLDecoder.decode(value, StandardCharsets.UTF_8);
+    }
+
+    private static String sha256(String text) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.maimas.runtime;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.maimas.generated.GeneratedGraphqlAPI;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.maimas.generated.GeneratedGraphqlAPI.GQLQuery;
+import static com.maimas.generated.GeneratedGraphqlAPI.Mutation;
+import static com.maimas.generated.GeneratedGraphqlAPI.PreparedQuery;
+import static com.maimas.generated.GeneratedGraphqlAPI.Types.User;
+
+public class PreparedQueryTest {
+
+    @Test
+    void bound_query_matches_the_built_query() {
+        PreparedQuery<Mutation.ResetPasswordArgs, User> prepared = new Mutation().prepareResetPassword(
+                shape -> shape.id("1").rawPassword(Optional.of("sample")),
+                output -> output.id().firstName());
+
+        GQLQuery bound = prepared.bind(args -> args.id("1234124").rawPassword(Optional.of("secret")));
+        GQLQuery built = new Mutation().resetPassword(
+                input -> input.id("1234124").rawPassword(Optional.of("secret")),
+                output -> output.id().firstName());
+
+        Assertions.assertEquals(built.toString(), bound.toString());
+        Assertions.assertArrayEquals(built.toBytes(), bound.toBytes());
+        Assertions.assertEquals("resetPassword", bound.getName());
+        Assertions.assertSame(prepared.getReturnType(), bound.getReturnType());
+        Assertions.assertEquals(new TypeReference<User>() {
+        }.getType(), prepared.getReturnType().getType());
+        Assertions.assertEquals(Map.of("id", "String!", "rawPassword", "String"), prepared.getVariables());
+    }
+
+    @Test
+    void hash_is_the_sha256_of_the_document() throws Exception {
+        PreparedQuery<GeneratedGraphqlAPI.Query.FindByIdArgs, User> prepared = new GeneratedGraphqlAPI.Query().prepareFindById(
+                shape -> shape.id("1"), output -> output.id());
+
+        Assertions.assertEquals("query($id: String! ){ findById( id: $id ){ id } }", prepared.getDocument());
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(prepared.getDocument().getBytes(StandardCharsets.UTF_8));
+        Assertions.assertEquals(HexFormat.of().formatHex(digest), prepared.getHash());
+    }
+
+    @Test
+    void bind_rejects_arguments_of_another_shape() {
+        PreparedQuery<Mutation.ResetPasswordArgs, User> prepared = new Mutation().prepareResetPassword(
+                shape -> shape.id("1"), output -> output.id());
+
+        // Argument order does not matter, absent optionals are not variables
+        Assertions.assertDoesNotThrow(() -> prepared.bind(args -> args.rawPassword(Optional.empty()).id("2")));
+        IllegalArgumentException extra = Assertions.assertThrows(IllegalArgumentException.class,
+                () -> prepared.bind(args -> args.id("2").rawPassword(Optional.of("secret"))));
+        Assertions.assertTrue(extra.getMessage().contains("resetPassword"), extra.getMessage());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> prepared.bind(args -> args.rawPassword(Optional.of("secret"))));
+    }
+
+    @Test
+    void prepared_query_can_be_shared_between_threads() {
+        PreparedQuery<GeneratedGraphqlAPI.Query.FindByIdArgs, User> prepared = new GeneratedGraphqlAPI.Query().prepareFindById(
+                shape -> shape.id("0"), output -> output.id().email());
+
+        List<String> bodies = IntStream.range(0, 2_000).parallel()
+                .mapToObj(i -> new String(prepared.bind(args -> args.id("id-" + i)).toBytes(), StandardCharsets.UTF_8))
+                .collect(Collectors.toList());
+
+        for (int i = 0; i < bodies.size(); i++) {
+            Assertions.assertTrue(bodies.get(i).endsWith("\"variables\":{\"id\":\"id-" + i + "\"}}"), bodies.get(i));
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.maimas.runtime;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maimas.generated.GeneratedGraphqlAPI;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+import static com.maimas.generated.GeneratedGraphqlAPI.GQLQuery;
+
+public class QuerySerializationTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Test
+    void toBytes_writes_the_compact_body_of_toString() throws Exception {
+        GQLQuery query = resetPassword();
+        String compact = new String(query.toBytes(), StandardCharsets.UTF_8);
+
+        Assertions.assertEquals("{\"operationName\":null,"
+                + "\"query\":\"mutation($id: String!, $rawPassword: String ){ resetPassword( id: $id, rawPassword: $rawPassword ){ id firstName } }\","
+                + "\"variables\":{\"id\":\"1234124\",\"rawPassword\":\"secret\"}}", compact);
+        Assertions.assertEquals(MAPPER.readTree(query.toString()), MAPPER.readTree(compact));
+    }
+
+    @Test
+    void writeTo_stream_and_writer_match_toBytes() throws Exception {
+        GQLQuery query = resetPassword();
+        byte[] expected = query.toBytes();
+
+        ClosingTracker out = new ClosingTracker();
+        query.writeTo(out);
+        Assertions.assertArrayEquals(expected, out.toByteArray());
+        Assertions.assertFalse(out.closed, "writeTo must not close the target stream");
+
+        StringWriter writer = new StringWriter();
+        query.writeTo(writer);
+        Assertions.assertEquals(new String(expected, StandardCharsets.UTF_8), writer.toString());
+    }
+
+    @Test
+    void writeTo_buffer_writes_at_its_position() throws Exception {
+        GQLQuery query = resetPassword();
+        byte[] expected = query.toBytes();
+
+        ByteBuffer buffer = ByteBuffer.allocate(expected.length + 10);
+        buffer.put((byte) '#');
+        Assertions.assertEquals(expected.length, query.writeTo(buffer));
+        Assertions.assertEquals(expected.length + 1, buffer.position());
+
+        byte[] written = new byte[expected.length];
+        buffer.flip().position(1);
+        buffer.get(written);
+        Assertions.assertArrayEquals(expected, written);
+
+        Assertions.assertThrows(BufferOverflowException.class, () -> query.writeTo(ByteBuffer.allocate(16)));
+    }
+
+    private static GQLQuery resetPassword() {
+        return new GeneratedGraphqlAPI.Mutation().resetPassword(
+                input -> input.id("1234124").rawPassword(Optional.of("secret")),
+                output -> output.id().firstName());
+    }
+
+    private static class ClosingTracker extends ByteArrayOutputStream {
+        private boolean closed;
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.maimas.schema.processor;
+
+import com.maimas.graphql.schema.processor.OperationDocuments;
+import com.maimas.graphql.schema.processor.SchemaIndex;
+import com.maimas.graphql.schema.processor.SdlSchemaParser;
+import com.maimas.graphql.schema.processor.TypeResolver;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class OperationDocumentsTest {
+
+    private static final SchemaIndex INDEX = new SchemaIndex(SdlSchemaParser.parse(String.join("\n",
+            "type Query { user(id: ID!): User, search(text: String, limit: Int = 10): [SearchResult!]!, node(id: ID!): Node }",
+            "type Mutation { rename(id: ID!, input: NameInput!): User }",
+            "interface Node { id: ID! }",
+            "type User implements Node { id: ID!, name: String, role: Role, friends(first: Int): [User], class: String }",
+            "type Group implements Node { id: ID!, title: String, members: [User!] }",
+            "union SearchResult = User | Group",
+            "input NameInput { first: String, last: String }",
+            "enum Role { ADMIN, USER }")).getData().getSchema());
+
+    @Test
+    void document_is_printed_on_one_line_with_its_fragments() throws Exception {
+        List<OperationDocuments.Operation> operations = compile(String.join("\n",
+                "# Comments are dropped",
+                "query GetUser($id: ID!, $first: Int = 3) {",
+                "  user(id: $id) {",
+                "    ...Basics",
+                "    best: friends(first: $first) @include(if: true) { name }",
+                "  }",
+                "}",
+                "fragment Basics on User { id, name }",
+                "query GetNode { node(id: \"1\") { id ...Basics } }"));
+
+        OperationDocuments.Operation operation = operations.get(0);
+        Assertions.assertEquals("GetUser", operation.getClassName());
+        Assertions.assertEquals("Query", operation.getKind());
+        Assertions.assertEquals("query GetUser($id: ID!, $first: Int = 3) { user(id: $id) { ...Basics best: friends(first: $first)"
+                + " @include(if: true) { name } } } fragment Basics on User { id name }", operation.getDocument());
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(operation.getDocument().getBytes(StandardCharsets.UTF_8));
+        Assertions.assertEquals(HexFormat.of().formatHex(digest), operation.getHash());
+        Assertions.assertEquals("operations.graphql", operation.getSource());
+
+        Assertions.assertEquals("query GetNode { node(id: \"1\") { id ...Basics } } fragment Basics on User { id name }",
+                operations.get(1).getDocument());
+    }
+
+    @Test
+    void response_classes_follow_the_selection() {
+        OperationDocuments.Operation operation = compile(
+                "query GetUser($id: ID!) { user(id: $id) { ...Basics role best: friends { name } } } fragment Basics on User { id name }").get(0);
+
+        OperationDocuments.ResponseClass data = operation.getData();
+        Assertions.assertEquals("Data", data.getClassName());
+        Assertions.assertEquals("user:User", fields(data));
+        OperationDocuments.ResponseClass user = data.getClasses().get(0);
+        Assertions.assertEquals("User", user.getClassName());
+        Assertions.assertEquals("id:String, name:String, role:Types.Role, best:List<Best>", fields(user));
+        Assertions.assertEquals("name:String", fields(user.getClasses().get(0)));
+
+        OperationDocuments.Variable id = operation.getVariables().get(0);
+        Assertions.assertEquals(List.of("id", "String", "ID!"), List.of(id.getName(), id.getJavaType(), id.getGraphqlType()));
+    }
+
+    @Test
+    void fields_of_type_conditions_are_merged() {
+        OperationDocuments.Operation operation = compile(String.join("\n",
+                "query Search($text: String) {",
+                "  search(text: $text) {",
+                "    __typename",
+                "    ... on User { id name }",
+                "    ... on Group { id title members { name } }",
+                "  }",
+                "}")).get(0);
+
+        // "Search" is taken by the enclosing operation class
+        Assertions.assertEquals("search:List<Search_>", fields(operation.getData()));
+        OperationDocuments.ResponseClass search = operation.getData().getClasses().get(0);
+        Assertions.assertEquals("__typename:String, id:String, name:String, title:String, members:List<Members>", fields(search));
+        Assertions.assertEquals("String", operation.getVariables().get(0).getJavaType());
+    }
+
+    @Test
+    void mutation_variables_use_the_generated_input_types() {
+        OperationDocuments.Operation operation = compile(
+                "mutation Rename($id: ID!, $input: NameInput!) { rename(id: $id, input: $input) { id } }").get(0);
+
+        Assertions.assertEquals("Mutation", operation.getKind());
+        Assertions.assertEquals("Types.NameInput", operation.getVariables().get(1).getJavaType());
+        Assertions.assertEquals("NameInput!", operation.getVariables().get(1).getGraphqlType());
+    }
+
+    @Test
+    void validation_reports_every_error_with_its_location() {
+        IllegalArgumentException error = Assertions.assertThrows(IllegalArgumentException.class, () -> compile(String.join("\n",
+                "query Bad($unused: Int, $id: ID!) {",
+                "  user(id: $id) { nope }",
+                "  second: user { id }",
+                "  node(id: $missing) { id }",
+                "  third: user(id: $id) { role { id } }",
+                "  fourth: user(id: $id)",
+                "  fifth: user(id: $id) { class ...Nope }",
+                "}",
+                "fragment Lonely on Group { id }")));
+
+        String message = error.getMessage();
+        Assertions.assertTrue(message.contains("operations.graphql:2:19: type 'User' has no field 'nope'"), message);
+        Assertions.assertTrue(message.contains("field 'Query.user' requires argument 'id'"), message);
+        Assertions.assertTrue(message.contains("variable '$missing' is not declared"), message);
+        Assertions.assertTrue(message.contains("field 'role' of type 'Role' has no fields to select"), message);
+        Assertions.assertTrue(message.contains("field 'user' of type 'User' needs a selection of fields"), message);
+        Assertions.assertTrue(message.contains("'class' is a Java keyword"), message);
+        Assertions.assertTrue(message.contains("unknown fragment 'Nope'"), message);
+        Assertions.assertTrue(message.contains("variable '$unused' is never used"), message);
+        Assertions.assertTrue(message.contains("fragment 'Lonely' is never used"), message);
+    }
+
+    @Test
+    void conflicting_response_names_are_rejected() {
+        IllegalArgumentException error = Assertions.assertThrows(IllegalArgumentException.class, () -> compile(
+                "query Twice($id: ID!) { q: user(id: $id) { id } q: node(id: $id) { id } }"));
+        Assertions.assertTrue(error.getMessage().contains("use different aliases"), error.getMessage());
+    }
+
+    @Test
+    void syntax_errors_and_anonymous_operations_are_rejected() {
+        IllegalArgumentException syntax = Assertions.assertThrows(IllegalArgumentException.class, () -> compile("query Broken { user(id: ) { id } }"));
+        Assertions.assertTrue(syntax.getMessage().contains("operations.graphql: GraphQL syntax error at line 1"), syntax.getMessage());
+
+        IllegalArgumentException anonymous = Assertions.assertThrows(IllegalArgumentException.class, () -> compile("{ user(id: \"1\") { id } }"));
+        Assertions.assertTrue(anonymous.getMessage().contains("name the operation"), anonymous.getMessage());
+
+        IllegalArgumentException subscription = Assertions.assertThrows(IllegalArgumentException.class, () -> compile("subscription Updates { user { id } }"));
+        Assertions.assertTrue(subscription.getMessage().contains("not supported"), subscription.getMessage());
+    }
+
+    private static List<OperationDocuments.Operation> compile(String document) {
+        return new OperationDocuments(Map.of("operations.graphql", document), INDEX, new TypeResolver(Map.of()), "Types.",
+                Set.of("Api", "Operations")).getOperations();
+    }
+
+    private static String fields(OperationDocuments.ResponseClass responseClass) {
+        return responseClass.getFields().stream().map(field -> field.getName() + ":" + field.getJavaType()).collect(Collectors.joining(", "));
+    }
+}
@@ -1,6 +1,8 @@
 package com.maimas.schema.processor;
 
 import com.maimas.graphql.generator.UserConfig;
+import com.maimas.graphql.schema.processor.FetchedSchema;
+import com.maimas.graphql.schema.processor.SchemaCache;
 import com.maimas.graphql.schema.processor.SchemaFetcher;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
@@ -11,6 +13,8 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.net.InetSocketAddress;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.HashMap;
 
 import com.sun.net.httpserver.HttpExchange;
@@ -95,7 +99,160 @@ public class SchemaFetcherTest {
         Assertions.assertEquals("{\"data\":{}}", result);
     }
 
+    @Test
+    void download_with_cache_revalidates_with_etag() throws Exception {
+        final String body = "{\"data\":{\"v\":1}}";
+        ConditionalHandler handler = new ConditionalHandler("\"v1\"", body);
+        server.createContext("/graphql", handler);
+
+        UserConfig cfg = cacheConfig("etag");
+        String url = "http://localhost:" + port + "/graphql";
+
+        Assertions.assertEquals(body, SchemaFetcher.download(url, new HashMap<>(), cfg));
+        Assertions.assertEquals(body, SchemaFetcher.download(url, new HashMap<>(), cfg));
+
+        Assertions.assertEquals(2, handler.requests);
+        Assertions.assertEquals(1, handler.notModified);
+    }
+
+    @Test
+    void download_with_cache_within_ttl_makes_no_request() throws Exception {
+        final String body = "{\"data\":{\"v\":2}}";
+        ConditionalHandler handler = new ConditionalHandler(null, body);
+        server.createContext("/graphql", handler);
+
+        UserConfig cfg = cacheConfig("ttl");
+        cfg.setSchemaCacheTtlSeconds(3600);
+        String url = "http://localhost:" + port + "/graphql";
+
+        Assertions.assertEquals(body, SchemaFetcher.download(url, new HashMap<>(), cfg));
+        Assertions.assertEquals(body, SchemaFetcher.download(url, new HashMap<>(), cfg));
+        Assertions.assertEquals(1, handler.requests);
+
+        // A different header set is a different cache entry
+        HashMap<String, String> headers = new HashMap<>();
+        headers.put("Authorization", "Bearer other");
+        SchemaFetcher.download(url, headers, cfg);
+        Assertions.assertEquals(2, handler.requests);
+    }
+
+    @Test
+    void concurrent_stores_of_the_same_url_never_expose_a_torn_entry() throws Exception {
+        UserConfig cfg = cacheConfig("concurrent");
+        SchemaCache cache = SchemaCache.of(cfg, "http://localhost:" + port + "/graphql", new HashMap<>());
+        java.util.concurrent.ExecutorService pool = java.util.concurrent.Executors.newFixedThreadPool(4);
+        try {
+            java.util.List<java.util.concurrent.Future<?>> writers = new java.util.ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                int id = thread;
+                writers.add(pool.submit(() -> {
+                    for (int i = 0; i < 50; i++) {
+                        Path body = cache.newBodyFile();
+                        Files.writeString(body, "{\"data\":{\"v\":" + id + "}}");
+                        cache.store(body, "\"" + id + "-" + i + "\"", null);
+                    }
+                    return null;
+                }));
+            }
+            // The metadata is replaced as a whole: a reader never sees it without its ETag
+            while (writers.stream().anyMatch(writer -> !writer.isDone())) {
+                SchemaCache.Entry entry = cache.load();
+                Assertions.assertTrue(entry == null || entry.getEtag() != null, "Torn metadata");
+            }
+            for (java.util.concurrent.Future<?> writer : writers) {
+                writer.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        Assertions.assertNotNull(cache.load().getEtag());
+        try (java.util.stream.Stream<Path> files = Files.list(Path.of(cfg.getCacheDir(), "schema-cache"))) {
+            Assertions.assertTrue(files.noneMatch(file -> file.toString().endsWith(".tmp")), "Temp files left behind");
+        }
+    }
+
+    @Test
+    void fetch_parses_streamed_response_and_hashes_body() throws Exception {
+        final String body = "{\"extensions\":{\"cost\":[1,2]},\"data\":{\"__schema\":{\"types\":[{\"kind\":\"SCALAR\",\"name\":\"String\"}]}}}\n";
+        ConditionalHandler handler = new ConditionalHandler("\"v1\"", body);
+        server.createContext("/graphql", handler);
+
+        UserConfig cfg = cacheConfig("stream");
+        String url = "http://localhost:" + port + "/graphql";
+
+        FetchedSchema fetched = SchemaFetcher.fetch(url, new HashMap<>(), cfg);
+        Assertions.assertEquals("String", fetched.getModel().getData().getSchema().getTypes().get(0).getName());
+        Assertions.assertEquals(body.getBytes(StandardCharsets.UTF_8).length, fetched.getSize());
+        Assertions.assertEquals(sha256(body), fetched.getSha256());
+
+        // The body was teed to the cache while parsing: the revalidated copy is identical
+        FetchedSchema revalidated = SchemaFetcher.fetch(url, new HashMap<>(), cfg);
+        Assertions.assertEquals(1, handler.notModified);
+        Assertions.assertEquals(fetched.getSha256(), revalidated.getSha256());
+    }
+
+    @Test
+    void fetch_200_with_errors_after_data_throws() throws Exception {
+        final String body = "{\"data\":null,\"errors\":[{\"message\":\"Not authorized\"}]}";
+        server.createContext("/graphql", new FixedResponseHandler(200, body));
+
+        UserConfig cfg = cacheConfig("errors");
+        RuntimeException ex = Assertions.assertThrows(RuntimeException.class, () ->
+                SchemaFetcher.fetch("http://localhost:" + port + "/graphql", new HashMap<>(), cfg)
+        );
+        Assertions.assertTrue(ex.getMessage().contains("Not authorized"));
+        // Nothing is cached for a failed response
+        try (var files = java.nio.file.Files.list(java.nio.file.Path.of(cfg.getCacheDir(), "schema-cache"))) {
+            Assertions.assertEquals(0, files.count());
+        }
+    }
+
+    private static String sha256(String s) throws Exception {
+        byte[] hash = java.security.MessageDigest.getInstance("SHA-256").digest(s.getBytes(StandardCharsets.UTF_8));
+        return java.util.HexFormat.of().formatHex(hash);
+    }
+
+    private static UserConfig cacheConfig(String name) throws IOException {
+        java.nio.file.Path dir = java.nio.file.Path.of("target", "test-cache", name);
+        if (java.nio.file.Files.exists(dir)) {
+            try (var files = java.nio.file.Files.walk(dir)) {
+                files.sorted(java.util.Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+        }
+        UserConfig cfg = new UserConfig();
+        cfg.setConnectTimeoutMs(2000);
+        cfg.setSocketTimeoutMs(2000);
+        cfg.setMaxRetries(0);
+        cfg.setRetryBackoffMs(0);
+        cfg.setSchemaCache(true);
+        cfg.setCacheDir(dir.toString());
+        return cfg;
+    }
+
     // Helpers
+    static class ConditionalHandler implements HttpHandler {
+        private final String etag;
+        private final String body;
+        int requests;
+        int notModified;
+        ConditionalHandler(String etag, String body) {
+            this.etag = etag;
+            this.body = body;
+        }
+        @Override public void handle(HttpExchange exchange) throws IOException {
+            requests++;
+            exchange.getRequestBody().readAllBytes();
+            if (etag != null && etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                notModified++;
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            if (etag != null) exchange.getResponseHeaders().add("ETag", etag);
+            new FixedResponseHandler(200, body).handle(exchange);
+        }
+    }
+
     static class FixedResponseHandler implements HttpHandler {
         private final int status;
         private final String body;
@@ -0,0 +1,55 @@
+package com.maimas.schema.processor;
+
+import com.maimas.graphql.schema.model.Type;
+import com.maimas.graphql.schema.processor.SchemaIndex;
+import com.maimas.graphql.schema.processor.SdlSchemaParser;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class SchemaIndexTest {
+
+    private static final String SDL = String.join("\n",
+            "schema { query: RootQuery, mutation: RootMutation }",
+            "type RootQuery { user(id: ID!): User, search(filter: SearchFilter): [SearchResult] }",
+            "type RootMutation { rename(id: ID!, name: String!): User }",
+            "type User { id: ID!, role: Role, friends: [User!]! }",
+            "type Group { id: ID! }",
+            "union SearchResult = User | Group",
+            "input SearchFilter { text: String, tags: [Tag!] }",
+            "input Tag { name: String! }",
+            "enum Role { ADMIN, USER }",
+            "scalar Date",
+            "type Orphan { at: Date }");
+
+    @Test
+    void index_buckets_types_in_schema_order() {
+        SchemaIndex index = new SchemaIndex(SdlSchemaParser.parse(SDL).getData().getSchema());
+
+        Assertions.assertEquals(List.of("RootQuery", "RootMutation"), names(index.getOperations()));
+        Assertions.assertEquals("Query", index.getOperationKinds().get("RootQuery"));
+        Assertions.assertEquals("Mutation", index.getOperationKinds().get("RootMutation"));
+        Assertions.assertEquals(List.of("User", "Group", "Orphan"), names(index.getObjects()));
+        Assertions.assertEquals(List.of("SearchFilter", "Tag"), names(index.getInputs()));
+        Assertions.assertEquals(List.of("Role"), names(index.getEnums()));
+        Assertions.assertEquals(List.of("Role", "Date", "String", "Int", "Float", "Boolean", "ID"), names(index.getLeafTypes()));
+        Assertions.assertSame(index.getTypesByName().get("User"), index.getType("User"));
+    }
+
+    @Test
+    void index_computes_types_reachable_from_roots() {
+        SchemaIndex index = new SchemaIndex(SdlSchemaParser.parse(SDL).getData().getSchema());
+
+        for (String name : new String[]{"RootQuery", "RootMutation", "User", "Role", "SearchResult", "Group", "SearchFilter", "Tag", "ID", "String"}) {
+            Assertions.assertTrue(index.isReachable(name), name);
+        }
+        Assertions.assertFalse(index.isReachable("Orphan"));
+        Assertions.assertFalse(index.isReachable("Date"));
+    }
+
+    private static List<String> names(List<Type> types) {
+        return types.stream().map(Type::getName).collect(Collectors.toList());
+    }
+}
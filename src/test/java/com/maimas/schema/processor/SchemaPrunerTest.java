@@ -0,0 +1,98 @@
+package com.maimas.schema.processor;
+
+import com.maimas.graphql.generator.UserConfig;
+import com.maimas.graphql.schema.model.Field;
+import com.maimas.graphql.schema.model.Schema;
+import com.maimas.graphql.schema.model.Type;
+import com.maimas.graphql.schema.processor.SchemaIndex;
+import com.maimas.graphql.schema.processor.SchemaPruner;
+import com.maimas.graphql.schema.processor.SdlSchemaParser;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class SchemaPrunerTest {
+
+    private static final String SDL = String.join("\n",
+            "type Query { user(id: ID!): User, group(id: ID!): Group, audit(filter: AuditFilter): [AuditEntry] }",
+            "type Mutation { rename(id: ID!, name: String!): User }",
+            "type User { id: ID!, name: String @deprecated, role: Role, group: Group, secret: Secret }",
+            "type Group { id: ID!, members: [User] }",
+            "type Secret { value: String }",
+            "type AuditEntry { at: Date }",
+            "input AuditFilter { since: Date }",
+            "enum Role { ADMIN, USER, GUEST @deprecated }",
+            "scalar Date");
+
+    @Test
+    void prune_keeps_only_types_reachable_from_included_operations() {
+        UserConfig cfg = new UserConfig();
+        cfg.setIncludeOperations(new String[]{"user", "Mutation.rename"});
+        cfg.setExcludeTypes(new String[]{"Secret"});
+
+        Schema schema = SdlSchemaParser.parse(SDL).getData().getSchema();
+        SchemaIndex index = new SchemaIndex(new SchemaPruner(cfg).prune(schema));
+
+        Assertions.assertEquals(List.of("user"), fieldNames(index.getType("Query").getFields()));
+        Assertions.assertEquals(List.of("rename"), fieldNames(index.getType("Mutation").getFields()));
+        Assertions.assertEquals(List.of("User", "Group"), typeNames(index.getObjects()));
+        Assertions.assertEquals(List.of("id", "name", "role", "group"), fieldNames(index.getType("User").getFields()));
+        Assertions.assertNull(index.getType("AuditFilter"));
+        Assertions.assertNull(index.getType("Date"));
+        // The source schema is not modified
+        Assertions.assertEquals(3, new SchemaIndex(schema).getType("Query").getFields().size());
+    }
+
+    @Test
+    void prune_drops_excluded_operations_and_deprecated_members() {
+        UserConfig cfg = new UserConfig();
+        cfg.setExcludeOperations(new String[]{"audit", "rename"});
+        cfg.setExcludeDeprecated(true);
+
+        SchemaIndex index = new SchemaIndex(new SchemaPruner(cfg).prune(SdlSchemaParser.parse(SDL).getData().getSchema()));
+
+        Assertions.assertEquals(List.of("Query"), typeNames(index.getOperations()));
+        Assertions.assertEquals(List.of("user", "group"), fieldNames(index.getType("Query").getFields()));
+        Assertions.assertEquals(List.of("id", "role", "group", "secret"), fieldNames(index.getType("User").getFields()));
+        Assertions.assertEquals(2, index.getType("Role").getEnumValues().size());
+        Assertions.assertNull(index.getType("AuditEntry"));
+    }
+
+    @Test
+    void input_types_requiring_an_excluded_type_are_excluded_with_their_operations() {
+        UserConfig cfg = new UserConfig();
+        cfg.setExcludeTypes(new String[]{"SecretRef"});
+
+        SchemaIndex index = new SchemaIndex(new SchemaPruner(cfg).prune(SdlSchemaParser.parse(String.join("\n",
+                "type Query { search(filter: UserFilter): [User], byGroup(group: GroupRef!): [User] }",
+                "type Mutation { create(input: CreateUser!): User, rename(id: ID!, name: String!): User }",
+                "type User { id: ID!, name: String }",
+                "input CreateUser { name: String!, group: GroupRef! }",
+                "input GroupRef { id: ID!, secret: SecretRef! }",
+                "input SecretRef { value: String }",
+                "input UserFilter { name: String, secret: SecretRef, group: GroupRef }")).getData().getSchema()));
+
+        // GroupRef cannot be sent without its secret, and CreateUser without its group
+        Assertions.assertNull(index.getType("GroupRef"));
+        Assertions.assertNull(index.getType("CreateUser"));
+        Assertions.assertEquals(List.of("search"), fieldNames(index.getType("Query").getFields()));
+        Assertions.assertEquals(List.of("rename"), fieldNames(index.getType("Mutation").getFields()));
+        // Optional input fields of an excluded type are dropped alone
+        Assertions.assertEquals(List.of("name"), fieldNames(index.getType("UserFilter").getInputFields()));
+    }
+
+    @Test
+    void pruner_is_inactive_without_options() {
+        Assertions.assertFalse(new SchemaPruner(new UserConfig()).isActive());
+    }
+
+    private static List<String> fieldNames(List<Field> fields) {
+        return fields.stream().map(Field::getName).collect(Collectors.toList());
+    }
+
+    private static List<String> typeNames(List<Type> types) {
+        return types.stream().map(Type::getName).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,104 @@
+package com.maimas.schema.processor;
+
+import com.maimas.graphql.schema.model.Field;
+import com.maimas.graphql.schema.model.Schema;
+import com.maimas.graphql.schema.model.Type;
+import com.maimas.graphql.schema.model.enums.KindType;
+import com.maimas.graphql.schema.processor.SdlSchemaParser;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class SdlSchemaParserTest {
+
+    private static final String SDL = String.join("\n",
+            "schema { query: RootQuery }",
+            "\"\"\"",
+            "  A node with an id.",
+            "\"\"\"",
+            "interface Node { id: ID! }",
+            "type User implements Node & Named @key(fields: \"id\") {",
+            "  id: ID!",
+            "  \"The display name\"",
+            "  name: String",
+            "  legacyName: String @deprecated(reason: \"Use name\")",
+            "  friends(first: Int = 10, filter: UserFilter = {active: true, tags: [\"a\", \"b\"]}): [User!]!",
+            "}",
+            "interface Named { name: String }",
+            "union SearchResult = | User | Group",
+            "type Group { id: ID!, members: [User] }",
+            "input UserFilter { active: Boolean = true, tags: [String!] }",
+            "enum Role { ADMIN, USER @deprecated }",
+            "type RootQuery { user(id: ID!): User  search(text: String!): [SearchResult] }",
+            "extend type RootQuery { role: Role }",
+            "directive @key(fields: String!) repeatable on OBJECT | INTERFACE",
+            "# trailing comment");
+
+    @Test
+    void parse_builds_introspection_model() {
+        Schema schema = SdlSchemaParser.parse(SDL).getData().getSchema();
+
+        Assertions.assertEquals("RootQuery", schema.getQueryType().getName());
+        Assertions.assertNull(schema.getMutationType());
+
+        Type user = type(schema, "User");
+        Assertions.assertEquals(KindType.OBJECT, user.getKind());
+        Assertions.assertEquals(2, user.getInterfaces().size());
+
+        Field id = field(user, "id");
+        Assertions.assertEquals("NON_NULL", id.getType().getKind());
+        Assertions.assertEquals("SCALAR", id.getType().getOfType().getKind());
+        Assertions.assertEquals("ID", id.getType().getOfType().getName());
+        Assertions.assertEquals("The display name", field(user, "name").getDescription());
+        Assertions.assertTrue(field(user, "legacyName").isDeprecated());
+        Assertions.assertEquals("Use name", field(user, "legacyName").getDeprecationReason());
+
+        Field friends = field(user, "friends");
+        Assertions.assertEquals("NON_NULL", friends.getType().getKind());
+        Assertions.assertEquals("LIST", friends.getType().getOfType().getKind());
+        Assertions.assertEquals("OBJECT", friends.getType().getOfType().getOfType().getOfType().getKind());
+        Assertions.assertEquals("10", friends.getArgs().get(0).getDefaultValue());
+        Assertions.assertEquals("{active: true, tags: [\"a\", \"b\"]}", friends.getArgs().get(1).getDefaultValue());
+        Assertions.assertEquals("INPUT_OBJECT", friends.getArgs().get(1).getType().getKind());
+
+        Assertions.assertEquals("A node with an id.", type(schema, "Node").getDescription());
+        Assertions.assertEquals(KindType.INTERFACE, type(schema, "Node").getKind());
+        Assertions.assertEquals(KindType.UNION, type(schema, "SearchResult").getKind());
+        Assertions.assertEquals(2, type(schema, "SearchResult").getPossibleTypes().size());
+        Assertions.assertEquals("true", field(type(schema, "UserFilter"), "active").getDefaultValue());
+
+        Type role = type(schema, "Role");
+        Assertions.assertEquals(2, role.getEnumValues().size());
+        Assertions.assertTrue(role.getEnumValues().get(1).isDeprecated());
+
+        // extension merged into the existing type
+        Assertions.assertEquals(3, type(schema, "RootQuery").getFields().size());
+        // built-in scalars are always present
+        Assertions.assertEquals(KindType.SCALAR, type(schema, "Boolean").getKind());
+        Assertions.assertEquals("key", schema.getDirectives().get(0).getName());
+    }
+
+    @Test
+    void parse_reports_position_of_syntax_errors() {
+        IllegalArgumentException ex = Assertions.assertThrows(IllegalArgumentException.class,
+                () -> SdlSchemaParser.parse("type Query {\n  user(id: ID!: User\n}"));
+        Assertions.assertTrue(ex.getMessage().contains("line 2"), ex.getMessage());
+    }
+
+    @Test
+    void parse_rejects_unknown_types() {
+        IllegalArgumentException ex = Assertions.assertThrows(IllegalArgumentException.class,
+                () -> SdlSchemaParser.parse("type Query { user: Missing }"));
+        Assertions.assertTrue(ex.getMessage().contains("Missing"));
+    }
+
+    private static Type type(Schema schema, String name) {
+        return schema.getTypes().stream().filter(t -> name.equals(t.getName())).findFirst()
+                .orElseThrow(() -> new AssertionError("Type not found: " + name));
+    }
+
+    private static Field field(Type type, String name) {
+        java.util.List<Field> fields = type.getFields() != null ? type.getFields() : type.getInputFields();
+        return fields.stream().filter(f -> name.equals(f.getName())).findFirst()
+                .orElseThrow(() -> new AssertionError("Field not found: " + name));
+    }
+}
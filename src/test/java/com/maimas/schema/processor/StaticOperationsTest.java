@@ -0,0 +1,70 @@
+package com.maimas.schema.processor;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maimas.graphql.schema.processor.SchemaIndex;
+import com.maimas.graphql.schema.processor.SdlSchemaParser;
+import com.maimas.graphql.schema.processor.StaticOperations;
+import com.maimas.graphql.schema.processor.TypeResolver;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+public class StaticOperationsTest {
+
+    private static final String SDL = String.join("\n",
+            "type Query { user(id: ID!, locale: String): User, users(ids: [ID!]!): [User], count: Int, role(id: ID!): Role }",
+            "type Mutation { rename(id: ID!, input: NameInput!): User }",
+            "type User { id: ID!, name: String, role: Role, friends: [User] }",
+            "input NameInput { first: String }",
+            "enum Role { ADMIN, USER }");
+
+    @TempDir
+    Path tmp;
+
+    @Test
+    void documents_use_required_arguments_and_leaf_fields() throws Exception {
+        Map<String, StaticOperations.Operation> operations = operations().getOperations();
+
+        Assertions.assertEquals(List.of("Query.user", "Mutation.rename"), List.copyOf(operations.keySet()));
+        StaticOperations.Operation user = operations.get("Query.user");
+        Assertions.assertEquals("query", user.getKind());
+        Assertions.assertEquals("query($id: String! ){ user( id: $id ){ id name role } }", user.getDocument());
+        Assertions.assertEquals("id name role ", user.getSelection());
+        Assertions.assertEquals(Map.of("id", "String!"), user.getVariables());
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(user.getDocument().getBytes(StandardCharsets.UTF_8));
+        Assertions.assertEquals(HexFormat.of().formatHex(digest), user.getHash());
+
+        Assertions.assertEquals("mutation($id: String!, $input: NameInput! ){ rename( id: $id, input: $input ){ id name role } }",
+                operations.get("Mutation.rename").getDocument());
+    }
+
+    @Test
+    void manifest_lists_every_operation() throws Exception {
+        StaticOperations operations = operations();
+        Path file = tmp.resolve("operations").resolve("manifest.json");
+        operations.writeManifest(file);
+
+        JsonNode manifest = new ObjectMapper().readTree(file.toFile());
+        Assertions.assertEquals("apollo-persisted-query-manifest", manifest.get("format").asText());
+        Assertions.assertEquals(2, manifest.get("operations").size());
+        JsonNode first = manifest.get("operations").get(0);
+        StaticOperations.Operation user = operations.getOperations().get("Query.user");
+        Assertions.assertEquals(user.getHash(), first.get("id").asText());
+        Assertions.assertEquals("user", first.get("name").asText());
+        Assertions.assertEquals("query", first.get("type").asText());
+        Assertions.assertEquals(user.getDocument(), first.get("body").asText());
+    }
+
+    private static StaticOperations operations() {
+        SchemaIndex index = new SchemaIndex(SdlSchemaParser.parse(SDL).getData().getSchema());
+        return new StaticOperations(index, new TypeResolver(Map.of()));
+    }
+}
@@ -0,0 +1,71 @@
+package com.maimas.schema.processor;
+
+import com.maimas.graphql.schema.processor.TemplateConfig;
+import com.maimas.graphql.schema.processor.TemplateEngineCache;
+import com.maimas.graphql.schema.processor.TemplateRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class TemplateEngineCacheTest {
+
+    @Test
+    void engine_and_parsed_templates_are_shared_across_threads() throws Exception {
+        TemplateEngineCache.clear();
+        TemplateConfig java = TemplateRegistry.getTemplateConfig("Java");
+        String templatePath = (String) java.getProperty("templatePath");
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<TemplateEngineCache.Engine>> engines = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                engines.add(pool.submit(() -> TemplateEngineCache.get(java)));
+            }
+            TemplateEngineCache.Engine first = engines.get(0).get();
+            for (Future<TemplateEngineCache.Engine> engine : engines) {
+                Assertions.assertSame(first, engine.get());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        Assertions.assertEquals(1, TemplateEngineCache.getMisses());
+        Assertions.assertEquals(15, TemplateEngineCache.getHits());
+
+        TemplateEngineCache.Engine engine = TemplateEngineCache.get(java);
+        Assertions.assertSame(engine.getTemplate(templatePath), engine.getTemplate(templatePath));
+        Assertions.assertSame(engine.getBuildersContent(), engine.getBuildersContent());
+        Assertions.assertTrue(engine.getBuildersContent().contains("class GQLQuery"));
+    }
+
+    @Test
+    void content_hash_covers_every_entry_template() throws Exception {
+        TemplateConfig java = TemplateRegistry.getTemplateConfig("Java");
+        String hash = TemplateEngineCache.get(java).getContentHash(java);
+        Assertions.assertEquals(64, hash.length());
+        Assertions.assertEquals(hash, TemplateEngineCache.get(java).getContentHash(java));
+
+        // Every entry template, with the templates it includes, is part of the hash
+        TemplateConfig unitOnly = new TemplateConfig("Java", "content-hash-test")
+                .setProperty("templatePath", "java/Java_GQL_unit_template.ftl");
+        TemplateConfig withRuntime = new TemplateConfig("Java", "content-hash-test-runtime")
+                .setProperty("templatePath", "java/Java_GQL_unit_template.ftl")
+                .setProperty("runtimeTemplatePath", "java/Java_GQL_runtime_template.ftl");
+        Assertions.assertNotEquals(TemplateEngineCache.get(unitOnly).getContentHash(unitOnly),
+                TemplateEngineCache.get(withRuntime).getContentHash(withRuntime));
+    }
+
+    @Test
+    void re_registering_a_template_set_invalidates_its_engine() {
+        TemplateConfig java = TemplateRegistry.getTemplateConfig("Java");
+        TemplateEngineCache.Engine before = TemplateEngineCache.get(java);
+
+        TemplateRegistry.registerTemplate(java);
+
+        Assertions.assertNotSame(before, TemplateEngineCache.get(java));
+    }
+}
@@ -0,0 +1,61 @@
+package com.maimas.schema.processor;
+
+import com.maimas.graphql.schema.model.FieldType;
+import com.maimas.graphql.schema.processor.TypeResolver;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+public class TypeResolverTest {
+
+    @Test
+    void resolve_unwraps_non_null_and_lists() {
+        TypeResolver resolver = new TypeResolver(Map.of("Int", "Integer"));
+
+        Assertions.assertEquals("List<Types.User>", resolver.resolve(nonNull(list(nonNull(named("OBJECT", "User")))), "Types."));
+        Assertions.assertEquals("Integer", resolver.resolve(nonNull(named("SCALAR", "Int")), "Types."));
+        Assertions.assertEquals("String", resolver.resolve(named("SCALAR", "ID"), "Types."));
+        Assertions.assertEquals("Object", resolver.resolve(null, ""));
+    }
+
+    @Test
+    void resolve_matches_scalar_mappings_ignoring_case() {
+        TypeResolver resolver = new TypeResolver(Map.of("BigDecimal", "java.math.BigDecimal", "bigdecimal", "Exact"));
+
+        Assertions.assertEquals("Exact", resolver.resolve(named("SCALAR", "bigdecimal"), ""));
+        Assertions.assertEquals("java.math.BigDecimal", resolver.resolve(named("SCALAR", "BIGDECIMAL"), ""));
+        Assertions.assertEquals("Types.Money", resolver.resolve(named("SCALAR", "Money"), "Types."));
+    }
+
+    @Test
+    void resolve_memoizes_per_shape_and_prefix() {
+        TypeResolver resolver = new TypeResolver(Map.of());
+
+        String first = resolver.resolve(list(named("OBJECT", "User")), "Types.");
+        Assertions.assertSame(first, resolver.resolve(list(named("OBJECT", "User")), "Types."));
+        Assertions.assertEquals("List<User>", resolver.resolve(list(named("OBJECT", "User")), ""));
+    }
+
+    private static FieldType named(String kind, String name) {
+        FieldType type = new FieldType();
+        type.setKind(kind);
+        type.setName(name);
+        return type;
+    }
+
+    private static FieldType nonNull(FieldType ofType) {
+        return wrapper("NON_NULL", ofType);
+    }
+
+    private static FieldType list(FieldType ofType) {
+        return wrapper("LIST", ofType);
+    }
+
+    private static FieldType wrapper(String kind, FieldType ofType) {
+        FieldType type = new FieldType();
+        type.setKind(kind);
+        type.setOfType(ofType);
+        return type;
+    }
+}
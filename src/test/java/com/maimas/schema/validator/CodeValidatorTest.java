@@ -3,6 +3,10 @@ package com.maimas.schema.validator;
 import com.maimas.graphql.schema.processor.CodeValidator;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 public class CodeValidatorTest {
 
@@ -29,4 +33,41 @@ public class CodeValidatorTest {
         String code = "package com.example;\npublic class Bad { int a = 5 }"; // missing semicolon
         Assertions.assertFalse(CodeValidator.validate(code));
     }
+
+    @Test
+    void validate_reader_reports_same_result_as_string() throws Exception {
+        String code = "package com.example;\r\npublic class Bad {\r\n    int a = 5\r\n}\r\n";
+        Assertions.assertFalse(CodeValidator.validate(new java.io.StringReader(code), null, null, "Java"));
+        Assertions.assertTrue(CodeValidator.validate(new java.io.StringReader(code), null, new String[]{"SEMICOLON_TERMINATION"}, "Java"));
+    }
+
+    @Test
+    void validate_ignores_delimiters_in_strings_comments_and_text_blocks() {
+        String code = "package com.example;\n\n"
+                + "// a } in a comment\n"
+                + "public class Ok {\n"
+                + "    /* { ( */\n"
+                + "    private String open = \"{ (\";\n"
+                + "    private char close = '}';\n"
+                + "    private String block = \"\"\"\n"
+                + "        { \"quoted\" int x = 1\n"
+                + "        \"\"\";\n"
+                + "    private String chained = open\n"
+                + "            .trim()\n"
+                + "            + close;\n"
+                + "}\n";
+        Assertions.assertTrue(CodeValidator.validate(code));
+    }
+
+    @Test
+    void validate_reports_line_and_column(@TempDir Path dir) throws Exception {
+        Path report = dir.resolve("errors.txt");
+        String code = "package com.example;\npublic class Bad {\n    int a = 5\n    int b = 6;\n}\n";
+        Assertions.assertFalse(CodeValidator.validate(code, report.toString()));
+        Assertions.assertTrue(Files.readString(report).contains("Missing semicolon at line 3, column 14: int a = 5"));
+
+        String braces = "package com.example;\npublic class Bad {\n    void m() {\n}\n";
+        Assertions.assertFalse(CodeValidator.validate(braces, report.toString()));
+        Assertions.assertTrue(Files.readString(report).contains("first unmatched brace at line 2, column 18"));
+    }
 }